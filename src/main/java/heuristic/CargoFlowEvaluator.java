@@ -0,0 +1,921 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.chocosolver.solver.constraints.extension.Tuples;
+
+import instance.Instance;
+import instance.InstanceIndex;
+import instance.VesselType;
+import model_v0.AuxiliaryFunctions;
+import model_v0.InstanceDerivedData;
+import model_v0.InstancePreprocessor;
+
+public class CargoFlowEvaluator {
+
+	/** This class allows to compute, without CHOCO, the best acceptance and routing of the commodities on a network whose rotations are
+	 *  fixed (v_r, s_rp and speed_rp). The rules are those of the model: the load of a vessel on a leg cannot exceed its capacity (L.6) and
+	 *  it must leave each port loaded (L.8), the operation time at a port depends on the TEU loaded and unloaded there (T.1) and must be
+	 *  positive (T.2), a rotation lasts at most hmax and needs the number of vessels given by W.1 within the available vessels (W.2),
+	 *  every visited port is used by an accepted commodity (CR.3), a commodity visits a port or a rotation at most once (C.9 and C.11),
+	 *  is transshipped at most tsmax times, and its transit time is computed as in TT.1 to TT.7. As in C.13, a commodity is never unloaded
+	 *  from its (tsmax+1)th rotation: it stays on board all along the circuit, which does not have to call at its destination port (if
+	 *  tsmax is 0, the commodities are only carried by direct routes, from their origin port to their destination port). As in
+	 *  L.4, an accepted commodity may also stay on board all along a circuit on which it is neither loaded nor unloaded, which fills the
+	 *  empty legs of that circuit. The legs, the commodities and the transshipment ports removed by the InstancePreprocessor of the model
+	 *  are removed here too. The objective is computed as by ObjectiveFunction. The exact mode is a branch and bound over the commodities,
+	 *  by decreasing value, bounded by the values of the commodities not decided yet and stopped after a number of nodes (the routing found
+	 *  is then not proved to be the best one); the heuristic mode inserts the commodities greedily, then carries commodities at the ports
+	 *  which are still unused. An evaluator is not thread-safe: each thread must use its own. */
+
+	private static final int WEEK = 168;					//the duration of a week in hours
+	private static final long DEFAULT_NODE_LIMIT = 20000;	//the default maximal number of nodes of the branch and bound
+
+	private final InstanceIndex index;						//the indexed view of the instance
+	private final int tsmax;								//the maximal number of transshipments
+	private final int hmax;									//the maximal number of hours that a rotation may last
+	private final int ratioMu;								//the ratio which allows us to convert the number of TEU to the number of containers (x100)
+	private final int nbPorts;								//the number of ports
+	private final int nbInfra;								//the number of ports + 2*canals
+	private final int nbCommodities;						//the number of commodities
+	private final int nbCommoditiesWithTt;					//the number of commodities with a transit time (they come first)
+	private final int[] pol;								//origin ports of commodity
+	private final int[] pod;								//destination ports of commodity
+	private final int[] quantity;							//quantity of commodities
+	private final int[] rev;								//revenue per TEU of commodities
+	private final int[] transitTime;						//the maximal transit time of commodities
+	private final int[] capacity;							//the maximal capacity of each vessel type
+	private final int[] realCapacity;						//the real capacity of each vessel type
+	private final int[] rate;								//the time charter rate of each vessel type
+	private final int[] available;							//the number of vessels of each type
+	private final int[] fuelCost;							//the fuel cost of each vessel type
+	private final int[] minSpeed;							//the minimal speed of each vessel type
+	private final int[][] consumptions;						//the fuel consumption of each vessel type at each of its speeds
+	private final int[] nbVesselsByTime;					//the number of vessels deployed for each total time (W.1)
+	private final InstancePreprocessor preprocessor;		//the combinations of the instance which cannot appear in any solution of the model
+
+	//the network being evaluated, its rotations being indexed by u
+	private int nbUsed;										//the number of used rotations
+	private int[] rotationOf;								//the index in the plan of used rotation u
+	private int[] vesselOf;									//the vessel type (from 0) of used rotation u
+	private int[][] circuit;								//the ports/canals of used rotation u, from its starting port (T.5)
+	private int[][] position;								//the position of port/canal p in used rotation u, -1 if it is not visited
+	private int[][] legTimes;								//the manoeuvring, sailing and waiting times from position i to i + 1
+	private int[][] productivity;							//the productivity (x100) at position i, 0 for the canals
+	private long fixedCost;									//the call costs and the fuel costs of the rotations (O.1 and O.2)
+	private List<List<Route>> routes;						//the possible routes of each commodity
+
+	//the cargo being assigned
+	private int[][] load;									//the load of the vessel leaving position i of used rotation u
+	private int[][] teu;									//the TEU loaded or unloaded at position i of used rotation u
+	private int[][] operation;								//the operation time at position i of used rotation u
+	private int[][] timeIn;									//the time the vessel reaches position i of used rotation u (position m is T_r)
+	private int[] vessels;									//the number of vessels of used rotation u, -1 if it lasts more than hmax
+	private int[] vesselsUsed;								//the number of vessels used for each vessel type
+	private int[] portUse;									//the number of accepted commodities which use port p
+	private Route[] accepted;								//the route of each commodity, null if it is rejected
+	private List<Integer> acceptedWithTt;					//the accepted commodities whose transit time is limited
+	private long value;										//the value of the accepted commodities
+
+	//the search
+	private Route[] best;									//the best routing found
+	private long bestObjective;								//the objective of the best routing found
+	private long nodeLimit = DEFAULT_NODE_LIMIT;			//the maximal number of nodes of the branch and bound, 0 for no limit
+	private long nbNodes;									//the number of nodes of the last evaluation
+	private boolean optimal;								//true if the last evaluation proved that its routing is the best one
+
+
+
+	/**
+	 * Constructor for creating a CargoFlowEvaluator object
+	 * @param instance the instance
+	 * @param tsmax the maximal number of transshipments, 0 if the commodities are only carried by direct routes
+	 * @param hmax the maximal number of hours that a rotation may last
+	 * @param ratioMu the ratio which allows us to convert the number of TEU to the number of containers
+	 * @param tNbv the version of table NbVessel used
+	 */
+	public CargoFlowEvaluator(Instance instance, int tsmax, int hmax, double ratioMu, int tNbv) {
+		if (tsmax < 0) {
+			throw new IllegalArgumentException("The number of transshipments is not valid");
+		}
+		this.index = instance.getIndex();
+		this.tsmax = tsmax;
+		this.hmax = hmax;
+		this.ratioMu = (int) (ratioMu * 100);
+		this.nbPorts = index.getPortNumber();
+		this.nbInfra = index.getInfraNumber();
+		this.nbCommodities = instance.getCommodities().size();
+		this.nbCommoditiesWithTt = instance.getNumberCommodityWithTt();
+
+		InstanceDerivedData derivedData = InstanceDerivedData.of(instance);
+		this.pol = derivedData.getPol();
+		this.pod = derivedData.getPod();
+		this.quantity = derivedData.getQuantity();
+		this.rev = derivedData.getRev();
+		this.transitTime = new int[nbCommodities];
+		for (int k = 0; k < nbCommodities; k++) {
+			transitTime[k] = instance.getCommodities().get(k).getTransitTime();
+		}
+
+		int nbVessels = index.getVesselTypeNumber();
+		this.capacity = new int[nbVessels];
+		this.realCapacity = new int[nbVessels];
+		this.rate = new int[nbVessels];
+		this.available = new int[nbVessels];
+		this.fuelCost = new int[nbVessels];
+		this.minSpeed = new int[nbVessels];
+		this.consumptions = new int[nbVessels][];
+		for (int v = 0; v < nbVessels; v++) {
+			VesselType vesselType = instance.getVesselType(instance.getVesselTypes().get(v));
+			capacity[v] = vesselType.getMaximalCapacity();
+			realCapacity[v] = vesselType.getRealCapacity();
+			rate[v] = vesselType.getRate();
+			available[v] = vesselType.getVesselNumber();
+			fuelCost[v] = AuxiliaryFunctions.computeFuelCost(instance, v);
+			minSpeed[v] = vesselType.getMinimalSpeed();
+			consumptions[v] = new int[vesselType.getMaximalSpeed() + 1];
+			for (int speed = vesselType.getMinimalSpeed(); speed <= vesselType.getMaximalSpeed(); speed++) {
+				consumptions[v][speed] = AuxiliaryFunctions.computeConsumption(instance, v, speed);
+			}
+		}
+
+		Tuples table = derivedData.getTable("nbVessel/" + hmax + "/" + tNbv, () -> AuxiliaryFunctions.computeNbVesselTable(hmax, tNbv));
+		this.nbVesselsByTime = new int[hmax + 1];
+		for (int i = 0; i < table.nbTuples(); i++) {
+			int[] tuple = table.get(i);
+			nbVesselsByTime[tuple[0]] = tuple[1];
+		}
+		this.preprocessor = derivedData.getTable("preprocessor/" + hmax + "/" + tsmax, () -> new InstancePreprocessor(instance, derivedData, hmax, tsmax));
+	}
+
+
+
+	/** This class allows to represent a way of carrying a commodity on the rotations of the network */
+	private static class Route {
+		private final int[] rotations;						//the used rotations (u) carrying the commodity, in order
+		private final int[] stops;							//the ports in which the commodity is loaded, transshipped or unloaded
+		private final long value;							//the revenue of the commodity plus its transshipment costs, as in the objective
+
+		/**
+		 * Constructor for creating a Route object
+		 * @param rotations the used rotations carrying the commodity, in order
+		 * @param stops the ports in which the commodity is loaded, transshipped or unloaded
+		 * @param value the revenue of the commodity plus its transshipment costs
+		 */
+		private Route(int[] rotations, int[] stops, long value) {
+			this.rotations = rotations;
+			this.stops = stops;
+			this.value = value;
+		}
+	}
+
+
+
+	/**
+	 * @param nodeLimit the maximal number of nodes of the branch and bound of the exact mode (DEFAULT_NODE_LIMIT by default), 0 for no limit
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = nodeLimit;
+	}
+
+
+
+	/**
+	 * @return returns the number of nodes explored by the last evaluation
+	 */
+	public long getNbNodes() {
+		return nbNodes;
+	}
+
+
+
+	/**
+	 * @return returns true if the last evaluation proved that its routing is the best one
+	 */
+	public boolean isOptimal() {
+		return optimal;
+	}
+
+
+
+	/**
+	 * computes the best routing of the commodities on the rotations of the plan
+	 * @param plan the network, only its rotations are read
+	 * @return returns a network with the same rotations and the best routing found, whose objective is the objective of the model,
+	 *         null if the rotations break a rule of the model or if no routing satisfies the model
+	 */
+	public RotationPlan evaluateExact(RotationPlan plan) {
+		nbNodes = 0;
+		optimal = false;
+		if (!setUp(plan)) {
+			return null;
+		}
+		//the objective of the model cannot be negative
+		best = null;
+		bestObjective = -1;
+		if (greedy() && objective() >= 0) {
+			best = accepted.clone();
+			bestObjective = objective();
+		}
+		reset();
+
+		//the commodities which may be carried, by decreasing value of their best route
+		Integer[] sorted = new Integer[nbCommodities];
+		int nb = 0;
+		for (int k = 0; k < nbCommodities; k++) {
+			if (!routes.get(k).isEmpty()) {
+				sorted[nb++] = k;
+			}
+		}
+		Arrays.sort(sorted, 0, nb, Comparator.comparingLong((Integer k) -> -routes.get(k).get(0).value));
+		int[] order = new int[nb];
+		long[] remaining = new long[nb + 1];
+		for (int i = nb - 1; i >= 0; i--) {
+			order[i] = sorted[i];
+			remaining[i] = remaining[i + 1] + routes.get(order[i]).get(0).value;
+		}
+		int[][] deadlines = deadlines(order);
+		if (deadlines == null) {
+			return null;
+		}
+		optimal = branch(order, remaining, deadlines, 0);
+		return toPlan(plan);
+	}
+
+
+
+	/**
+	 * computes a good routing of the commodities on the rotations of the plan
+	 * @param plan the network, only its rotations are read
+	 * @return returns a network with the same rotations and the routing found, whose objective is the objective of the model, null if the
+	 *         rotations break a rule of the model or if no routing has been found
+	 */
+	public RotationPlan evaluateHeuristic(RotationPlan plan) {
+		nbNodes = 0;
+		optimal = false;
+		if (!setUp(plan)) {
+			return null;
+		}
+		best = null;
+		if (greedy() && objective() >= 0) {
+			best = accepted.clone();
+			bestObjective = objective();
+		}
+		return toPlan(plan);
+	}
+
+
+
+	/**
+	 * reads the rotations of the plan and computes their fixed times and costs, and the routes of the commodities
+	 * @param plan the network
+	 * @return returns true if the rotations satisfy the rules of the model which do not depend on the cargo
+	 */
+	private boolean setUp(RotationPlan plan) {
+		int nbRotations = plan.getNbRotations();
+		nbUsed = 0;
+		rotationOf = new int[nbRotations];
+		vesselOf = new int[nbRotations];
+		circuit = new int[nbRotations][];
+		position = new int[nbRotations][nbInfra];
+		legTimes = new int[nbRotations][];
+		productivity = new int[nbRotations][];
+		fixedCost = 0;
+		for (int r = 0; r < nbRotations; r++) {
+			if (plan.getVessel(r) == 0) {
+				continue;
+			}
+			int u = nbUsed++;
+			int v = plan.getVessel(r) - 1;
+			rotationOf[u] = r;
+			vesselOf[u] = v;
+
+			//the starting port is the visited port having the largest index (T.5)
+			int dep = -1;
+			for (int p = 0; p < nbPorts; p++) {
+				if (plan.getSuccessor(r, p) != p) {
+					dep = p;
+				}
+			}
+			if (dep < 0) {
+				return false;
+			}
+			List<Integer> ports = new ArrayList<>();
+			int p = dep;
+			do {
+				ports.add(p);
+				p = plan.getSuccessor(r, p);
+			} while (p != dep && ports.size() <= nbInfra);
+			if (p != dep) {
+				return false;
+			}
+			int m = ports.size();
+			circuit[u] = ports.stream().mapToInt(Integer::intValue).toArray();
+			Arrays.fill(position[u], -1);
+			legTimes[u] = new int[m];
+			productivity[u] = new int[m];
+			for (int i = 0; i < m; i++) {
+				p = circuit[u][i];
+				int sp = circuit[u][(i + 1) % m];
+				position[u][p] = i;
+				int speed = plan.getSpeed(r, p);
+				if (!preprocessor.isLegAllowed(v, p, sp) || speed < minSpeed[v] || speed >= consumptions[v].length) {
+					return false;
+				}
+				int sailingTime = AuxiliaryFunctions.computeSailingTime(index.getDistance(p, sp), speed, hmax);
+				if (sailingTime <= 0) {
+					return false;
+				}
+				legTimes[u][i] = sailingTime + index.getWaitingTime(sp, v)
+						+ (p < nbPorts ? index.getManoeuvringTimeOut(p, v) : 0) + (sp < nbPorts ? index.getManoeuvringTimeIn(sp, v) : 0);
+				fixedCost += index.getCallCost(p, v) + (long) fuelCost[v] * consumptions[v][speed] * sailingTime;
+				if (p < nbPorts) {
+					productivity[u][i] = index.getProductivity(p, v) * 100;
+					if (productivity[u][i] <= 0) {
+						return false;
+					}
+				}
+			}
+		}
+
+		routes = new ArrayList<>();
+		for (int k = 0; k < nbCommodities; k++) {
+			List<Route> list = new ArrayList<>();
+			if (!preprocessor.isFeasible(k)) {
+				routes.add(list);
+				continue;
+			}
+			int[] route = new int[tsmax + 1];
+			int[] stops = new int[tsmax + 2];
+			stops[0] = pol[k];
+			extendRoute(k, route, stops, 0, 0, list);
+			list.sort(Comparator.comparingLong((Route route1) -> -route1.value).thenComparingInt(route1 -> route1.rotations.length));
+			routes.add(list);
+		}
+		reset();
+		return true;
+	}
+
+
+
+	/**
+	 * enumerates the routes of commodity k which start with the given segments
+	 * @param k the commodity
+	 * @param route the used rotations of the first segments
+	 * @param stops the ports of the first segments
+	 * @param nbSegments the number of segments
+	 * @param minTransit a lower bound of the transit time of the first segments (TT.7), the operation times being ignored
+	 * @param list the list to which the routes are added
+	 */
+	private void extendRoute(int k, int[] route, int[] stops, int nbSegments, int minTransit, List<Route> list) {
+		int from = stops[nbSegments];
+		for (int u = 0; u < nbUsed; u++) {
+			if (position[u][from] < 0 || quantity[k] > capacity[vesselOf[u]] || contains(route, nbSegments, u)) {
+				continue;
+			}
+			route[nbSegments] = u;
+			if (isNeverUnloaded(nbSegments)) {
+				//as in C.13, the commodity is not unloaded from its (tsmax+1)th rotation, which may not call at its destination port
+				stops[nbSegments + 1] = pod[k];
+				addRoute(k, route, stops, nbSegments + 1, list);
+				continue;
+			}
+			int m = circuit[u].length;
+			int time = 0;
+			for (int i = position[u][from], j = (i + 1) % m; j != position[u][from]; i = j, j = (j + 1) % m) {
+				time += legTimes[u][i];
+				int to = circuit[u][j];
+				if (to >= nbPorts || contains(stops, nbSegments + 1, to) || !preprocessor.isTransshipmentAllowed(k, to)) {
+					continue;
+				}
+				if (k < nbCommoditiesWithTt && minTransit + time > transitTime[k]) {
+					continue;
+				}
+				stops[nbSegments + 1] = to;
+				if (to == pod[k]) {
+					addRoute(k, route, stops, nbSegments + 1, list);
+				} else if (nbSegments < tsmax) {
+					extendRoute(k, route, stops, nbSegments + 1, minTransit + time, list);
+				}
+			}
+		}
+	}
+
+
+
+	/**
+	 * adds a route of commodity k to the list
+	 * @param k the commodity
+	 * @param route the used rotations of the segments
+	 * @param stops the ports of the segments
+	 * @param nbSegments the number of segments
+	 * @param list the list to which the route is added
+	 */
+	private void addRoute(int k, int[] route, int[] stops, int nbSegments, List<Route> list) {
+		long routeValue = (long) quantity[k] * rev[k];
+		for (int s = 1; s < nbSegments; s++) {
+			routeValue += (long) quantity[k] * index.getTransshipmentCost(stops[s]);
+		}
+		list.add(new Route(Arrays.copyOf(route, nbSegments), Arrays.copyOf(stops, nbSegments + 1), routeValue));
+	}
+
+
+
+	/**
+	 * @param values an array
+	 * @param length the number of values read
+	 * @param value a value
+	 * @return returns true if the value is one of the first values of the array
+	 */
+	private static boolean contains(int[] values, int length, int value) {
+		for (int i = 0; i < length; i++) {
+			if (values[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	/**
+	 * rejects all the commodities
+	 */
+	private void reset() {
+		load = new int[nbUsed][];
+		teu = new int[nbUsed][];
+		operation = new int[nbUsed][];
+		timeIn = new int[nbUsed][];
+		vessels = new int[nbUsed];
+		vesselsUsed = new int[available.length];
+		for (int u = 0; u < nbUsed; u++) {
+			int m = circuit[u].length;
+			load[u] = new int[m];
+			teu[u] = new int[m];
+			operation[u] = new int[m];
+			timeIn[u] = new int[m + 1];
+			updateTimes(u);
+		}
+		portUse = new int[nbPorts];
+		accepted = new Route[nbCommodities];
+		acceptedWithTt = new ArrayList<>();
+		value = 0;
+	}
+
+
+
+	/**
+	 * computes the operation times (T.1 and T.3), the times (T.6, T.7 and T.11) and the number of vessels (W.1) of used rotation u
+	 * @param u the used rotation
+	 */
+	private void updateTimes(int u) {
+		int m = circuit[u].length;
+		for (int i = 0; i < m; i++) {
+			int p = circuit[u][i];
+			operation[u][i] = p < nbPorts ? ratioMu * teu[u][i] / productivity[u][i] : index.getDuration(p);
+			timeIn[u][i + 1] = timeIn[u][i] + operation[u][i] + legTimes[u][i];
+		}
+		int n = timeIn[u][m] <= hmax ? nbVesselsByTime[timeIn[u][m]] : -1;
+		vesselsUsed[vesselOf[u]] += Math.max(n, 0) - Math.max(vessels[u], 0);
+		vessels[u] = n;
+	}
+
+
+
+	/**
+	 * carries commodity k on the route, if the rules of the model which only get harder with more cargo still hold
+	 * @param k the commodity
+	 * @param route the route
+	 * @return returns true if the commodity is carried
+	 */
+	private boolean add(int k, Route route) {
+		boolean feasible = move(k, route, 1);
+		accepted[k] = route;
+		if (k < nbCommoditiesWithTt && tsmax >= 1) {
+			acceptedWithTt.add(k);
+		}
+		for (int kt : acceptedWithTt) {
+			feasible = feasible && transit(accepted[kt]) <= transitTime[kt];
+		}
+		if (!feasible) {
+			remove(k);
+		}
+		return feasible;
+	}
+
+
+
+	/**
+	 * rejects commodity k
+	 * @param k the commodity
+	 */
+	private void remove(int k) {
+		move(k, accepted[k], -1);
+		if (k < nbCommoditiesWithTt && tsmax >= 1) {
+			acceptedWithTt.remove(Integer.valueOf(k));
+		}
+		accepted[k] = null;
+	}
+
+
+
+	/**
+	 * adds or removes the loads of commodity k on the route
+	 * @param k the commodity
+	 * @param route the route
+	 * @param sign 1 to add the loads, -1 to remove them
+	 * @return returns true if the capacities (L.6), the maximal duration and the available vessels (W.2) are respected
+	 */
+	private boolean move(int k, Route route, int sign) {
+		int q = sign * quantity[k];
+		boolean feasible = true;
+		for (int s = 0; s < route.rotations.length; s++) {
+			int u = route.rotations[s];
+			int v = vesselOf[u];
+			int m = circuit[u].length;
+			int from = position[u][route.stops[s]];
+			int to = unloading(route, s);
+			int i = from;
+			do {
+				load[u][i] += q;
+				feasible &= load[u][i] <= capacity[v];
+				i = (i + 1) % m;
+			} while (i != to);
+			teu[u][from] += q;
+			feasible &= teu[u][from] <= 2 * realCapacity[v];
+			if (to != from) {
+				teu[u][to] += q;
+				feasible &= teu[u][to] <= 2 * realCapacity[v];
+			}
+		}
+		for (int s = 0; s < route.rotations.length; s++) {
+			int u = route.rotations[s];
+			updateTimes(u);
+			feasible &= vessels[u] >= 0 && vesselsUsed[vesselOf[u]] <= available[vesselOf[u]];
+		}
+		for (int p : route.stops) {
+			portUse[p] += sign;
+		}
+		value += sign * route.value;
+		return feasible;
+	}
+
+
+
+	/**
+	 * @param route the route of a commodity
+	 * @param s the index of a rotation of the route
+	 * @return returns the position at which the commodity is unloaded from the sth rotation of the route, or the position at which it is
+	 *         loaded if it is never unloaded: as in C.13, a commodity carried by tsmax+1 rotations stays on board its last one
+	 */
+	private int unloading(Route route, int s) {
+		int u = route.rotations[s];
+		return isNeverUnloaded(s) ? position[u][route.stops[s]] : position[u][route.stops[s + 1]];
+	}
+
+
+
+	/**
+	 * @param s the index of a rotation of a route
+	 * @return returns true if a commodity is never unloaded from the sth rotation of its route, as in C.13: its (tsmax+1)th rotation,
+	 *         unless tsmax is 0 (the commodities are then carried by direct routes, and unloaded at their destination port)
+	 */
+	private boolean isNeverUnloaded(int s) {
+		return tsmax >= 1 && s == tsmax;
+	}
+
+
+
+	/**
+	 * @param route the route of a commodity
+	 * @return returns the transit time of the commodity on the route, as in TT.7
+	 */
+	private int transit(Route route) {
+		int total = 0;
+		int previousOut = 0;
+		for (int s = 0; s < route.rotations.length; s++) {
+			int u = route.rotations[s];
+			int m = circuit[u].length;
+			int from = position[u][route.stops[s]];
+			int in = timeIn[u][from] + operation[u][from];
+			if (s > 0) {
+				total += Math.floorMod(in % WEEK - previousOut % WEEK, WEEK);
+			}
+			if (s < tsmax) {
+				int to = position[u][route.stops[s + 1]];
+				int out = to == 0 ? timeIn[u][m] : timeIn[u][to];
+				total += in <= out ? out - in : out - in + timeIn[u][m];
+				previousOut = out;
+			}
+		}
+		return total;
+	}
+
+
+
+	/**
+	 * @return returns true if every visited port is used by an accepted commodity (CR.3), and if the vessels leave each port loaded (L.8)
+	 *         with a positive operation time (T.2)
+	 */
+	private boolean isComplete() {
+		for (int u = 0; u < nbUsed; u++) {
+			for (int i = 0; i < circuit[u].length; i++) {
+				int p = circuit[u][i];
+				if (p < nbPorts && (portUse[p] == 0 || operation[u][i] == 0)) {
+					return false;
+				}
+			}
+			if (!isLoaded(u)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+
+	/**
+	 * @param u a used rotation
+	 * @return returns true if the vessels of used rotation u leave each port loaded (L.8), possibly with an accepted commodity which is
+	 *         not carried by u and stays on board all along its circuit
+	 */
+	private boolean isLoaded(int u) {
+		boolean empty = false;
+		int maxLoad = 0;
+		for (int i = 0; i < circuit[u].length; i++) {
+			empty |= circuit[u][i] < nbPorts && load[u][i] == 0;
+			maxLoad = Math.max(maxLoad, load[u][i]);
+		}
+		if (!empty) {
+			return true;
+		}
+		for (int k = 0; k < nbCommodities; k++) {
+			if (accepted[k] != null && !contains(accepted[k].rotations, accepted[k].rotations.length, u)
+					&& maxLoad + quantity[k] <= capacity[vesselOf[u]]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	/**
+	 * @return returns the charter costs of the used rotations
+	 */
+	private long charter() {
+		long cost = 0;
+		for (int u = 0; u < nbUsed; u++) {
+			cost += 7L * rate[vesselOf[u]] * Math.max(0, vessels[u]);
+		}
+		return cost;
+	}
+
+
+
+	/**
+	 * @return returns the objective of the current routing, as in ObjectiveFunction
+	 */
+	private long objective() {
+		return value - fixedCost - charter();
+	}
+
+
+
+	/**
+	 * computes, for each requirement of isComplete on a visited port, the last commodity of the order which may fulfil it (the empty legs
+	 * may be filled by any accepted commodity, they are only checked by isComplete)
+	 * @param order the commodities, in the order in which they are decided
+	 * @return returns the requirements (a used rotation and a position) whose last chance is each commodity of the order, null if a
+	 *         requirement cannot be fulfilled
+	 */
+	private int[][] deadlines(int[] order) {
+		int[][] lastStop = new int[nbUsed][];
+		int[] lastPort = new int[nbPorts];
+		Arrays.fill(lastPort, -1);
+		for (int u = 0; u < nbUsed; u++) {
+			lastStop[u] = new int[circuit[u].length];
+			Arrays.fill(lastStop[u], -1);
+		}
+		for (int d = 0; d < order.length; d++) {
+			for (Route route : routes.get(order[d])) {
+				for (int p : route.stops) {
+					lastPort[p] = d;
+				}
+				for (int s = 0; s < route.rotations.length; s++) {
+					int u = route.rotations[s];
+					lastStop[u][position[u][route.stops[s]]] = d;
+					lastStop[u][unloading(route, s)] = d;
+				}
+			}
+		}
+		List<List<int[]>> byDepth = new ArrayList<>();
+		for (int d = 0; d < order.length; d++) {
+			byDepth.add(new ArrayList<>());
+		}
+		for (int u = 0; u < nbUsed; u++) {
+			for (int i = 0; i < circuit[u].length; i++) {
+				int p = circuit[u][i];
+				if (p < nbPorts) {
+					int d = Math.min(lastPort[p], lastStop[u][i]);
+					if (d < 0) {
+						return null;
+					}
+					byDepth.get(d).add(new int[] {u, i});
+				}
+			}
+		}
+		int[][] deadlines = new int[order.length][];
+		for (int d = 0; d < order.length; d++) {
+			deadlines[d] = new int[2 * byDepth.get(d).size()];
+			for (int j = 0; j < byDepth.get(d).size(); j++) {
+				deadlines[d][2 * j] = byDepth.get(d).get(j)[0];
+				deadlines[d][2 * j + 1] = byDepth.get(d).get(j)[1];
+			}
+		}
+		return deadlines;
+	}
+
+
+
+	/**
+	 * explores the routings of the commodities from the depth d of the order
+	 * @param order the commodities, in the order in which they are decided
+	 * @param remaining the sum of the values of the best routes of the commodities from each depth
+	 * @param deadlines the requirements whose last chance is each commodity of the order
+	 * @param d the depth
+	 * @return returns false if the node limit has been reached
+	 */
+	private boolean branch(int[] order, long[] remaining, int[][] deadlines, int d) {
+		nbNodes++;
+		if (nodeLimit > 0 && nbNodes > nodeLimit) {
+			return false;
+		}
+		if (d > 0) {
+			int[] checks = deadlines[d - 1];
+			for (int j = 0; j < checks.length; j += 2) {
+				int u = checks[j];
+				int i = checks[j + 1];
+				if (portUse[circuit[u][i]] == 0 || operation[u][i] == 0) {
+					return true;
+				}
+			}
+		}
+		//the charter costs only grow with the cargo
+		if (value + remaining[d] - fixedCost - charter() <= bestObjective) {
+			return true;
+		}
+		if (d == order.length) {
+			if (isComplete()) {
+				best = accepted.clone();
+				bestObjective = objective();
+			}
+			return true;
+		}
+		int k = order[d];
+		for (Route route : routes.get(k)) {
+			if (add(k, route)) {
+				boolean completed = branch(order, remaining, deadlines, d + 1);
+				remove(k);
+				if (!completed) {
+					return false;
+				}
+			}
+		}
+		return branch(order, remaining, deadlines, d + 1);
+	}
+
+
+
+	/**
+	 * carries the commodities by decreasing value on their best feasible route when it pays for the vessels it needs, then carries
+	 * commodities at the ports which are still unused, whatever their profit
+	 * @return returns true if the routing found satisfies the model
+	 */
+	private boolean greedy() {
+		Integer[] sorted = new Integer[nbCommodities];
+		for (int k = 0; k < nbCommodities; k++) {
+			sorted[k] = k;
+		}
+		Arrays.sort(sorted, Comparator.comparingLong((Integer k) -> routes.get(k).isEmpty() ? 0 : -routes.get(k).get(0).value));
+		for (int k : sorted) {
+			insert(k, false);
+		}
+		boolean changed = true;
+		while (!isComplete() && changed) {
+			changed = false;
+			for (int k : sorted) {
+				if (accepted[k] == null && insert(k, true)) {
+					changed = true;
+					break;
+				}
+			}
+		}
+		return isComplete();
+	}
+
+
+
+	/**
+	 * carries commodity k on its route which gives the best objective
+	 * @param k the commodity
+	 * @param repair true if only the routes using an unused port or an empty leg are considered, whatever their profit
+	 * @return returns true if the commodity is carried
+	 */
+	private boolean insert(int k, boolean repair) {
+		long before = objective();
+		Route chosen = null;
+		long chosenGain = repair ? Long.MIN_VALUE : 0;
+		for (Route route : routes.get(k)) {
+			if (repair && !isUseful(route)) {
+				continue;
+			}
+			if (add(k, route)) {
+				long gain = objective() - before;
+				remove(k);
+				if (gain > chosenGain) {
+					chosen = route;
+					chosenGain = gain;
+				}
+			}
+		}
+		return chosen != null && add(k, chosen);
+	}
+
+
+
+	/**
+	 * @param route a route
+	 * @return returns true if the route uses an unused port or a leg on which the vessel leaves a port empty
+	 */
+	private boolean isUseful(Route route) {
+		for (int s = 0; s < route.rotations.length; s++) {
+			int u = route.rotations[s];
+			int m = circuit[u].length;
+			int to = unloading(route, s);
+			int i = position[u][route.stops[s]];
+			do {
+				if (circuit[u][i] < nbPorts && (portUse[circuit[u][i]] == 0 || load[u][i] == 0 || operation[u][i] == 0)) {
+					return true;
+				}
+				i = (i + 1) % m;
+			} while (i != to);
+			if (portUse[circuit[u][to]] == 0 || operation[u][to] == 0 || portUse[route.stops[s + 1]] == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	/**
+	 * @param plan the evaluated network
+	 * @return returns a network with the same rotations, sorted by decreasing round-trip time (B.2), and the best routing found, null if
+	 *         no routing has been found
+	 */
+	private RotationPlan toPlan(RotationPlan plan) {
+		if (best == null) {
+			return null;
+		}
+		reset();
+		for (int k = 0; k < nbCommodities; k++) {
+			if (best[k] != null) {
+				move(k, best[k], 1);
+			}
+		}
+		Integer[] sorted = new Integer[nbUsed];
+		for (int u = 0; u < nbUsed; u++) {
+			sorted[u] = u;
+		}
+		Arrays.sort(sorted, Comparator.comparingInt((Integer u) -> -timeIn[u][circuit[u].length]));
+		int[] order = new int[plan.getNbRotations()];
+		int[] newIndex = new int[nbUsed];
+		boolean[] used = new boolean[plan.getNbRotations()];
+		for (int i = 0; i < nbUsed; i++) {
+			order[i] = rotationOf[sorted[i]];
+			newIndex[sorted[i]] = i;
+			used[order[i]] = true;
+		}
+		for (int r = 0, i = nbUsed; r < plan.getNbRotations(); r++) {
+			if (!used[r]) {
+				order[i++] = r;
+			}
+		}
+		RotationPlan result = plan.copyRotations(order);
+		for (int k = 0; k < nbCommodities; k++) {
+			if (best[k] != null) {
+				int[] route = new int[best[k].rotations.length];
+				for (int s = 0; s < route.length; s++) {
+					route[s] = newIndex[best[k].rotations[s]];
+				}
+				result.setRoute(k, route, best[k].stops);
+			}
+		}
+		result.setObjective(bestObjective);
+		return result;
+	}
+}
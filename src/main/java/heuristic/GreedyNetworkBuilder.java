@@ -0,0 +1,618 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import instance.Instance;
+import instance.InstanceIndex;
+import instance.VesselType;
+import model_v0.AuxiliaryFunctions;
+import model_v0.InstanceDerivedData;
+
+public class GreedyNetworkBuilder {
+
+	/** This class allows to build quickly a network for an instance, without CHOCO. The rotations are built one after the other: each one
+	 *  starts from the origin and the destination ports of a profitable commodity which is not carried yet, then ports are inserted at
+	 *  their best position as long as the profit of the rotation increases. The commodities are carried without transshipment, in
+	 *  decreasing order of revenue, as long as the capacity of the vessels allows it. For each rotation, the vessel type and the speed
+	 *  which give the best profit are chosen, while respecting the maximal duration, the available vessels and the transit times. */
+
+	private static final int MAX_PORTS = 12;				//the maximal number of ports of a rotation
+	private static final int MAX_SEEDS = 2;					//the number of commodities from which a rotation is started, for each vessel type
+	private static final int MAX_CANDIDATES = 15;			//the number of ports whose insertion is evaluated at each step
+	private static final int INFEASIBLE = Integer.MAX_VALUE;	//the time of a leg or of a rotation which cannot be sailed
+
+	private InstanceIndex index;							//the indexed view of the instance
+	private int nbRotations;								//the number of rotations
+	private int tsmax;										//the maximal number of transshipments
+	private int hmax;										//the maximal number of hours that a rotation may last
+	private int ratioMu;									//the ratio which allows us to convert the number of TEU to the number of containers (x100)
+	private int tNbv;										//the version of table NbVessel used
+	private int nbPorts;									//the number of ports
+	private int nbVessels;									//the number of vessel types
+	private int nbCommodities;								//the number of commodities
+	private int nbCommoditiesWithTt;						//the number of commodities with a transit time (they come first)
+
+	private int[] pol;										//origin ports of commodity
+	private int[] pod;										//destination ports of commodity
+	private int[] quantity;									//quantity of commodities
+	private int[] rev;										//revenue per TEU of commodities
+	private int[] transitTime;								//the maximal transit time of commodities
+	private int[] order;									//the commodities in decreasing order of revenue
+	private int[] rank;										//the position of each commodity in order
+	private int[][] commoditiesByPol;						//the commodities whose origin is port p
+	private int[] portLimit;								//the maximal number of rotations which may visit port p (CR.6)
+
+	private int[] capacity;									//the maximal capacity of each vessel type
+	private int maxCapacity;								//the maximal capacity of vessels whatever the vessel type
+	private int[] realCapacity;								//the real capacity of each vessel type
+	private int[] rate;										//the time charter rate of each vessel type
+	private int[] fuelCost;									//the fuel cost of each vessel type
+	private int[][] speeds;									//the possible speeds of each vessel type
+	private int[][] consumptions;							//the fuel consumption of each vessel type at each of its possible speeds
+
+	private boolean[] served;								//true if commodity k is carried by a rotation already built
+	private int[] portUse;									//the number of rotations already built which visit port p
+	private int[] available;								//the number of vessels of each type which are not used yet
+	private int[] position;									//the position of each port in the evaluated circuit, -1 if it is not visited
+
+
+
+	/**
+	 * Constructor for creating a GreedyNetworkBuilder object
+	 * @param instance the instance
+	 * @param nbRotations the number of rotations
+	 * @param tsmax the maximal number of transshipments
+	 * @param hmax the maximal number of hours that a rotation may last
+	 * @param ratioMu the ratio which allows us to convert the number of TEU to the number of containers
+	 * @param speedStep the step between two speeds
+	 * @param tNbv the version of table NbVessel used
+	 */
+	public GreedyNetworkBuilder(Instance instance, int nbRotations, int tsmax, int hmax, double ratioMu, int speedStep, int tNbv) {
+		this.index = instance.getIndex();
+		this.nbRotations = nbRotations;
+		this.tsmax = tsmax;
+		this.hmax = hmax;
+		this.ratioMu = (int) (ratioMu * 100);
+		this.tNbv = tNbv;
+		this.nbPorts = index.getPortNumber();
+		this.nbVessels = index.getVesselTypeNumber();
+		this.nbCommodities = instance.getCommodities().size();
+		this.nbCommoditiesWithTt = instance.getNumberCommodityWithTt();
+
+		InstanceDerivedData derivedData = InstanceDerivedData.of(instance);
+		this.pol = derivedData.getPol();
+		this.pod = derivedData.getPod();
+		this.quantity = derivedData.getQuantity();
+		this.rev = derivedData.getRev();
+		this.transitTime = new int[nbCommodities];
+		for (int k = 0; k < nbCommodities; k++) {
+			transitTime[k] = instance.getCommodities().get(k).getTransitTime();
+		}
+
+		//the commodities are considered in decreasing order of revenue
+		this.order = new int[nbCommodities];
+		Integer[] sorted = new Integer[nbCommodities];
+		for (int k = 0; k < nbCommodities; k++) {
+			sorted[k] = k;
+		}
+		Arrays.sort(sorted, Comparator.comparingLong((Integer k) -> -(long) quantity[k] * rev[k]));
+		this.rank = new int[nbCommodities];
+		for (int i = 0; i < nbCommodities; i++) {
+			order[i] = sorted[i];
+			rank[sorted[i]] = i;
+		}
+
+		int[] nbIn = new int[nbPorts];
+		int[] nbOut = new int[nbPorts];
+		for (int k = 0; k < nbCommodities; k++) {
+			nbIn[pod[k]]++;
+			nbOut[pol[k]]++;
+		}
+		this.portLimit = new int[nbPorts];
+		this.commoditiesByPol = new int[nbPorts][];
+		for (int p = 0; p < nbPorts; p++) {
+			portLimit[p] = Math.max(nbIn[p], nbOut[p]);
+			commoditiesByPol[p] = new int[nbOut[p]];
+			nbOut[p] = 0;
+		}
+		for (int k = 0; k < nbCommodities; k++) {
+			commoditiesByPol[pol[k]][nbOut[pol[k]]++] = k;
+		}
+
+		//the speeds must belong both to the speeds of the model and to the speeds of the vessel type
+		ArrayList<String> vesselTypes = instance.getVesselTypes();
+		int speedMin = Integer.MAX_VALUE;
+		for (String name : vesselTypes) {
+			speedMin = Math.min(speedMin, instance.getVesselType(name).getMinimalSpeed());
+		}
+		this.capacity = new int[nbVessels];
+		this.realCapacity = new int[nbVessels];
+		this.rate = new int[nbVessels];
+		this.fuelCost = new int[nbVessels];
+		this.speeds = new int[nbVessels][];
+		this.consumptions = new int[nbVessels][];
+		this.available = new int[nbVessels];
+		for (int v = 0; v < nbVessels; v++) {
+			VesselType vesselType = instance.getVesselType(vesselTypes.get(v));
+			capacity[v] = vesselType.getMaximalCapacity();
+			realCapacity[v] = vesselType.getRealCapacity();
+			rate[v] = vesselType.getRate();
+			available[v] = vesselType.getVesselNumber();
+			fuelCost[v] = AuxiliaryFunctions.computeFuelCost(instance, v);
+			speeds[v] = AuxiliaryFunctions.computeSpeeds(instance, v, speedMin, speedStep);
+			consumptions[v] = new int[speeds[v].length];
+			for (int s = 0; s < speeds[v].length; s++) {
+				consumptions[v][s] = AuxiliaryFunctions.computeConsumption(instance, v, speeds[v][s]);
+			}
+		}
+
+		this.maxCapacity = InstanceDerivedData.of(instance).getMaxKv();
+		this.served = new boolean[nbCommodities];
+		this.portUse = new int[nbPorts];
+		this.position = new int[nbPorts];
+		Arrays.fill(position, -1);
+	}
+
+
+
+	/** This class allows to represent a rotation evaluated by the heuristic */
+	private static class Evaluation {
+		private int vessel;									//the vessel type (from 0)
+		private int[] circuit;								//the ports of the rotation, in the order in which they are visited
+		private int speed = -1;								//the speed on every leg, -1 if no speed is feasible
+		private int time;									//the total time of the rotation
+		private int nbVessels;								//the number of vessels deployed on the rotation
+		private long profit = Long.MIN_VALUE;				//the revenue of the carried commodities minus the costs of the rotation
+		private int nbInvalidPorts;							//the number of ports which break L.8 or CR.3, plus one if the rotation is too short
+		private int[] carried = new int[0];					//the commodities carried by the rotation
+
+		/**
+		 * @param other another evaluation, possibly null
+		 * @return returns true if this rotation is better than the other one: fewer invalid ports first, then a larger profit
+		 */
+		private boolean isBetterThan(Evaluation other) {
+			if (other == null) {
+				return true;
+			}
+			if (nbInvalidPorts != other.nbInvalidPorts) {
+				return nbInvalidPorts < other.nbInvalidPorts;
+			}
+			return profit > other.profit;
+		}
+
+		/**
+		 * @return returns true if the rotation satisfies the constraints of the model
+		 */
+		private boolean isValid() {
+			return speed >= 0 && nbInvalidPorts == 0;
+		}
+	}
+
+
+
+	/**
+	 * @return returns a network for the instance, whose objective is the estimated profit of its rotations
+	 */
+	public RotationPlan build() {
+		Arrays.fill(served, false);
+		Arrays.fill(portUse, 0);
+		List<Evaluation> rotations = new ArrayList<>();
+		while (rotations.size() < nbRotations) {
+			Evaluation best = null;
+			for (int v = 0; v < nbVessels; v++) {
+				if (available[v] == 0) {
+					continue;
+				}
+				int seeds = 0;
+				for (int i = 0; i < nbCommodities && seeds < MAX_SEEDS; i++) {
+					int k = order[i];
+					if (served[k] || quantity[k] > capacity[v] || !isUsable(pol[k]) || !isUsable(pod[k])
+							|| index.getDistance(pol[k], pod[k]) <= 0 || index.getDistance(pod[k], pol[k]) <= 0) {
+						continue;
+					}
+					seeds++;
+					Evaluation evaluation = grow(new int[] {pol[k], pod[k]}, v);
+					if (evaluation.isValid() && evaluation.profit > 0 && (best == null || evaluation.profit > best.profit)) {
+						best = evaluation;
+					}
+				}
+			}
+			if (best == null) {
+				break;
+			}
+			rotations.add(best);
+			for (int k : best.carried) {
+				served[k] = true;
+			}
+			for (int p : best.circuit) {
+				portUse[p]++;
+			}
+			available[best.vessel] -= best.nbVessels;
+		}
+		for (Evaluation rotation : rotations) {
+			available[rotation.vessel] += rotation.nbVessels;
+		}
+
+		//rotations are sorted in decreasing order of their rotation time (B.2)
+		rotations.sort(Comparator.comparingInt((Evaluation e) -> -e.time));
+		RotationPlan plan = new RotationPlan(nbRotations, index.getInfraNumber(), nbCommodities, tsmax);
+		long objective = 0;
+		for (int r = 0; r < rotations.size(); r++) {
+			Evaluation rotation = rotations.get(r);
+			plan.setRotation(r, rotation.vessel + 1, rotation.circuit, rotation.speed);
+			for (int k : rotation.carried) {
+				plan.setDirectRoute(k, r, pol[k], pod[k]);
+			}
+			objective += rotation.profit;
+		}
+		plan.setObjective(objective);
+		return plan;
+	}
+
+
+
+	/**
+	 * @param p a port
+	 * @return returns true if port p may be visited by one more rotation (CR.6)
+	 */
+	private boolean isUsable(int p) {
+		return portUse[p] < portLimit[p];
+	}
+
+
+
+	/**
+	 * inserts ports in the circuit as long as the rotation is improved
+	 * @param circuit the initial circuit
+	 * @param v the vessel type
+	 * @return returns the evaluation of the best rotation found
+	 */
+	private Evaluation grow(int[] circuit, int v) {
+		Evaluation current = evaluate(circuit, v);
+		while (current.circuit.length < MAX_PORTS) {
+			int m = current.circuit.length;
+			int[] candidates = candidatePorts(current.circuit);
+			Evaluation next = null;
+			for (int c : candidates) {
+				for (int i = 0; i < m; i++) {
+					int a = current.circuit[i];
+					int b = current.circuit[(i + 1) % m];
+					if (index.getDistance(a, c) <= 0 || index.getDistance(c, b) <= 0) {
+						continue;
+					}
+					int[] inserted = new int[m + 1];
+					System.arraycopy(current.circuit, 0, inserted, 0, i + 1);
+					inserted[i + 1] = c;
+					System.arraycopy(current.circuit, i + 1, inserted, i + 2, m - i - 1);
+					Evaluation evaluation = evaluate(inserted, v);
+					if (evaluation.isBetterThan(next)) {
+						next = evaluation;
+					}
+				}
+			}
+			if (next == null || !next.isBetterThan(current)) {
+				break;
+			}
+			current = next;
+		}
+		return current;
+	}
+
+
+
+	/**
+	 * @param circuit a circuit
+	 * @return returns the ports which are not in the circuit but are the origin or the destination of the most profitable commodities
+	 *         not carried yet whose other port is in the circuit
+	 */
+	private int[] candidatePorts(int[] circuit) {
+		for (int i = 0; i < circuit.length; i++) {
+			position[circuit[i]] = i;
+		}
+		int[] candidates = new int[MAX_CANDIDATES];
+		int nb = 0;
+		for (int i = 0; i < nbCommodities && nb < MAX_CANDIDATES; i++) {
+			int k = order[i];
+			if (served[k]) {
+				continue;
+			}
+			int other;
+			if (position[pol[k]] >= 0 && position[pod[k]] < 0) {
+				other = pod[k];
+			} else if (position[pod[k]] >= 0 && position[pol[k]] < 0) {
+				other = pol[k];
+			} else {
+				continue;
+			}
+			if (position[other] == -1 && isUsable(other) && quantity[k] <= maxCapacity) {
+				position[other] = -2;
+				candidates[nb++] = other;
+			}
+		}
+		for (int i = 0; i < nb; i++) {
+			position[candidates[i]] = -1;
+		}
+		for (int p : circuit) {
+			position[p] = -1;
+		}
+		return Arrays.copyOf(candidates, nb);
+	}
+
+
+
+	/**
+	 * @param circuit a circuit of ports
+	 * @param v the vessel type
+	 * @return returns the evaluation of the rotation which sails the circuit with vessels of type v
+	 */
+	private Evaluation evaluate(int[] circuit, int v) {
+		int m = circuit.length;
+		Evaluation evaluation = new Evaluation();
+		evaluation.vessel = v;
+		evaluation.circuit = circuit;
+		for (int i = 0; i < m; i++) {
+			position[circuit[i]] = i;
+		}
+
+		//the commodities which may be carried without transshipment, in decreasing order of revenue
+		int nbCandidates = 0;
+		int[] candidates = new int[16];
+		for (int p : circuit) {
+			for (int k : commoditiesByPol[p]) {
+				if (!served[k] && position[pod[k]] >= 0) {
+					if (nbCandidates == candidates.length) {
+						candidates = Arrays.copyOf(candidates, 2 * nbCandidates);
+					}
+					candidates[nbCandidates++] = rank[k];
+				}
+			}
+		}
+		Arrays.sort(candidates, 0, nbCandidates);
+		for (int i = 0; i < nbCandidates; i++) {
+			candidates[i] = order[candidates[i]];
+		}
+
+		//the cargo is assigned, then the commodities whose transit time is too long at the best speed are discarded and so on
+		boolean[] discarded = new boolean[nbCandidates];
+		int[] load = new int[m];
+		int[] teu = new int[m];
+		boolean[] carried = new boolean[nbCandidates];
+		int[] timeIn = new int[m];
+		int[] timeOut = new int[m];
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			Arrays.fill(load, 0);
+			Arrays.fill(teu, 0);
+			for (int c = 0; c < nbCandidates; c++) {
+				carried[c] = !discarded[c] && fits(candidates[c], v, load, teu);
+			}
+
+			int bestSpeed = -1;
+			long bestProfit = Long.MIN_VALUE;
+			for (int s = 0; s < speeds[v].length; s++) {
+				long profit = profit(circuit, v, s, candidates, nbCandidates, carried, teu, timeIn, timeOut, null);
+				if (profit > bestProfit) {
+					bestProfit = profit;
+					bestSpeed = s;
+				}
+			}
+			if (bestSpeed < 0) {
+				break;
+			}
+			profit(circuit, v, bestSpeed, candidates, nbCandidates, carried, teu, timeIn, timeOut, discarded);
+			for (int c = 0; c < nbCandidates; c++) {
+				if (carried[c] && discarded[c]) {
+					changed = true;
+				}
+			}
+			if (!changed) {
+				evaluation.speed = speeds[v][bestSpeed];
+				evaluation.profit = bestProfit;
+				evaluation.time = rotationTime(circuit, v, bestSpeed, teu, timeIn, timeOut);
+				evaluation.nbVessels = nbVesselsFor(evaluation.time);
+			}
+		}
+
+		//every port must be the origin or the destination of a carried commodity (CR.3), with a positive operation time (T.2), and the
+		//vessel must leave it loaded (L.8)
+		int nbCarried = 0;
+		for (int c = 0; c < nbCandidates; c++) {
+			if (carried[c]) {
+				nbCarried++;
+			}
+		}
+		evaluation.carried = new int[nbCarried];
+		for (int c = 0, i = 0; c < nbCandidates; c++) {
+			if (carried[c]) {
+				evaluation.carried[i++] = candidates[c];
+			}
+		}
+		evaluation.nbInvalidPorts = m < 3 ? 1 : 0;
+		for (int i = 0; i < m; i++) {
+			if (load[i] == 0 || operationTime(circuit[i], v, teu[i]) <= 0) {
+				evaluation.nbInvalidPorts++;
+			}
+		}
+		if (evaluation.speed < 0) {
+			evaluation.nbInvalidPorts = m + 1;
+		}
+
+		for (int p : circuit) {
+			position[p] = -1;
+		}
+		return evaluation;
+	}
+
+
+
+	/**
+	 * adds commodity k to the loads of the rotation if the capacity of the vessels allows it
+	 * @param k the commodity
+	 * @param v the vessel type
+	 * @param load the load of the vessels leaving each port of the circuit
+	 * @param teu the number of TEU loaded or unloaded at each port of the circuit
+	 * @return returns true if the commodity is added
+	 */
+	private boolean fits(int k, int v, int[] load, int[] teu) {
+		int m = load.length;
+		int from = position[pol[k]];
+		int to = position[pod[k]];
+		if (teu[from] + quantity[k] > 2 * realCapacity[v] || teu[to] + quantity[k] > 2 * realCapacity[v]) {
+			return false;
+		}
+		for (int i = from; i != to; i = (i + 1) % m) {
+			if (load[i] + quantity[k] > capacity[v]) {
+				return false;
+			}
+		}
+		for (int i = from; i != to; i = (i + 1) % m) {
+			load[i] += quantity[k];
+		}
+		teu[from] += quantity[k];
+		teu[to] += quantity[k];
+		return true;
+	}
+
+
+
+	/**
+	 * computes the times of the rotation, from the port having the largest index (T.5 and T.6)
+	 * @param circuit the circuit
+	 * @param v the vessel type
+	 * @param s the index of the speed in the speeds of vessel type v
+	 * @param teu the number of TEU loaded or unloaded at each port of the circuit
+	 * @param timeIn the time the vessel arrives at each port of the circuit
+	 * @param timeOut the time the vessel leaves each port of the circuit
+	 * @return returns the total time of the rotation, INFEASIBLE if a leg cannot be sailed at this speed
+	 */
+	private int rotationTime(int[] circuit, int v, int s, int[] teu, int[] timeIn, int[] timeOut) {
+		int m = circuit.length;
+		int dep = 0;
+		for (int i = 1; i < m; i++) {
+			if (circuit[i] > circuit[dep]) {
+				dep = i;
+			}
+		}
+		long time = 0;
+		for (int step = 0; step < m; step++) {
+			int i = (dep + step) % m;
+			int next = (i + 1) % m;
+			int p = circuit[i];
+			int sp = circuit[next];
+			if (index.getProductivity(p, v) <= 0) {
+				return INFEASIBLE;
+			}
+			int sailingTime = sailingTime(p, sp, speeds[v][s]);
+			if (sailingTime == INFEASIBLE) {
+				return INFEASIBLE;
+			}
+			timeIn[i] = (int) time;
+			time += operationTime(p, v, teu[i]);
+			timeOut[i] = (int) time;
+			time += index.getManoeuvringTimeOut(p, v) + sailingTime + index.getWaitingTime(sp, v) + index.getManoeuvringTimeIn(sp, v);
+			if (time > hmax) {
+				return INFEASIBLE;
+			}
+		}
+		return (int) time;
+	}
+
+
+
+	/**
+	 * @param p a port
+	 * @param v the vessel type
+	 * @param teu the number of TEU loaded or unloaded at port p
+	 * @return returns the operation time at port p (T.1)
+	 */
+	private int operationTime(int p, int v, int teu) {
+		return (int) ((double) (ratioMu * teu) / (index.getProductivity(p, v) * 100));
+	}
+
+
+
+	/**
+	 * @param p a port
+	 * @param sp the next port
+	 * @param speed the speed
+	 * @return returns the sailing time from p to sp at the given speed (T.8), INFEASIBLE if it is not possible
+	 */
+	private int sailingTime(int p, int sp, int speed) {
+		int sailingTime = AuxiliaryFunctions.computeSailingTime(index.getDistance(p, sp), speed, hmax);
+		return sailingTime > 0 ? sailingTime : INFEASIBLE;
+	}
+
+
+
+	/**
+	 * @param time the total time of a rotation
+	 * @return returns the number of vessels deployed on the rotation, as in the table of W.1
+	 */
+	private int nbVesselsFor(int time) {
+		if (time <= 168) {
+			return 1;
+		}
+		if (tNbv == 0) {
+			return time % 168 > 0 ? time / 168 + 1 : time / 168;
+		} else if (tNbv == 1) {
+			return time % 168 >= 168 / 2 ? time / 168 + 1 : time / 168;
+		}
+		return (double) time / 168 - time / 168 <= 0.5 ? time / 168 : time / 168 + 1;
+	}
+
+
+
+	/**
+	 * computes the profit of the rotation at a given speed
+	 * @param circuit the circuit
+	 * @param v the vessel type
+	 * @param s the index of the speed in the speeds of vessel type v
+	 * @param candidates the commodities which may be carried
+	 * @param nbCandidates the number of commodities which may be carried
+	 * @param carried true for the commodities which are carried
+	 * @param teu the number of TEU loaded or unloaded at each port of the circuit
+	 * @param timeIn the time the vessel arrives at each port of the circuit
+	 * @param timeOut the time the vessel leaves each port of the circuit
+	 * @param discarded if not null, the commodities whose transit time is too long are marked in it
+	 * @return returns the profit, Long.MIN_VALUE if the rotation cannot be sailed at this speed
+	 */
+	private long profit(int[] circuit, int v, int s, int[] candidates, int nbCandidates, boolean[] carried, int[] teu, int[] timeIn,
+			int[] timeOut, boolean[] discarded) {
+		int time = rotationTime(circuit, v, s, teu, timeIn, timeOut);
+		if (time == INFEASIBLE || time == 0) {
+			return Long.MIN_VALUE;
+		}
+		int n = nbVesselsFor(time);
+		if (n > available[v]) {
+			return Long.MIN_VALUE;
+		}
+		long profit = -7L * rate[v] * n;
+		for (int i = 0; i < circuit.length; i++) {
+			int p = circuit[i];
+			profit -= index.getCallCost(p, v) + (long) fuelCost[v] * consumptions[v][s] * sailingTime(p, circuit[(i + 1) % circuit.length], speeds[v][s]);
+		}
+		for (int c = 0; c < nbCandidates; c++) {
+			if (!carried[c]) {
+				continue;
+			}
+			int k = candidates[c];
+			if (k < nbCommoditiesWithTt && tsmax >= 1) {
+				int in = timeOut[position[pol[k]]];
+				int out = timeIn[position[pod[k]]];
+				int delta = in <= out ? out - in : out - in + time;
+				if (delta > transitTime[k]) {
+					if (discarded != null) {
+						discarded[c] = true;
+					}
+					continue;
+				}
+			}
+			profit += (long) quantity[k] * rev[k];
+		}
+		return profit;
+	}
+}
@@ -0,0 +1,300 @@
+package heuristic;
+
+import java.util.Arrays;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.variables.IntVar;
+
+import model_v0.Model;
+import model_v0.VarKey;
+
+public class RotationPlan {
+
+	/** This class allows to represent a network given by the values of the decision variables of the model: the vessel type, the circuit
+	 *  and the speeds of each rotation, and the acceptance and the routing of each commodity. */
+
+	private int[] vessels;									//the type of vessels used for rotation r (0 if rotation r is not used), as v_r
+	private int[][] successors;								//the successor of port/canal p in rotation r (p if p is not visited), as s_rp
+	private int[][] speeds;									//the speed of rotation r when leaving port/canal p (0 if p is not visited), as speed_rp
+	private int[] accepted;									//1 if commodity k is accepted, 0 otherwise, as alpha_k
+	private int[][] rotations;								//the index of the ith rotation used to carry commodity k (-1 if none), as rot_ki
+	private int[][] ports;									//the ith port in which commodity k is loaded, unloaded or transshipped (-1 if none), as port_ki
+	private long objective;									//the value of the objective function for this network, as estimated when it was built
+
+
+
+	/**
+	 * Constructor for creating an empty RotationPlan object, in which no rotation is used and no commodity is accepted
+	 * @param nbRotations the number of rotations
+	 * @param nbInfra the number of ports and canals (ports, then canals, then canals again)
+	 * @param nbCommodities the number of commodities
+	 * @param tsmax the maximal number of transshipments
+	 */
+	public RotationPlan(int nbRotations, int nbInfra, int nbCommodities, int tsmax) {
+		this.vessels = new int[nbRotations];
+		this.successors = new int[nbRotations][nbInfra];
+		this.speeds = new int[nbRotations][nbInfra];
+		for (int r = 0; r < nbRotations; r++) {
+			for (int p = 0; p < nbInfra; p++) {
+				successors[r][p] = p;
+			}
+		}
+		this.accepted = new int[nbCommodities];
+		this.rotations = new int[nbCommodities][tsmax + 1];
+		this.ports = new int[nbCommodities][tsmax + 2];
+		for (int k = 0; k < nbCommodities; k++) {
+			Arrays.fill(rotations[k], -1);
+			Arrays.fill(ports[k], -1);
+		}
+	}
+
+
+
+	/**
+	 * @param model a model whose decision variables are instantiated, as when its solver has just found a solution
+	 * @return returns the network given by the values of the decision variables of the model, whose objective is the value of the
+	 *         objective of the model
+	 */
+	public static RotationPlan of(Model model) {
+		IntVar[] vR = model.get(VarKey.V_R);
+		IntVar[][] sRp = model.get(VarKey.S_RP);
+		IntVar[][] speedRp = model.get(VarKey.SPEED_RP);
+		IntVar[] alphaK = model.get(VarKey.ALPHA_K);
+		IntVar[][] rotKi = model.get(VarKey.ROT_KI);
+		IntVar[][] portKi = model.get(VarKey.PORT_KI);
+		RotationPlan plan = new RotationPlan(vR.length, sRp[0].length, alphaK.length, model.getNumber("tsmax"));
+		for (int r = 0; r < vR.length; r++) {
+			plan.vessels[r] = vR[r].getValue();
+			for (int p = 0; p < sRp[r].length; p++) {
+				plan.successors[r][p] = sRp[r][p].getValue();
+				plan.speeds[r][p] = speedRp[r][p].getValue();
+			}
+		}
+		for (int k = 0; k < alphaK.length; k++) {
+			plan.accepted[k] = alphaK[k].getValue();
+			for (int i = 0; i < rotKi[k].length; i++) {
+				plan.rotations[k][i] = rotKi[k][i].getValue();
+			}
+			for (int i = 0; i < portKi[k].length; i++) {
+				plan.ports[k][i] = portKi[k][i].getValue();
+			}
+		}
+		plan.setObjective(((IntVar) model.getChocoModel().getObjective()).getValue());
+		return plan;
+	}
+
+
+
+	/**
+	 * uses rotation r with the given vessel type and the given circuit, sailed at the given speed
+	 * @param r the index of the rotation
+	 * @param vessel the type of vessels (from 1)
+	 * @param circuit the ports/canals of the circuit, in the order in which they are visited
+	 * @param speed the speed on every leg
+	 */
+	public void setRotation(int r, int vessel, int[] circuit, int speed) {
+		vessels[r] = vessel;
+		for (int i = 0; i < circuit.length; i++) {
+			successors[r][circuit[i]] = circuit[(i + 1) % circuit.length];
+			speeds[r][circuit[i]] = speed;
+		}
+	}
+
+
+
+	/**
+	 * accepts commodity k, carried by rotation r from its origin port to its destination port without transshipment
+	 * @param k the index of the commodity
+	 * @param r the index of the rotation
+	 * @param pol the origin port of the commodity
+	 * @param pod the destination port of the commodity
+	 */
+	public void setDirectRoute(int k, int r, int pol, int pod) {
+		accepted[k] = 1;
+		rotations[k][0] = r;
+		ports[k][0] = pol;
+		ports[k][1] = pod;
+	}
+
+
+
+	/**
+	 * accepts commodity k, carried by the given rotations between the given ports
+	 * @param k the index of the commodity
+	 * @param route the rotations used to carry the commodity, in order
+	 * @param stops the ports in which the commodity is loaded, transshipped or unloaded (one more than the rotations)
+	 */
+	public void setRoute(int k, int[] route, int[] stops) {
+		accepted[k] = 1;
+		for (int i = 0; i < route.length; i++) {
+			rotations[k][i] = route[i];
+		}
+		for (int i = 0; i < stops.length; i++) {
+			ports[k][i] = stops[i];
+		}
+	}
+
+
+
+	/**
+	 * @param order the rotations of this plan, in the order in which they are copied
+	 * @return returns a copy of the plan with the same rotations in the given order, in which no commodity is accepted
+	 */
+	public RotationPlan copyRotations(int[] order) {
+		RotationPlan copy = new RotationPlan(vessels.length, successors.length > 0 ? successors[0].length : 0, accepted.length, rotations.length > 0
+				? rotations[0].length - 1 : 0);
+		for (int r = 0; r < vessels.length; r++) {
+			copy.vessels[r] = vessels[order[r]];
+			copy.successors[r] = successors[order[r]].clone();
+			copy.speeds[r] = speeds[order[r]].clone();
+		}
+		return copy;
+	}
+
+
+
+	/**
+	 * @return returns the number of rotations
+	 */
+	public int getNbRotations() {
+		return vessels.length;
+	}
+
+
+
+	/**
+	 * @param r the index of the rotation
+	 * @return returns the type of vessels used for rotation r (from 1), 0 if rotation r is not used
+	 */
+	public int getVessel(int r) {
+		return vessels[r];
+	}
+
+
+
+	/**
+	 * @param r the index of the rotation
+	 * @param p a port/canal
+	 * @return returns the successor of p in rotation r, p if it is not visited
+	 */
+	public int getSuccessor(int r, int p) {
+		return successors[r][p];
+	}
+
+
+
+	/**
+	 * @param r the index of the rotation
+	 * @param p a port/canal
+	 * @return returns the speed of rotation r when leaving p, 0 if it is not visited
+	 */
+	public int getSpeed(int r, int p) {
+		return speeds[r][p];
+	}
+
+
+
+	/**
+	 * @param objective the value of the objective function for this network
+	 */
+	public void setObjective(long objective) {
+		this.objective = objective;
+	}
+
+
+
+	/**
+	 * @return returns the value of the objective function for this network, as estimated when it was built
+	 */
+	public long getObjective() {
+		return objective;
+	}
+
+
+
+	/**
+	 * @return returns the number of used rotations
+	 */
+	public int getNbUsedRotations() {
+		int used = 0;
+		for (int vessel : vessels) {
+			if (vessel != 0) {
+				used++;
+			}
+		}
+		return used;
+	}
+
+
+
+	/**
+	 * @return returns the number of accepted commodities
+	 */
+	public int getNbAcceptedCommodities() {
+		int nb = 0;
+		for (int a : accepted) {
+			nb += a;
+		}
+		return nb;
+	}
+
+
+
+	/**
+	 * declares the values of the plan as hints for the solver of the given model: the first dive of the search tries them first
+	 * @param model the model
+	 */
+	public void addHints(Model model) {
+		Solver solver = model.getChocoModel().getSolver();
+		forEachValue(model, solver::addHint);
+	}
+
+
+
+	/**
+	 * fixes the decision variables of the given model to the values of the plan
+	 * @param model the model
+	 */
+	public void fix(Model model) {
+		forEachValue(model, (var, value) -> model.getChocoModel().arithm(var, "=", value).post());
+	}
+
+
+
+	/** This interface allows to handle the value of a decision variable in the plan */
+	private interface ValueConsumer {
+		void accept(IntVar var, int value);
+	}
+
+
+
+	/**
+	 * calls the consumer for each decision variable of the model and its value in the plan
+	 * @param model the model
+	 * @param consumer the consumer
+	 */
+	private void forEachValue(Model model, ValueConsumer consumer) {
+		IntVar[] vR = model.get(VarKey.V_R);
+		IntVar[][] sRp = model.get(VarKey.S_RP);
+		IntVar[][] speedRp = model.get(VarKey.SPEED_RP);
+		for (int r = 0; r < vessels.length; r++) {
+			consumer.accept(vR[r], vessels[r]);
+			for (int p = 0; p < successors[r].length; p++) {
+				consumer.accept(sRp[r][p], successors[r][p]);
+				consumer.accept(speedRp[r][p], speeds[r][p]);
+			}
+		}
+		IntVar[] alphaK = model.get(VarKey.ALPHA_K);
+		IntVar[][] rotKi = model.get(VarKey.ROT_KI);
+		IntVar[][] portKi = model.get(VarKey.PORT_KI);
+		for (int k = 0; k < accepted.length; k++) {
+			consumer.accept(alphaK[k], accepted[k]);
+			for (int i = 0; i < rotations[k].length; i++) {
+				consumer.accept(rotKi[k][i], rotations[k][i]);
+			}
+			for (int i = 0; i < ports[k].length; i++) {
+				consumer.accept(portKi[k][i], ports[k][i]);
+			}
+		}
+	}
+}
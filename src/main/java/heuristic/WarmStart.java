@@ -0,0 +1,52 @@
+package heuristic;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.variables.IntVar;
+
+import model_v0.Model;
+import model_v0.ModelBuilder;
+
+public class WarmStart {
+
+	/** This class allows to start the search of a model from a network built by a heuristic. The network is first checked on a separate
+	 *  model in which its decision variables are fixed: only then is its objective value a lower bound of the optimal objective. */
+
+
+
+	/**
+	 * checks that the network is a solution of the model, and sets its objective to the best objective found when it is fixed
+	 * @param builder the builder of the model
+	 * @param plan the network
+	 * @param timeLimit the time limit (in milliseconds) of the check
+	 * @return returns true if the network is a solution of the model
+	 */
+	public static boolean verify(ModelBuilder builder, RotationPlan plan, long timeLimit) {
+		Model model = builder.build();
+		plan.fix(model);
+		Solver solver = model.getChocoModel().getSolver();
+		solver.limitTime(timeLimit);
+		IntVar objective = (IntVar) model.getChocoModel().getObjective();
+		boolean found = false;
+		while (solver.solve()) {
+			plan.setObjective(objective.getValue());
+			found = true;
+		}
+		return found;
+	}
+
+
+
+	/**
+	 * declares the network as hints for the search of the model and, if it is verified, its objective as a lower bound of the objective
+	 * @param model the model
+	 * @param plan the network
+	 * @param verified true if the network has been checked by verify
+	 */
+	public static void apply(Model model, RotationPlan plan, boolean verified) {
+		plan.addHints(model);
+		if (verified) {
+			IntVar objective = (IntVar) model.getChocoModel().getObjective();
+			model.getChocoModel().arithm(objective, ">=", (int) plan.getObjective()).post();
+		}
+	}
+}
@@ -0,0 +1,328 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.variables.IntVar;
+
+import instance.Commodity;
+import instance.Distances;
+import instance.Instance;
+import instance.VesselType;
+import model_v0.Model;
+import model_v0.ModelBuilder;
+import model_v0.SearchStrategyFactory;
+import model_v0.VarKey;
+
+public class WhatIfSession {
+
+	/** This class allows to solve a model several times, changing between two solves the demand or the revenue of some commodities or
+	 *  the number of available vessels, without building the model again. The changes which can be expressed on the built model are
+	 *  posted as temporary constraints, removed before the next solve: a withdrawn commodity (demand 0) is rejected, a smaller fleet
+	 *  bounds nb_v, and lower revenues change the objective, which becomes the objective of the model plus the revenue difference of the
+	 *  accepted commodities. The other changes (another positive demand, a higher revenue, a larger fleet) cannot be expressed by
+	 *  constraints, since the revenue and the objective of the model cannot be negative at the revenues of its instance: they are written
+	 *  in a copy of the instance, from which the model is built again. Each solve starts from the best network of the previous
+	 *  one, declared as hints. The commodities and the vessel types are those of the instance of the builder. */
+
+	private ModelBuilder builder;							//the builder of the current model
+	private final SearchStrategyFactory search;				//the search strategy of the models
+	private Instance instance;								//the instance of the current model
+	private Model model;									//the current model
+	private IntVar modelObjective;							//the objective of the current model
+	private IntVar objective;								//the objective of the session: the objective of the model plus the revenue differences
+	private final List<Constraint> changes = new ArrayList<>();	//the temporary constraints posted for the changes
+	private final int[] demand;								//the demand (TEU) of each commodity, 0 if it is withdrawn
+	private final int[] revenue;							//the revenue per TEU of each commodity
+	private final int[] fleet;								//the number of available vessels of each vessel type
+	private boolean hinted;									//true if hints are declared on the solver of the current model
+	private RotationPlan best;								//the best network found by the last solve which found one
+	private boolean optimal;								//true if the last solve proved the optimality of its network
+	private int nbBuilds;									//the number of models built by the session
+	private long buildTime;									//the time spent building the models, in milliseconds
+
+
+
+	/**
+	 * Constructor for creating a WhatIfSession object, which builds the first model
+	 * @param builder the builder of the model, for the instance before any change
+	 * @param search the search strategy of the model
+	 */
+	public WhatIfSession(ModelBuilder builder, SearchStrategyFactory search) {
+		this.search = search;
+		List<Commodity> commodities = builder.getInstance().getCommodities();
+		this.demand = new int[commodities.size()];
+		this.revenue = new int[commodities.size()];
+		for (int k = 0; k < commodities.size(); k++) {
+			demand[k] = commodities.get(k).getNumber();
+			revenue[k] = commodities.get(k).getRevenue();
+		}
+		List<String> vesselTypes = builder.getInstance().getVesselTypes();
+		this.fleet = new int[vesselTypes.size()];
+		for (int v = 0; v < vesselTypes.size(); v++) {
+			fleet[v] = builder.getInstance().getVesselType(vesselTypes.get(v)).getVesselNumber();
+		}
+		build(builder);
+	}
+
+
+
+	/**
+	 * changes the demand of commodity k for the next solves
+	 * @param k the commodity
+	 * @param teu the number of TEU of the commodity, 0 to withdraw it
+	 */
+	public void setDemand(int k, int teu) {
+		if (teu < 0) {
+			throw new IllegalArgumentException("The demand (" + teu + ") of commodity " + k + " is not correct");
+		}
+		demand[k] = teu;
+	}
+
+
+
+	/**
+	 * changes the revenue of commodity k for the next solves
+	 * @param k the commodity
+	 * @param rev the revenue per TEU of the commodity
+	 */
+	public void setRevenue(int k, int rev) {
+		if (rev < 0) {
+			throw new IllegalArgumentException("The revenue (" + rev + ") of commodity " + k + " is not correct");
+		}
+		revenue[k] = rev;
+	}
+
+
+
+	/**
+	 * changes the number of available vessels of vessel type v for the next solves
+	 * @param v the vessel type (from 0)
+	 * @param number the number of available vessels
+	 */
+	public void setVesselNumber(int v, int number) {
+		if (number < 0) {
+			throw new IllegalArgumentException("The number of vessels (" + number + ") of vessel type " + v + " is not correct");
+		}
+		fleet[v] = number;
+	}
+
+
+
+	/**
+	 * solves the model with the current changes, starting from the best network of the previous solves
+	 * @param timeLimit the time limit of the search, in milliseconds
+	 * @return returns the best network found, whose objective takes the changes into account, null if no network has been found
+	 * @throws Exception if the changed instance is not correct
+	 */
+	public RotationPlan solve(long timeLimit) throws Exception {
+		if (needsBuild()) {
+			build(builder.forInstance(changedInstance()));
+		}
+		Solver solver = model.getChocoModel().getSolver();
+		solver.reset();
+		model.getChocoModel().unpost(changes.toArray(new Constraint[0]));
+		changes.clear();
+		postChanges();
+		model.getChocoModel().setObjective(org.chocosolver.solver.Model.MAXIMIZE, objective);
+		if (hinted) {
+			solver.removeHints();
+		}
+		if (best != null) {
+			best.addHints(model);
+			hinted = true;
+		}
+		solver.removeAllStopCriteria();
+		solver.limitTime(timeLimit);
+
+		RotationPlan found = null;
+		while (solver.solve()) {
+			found = RotationPlan.of(model);
+		}
+		optimal = !solver.isStopCriterionMet();
+		if (found != null) {
+			best = found;
+		}
+		return found;
+	}
+
+
+
+	/**
+	 * @return returns true if the last solve proved the optimality of its network (or that there is none)
+	 */
+	public boolean isOptimal() {
+		return optimal;
+	}
+
+
+
+	/**
+	 * @return returns the current model, whose solver holds the statistics of the last solve
+	 */
+	public Model getModel() {
+		return model;
+	}
+
+
+
+	/**
+	 * @return returns the number of models built by the session
+	 */
+	public int getNbBuilds() {
+		return nbBuilds;
+	}
+
+
+
+	/**
+	 * @return returns the time spent building the models, in milliseconds
+	 */
+	public long getBuildTime() {
+		return buildTime;
+	}
+
+
+
+	/**
+	 * builds the model of the given builder, and the variable of the objective of the session
+	 * @param builder the builder
+	 */
+	private void build(ModelBuilder builder) {
+		long start = System.currentTimeMillis();
+		this.builder = builder;
+		this.instance = builder.getInstance();
+		this.model = builder.build();
+		search.apply(model);
+		this.modelObjective = (IntVar) model.getChocoModel().getObjective();
+		this.objective = model.getChocoModel().intVar("whatIfObjective", 0, IntVar.MAX_INT_BOUND);
+		changes.clear();
+		hinted = false;
+		nbBuilds++;
+		buildTime += System.currentTimeMillis() - start;
+	}
+
+
+
+	/**
+	 * @return returns true if a change cannot be expressed on the current model: a positive demand other than the demand of the
+	 *         instance, a revenue higher than in the instance or whose difference does not fit in an int, or more vessels than in the
+	 *         instance
+	 */
+	private boolean needsBuild() {
+		for (int k = 0; k < demand.length; k++) {
+			Commodity commodity = instance.getCommodities().get(k);
+			if (demand[k] > 0 && demand[k] != commodity.getNumber()) {
+				return true;
+			}
+			if (demand[k] > 0 && (revenue[k] > commodity.getRevenue() || revenueDifference(k) < Integer.MIN_VALUE)) {
+				return true;
+			}
+		}
+		for (int v = 0; v < fleet.length; v++) {
+			if (fleet[v] > instance.getVesselType(instance.getVesselTypes().get(v)).getVesselNumber()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	/**
+	 * posts the temporary constraints of the changes which can be expressed on the current model
+	 */
+	private void postChanges() {
+		org.chocosolver.solver.Model chocoModel = model.getChocoModel();
+		IntVar[] alphaK = model.get(VarKey.ALPHA_K);
+		List<IntVar> vars = new ArrayList<>();
+		List<Integer> coeffs = new ArrayList<>();
+		vars.add(modelObjective);
+		coeffs.add(1);
+		for (int k = 0; k < demand.length; k++) {
+			Commodity commodity = instance.getCommodities().get(k);
+			if (demand[k] == 0) {
+				changes.add(chocoModel.arithm(alphaK[k], "=", 0));
+			} else if (revenue[k] != commodity.getRevenue()) {
+				vars.add(alphaK[k]);
+				coeffs.add(Math.toIntExact(revenueDifference(k)));
+			}
+		}
+		IntVar[] nbV = model.get(VarKey.NB_V);
+		for (int v = 0; v < fleet.length; v++) {
+			if (fleet[v] < instance.getVesselType(instance.getVesselTypes().get(v)).getVesselNumber()) {
+				changes.add(chocoModel.arithm(nbV[v], "<=", fleet[v]));
+			}
+		}
+		vars.add(objective);
+		coeffs.add(-1);
+		changes.add(chocoModel.scalar(vars.toArray(new IntVar[0]), coeffs.stream().mapToInt(Integer::intValue).toArray(), "=", 0));
+		for (Constraint constraint : changes) {
+			constraint.post();
+		}
+	}
+
+
+
+	/**
+	 * @param k a commodity
+	 * @return returns the difference between the revenue of commodity k with its current revenue and in the current instance
+	 */
+	private long revenueDifference(int k) {
+		Commodity commodity = instance.getCommodities().get(k);
+		return Math.multiplyExact((long) commodity.getNumber(), (long) revenue[k] - commodity.getRevenue());
+	}
+
+
+
+	/**
+	 * @return returns a copy of the current instance with the current demands (the withdrawn commodities being kept), revenues and
+	 *         numbers of vessels (a smaller fleet being kept)
+	 * @throws Exception if the changed instance is not correct
+	 */
+	private Instance changedInstance() throws Exception {
+		Instance changed = new Instance();
+		for (String fuelType : instance.getFuelTypes()) {
+			changed.addFuelType(instance.getFuelType(fuelType));
+		}
+		for (int v = 0; v < fleet.length; v++) {
+			VesselType vesselType = instance.getVesselType(instance.getVesselTypes().get(v));
+			if (fleet[v] <= vesselType.getVesselNumber()) {
+				changed.addVesselType(vesselType);
+				continue;
+			}
+			VesselType larger = new VesselType(vesselType.getLabel(), vesselType.getMaximalCapacity(), vesselType.getRealCapacity(), fleet[v],
+					vesselType.getRate(), vesselType.getMinimalSpeed(), vesselType.getMaximalSpeed());
+			for (String fuelType : vesselType.getFuelType()) {
+				larger.addFuelInformation(fuelType, vesselType.getDesignSpeed(fuelType), vesselType.getDesignConsumption(fuelType));
+			}
+			changed.addVesselType(larger);
+		}
+		for (String port : instance.getPorts()) {
+			changed.addPort(instance.getPort(port));
+		}
+		for (String canal : instance.getCanals()) {
+			changed.addCanal(instance.getCanal(canal));
+		}
+		Distances distances = instance.getDistances();
+		for (String origin : distances.getOrigins()) {
+			for (Map.Entry<String, Integer> entry : distances.getDistancesFrom(origin).entrySet()) {
+				changed.addDistance(origin, entry.getKey(), entry.getValue());
+			}
+		}
+		//the commodities are added in the same order, so that they keep their index
+		for (int k = 0; k < demand.length; k++) {
+			Commodity commodity = instance.getCommodities().get(k);
+			if (demand[k] == 0 || (demand[k] == commodity.getNumber() && revenue[k] == commodity.getRevenue())) {
+				changed.addCommodity(commodity);
+			} else {
+				changed.addCommodity(new Commodity(commodity.getPol(), commodity.getPod(), demand[k], revenue[k], commodity.getNature(),
+						commodity.getTransitTime()));
+			}
+		}
+		return changed;
+	}
+}
@@ -0,0 +1,193 @@
+/**
+ * This class allows aggregating the commodities of an instance of the Liner Ship Network Design Problem which have the same origin,
+ * destination and nature into fewer flows
+ *
+ * @version 1.0
+ *
+ * @author TNTM 6 Team
+ */
+
+package instance;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CommodityAggregation {
+  private Instance original;                          // the original instance
+  private Instance aggregated;                        // the instance whose commodities are the flows
+  private int[] flows;                                // the flow carrying each original commodity
+  private ArrayList<ArrayList<Integer>> commodities;  // the original commodities carried by each flow
+  private long lostRevenue;                           // the revenue lost by rounding the revenue per TEU of the flows
+
+
+  /**
+   * aggregates the commodities of the given instance. The commodities with the same origin, destination and nature are merged into a
+   * flow, by decreasing revenue per TEU, as long as the quantity of the flow fits in the largest vessel type (otherwise the flow could
+   * not be loaded, and the commodities are split into several flows). The quantity of a flow is the sum of the quantities, its revenue
+   * per TEU the average revenue (rounded down) and its transit time the tightest transit time of its commodities.
+   * @param instance the instance
+   * @exception Exception the aggregated instance is not correct
+   */
+  public CommodityAggregation (Instance instance) throws Exception {
+    this.original = instance;
+    this.aggregated = new Instance();
+    for (String fuelType : instance.getFuelTypes()) {
+      this.aggregated.addFuelType(instance.getFuelType(fuelType));
+    }
+    for (String vesselType : instance.getVesselTypes()) {
+      this.aggregated.addVesselType(instance.getVesselType(vesselType));
+    }
+    for (String port : instance.getPorts()) {
+      this.aggregated.addPort(instance.getPort(port));
+    }
+    for (String canal : instance.getCanals()) {
+      this.aggregated.addCanal(instance.getCanal(canal));
+    }
+    Distances distances = instance.getDistances();
+    for (String origin : distances.getOrigins()) {
+      for (Map.Entry<String, Integer> entry : distances.getDistancesFrom(origin).entrySet()) {
+        this.aggregated.addDistance(origin, entry.getKey(), entry.getValue());
+      }
+    }
+
+    int maxCapacity = 0;
+    for (String vesselType : instance.getVesselTypes()) {
+      maxCapacity = Math.max(maxCapacity, instance.getVesselType(vesselType).getMaximalCapacity());
+    }
+
+    // we group the commodities by origin, destination and nature
+    List<Commodity> list = instance.getCommodities();
+    LinkedHashMap<String, ArrayList<Integer>> groups = new LinkedHashMap<String, ArrayList<Integer>>();
+    for (int k = 0; k < list.size(); k++) {
+      Commodity c = list.get(k);
+      groups.computeIfAbsent(c.getPol() + "/" + c.getPod() + "/" + c.getNature(), key -> new ArrayList<Integer>()).add(k);
+    }
+
+    // we build the flows of each group
+    ArrayList<Commodity> flowCommodities = new ArrayList<Commodity>();
+    ArrayList<ArrayList<Integer>> members = new ArrayList<ArrayList<Integer>>();
+    for (ArrayList<Integer> group : groups.values()) {
+      group.sort(Comparator.comparingInt((Integer k) -> -list.get(k).getRevenue()));
+      ArrayList<Integer> flow = new ArrayList<Integer>();
+      int quantity = 0;
+      for (int k : group) {
+        if (!flow.isEmpty() && quantity + list.get(k).getNumber() > maxCapacity) {
+          flowCommodities.add(merge(flow));
+          members.add(flow);
+          flow = new ArrayList<Integer>();
+          quantity = 0;
+        }
+        flow.add(k);
+        quantity += list.get(k).getNumber();
+      }
+      flowCommodities.add(merge(flow));
+      members.add(flow);
+    }
+
+    // the commodities with a transit time are moved to the front of the aggregated instance
+    for (Commodity c : flowCommodities) {
+      this.aggregated.addCommodity(c);
+    }
+    this.flows = new int[list.size()];
+    this.commodities = new ArrayList<ArrayList<Integer>>();
+    for (int f = 0; f < flowCommodities.size(); f++) {
+      this.commodities.add(null);
+    }
+    for (int f = 0; f < flowCommodities.size(); f++) {
+      int index = this.aggregated.getCommodities().indexOf(flowCommodities.get(f));
+      this.commodities.set(index, members.get(f));
+      for (int k : members.get(f)) {
+        this.flows[k] = index;
+      }
+    }
+  }
+
+
+  /**
+   * merges the given commodities into one flow
+   * @param flow the original commodities of the flow
+   * @return the commodity representing the flow
+   * @exception Exception the flow is not correct
+   */
+  private Commodity merge (List<Integer> flow) throws Exception {
+    Commodity first = this.original.getCommodities().get(flow.get(0));
+    if (flow.size() == 1) {
+      return first;
+    }
+    int number = 0;
+    long revenue = 0;
+    int transitTime = 0;
+    for (int k : flow) {
+      Commodity c = this.original.getCommodities().get(k);
+      number += c.getNumber();
+      revenue += (long) c.getNumber() * c.getRevenue();
+      if (c.getTransitTime() > 0 && (transitTime == 0 || c.getTransitTime() < transitTime)) {
+        transitTime = c.getTransitTime();
+      }
+    }
+    this.lostRevenue += revenue % number;
+    return new Commodity(first.getPol(), first.getPod(), number, (int) (revenue / number), first.getNature(), transitTime);
+  }
+
+
+  /**
+   * returns the original instance
+   * @return the original instance
+   */
+  public Instance getOriginalInstance () {
+    return this.original;
+  }
+
+
+  /**
+   * returns the instance whose commodities are the flows
+   * @return the aggregated instance
+   */
+  public Instance getAggregatedInstance () {
+    return this.aggregated;
+  }
+
+
+  /**
+   * returns the flow carrying the given original commodity
+   * @param k the index of the original commodity
+   * @return the index of the flow in the aggregated instance
+   */
+  public int getFlow (int k) {
+    return this.flows[k];
+  }
+
+
+  /**
+   * returns the original commodities carried by the given flow
+   * @param f the index of the flow in the aggregated instance
+   * @return the indices of the original commodities
+   */
+  public List<Integer> getCommodities (int f) {
+    return this.commodities.get(f);
+  }
+
+
+  /**
+   * returns the revenue lost by rounding the revenue per TEU of the flows
+   * @return the revenue lost when all the flows are accepted
+   */
+  public long getLostRevenue () {
+    return this.lostRevenue;
+  }
+
+
+  /**
+   * returns a summary of the aggregation
+   * @return the number of commodities before and after the aggregation
+   */
+  @Override
+  public String toString () {
+    return "Commodity aggregation: " + this.original.getCommodities().size() + " commodities ("
+        + this.original.getNumberCommodityWithTt() + " with a transit time) into " + this.aggregated.getCommodities().size() + " flows ("
+        + this.aggregated.getNumberCommodityWithTt() + " with a transit time), revenue lost by rounding " + this.lostRevenue;
+  }
+}
@@ -8,7 +8,10 @@
 
 package instance;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 public class Distances {
   private HashMap<String, HashMap<String, Integer>> distances;   // the distances between pairs of infrastructures
@@ -37,7 +40,7 @@ public class Distances {
    * @exception the distance is not correct
    */
   public void addDistance (String origin, String destination, int distance) throws Exception {
-    if (origin == destination) {
+    if (origin.equals(destination)) {
       throw new Exception("When defining a distance the origin ("+origin+") and destination ("+destination+") are the same");
     }
     if (distance > 0) {
@@ -75,7 +78,7 @@ public class Distances {
    * @return the distance between the origin and the destination
    */
   public int getDistance (String origin, String destination) {
-    if (origin == destination) {
+    if (origin.equals(destination)) {
       return 0;
     }
     else {
@@ -89,6 +92,32 @@ public class Distances {
   }
 
 
+  /**
+   * returns the infrastructures from which at least one distance is defined
+   * 
+   * @return the origins of the distances
+   */
+  public Set<String> getOrigins () {
+    return Collections.unmodifiableSet(this.distances.keySet());
+  }
+
+
+  /**
+   * returns the distances from the given infrastructure
+   * 
+   * @param origin the origin
+   * @return the distances from the origin, indexed by destination
+   */
+  public Map<String, Integer> getDistancesFrom (String origin) {
+    if (! this.distances.containsKey(origin)) {
+      return Collections.emptyMap();
+    }
+    else {
+      return Collections.unmodifiableMap(this.distances.get(origin));
+    }
+  }
+
+
   /**
    * returns the number of distances
    * 
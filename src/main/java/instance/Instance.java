@@ -25,6 +25,7 @@ public class Instance {
   private ArrayList<Commodity> commodities;         // the commodities
   private int numberCommodityWithTt;                // the number of commodities with a transit time constraint
   private Distances distances;                      // the distances between pairs of infrastructures
+  private InstanceIndex index;                      // the indexed view of the instance (null if it must be rebuilt)
   
   
   /**
@@ -42,6 +43,7 @@ public class Instance {
     this.commodities = new ArrayList<Commodity>();
     this.numberCommodityWithTt = 0;
     this.distances = new Distances();
+    this.index = null;
   }
   
   
@@ -99,6 +101,18 @@ public class Instance {
   }
     
 
+  /**
+   * returns the indexed view of the instance, built on the first call after the last modification of the instance
+   * @return the indexed view of the instance
+   */
+  public synchronized InstanceIndex getIndex () {
+    if (this.index == null) {
+      this.index = new InstanceIndex(this);
+    }
+    return this.index;
+  }
+    
+
   /**
    * adds a new port to the instance
    * @param port the port to add
@@ -109,6 +123,7 @@ public class Instance {
       throw new Exception("The port "+port.getCode()+" is already defined in the instance");
     }
     else {
+      this.index = null;
       this.portCodes.add(port.getCode());
       this.ports.put(port.getCode(),port);
     }
@@ -125,6 +140,7 @@ public class Instance {
       throw new Exception("The canal "+canal.getCode()+" is already defined in the instance");
     }
     else {
+      this.index = null;
       this.canalCodes.add(canal.getCode());
       this.canals.put(canal.getCode(),canal);
     }
@@ -141,6 +157,7 @@ public class Instance {
       throw new Exception("The vessel type "+vesselType.getLabel()+" is already defined in the instance");
     }
     else {
+      this.index = null;
       this.vesselTypeLabels.add(vesselType.getLabel());
       this.vesselTypes.put(vesselType.getLabel(),vesselType);
     }
@@ -194,6 +211,7 @@ public class Instance {
    */
   public void addDistance (String origin, String destination, int distance) throws Exception {
     if ((this.ports.containsKey(origin) || this.canals.containsKey(origin)) && (this.ports.containsKey(destination) || this.canals.containsKey(destination))) {
+      this.index = null;
       this.distances.addDistance(origin, destination, distance);
     }
     else {
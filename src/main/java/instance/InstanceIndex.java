@@ -0,0 +1,225 @@
+/**
+ * This class allows representing an instance of the Liner Ship Network Design Problem with integer indices
+ *
+ * @version 1.0
+ *
+ * @author TNTM 6 Team
+ */
+
+package instance;
+
+import java.util.ArrayList;
+
+public class InstanceIndex {
+  private int portNumber;                 // the number of ports
+  private int canalNumber;                // the number of canals
+  private int infraNumber;                // the number of infrastructures (ports, then canals, then canals again)
+  private int vesselTypeNumber;           // the number of vessel types
+  private String[] codes;                 // the code of each infrastructure
+  private int[] distances;                // the distances between pairs of infrastructures (row-major, 0 if there is no distance)
+  private int[] durations;                // the duration of the traversal of each infrastructure (0 for ports)
+  private int[] transshipmentCosts;       // the transshipment cost of each port
+  private int[][] callCosts;              // the call cost (port) or the canal cost (canal) of each infrastructure for each vessel type
+  private int[][] waitingTimes;           // the waiting time of each infrastructure for each vessel type
+  private int[][] productivities;         // the productivity of each port for each vessel type
+  private int[][] manoeuvringTimesIn;     // the manoeuvring time for entering each port for each vessel type
+  private int[][] manoeuvringTimesOut;    // the manoeuvring time for leaving each port for each vessel type
+
+
+  /**
+   * creates the indexed view of the given instance. Infrastructures are indexed as ports, then canals, then canals again.
+   * Vessel types are indexed in the order of instance.getVesselTypes()
+   * @param instance the instance
+   */
+  public InstanceIndex (Instance instance) {
+    ArrayList<String> ports = instance.getPorts();
+    ArrayList<String> canals = instance.getCanals();
+    ArrayList<String> vesselTypes = instance.getVesselTypes();
+    this.portNumber = ports.size();
+    this.canalNumber = canals.size();
+    this.infraNumber = this.portNumber + 2 * this.canalNumber;
+    this.vesselTypeNumber = vesselTypes.size();
+
+    this.codes = new String[this.infraNumber];
+    for (int p = 0; p < this.portNumber; p++) {
+      this.codes[p] = ports.get(p);
+    }
+    for (int c = 0; c < this.canalNumber; c++) {
+      this.codes[this.portNumber + c] = canals.get(c);
+      this.codes[this.portNumber + this.canalNumber + c] = canals.get(c);
+    }
+
+    // we compile the distances
+    Distances d = instance.getDistances();
+    this.distances = new int[this.infraNumber * this.infraNumber];
+    for (int i = 0; i < this.infraNumber; i++) {
+      for (int j = 0; j < this.infraNumber; j++) {
+        this.distances[i * this.infraNumber + j] = d.getDistance(this.codes[i], this.codes[j]);
+      }
+    }
+
+    // we compile the information about infrastructures and vessel types
+    this.durations = new int[this.infraNumber];
+    this.transshipmentCosts = new int[this.portNumber];
+    this.callCosts = new int[this.infraNumber][this.vesselTypeNumber];
+    this.waitingTimes = new int[this.infraNumber][this.vesselTypeNumber];
+    this.productivities = new int[this.portNumber][this.vesselTypeNumber];
+    this.manoeuvringTimesIn = new int[this.portNumber][this.vesselTypeNumber];
+    this.manoeuvringTimesOut = new int[this.portNumber][this.vesselTypeNumber];
+    for (int i = 0; i < this.infraNumber; i++) {
+      if (i < this.portNumber) {
+        Port port = instance.getPort(this.codes[i]);
+        this.transshipmentCosts[i] = port.getTransshipmentCost();
+        for (int v = 0; v < this.vesselTypeNumber; v++) {
+          String vesselType = vesselTypes.get(v);
+          this.callCosts[i][v] = port.getCallCost(vesselType);
+          this.waitingTimes[i][v] = port.getWaitingTime(vesselType);
+          this.productivities[i][v] = port.getProductivity(vesselType);
+          this.manoeuvringTimesIn[i][v] = port.getManoeuvringTimeIn(vesselType);
+          this.manoeuvringTimesOut[i][v] = port.getManoeuvringTimeOut(vesselType);
+        }
+      }
+      else {
+        Canal canal = instance.getCanal(this.codes[i]);
+        this.durations[i] = canal.getDuration();
+        for (int v = 0; v < this.vesselTypeNumber; v++) {
+          String vesselType = vesselTypes.get(v);
+          this.callCosts[i][v] = canal.getCanalCost(vesselType);
+          this.waitingTimes[i][v] = canal.getWaitingTime(vesselType);
+        }
+      }
+    }
+  }
+
+
+  /**
+   * returns the number of ports
+   * @return the number of ports
+   */
+  public int getPortNumber () {
+    return this.portNumber;
+  }
+
+
+  /**
+   * returns the number of canals
+   * @return the number of canals
+   */
+  public int getCanalNumber () {
+    return this.canalNumber;
+  }
+
+
+  /**
+   * returns the number of infrastructures (ports, then canals, then canals again)
+   * @return the number of infrastructures
+   */
+  public int getInfraNumber () {
+    return this.infraNumber;
+  }
+
+
+  /**
+   * returns the number of vessel types
+   * @return the number of vessel types
+   */
+  public int getVesselTypeNumber () {
+    return this.vesselTypeNumber;
+  }
+
+
+  /**
+   * returns the code of the given infrastructure
+   * @param i the index of the infrastructure
+   * @return the code of the infrastructure
+   */
+  public String getCode (int i) {
+    return this.codes[i];
+  }
+
+
+  /**
+   * returns the distance between two infrastructures
+   * @param origin the index of the origin
+   * @param destination the index of the destination
+   * @return the distance between the origin and the destination, 0 if there is no distance
+   */
+  public int getDistance (int origin, int destination) {
+    return this.distances[origin * this.infraNumber + destination];
+  }
+
+
+  /**
+   * returns the duration of the traversal of the given infrastructure
+   * @param i the index of the infrastructure
+   * @return the duration of the canal traversal, 0 for a port
+   */
+  public int getDuration (int i) {
+    return this.durations[i];
+  }
+
+
+  /**
+   * returns the transshipment cost of the given port
+   * @param p the index of the port
+   * @return the transshipment cost of the port
+   */
+  public int getTransshipmentCost (int p) {
+    return this.transshipmentCosts[p];
+  }
+
+
+  /**
+   * returns the call cost of a port or the cost of a canal for the given vessel type
+   * @param i the index of the infrastructure
+   * @param v the index of the vessel type
+   * @return the call cost (port) or the canal cost (canal)
+   */
+  public int getCallCost (int i, int v) {
+    return this.callCosts[i][v];
+  }
+
+
+  /**
+   * returns the waiting time of an infrastructure for the given vessel type
+   * @param i the index of the infrastructure
+   * @param v the index of the vessel type
+   * @return the waiting time
+   */
+  public int getWaitingTime (int i, int v) {
+    return this.waitingTimes[i][v];
+  }
+
+
+  /**
+   * returns the productivity of a port for the given vessel type
+   * @param p the index of the port
+   * @param v the index of the vessel type
+   * @return the productivity
+   */
+  public int getProductivity (int p, int v) {
+    return this.productivities[p][v];
+  }
+
+
+  /**
+   * returns the manoeuvring time for entering a port for the given vessel type
+   * @param p the index of the port
+   * @param v the index of the vessel type
+   * @return the manoeuvring time for entering the port
+   */
+  public int getManoeuvringTimeIn (int p, int v) {
+    return this.manoeuvringTimesIn[p][v];
+  }
+
+
+  /**
+   * returns the manoeuvring time for leaving a port for the given vessel type
+   * @param p the index of the port
+   * @param v the index of the vessel type
+   * @return the manoeuvring time for leaving the port
+   */
+  public int getManoeuvringTimeOut (int p, int v) {
+    return this.manoeuvringTimesOut[p][v];
+  }
+}
@@ -1,6 +1,6 @@
 /**
  * This class allows representing an instance of the Liner Ship Network Design Problem
- * 
+ *
  * @version 1.0
  *
  * @author TNTM 6 Team
@@ -9,25 +9,36 @@
 package instance;
 
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javax.json.Json;
-import javax.json.JsonArray;
-import javax.json.JsonNumber;
-import javax.json.JsonObject;
-import javax.json.JsonReader;
-import javax.json.JsonString;
-import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
 
 public class InstanceReader {
-  private Instance instance;        // the read instance
-  private JsonObject mainObject;    // the root of the JSON document
-  
-  
+  private static final String[] SECTIONS = {"fuels", "vessels", "ports", "canals", "cargos"};   // the sections of the file, in the order in which they must be added to the instance
+
+  private Instance instance;                              // the read instance
+  private HashMap<String, List<Object>> readSections;     // the sections read but not added yet to the instance
+  private int addedSections;                              // the number of sections (in the order of SECTIONS) added to the instance
+  private boolean distancesRead;                          // true if the distances have been read
+  private ArrayList<String> origins;                      // the origins of the distances read before the ports and the canals are added
+  private ArrayList<String> destinations;                 // the destinations of the distances read before the ports and the canals are added
+  private ArrayList<Integer> miles;                       // the distances read before the ports and the canals are added
+
+
   /**
-   * creates an instance from the data of the file whose name is filename
+   * creates an instance from the data of the file whose name is filename.
+   * The file is read with a streaming parser: each section is added to the instance as soon as the sections it depends on are added,
+   * so that the distances are added while they are read when they come after the ports and the canals
    * @param filename the name of the file containing the instance
    * @exception IOException the file does not exist
    * @exception Exception a port, a canal, a fuel type, a vessel type, a commodity or a distance is not correct
@@ -39,42 +50,94 @@ public class InstanceReader {
       throw new IOException ("The file "+filename+" does not exist");
     }
 
-    // we open the file
-    InputStream is =  new FileInputStream(f);
-    
-    // we create a JsonReader
-    JsonReader reader = Json.createReader(is);
-    
-    // we get the main object
-    this.mainObject = reader.readObject();
-
     // we create the instance
     this.instance = new Instance ();
-    
-    // we read each type of data
-    this.readFuelTypes();
-    this.readVesselTypes();
-    this.readPorts();
-    this.readCanals();
-    this.readCommodities();
-    this.readDistances();
+    this.readSections = new HashMap<String, List<Object>>();
+    this.addedSections = 0;
+    this.distancesRead = false;
+    this.origins = new ArrayList<String>();
+    this.destinations = new ArrayList<String>();
+    this.miles = new ArrayList<Integer>();
+
+    // we open the file and we read each type of data
+    try (InputStream is = new BufferedInputStream(new FileInputStream(f), 1 << 16);
+         JsonParser parser = Json.createParser(is)) {
+      if (parser.next() != Event.START_OBJECT) {
+        throw new Exception ("The file "+filename+" does not contain a JSON object");
+      }
+
+      while (parser.next() == Event.KEY_NAME) {
+        String key = parser.getString();
+        Event event = parser.next();
+        if (key.equals("distances") && event == Event.START_ARRAY) {
+          this.readDistances(parser);
+        }
+        else if (isSection(key) && event == Event.START_ARRAY) {
+          this.readSections.put(key, readArray(parser));
+        }
+        else {
+          readValue(parser, event);
+        }
+        this.addReadSections();
+      }
+    }
+
+    // we check that all the data have been read
+    if (this.addedSections < SECTIONS.length) {
+      throw new Exception ("The section "+SECTIONS[this.addedSections]+" is missing in the file "+filename);
+    }
+    if (! this.distancesRead) {
+      throw new Exception ("The section distances is missing in the file "+filename);
+    }
+
+    // we build the indexed view of the instance
+    this.instance.getIndex();
+  }
+
+
+  /**
+   * adds to the instance the sections read whose dependencies are already added
+   * @exception Exception a port, a canal, a fuel type, a vessel type, a commodity or a distance is not correct
+   */
+  private void addReadSections () throws Exception {
+    while (this.addedSections < SECTIONS.length && this.readSections.containsKey(SECTIONS[this.addedSections])) {
+      String section = SECTIONS[this.addedSections];
+      List<Object> values = this.readSections.remove(section);
+      switch (section) {
+        case "fuels" : this.addFuelTypes(values); break;
+        case "vessels" : this.addVesselTypes(values); break;
+        case "ports" : this.addPorts(values); break;
+        case "canals" : this.addCanals(values); break;
+        case "cargos" : this.addCommodities(values); break;
+      }
+      this.addedSections++;
+
+      if (section.equals("canals")) {
+        // the distances read before the ports and the canals can now be added
+        for (int i = 0; i < this.miles.size(); i++) {
+          this.instance.addDistance (this.origins.get(i), this.destinations.get(i), this.miles.get(i));
+        }
+        this.origins.clear();
+        this.destinations.clear();
+        this.miles.clear();
+      }
+    }
   }
 
 
   /**
    * defines the ports of the instance from the ports given in the file
+   * @param ports the ports read in the file
    * @exception Exception a port or its information is not correct
    */
-  private void readPorts () throws Exception {
-    // we read the basic information about ports
-    JsonArray ports = (JsonArray) this.mainObject.get("ports");
-    for (JsonValue value : ports) {  
+  private void addPorts (List<Object> ports) throws Exception {
+    for (Object value : ports) {
       // we get the information of a new port
-      JsonObject port = (JsonObject) value;
-      String code = ((JsonString) port.get("code")).getString();
-      int maxSize = ((JsonNumber) port.get("maximumSize")).intValue();
-      int draft = ((JsonNumber) port.get("draft")).intValue();
-      int tsCost = ((JsonNumber) port.get("transshipmentCost")).intValue();
+      Map<?, ?> port = (Map<?, ?>) value;
+      String code = getString(port, "code");
+      int maxSize = getInt(port, "maximumSize");
+      int draft = getInt(port, "draft");
+      int tsCost = getInt(port, "transshipmentCost");
 
       // we create the port
       Port p = new Port (code, maxSize, draft, tsCost);
@@ -84,43 +147,42 @@ public class InstanceReader {
 
       // we read the port information related to vessel types
       int i = 0;
-      JsonArray callCost = (JsonArray) port.get("callCost");
-      JsonArray manoeuvringTimeIn = (JsonArray) port.get("manoeuvringTimeIn");
-      JsonArray manoeuvringTimeOut = (JsonArray) port.get("manoeuvringTimeOut");
-      JsonArray productivity = (JsonArray) port.get("productivity");
-      JsonArray waitingTime = (JsonArray) port.get("waitingTime");
-      
+      List<?> callCost = (List<?>) port.get("callCost");
+      List<?> manoeuvringTimeIn = (List<?>) port.get("manoeuvringTimeIn");
+      List<?> manoeuvringTimeOut = (List<?>) port.get("manoeuvringTimeOut");
+      List<?> productivity = (List<?>) port.get("productivity");
+      List<?> waitingTime = (List<?>) port.get("waitingTime");
+
       for (String vesselType: instance.getVesselTypes()) {
         // we get the port information related to the current vessel type
-        int pcc = ((JsonNumber) callCost.get(i)).intValue();
-        int prod = ((JsonNumber) productivity.get(i)).intValue();
-        int manIn = ((JsonNumber) manoeuvringTimeIn.get(i)).intValue();
-        int manOut = ((JsonNumber) manoeuvringTimeOut.get(i)).intValue();
-        int waiting = ((JsonNumber) waitingTime.get(i)).intValue();
-        
+        int pcc = ((BigDecimal) callCost.get(i)).intValue();
+        int prod = ((BigDecimal) productivity.get(i)).intValue();
+        int manIn = ((BigDecimal) manoeuvringTimeIn.get(i)).intValue();
+        int manOut = ((BigDecimal) manoeuvringTimeOut.get(i)).intValue();
+        int waiting = ((BigDecimal) waitingTime.get(i)).intValue();
+
         // we create the port information vessel type
         p.addVesselTypeInformation (vesselType, prod, manIn, manOut, pcc, waiting);
-        
+
         i++;
       }
     }
   }
-  
-  
+
+
   /**
-   * defines the canals of the instance from the ports given in the file
+   * defines the canals of the instance from the canals given in the file
+   * @param canals the canals read in the file
    * @exception Exception a canal or its information is not correct
    */
-  private void readCanals () throws Exception {
-    // we read the basic information about canals
-    JsonArray canals = (JsonArray) this.mainObject.get("canals");
-    for (JsonValue value : canals) {  
+  private void addCanals (List<Object> canals) throws Exception {
+    for (Object value : canals) {
       // we get the information of a new canal
-      JsonObject canal = (JsonObject) value;
-      String code = ((JsonString) canal.get("code")).getString();
-      int maxSize = ((JsonNumber) canal.get("maximumSize")).intValue();
-      int draft = ((JsonNumber) canal.get("draft")).intValue();
-      int duration = ((JsonNumber) canal.get("duration")).intValue();
+      Map<?, ?> canal = (Map<?, ?>) value;
+      String code = getString(canal, "code");
+      int maxSize = getInt(canal, "maximumSize");
+      int draft = getInt(canal, "draft");
+      int duration = getInt(canal, "duration");
 
       // we create the canal
       Canal c = new Canal (code, maxSize, draft, duration);
@@ -130,40 +192,39 @@ public class InstanceReader {
 
       // we read the canal information related to vessel types
       int i = 0;
-      JsonArray cost = (JsonArray) canal.get("cost");
-      JsonArray waitingTime = (JsonArray) canal.get("waitingTime");
-      
+      List<?> cost = (List<?>) canal.get("cost");
+      List<?> waitingTime = (List<?>) canal.get("waitingTime");
+
       for (String vesselType: instance.getVesselTypes()) {
         // we get the canal information related to the current vessel type
-        int canalCost = ((JsonNumber) cost.get(i)).intValue();
-        int waiting = ((JsonNumber) waitingTime.get(i)).intValue();
-        
+        int canalCost = ((BigDecimal) cost.get(i)).intValue();
+        int waiting = ((BigDecimal) waitingTime.get(i)).intValue();
+
         // we create the canal information vessel type
         c.addVesselTypeInformation (vesselType, canalCost, waiting);
-        
+
         i++;
       }
     }
   }
-  
+
 
   /**
    * defines the vessel types of the instance from the vessel types given in the file
+   * @param vessels the vessel types read in the file
    * @exception Exception a vessel type is not correct
    */
-  private void readVesselTypes () throws Exception {
-    // we read the basic information about vessel types
-    JsonArray vessels = (JsonArray) this.mainObject.get("vessels");
-    for (JsonValue value : vessels) {
+  private void addVesselTypes (List<Object> vessels) throws Exception {
+    for (Object value : vessels) {
       // we get the information of a new vessel type
-      JsonObject vesselType = (JsonObject) value;
-      String label = ((JsonString) vesselType.get("label")).getString();
-      int maxCapacity = ((JsonNumber) vesselType.get("capacity")).intValue();
-      int realCapacity = ((JsonNumber) vesselType.get("capacity")).intValue();
-      int nb = ((JsonNumber) vesselType.get("number")).intValue();
-      int tcc = ((JsonNumber) vesselType.get("timeCharterRate")).intValue();
-      int minSpeed = ((JsonNumber) vesselType.get("minSpeed")).intValue();
-      int maxSpeed = ((JsonNumber) vesselType.get("maxSpeed")).intValue();
+      Map<?, ?> vesselType = (Map<?, ?>) value;
+      String label = getString(vesselType, "label");
+      int maxCapacity = getInt(vesselType, "capacity");
+      int realCapacity = getInt(vesselType, "capacity");
+      int nb = getInt(vesselType, "number");
+      int tcc = getInt(vesselType, "timeCharterRate");
+      int minSpeed = getInt(vesselType, "minSpeed");
+      int maxSpeed = getInt(vesselType, "maxSpeed");
 
       // we create the vessel type
       VesselType vt = new VesselType (label, maxCapacity, realCapacity, nb, tcc, minSpeed, maxSpeed);
@@ -172,34 +233,33 @@ public class InstanceReader {
       this.instance.addVesselType(vt);
 
       // we read the vessel information per fuel type
-      JsonValue fuelInformation = vesselType.get("fuelType");
+      Object fuelInformation = vesselType.get("fuelType");
       int speed;
       float consumption;
-      
-      switch (fuelInformation.getValueType()) {
-        case STRING : 
-          // useful only for the first (basic) json format
-          String fuelType = ((JsonString) fuelInformation).getString();
-          speed = ((JsonNumber) vesselType.get("designSpeed")).intValue();
-          consumption = (float) ((JsonNumber) vesselType.get("designConsumption")).doubleValue();
+
+      if (fuelInformation instanceof String) {
+        // useful only for the first (basic) json format
+        String fuelType = (String) fuelInformation;
+        speed = getInt(vesselType, "designSpeed");
+        consumption = (float) ((BigDecimal) vesselType.get("designConsumption")).doubleValue();
+
+        // we create the fuel information for the current vessel type
+        vt.addFuelInformation (fuelType, speed, consumption);
+      }
+      else if (fuelInformation instanceof List) {
+        int i = 0;
+        List<?> designSpeed = (List<?>) vesselType.get("designSpeed");
+        List<?> designConsumption = (List<?>) vesselType.get("designConsumption");
+        for (String ft: instance.getFuelTypes()) {
+          // we get the vessel information related to a fuel type
+          speed = ((BigDecimal) designSpeed.get(i)).intValue();
+          consumption = (float) ((BigDecimal) designConsumption.get(i)).doubleValue();
 
           // we create the fuel information for the current vessel type
-          vt.addFuelInformation (fuelType, speed, consumption);
-          break;
-        case ARRAY:
-          int i = 0;
-          JsonArray designSpeed = (JsonArray) vesselType.get("designSpeed");
-          JsonArray designConsumption = (JsonArray) vesselType.get("designConsumption");
-          for (String ft: instance.getFuelTypes()) {
-            // we get the vessel information related to a fuel type
-            speed = ((JsonNumber) designSpeed.get(i)).intValue();
-            consumption = (float) ((JsonNumber) designConsumption.get(i)).doubleValue();
-        
-            // we create the fuel information for the current vessel type
-            vt.addFuelInformation (ft, speed, consumption);
-            
-            i++;
-          }
+          vt.addFuelInformation (ft, speed, consumption);
+
+          i++;
+        }
       }
     }
   }
@@ -207,15 +267,15 @@ public class InstanceReader {
 
   /**
    * defines the fuel types of the instance from the fuel types given in the file
+   * @param fuels the fuel types read in the file
    * @exception Exception a fuel type is not correct
    */
-  private void readFuelTypes () throws Exception {
-    JsonArray fuels = (JsonArray) this.mainObject.get("fuels");
-    for (JsonValue value : fuels) {
+  private void addFuelTypes (List<Object> fuels) throws Exception {
+    for (Object value : fuels) {
       // we get the information of a new fuel type
-      JsonObject fuelType = (JsonObject) value;
-      String label = ((JsonString) fuelType.get("label")).getString();
-      int cost = ((JsonNumber) fuelType.get("cost")).intValue();
+      Map<?, ?> fuelType = (Map<?, ?>) value;
+      String label = getString(fuelType, "label");
+      int cost = getInt(fuelType, "cost");
 
       // we create the fuel type
       FuelType ft = new FuelType (label,cost);
@@ -228,19 +288,19 @@ public class InstanceReader {
 
   /**
    * defines the commodities of the instance from the commodities given in the file
+   * @param commodities the commodities read in the file
    * @exception Exception a commodity is not correct
    */
-  private void readCommodities () throws Exception {
-    JsonArray commodities = (JsonArray) this.mainObject.get("cargos");
-    for (JsonValue value : commodities) {
+  private void addCommodities (List<Object> commodities) throws Exception {
+    for (Object value : commodities) {
       // we get the information of a new commodity
-      JsonObject commodity = (JsonObject) value;
-      String pol = ((JsonString) commodity.get("pol")).getString();
-      String pod = ((JsonString) commodity.get("pod")).getString();
-      String nature = ((JsonString) commodity.get("nature")).getString();
-      int teu = ((JsonNumber) commodity.get("teu")).intValue();
-      int revenue = ((JsonNumber) commodity.get("revenue")).intValue();
-      int tt = ((JsonNumber) commodity.get("transitTime")).intValue() * 24;
+      Map<?, ?> commodity = (Map<?, ?>) value;
+      String pol = getString(commodity, "pol");
+      String pod = getString(commodity, "pod");
+      String nature = getString(commodity, "nature");
+      int teu = getInt(commodity, "teu");
+      int revenue = getInt(commodity, "revenue");
+      int tt = getInt(commodity, "transitTime") * 24;
 
       // we create the commodity
       Commodity c = new Commodity(pol, pod, teu, revenue, nature, tt);
@@ -250,25 +310,160 @@ public class InstanceReader {
     }
   }
 
-  
+
   /**
-   * defines the distances of the instance from the distances given in the file
+   * defines the distances of the instance from the distances given in the file.
+   * The distances are added while they are read if the ports and the canals are already added, otherwise they are kept until they are
+   * @param parser the parser, positioned at the start of the array of distances
    * @exception Exception a distance is not correct
    */
-  private void readDistances () throws Exception {
-    JsonArray distances = (JsonArray) this.mainObject.get("distances");
-    for (JsonValue value : distances) {
+  private void readDistances (JsonParser parser) throws Exception {
+    this.distancesRead = true;
+    Event event;
+    while ((event = parser.next()) != Event.END_ARRAY) {
+      if (event != Event.START_OBJECT) {
+        throw new Exception ("A distance is not correct");
+      }
+
       // we get the information of a new distance
-      JsonObject distance = (JsonObject) value;
-      String origin = ((JsonString) distance.get("from")).getString();
-      String destination = ((JsonString) distance.get("to")).getString();
-      int dist = ((JsonNumber) distance.get("miles")).intValue();
-      
+      String origin = null;
+      String destination = null;
+      int dist = 0;
+      while (parser.next() == Event.KEY_NAME) {
+        String key = parser.getString();
+        event = parser.next();
+        if (key.equals("from") && event == Event.VALUE_STRING) {
+          origin = parser.getString();
+        }
+        else if (key.equals("to") && event == Event.VALUE_STRING) {
+          destination = parser.getString();
+        }
+        else if (key.equals("miles") && event == Event.VALUE_NUMBER) {
+          dist = parser.getBigDecimal().intValue();
+        }
+        else {
+          readValue(parser, event);
+        }
+      }
+      if (origin == null || destination == null) {
+        throw new Exception ("A distance is not correct");
+      }
+
       // we create the distance
-      this.instance.addDistance (origin, destination, dist);
+      if (this.addedSections > indexOf("canals")) {
+        this.instance.addDistance (origin, destination, dist);
+      }
+      else {
+        this.origins.add(origin);
+        this.destinations.add(destination);
+        this.miles.add(dist);
+      }
+    }
+  }
+
+
+  /**
+   * reads the elements of an array
+   * @param parser the parser, positioned at the start of the array
+   * @return the elements of the array
+   */
+  private static List<Object> readArray (JsonParser parser) {
+    List<Object> values = new ArrayList<Object>();
+    Event event;
+    while ((event = parser.next()) != Event.END_ARRAY) {
+      values.add(readValue(parser, event));
+    }
+    return values;
+  }
+
+
+  /**
+   * reads a value: a string, a number (as a BigDecimal), a boolean, null, an array (as a List) or an object (as a Map)
+   * @param parser the parser, positioned at the given event
+   * @param event the current event of the parser
+   * @return the value
+   */
+  private static Object readValue (JsonParser parser, Event event) {
+    switch (event) {
+      case START_OBJECT :
+        Map<String, Object> object = new HashMap<String, Object>();
+        while (parser.next() == Event.KEY_NAME) {
+          String key = parser.getString();
+          object.put(key, readValue(parser, parser.next()));
+        }
+        return object;
+      case START_ARRAY :
+        return readArray(parser);
+      case VALUE_STRING :
+        return parser.getString();
+      case VALUE_NUMBER :
+        return parser.getBigDecimal();
+      case VALUE_TRUE :
+        return Boolean.TRUE;
+      case VALUE_FALSE :
+        return Boolean.FALSE;
+      default :
+        return null;
+    }
+  }
+
+
+  /**
+   * @param object an object read in the file
+   * @param key the key of the value
+   * @return the string associated with the given key
+   * @exception Exception the value is missing or it is not a string
+   */
+  private static String getString (Map<?, ?> object, String key) throws Exception {
+    Object value = object.get(key);
+    if (value instanceof String) {
+      return (String) value;
+    }
+    else {
+      throw new Exception ("The value of "+key+" is not correct");
     }
   }
-  
+
+
+  /**
+   * @param object an object read in the file
+   * @param key the key of the value
+   * @return the integer associated with the given key
+   * @exception Exception the value is missing or it is not a number
+   */
+  private static int getInt (Map<?, ?> object, String key) throws Exception {
+    Object value = object.get(key);
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).intValue();
+    }
+    else {
+      throw new Exception ("The value of "+key+" is not correct");
+    }
+  }
+
+
+  /**
+   * @param section the name of a section
+   * @return true if the section is one of SECTIONS, false otherwise
+   */
+  private static boolean isSection (String section) {
+    return indexOf(section) >= 0;
+  }
+
+
+  /**
+   * @param section the name of a section
+   * @return the index of the section in SECTIONS, -1 if it is not one of them
+   */
+  private static int indexOf (String section) {
+    for (int i = 0; i < SECTIONS.length; i++) {
+      if (SECTIONS[i].equals(section)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
 
   /**
    * returns the read instance
@@ -0,0 +1,441 @@
+/**
+ * This class allows saving and loading an instance of the Liner Ship Network Design Problem in a compact binary format
+ *
+ * @version 1.0
+ *
+ * @author TNTM 6 Team
+ */
+
+package instance;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class InstanceSnapshot {
+  public static final String EXTENSION = ".lsndp.bin";   // the extension of snapshot files
+  private static final int MAGIC = 0x4C534E44;           // the first four bytes of a snapshot file ("LSND")
+  private static final int VERSION = 1;                  // the version of the format
+
+
+  /**
+   * returns the name of the snapshot file related to the given JSON file
+   * @param filename the name of the JSON file
+   * @return the name of the snapshot file
+   */
+  public static String snapshotName (String filename) {
+    if (filename.endsWith(".json")) {
+      return filename.substring(0, filename.length() - ".json".length()) + EXTENSION;
+    }
+    else {
+      return filename + EXTENSION;
+    }
+  }
+
+
+  /**
+   * returns the CRC32 checksum of the given file
+   * @param filename the name of the file
+   * @return the checksum of the content of the file
+   * @exception IOException the file cannot be read
+   */
+  public static long checksum (String filename) throws IOException {
+    CRC32 crc = new CRC32();
+    byte[] buffer = new byte[1 << 16];
+    try (InputStream is = new FileInputStream(filename)) {
+      int n;
+      while ((n = is.read(buffer)) > 0) {
+        crc.update(buffer, 0, n);
+      }
+    }
+    return crc.getValue();
+  }
+
+
+  /**
+   * loads an instance. A snapshot file (whose name ends with EXTENSION) is read directly. For a JSON file, the related snapshot is read
+   * if it exists and if it was created from the current content of the JSON file, otherwise the JSON file is read
+   * @param filename the name of the JSON file or of the snapshot file
+   * @return the instance
+   * @exception IOException the file does not exist, or the snapshot file is not a valid snapshot of this version
+   * @exception Exception the instance is not correct
+   */
+  public static Instance load (String filename) throws IOException, Exception {
+    if (filename.endsWith(EXTENSION)) {
+      ByteBuffer in = map(filename);
+      String error = checkHeader(in, -1, -1);
+      if (error != null) {
+        throw new IOException("The snapshot " + filename + " " + error);
+      }
+      try {
+        return readInstance(in);
+      }
+      catch (BufferUnderflowException e) {
+        throw new IOException("The snapshot " + filename + " is truncated", e);
+      }
+    }
+
+    File snapshot = new File(snapshotName(filename));
+    File source = new File(filename);
+    if (snapshot.isFile() && source.isFile()) {
+      Instance instance = read(snapshot.getPath(), source.length(), checksum(filename));
+      if (instance != null) {
+        return instance;
+      }
+    }
+    return new InstanceReader(filename).getInstance();
+  }
+
+
+  /**
+   * reads the given JSON file and saves the instance in the related snapshot file
+   * @param filename the name of the JSON file
+   * @return the name of the snapshot file
+   * @exception IOException the file does not exist or the snapshot cannot be written
+   * @exception Exception the instance is not correct
+   */
+  public static String convert (String filename) throws IOException, Exception {
+    String snapshot = snapshotName(filename);
+    convert(filename, snapshot);
+    return snapshot;
+  }
+
+
+  /**
+   * reads the given JSON file and saves the instance in the given snapshot file
+   * @param filename the name of the JSON file
+   * @param snapshot the name of the snapshot file
+   * @exception IOException the file does not exist or the snapshot cannot be written
+   * @exception Exception the instance is not correct
+   */
+  public static void convert (String filename, String snapshot) throws IOException, Exception {
+    long length = new File(filename).length();
+    long crc = checksum(filename);
+    Instance instance = new InstanceReader(filename).getInstance();
+    write(instance, length, crc, snapshot);
+  }
+
+
+  /**
+   * saves an instance in a snapshot file. The file is written next to its final location and then renamed
+   * @param instance the instance
+   * @param sourceLength the length of the JSON file from which the instance has been read
+   * @param sourceChecksum the checksum of the JSON file from which the instance has been read
+   * @param filename the name of the snapshot file
+   * @exception IOException the file cannot be written
+   */
+  public static void write (Instance instance, long sourceLength, long sourceChecksum, String filename) throws IOException {
+    Path target = Paths.get(filename).toAbsolutePath();
+    Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile()), 1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(sourceLength);
+      out.writeLong(sourceChecksum);
+
+      // the fuel types
+      out.writeInt(instance.getFuelTypes().size());
+      for (String label : instance.getFuelTypes()) {
+        writeString(out, label);
+        out.writeInt(instance.getFuelType(label).getCost());
+      }
+
+      // the vessel types
+      ArrayList<String> vesselTypes = instance.getVesselTypes();
+      out.writeInt(vesselTypes.size());
+      for (String label : vesselTypes) {
+        VesselType vt = instance.getVesselType(label);
+        writeString(out, label);
+        out.writeInt(vt.getMaximalCapacity());
+        out.writeInt(vt.getRealCapacity());
+        out.writeInt(vt.getVesselNumber());
+        out.writeInt(vt.getRate());
+        out.writeInt(vt.getMinimalSpeed());
+        out.writeInt(vt.getMaximalSpeed());
+        out.writeInt(vt.getFuelType().size());
+        for (String fuelType : vt.getFuelType()) {
+          writeString(out, fuelType);
+          out.writeInt(vt.getDesignSpeed(fuelType));
+          out.writeFloat(vt.getDesignConsumption(fuelType));
+        }
+      }
+
+      // the ports
+      out.writeInt(instance.getPorts().size());
+      for (String code : instance.getPorts()) {
+        Port p = instance.getPort(code);
+        writeString(out, code);
+        out.writeInt(p.getMaximalSize());
+        out.writeFloat(p.getMaximalDraft());
+        out.writeInt(p.getTransshipmentCost());
+        out.writeInt(p.getVesselTypeInformation().size());
+        for (int v = 0; v < vesselTypes.size(); v++) {
+          PortVesselTypeInformation info = (PortVesselTypeInformation) p.getVesselTypeInformation().get(vesselTypes.get(v));
+          if (info != null) {
+            out.writeInt(v);
+            out.writeInt(info.getProductivity());
+            out.writeInt(info.getManoeuvringTimeIn());
+            out.writeInt(info.getManoeuvringTimeOut());
+            out.writeInt(info.getCost());
+            out.writeInt(info.getWaitingTime());
+          }
+        }
+      }
+
+      // the canals
+      out.writeInt(instance.getCanals().size());
+      for (String code : instance.getCanals()) {
+        Canal c = instance.getCanal(code);
+        writeString(out, code);
+        out.writeInt(c.getMaximalSize());
+        out.writeFloat(c.getMaximalDraft());
+        out.writeInt(c.getDuration());
+        out.writeInt(c.getVesselTypeInformation().size());
+        for (int v = 0; v < vesselTypes.size(); v++) {
+          VesselTypeInformation info = c.getVesselTypeInformation().get(vesselTypes.get(v));
+          if (info != null) {
+            out.writeInt(v);
+            out.writeInt(info.getCost());
+            out.writeInt(info.getWaitingTime());
+          }
+        }
+      }
+
+      // the commodities
+      out.writeInt(instance.getCommodities().size());
+      for (Commodity c : instance.getCommodities()) {
+        writeString(out, c.getPol());
+        writeString(out, c.getPod());
+        out.writeInt(c.getNumber());
+        out.writeInt(c.getRevenue());
+        writeString(out, c.getNature());
+        out.writeInt(c.getTransitTime());
+      }
+
+      // the distances, the infrastructures being referred to by their index (ports, then canals)
+      Map<String, Integer> infraIndex = new HashMap<String, Integer>();
+      for (String code : instance.getPorts()) {
+        infraIndex.put(code, infraIndex.size());
+      }
+      for (String code : instance.getCanals()) {
+        infraIndex.put(code, infraIndex.size());
+      }
+      Distances distances = instance.getDistances();
+      out.writeInt(distances.getNumber());
+      for (String origin : distances.getOrigins()) {
+        for (Map.Entry<String, Integer> entry : distances.getDistancesFrom(origin).entrySet()) {
+          out.writeInt(infraIndex.get(origin));
+          out.writeInt(infraIndex.get(entry.getKey()));
+          out.writeInt(entry.getValue());
+        }
+      }
+    }
+    catch (IOException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+
+  /**
+   * reads an instance from a snapshot file, which is memory-mapped
+   * @param filename the name of the snapshot file
+   * @param sourceLength the expected length of the JSON source, -1 if it must not be checked
+   * @param sourceChecksum the expected checksum of the JSON source, -1 if it must not be checked
+   * @return the instance, null if the snapshot has not been created from the expected JSON source or by this version, or is truncated
+   * @exception IOException the file cannot be read
+   * @exception Exception the instance is not correct
+   */
+  public static Instance read (String filename, long sourceLength, long sourceChecksum) throws IOException, Exception {
+    ByteBuffer in = map(filename);
+    if (checkHeader(in, sourceLength, sourceChecksum) != null) {
+      return null;
+    }
+    try {
+      return readInstance(in);
+    }
+    catch (BufferUnderflowException e) {
+      return null;
+    }
+  }
+
+
+  /**
+   * maps a snapshot file in memory
+   * @param filename the name of the snapshot file
+   * @return the content of the file
+   * @exception IOException the file cannot be read
+   */
+  private static ByteBuffer map (String filename) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+
+  /**
+   * reads the header of a snapshot file
+   * @param in the content of the file, positioned after the header if it is valid
+   * @param sourceLength the expected length of the JSON source, -1 if it must not be checked
+   * @param sourceChecksum the expected checksum of the JSON source, -1 if it must not be checked
+   * @return the reason why the snapshot cannot be used, null if it is valid
+   */
+  private static String checkHeader (ByteBuffer in, long sourceLength, long sourceChecksum) {
+    if (in.remaining() < 24 || in.getInt() != MAGIC) {
+      return "is not a snapshot file";
+    }
+    int version = in.getInt();
+    if (version != VERSION) {
+      return "has version " + version + " of the format, version " + VERSION + " is expected";
+    }
+    long length = in.getLong();
+    long crc = in.getLong();
+    if ((sourceLength >= 0 && length != sourceLength) || (sourceChecksum >= 0 && crc != sourceChecksum)) {
+      return "was not created from the current content of its JSON file";
+    }
+    return null;
+  }
+
+
+  /**
+   * reads the instance stored after the header of a snapshot file
+   * @param in the content of the file, positioned after the header
+   * @return the instance
+   * @exception BufferUnderflowException the file is truncated
+   * @exception Exception the instance is not correct
+   */
+  private static Instance readInstance (ByteBuffer in) throws Exception {
+    Instance instance = new Instance();
+
+    // the fuel types
+    int n = in.getInt();
+    for (int i = 0; i < n; i++) {
+      String label = readString(in);
+      instance.addFuelType(new FuelType(label, in.getInt()));
+    }
+
+    // the vessel types
+    n = in.getInt();
+    for (int i = 0; i < n; i++) {
+      String label = readString(in);
+      VesselType vt = new VesselType(label, in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt());
+      instance.addVesselType(vt);
+      int nbFuels = in.getInt();
+      for (int f = 0; f < nbFuels; f++) {
+        String fuelType = readString(in);
+        int speed = in.getInt();
+        vt.addFuelInformation(fuelType, speed, in.getFloat());
+      }
+    }
+    ArrayList<String> vesselTypes = instance.getVesselTypes();
+
+    // the ports
+    n = in.getInt();
+    for (int i = 0; i < n; i++) {
+      String code = readString(in);
+      int maxSize = in.getInt();
+      float maxDraft = in.getFloat();
+      Port p = new Port(code, maxSize, maxDraft, in.getInt());
+      instance.addPort(p);
+      int nbInfo = in.getInt();
+      for (int j = 0; j < nbInfo; j++) {
+        String vesselType = vesselTypes.get(in.getInt());
+        int prod = in.getInt();
+        int manIn = in.getInt();
+        int manOut = in.getInt();
+        int cost = in.getInt();
+        p.addVesselTypeInformation(vesselType, prod, manIn, manOut, cost, in.getInt());
+      }
+    }
+
+    // the canals
+    n = in.getInt();
+    for (int i = 0; i < n; i++) {
+      String code = readString(in);
+      int maxSize = in.getInt();
+      float maxDraft = in.getFloat();
+      Canal c = new Canal(code, maxSize, maxDraft, in.getInt());
+      instance.addCanal(c);
+      int nbInfo = in.getInt();
+      for (int j = 0; j < nbInfo; j++) {
+        String vesselType = vesselTypes.get(in.getInt());
+        int cost = in.getInt();
+        c.addVesselTypeInformation(vesselType, cost, in.getInt());
+      }
+    }
+
+    // the commodities
+    n = in.getInt();
+    for (int i = 0; i < n; i++) {
+      String pol = readString(in);
+      String pod = readString(in);
+      int number = in.getInt();
+      int revenue = in.getInt();
+      String nature = readString(in);
+      instance.addCommodity(new Commodity(pol, pod, number, revenue, nature, in.getInt()));
+    }
+
+    // the distances
+    String[] infra = new String[instance.getPorts().size() + instance.getCanals().size()];
+    int k = 0;
+    for (String code : instance.getPorts()) {
+      infra[k++] = code;
+    }
+    for (String code : instance.getCanals()) {
+      infra[k++] = code;
+    }
+    n = in.getInt();
+    for (int i = 0; i < n; i++) {
+      String origin = infra[in.getInt()];
+      String destination = infra[in.getInt()];
+      instance.addDistance(origin, destination, in.getInt());
+    }
+
+    // we build the indexed view of the instance
+    instance.getIndex();
+    return instance;
+  }
+
+
+  /**
+   * writes a string as its length followed by its UTF-8 bytes
+   * @param out the output
+   * @param value the string
+   * @exception IOException the string cannot be written
+   */
+  private static void writeString (DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+
+  /**
+   * reads a string written by writeString
+   * @param in the input
+   * @return the string
+   */
+  private static String readString (ByteBuffer in) {
+    byte[] bytes = new byte[in.getInt()];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
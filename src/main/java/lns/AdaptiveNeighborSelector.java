@@ -0,0 +1,150 @@
+package lns;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.chocosolver.solver.ResolutionPolicy;
+import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.loop.lns.neighbors.INeighbor;
+import org.chocosolver.solver.variables.IntVar;
+
+public class AdaptiveNeighborSelector implements INeighbor {
+
+	/** This class allows to choose, at each restart of the Large Neighbourhood Search, the neighbourhood to apply. Each neighbourhood has
+	 *  a score, which is increased when it improves the objective and decreased otherwise; a neighbourhood is chosen with a probability
+	 *  proportional to its score. The number of calls, of improvements and the total improvement of each neighbourhood are recorded. */
+
+	private static final double DECAY = 0.2;				//the weight of the last reward in the score of a neighbourhood
+	private static final double MIN_SCORE = 0.05;			//the minimal score of a neighbourhood, so that it is never discarded
+
+	private RelaxationNeighbor[] neighbors;					//the neighbourhoods
+	private Random random;									//the random generator used to choose the neighbourhoods
+	private IntVar objective;								//the objective variable
+	private boolean maximize;								//true if the objective is maximized, False otherwise
+	private double[] scores;								//the score of each neighbourhood
+	private long[] calls;									//the number of times each neighbourhood was applied
+	private long[] improvements;							//the number of times each neighbourhood improved the objective
+	private long[] gains;									//the total improvement of the objective for each neighbourhood
+	private int current = -1;								//the index of the neighbourhood currently applied, -1 if none
+	private boolean rewarded;								//true if the current neighbourhood has already been rewarded
+	private boolean hasBest;								//true if a solution has been recorded
+	private int best;										//the objective value of the last recorded solution
+
+
+
+	/**
+	 * Constructor for creating an AdaptiveNeighborSelector object
+	 * @param chocoModel the CHOCO model, whose objective must be defined
+	 * @param random the random generator used to choose the neighbourhoods
+	 * @param neighbors the neighbourhoods
+	 */
+	public AdaptiveNeighborSelector(org.chocosolver.solver.Model chocoModel, Random random, RelaxationNeighbor... neighbors) {
+		this.neighbors = neighbors;
+		this.random = random;
+		this.objective = (IntVar) chocoModel.getObjective();
+		this.maximize = chocoModel.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE;
+		this.scores = new double[neighbors.length];
+		this.calls = new long[neighbors.length];
+		this.improvements = new long[neighbors.length];
+		this.gains = new long[neighbors.length];
+		Arrays.fill(scores, 1);
+	}
+
+
+
+	/**
+	 * updates the score of the current neighbourhood
+	 * @param reward the reward of the current neighbourhood
+	 */
+	private void reward(double reward) {
+		if (current >= 0 && !rewarded) {
+			scores[current] = Math.max(MIN_SCORE, (1 - DECAY) * scores[current] + DECAY * reward);
+			rewarded = true;
+		}
+	}
+
+
+
+	@Override
+	public void init() {
+		for (RelaxationNeighbor neighbor : neighbors) {
+			neighbor.init();
+		}
+	}
+
+
+
+	@Override
+	public void recordSolution() {
+		int value = objective.getValue();
+		if (current >= 0 && hasBest) {
+			int gain = maximize ? value - best : best - value;
+			if (gain > 0) {
+				improvements[current]++;
+				gains[current] += gain;
+				reward(1);
+			}
+		}
+		best = value;
+		hasBest = true;
+		for (RelaxationNeighbor neighbor : neighbors) {
+			neighbor.recordSolution();
+		}
+	}
+
+
+
+	@Override
+	public void loadFromSolution(Solution solution) {
+		best = solution.getIntVal(objective);
+		hasBest = true;
+		for (RelaxationNeighbor neighbor : neighbors) {
+			neighbor.loadFromSolution(solution);
+		}
+	}
+
+
+
+	@Override
+	public void fixSomeVariables() throws ContradictionException {
+		reward(0);
+		double total = 0;
+		for (double score : scores) {
+			total += score;
+		}
+		double draw = random.nextDouble() * total;
+		current = 0;
+		while (current < neighbors.length - 1 && draw >= scores[current]) {
+			draw -= scores[current];
+			current++;
+		}
+		rewarded = false;
+		calls[current]++;
+		neighbors[current].fixSomeVariables();
+	}
+
+
+
+	@Override
+	public void restrictLess() {
+		if (current >= 0) {
+			neighbors[current].restrictLess();
+		}
+	}
+
+
+
+	/**
+	 * @return returns, for each neighbourhood, the number of calls, the number of improvements and the total improvement of the objective
+	 */
+	public String getStatistics() {
+		StringBuilder statistics = new StringBuilder();
+		for (int i = 0; i < neighbors.length; i++) {
+			statistics.append(neighbors[i].getName()).append(": ").append(calls[i]).append(" calls, ").append(improvements[i])
+					.append(" improvements, total improvement ").append(gains[i]).append(String.format(", score %.2f", scores[i]))
+					.append(System.lineSeparator());
+		}
+		return statistics.toString();
+	}
+}
@@ -0,0 +1,38 @@
+package lns;
+
+import java.util.Random;
+
+import org.chocosolver.solver.variables.IntVar;
+
+import model_v0.Model;
+import model_v0.VarKey;
+
+public class CommodityRelaxation extends RelaxationNeighbor {
+
+	/** This class allows to represent the neighbourhood which relaxes the routing (acceptance, rotations and ports) of a random subset of
+	 *  commodities. The rotations are kept. */
+
+
+
+	/**
+	 * Constructor for creating a CommodityRelaxation object
+	 * @param model the model
+	 * @param random the random generator used to choose the relaxed commodities
+	 */
+	public CommodityRelaxation(Model model, Random random) {
+		super("commodities", model, random, Math.max(1, model.get(VarKey.ALPHA_K).length / 10), model.get(VarKey.ALPHA_K).length);
+	}
+
+
+
+	@Override
+	protected void selectRelaxedVariables() {
+		IntVar[] alphaK = model.get(VarKey.ALPHA_K);
+		for (int n = 0; n < size; n++) {
+			int k = random.nextInt(alphaK.length);
+			relax(alphaK[k]);
+			relax(model.get(VarKey.ROT_KI)[k]);
+			relax(model.get(VarKey.PORT_KI)[k]);
+		}
+	}
+}
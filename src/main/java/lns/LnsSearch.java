@@ -0,0 +1,33 @@
+package lns;
+
+import java.util.Random;
+
+import org.chocosolver.solver.search.limits.FailCounter;
+
+import model_v0.Model;
+
+public class LnsSearch {
+
+	/** This class allows to turn the search of a model into a Large Neighbourhood Search over its rotations, its commodities and its
+	 *  ports. The first solution is found by the search declared on the solver; each neighbourhood is then explored until the given
+	 *  number of failures is reached. */
+
+
+
+	/**
+	 * declares the Large Neighbourhood Search on the solver of the given model. The search strategy must be declared before.
+	 * @param model the model
+	 * @param seed the seed of the random choices
+	 * @param failLimit the number of failures after which the search restarts with another neighbourhood
+	 * @return returns the selector of the neighbourhoods, which records their statistics
+	 */
+	public static AdaptiveNeighborSelector configure(Model model, long seed, long failLimit) {
+		Random random = new Random(seed);
+		AdaptiveNeighborSelector selector = new AdaptiveNeighborSelector(model.getChocoModel(), random,
+				new RotationRelaxation(model, random),
+				new CommodityRelaxation(model, random),
+				new PortRelaxation(model, random));
+		model.getChocoModel().getSolver().setLNS(selector, new FailCounter(model.getChocoModel(), failLimit));
+		return selector;
+	}
+}
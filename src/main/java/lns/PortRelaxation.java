@@ -0,0 +1,96 @@
+package lns;
+
+import java.util.Random;
+
+import org.chocosolver.solver.variables.IntVar;
+
+import instance.InstanceIndex;
+import model_v0.Model;
+import model_v0.VarKey;
+
+public class PortRelaxation extends RelaxationNeighbor {
+
+	/** This class allows to represent the neighbourhood which relaxes everything touching a port: its successor and its predecessor in
+	 *  every rotation, the vessel types of the rotations visiting it, and the routing of the commodities loaded, unloaded or transshipped
+	 *  there. In the rotations which do not visit the port, the successor of the nearest visited port is relaxed so that the port can be
+	 *  inserted. */
+
+	private int[] pol;										//origin ports of commodity
+	private int[] pod;										//destination ports of commodity
+	private int nbPorts;									//the number of ports
+
+
+
+	/**
+	 * Constructor for creating a PortRelaxation object
+	 * @param model the model
+	 * @param random the random generator used to choose the relaxed ports
+	 */
+	public PortRelaxation(Model model, Random random) {
+		super("port", model, random, 1, model.getNumber("ports"));
+		this.pol = model.getDerivedData().getPol();
+		this.pod = model.getDerivedData().getPod();
+		this.nbPorts = model.getNumber("ports");
+	}
+
+
+
+	@Override
+	protected void selectRelaxedVariables() {
+		for (int n = 0; n < size; n++) {
+			relaxPort(random.nextInt(nbPorts));
+		}
+	}
+
+
+
+	/**
+	 * relaxes everything touching the given port
+	 * @param p the index of the port
+	 */
+	private void relaxPort(int p) {
+		InstanceIndex index = model.getInstance().getIndex();
+		IntVar[] vR = model.get(VarKey.V_R);
+		IntVar[][] sRp = model.get(VarKey.S_RP);
+		IntVar[][] speedRp = model.get(VarKey.SPEED_RP);
+		for (int r = 0; r < vR.length; r++) {
+			boolean visited = valueOf(sRp[r][p]) != p;
+			int nearest = -1;
+			for (int q = 0; q < sRp[r].length; q++) {
+				if (q == p || valueOf(sRp[r][q]) == q) {
+					continue;
+				}
+				if (valueOf(sRp[r][q]) == p) {
+					relax(sRp[r][q]);
+					relax(speedRp[r][q]);
+				}
+				if (index.getDistance(q, p) > 0 && (nearest < 0 || index.getDistance(q, p) < index.getDistance(nearest, p))) {
+					nearest = q;
+				}
+			}
+			relax(sRp[r][p]);
+			relax(speedRp[r][p]);
+			if (visited) {
+				relax(vR[r]);
+			}
+			else if (nearest >= 0) {
+				relax(sRp[r][nearest]);
+				relax(speedRp[r][nearest]);
+			}
+		}
+
+		IntVar[] alphaK = model.get(VarKey.ALPHA_K);
+		IntVar[][] portKi = model.get(VarKey.PORT_KI);
+		for (int k = 0; k < alphaK.length; k++) {
+			boolean touching = pol[k] == p || pod[k] == p;
+			for (int i = 0; i < portKi[k].length && !touching; i++) {
+				touching = valueOf(portKi[k][i]) == p;
+			}
+			if (touching) {
+				relax(alphaK[k]);
+				relax(model.get(VarKey.ROT_KI)[k]);
+				relax(portKi[k]);
+			}
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package lns;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.loop.lns.neighbors.INeighbor;
+import org.chocosolver.solver.variables.IntVar;
+
+import model_v0.Model;
+import model_v0.VarKey;
+
+public abstract class RelaxationNeighbor implements INeighbor {
+
+	/** This class allows to represent a neighbourhood of the Large Neighbourhood Search. The decision variables of the model (v_r, s_rp,
+	 *  speed_rp, alpha_k, rot_ki and port_ki) are fixed to their value in the last solution, except the ones relaxed by the neighbourhood.
+	 *  The other variables of the model (times, loads, costs...) are never fixed: they follow the decision variables by propagation. */
+
+	private String name;									//the name of the neighbourhood
+	protected Model model;									//the model
+	protected Random random;								//the random generator used to choose the relaxed variables
+	protected int size;										//the current size of the neighbourhood
+	private int minSize;									//the initial size of the neighbourhood
+	private int maxSize;									//the maximal size of the neighbourhood
+	private IntVar[] variables;								//the decision variables
+	private int[] values;									//the value of the decision variables in the last solution
+	private Map<IntVar, Integer> positions;					//the position of each decision variable in variables
+	private boolean[] relaxed;								//true if the decision variable is relaxed by the current neighbourhood
+
+
+
+	/**
+	 * Constructor for creating a RelaxationNeighbor object
+	 * @param name the name of the neighbourhood
+	 * @param model the model
+	 * @param random the random generator used to choose the relaxed variables
+	 * @param minSize the initial size of the neighbourhood
+	 * @param maxSize the maximal size of the neighbourhood
+	 */
+	protected RelaxationNeighbor(String name, Model model, Random random, int minSize, int maxSize) {
+		this.name = name;
+		this.model = model;
+		this.random = random;
+		this.minSize = Math.max(1, Math.min(minSize, maxSize));
+		this.maxSize = Math.max(1, maxSize);
+		this.size = this.minSize;
+
+		List<IntVar> vars = new ArrayList<>();
+		add(vars, model.get(VarKey.V_R));
+		add(vars, model.get(VarKey.S_RP));
+		add(vars, model.get(VarKey.SPEED_RP));
+		add(vars, model.get(VarKey.ALPHA_K));
+		add(vars, model.get(VarKey.ROT_KI));
+		add(vars, model.get(VarKey.PORT_KI));
+		this.variables = vars.toArray(new IntVar[0]);
+		this.values = new int[variables.length];
+		this.relaxed = new boolean[variables.length];
+		this.positions = new IdentityHashMap<>();
+		for (int i = 0; i < variables.length; i++) {
+			positions.put(variables[i], i);
+		}
+	}
+
+
+
+	/**
+	 * adds the given variables to the list
+	 * @param vars the list
+	 * @param group the variables
+	 */
+	private static void add(List<IntVar> vars, IntVar[] group) {
+		for (IntVar var : group) {
+			vars.add(var);
+		}
+	}
+
+
+
+	/**
+	 * adds the given variables to the list
+	 * @param vars the list
+	 * @param groups the variables
+	 */
+	private static void add(List<IntVar> vars, IntVar[][] groups) {
+		for (IntVar[] group : groups) {
+			add(vars, group);
+		}
+	}
+
+
+
+	/**
+	 * chooses the variables relaxed by the neighbourhood, by calling relax for each of them
+	 */
+	protected abstract void selectRelaxedVariables();
+
+
+
+	/**
+	 * relaxes the given variable
+	 * @param var the variable
+	 */
+	protected void relax(IntVar var) {
+		Integer position = positions.get(var);
+		if (position != null) {
+			relaxed[position] = true;
+		}
+	}
+
+
+
+	/**
+	 * relaxes the given variables
+	 * @param vars the variables
+	 */
+	protected void relax(IntVar[] vars) {
+		for (IntVar var : vars) {
+			relax(var);
+		}
+	}
+
+
+
+	/**
+	 * @param var a decision variable
+	 * @return returns the value of the variable in the last solution
+	 */
+	protected int valueOf(IntVar var) {
+		return values[positions.get(var)];
+	}
+
+
+
+	@Override
+	public void recordSolution() {
+		for (int i = 0; i < variables.length; i++) {
+			values[i] = variables[i].getValue();
+		}
+		size = minSize;
+	}
+
+
+
+	@Override
+	public void loadFromSolution(Solution solution) {
+		for (int i = 0; i < variables.length; i++) {
+			values[i] = solution.getIntVal(variables[i]);
+		}
+	}
+
+
+
+	@Override
+	public void fixSomeVariables() throws ContradictionException {
+		Arrays.fill(relaxed, false);
+		selectRelaxedVariables();
+		for (int i = 0; i < variables.length; i++) {
+			if (!relaxed[i]) {
+				variables[i].instantiateTo(values[i], this);
+			}
+		}
+	}
+
+
+
+	@Override
+	public void restrictLess() {
+		size = Math.min(maxSize, size + Math.max(1, size / 2));
+	}
+
+
+
+	/**
+	 * @return returns the name of the neighbourhood
+	 */
+	public String getName() {
+		return name;
+	}
+}
@@ -0,0 +1,55 @@
+package lns;
+
+import java.util.Random;
+
+import org.chocosolver.solver.variables.IntVar;
+
+import model_v0.Model;
+import model_v0.VarKey;
+
+public class RotationRelaxation extends RelaxationNeighbor {
+
+	/** This class allows to represent the neighbourhood which relaxes one or two whole rotations (vessel type, circuit and speeds), with
+	 *  the routing of the commodities they carry and of the rejected commodities, which may be carried by the new rotations. */
+
+
+
+	/**
+	 * Constructor for creating a RotationRelaxation object
+	 * @param model the model
+	 * @param random the random generator used to choose the relaxed rotations
+	 */
+	public RotationRelaxation(Model model, Random random) {
+		super("rotations", model, random, 1, Math.min(2, model.get(VarKey.V_R).length));
+	}
+
+
+
+	@Override
+	protected void selectRelaxedVariables() {
+		IntVar[] vR = model.get(VarKey.V_R);
+		boolean[] rotations = new boolean[vR.length];
+		for (int n = 0; n < size; n++) {
+			int r = random.nextInt(vR.length);
+			rotations[r] = true;
+			relax(vR[r]);
+			relax(model.get(VarKey.S_RP)[r]);
+			relax(model.get(VarKey.SPEED_RP)[r]);
+		}
+
+		IntVar[] alphaK = model.get(VarKey.ALPHA_K);
+		IntVar[][] rotKi = model.get(VarKey.ROT_KI);
+		for (int k = 0; k < alphaK.length; k++) {
+			boolean carried = valueOf(alphaK[k]) == 0;
+			for (int i = 0; i < rotKi[k].length && !carried; i++) {
+				int r = valueOf(rotKi[k][i]);
+				carried = r >= 0 && rotations[r];
+			}
+			if (carried) {
+				relax(alphaK[k]);
+				relax(rotKi[k]);
+				relax(model.get(VarKey.PORT_KI)[k]);
+			}
+		}
+	}
+}
@@ -8,6 +8,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -21,14 +22,10 @@ import org.chocosolver.solver.variables.Variable;
 
 import instance.Commodity;
 import instance.Instance;
+import instance.InstanceIndex;
+import instance.VesselType;
 
 public class AuxiliaryFunctions {
-	private static int maxKv;								  //the maximum capacity of vessels whatever the vessel type
-	private static int  sumK;								 //the number of TEU for all the commodities
-	private static Set<Integer> allLoads;				    //all possible loads	
-	private static Set<Integer> totalLoad;				   //all the possible values for the sum of the load entering port p and the load leaving port p for a given rotation
-	private static List<Integer> rev;          			  //list to store revenue for each commodity
-	
 	
     /**
      * @param infra list of infrastructure
@@ -51,40 +48,153 @@ public class AuxiliaryFunctions {
     }
     
 
+    /**
+     * @param table a table of integers
+     * @return returns the values of the table row after row
+     */
+    public static int[] flatten(int[][] table) {
+        int size = 0;
+        for (int[] row : table) {
+            size += row.length;
+        }
+        int[] values = new int[size];
+        int i = 0;
+        for (int[] row : table) {
+            System.arraycopy(row, 0, values, i, row.length);
+            i += row.length;
+        }
+        return values;
+    }
+
+
     /**
      * @param quantity  the quantity for each commodity
      * @return eturns all the possible loads obtained by combining commodities
      */
     public static Set<Integer> computeAllPossibleLoads(List<Integer>quantity) {
+        int bound = quantity.stream().mapToInt(Integer::intValue).sum();
+        return toSet(loadsToArray(computePossibleLoads(quantity.stream().mapToInt(Integer::intValue).toArray(), bound)));
+    }
 
-        Set<Integer> values = new HashSet<>();
-        values.add(0);
 
-        for (int i = 1; i <= quantity.size(); i++) {
-            for (List<Integer> combi : combinations(quantity, i)) {
-                values.add(combi.stream().mapToInt(Integer::intValue).sum());
+    /**
+     * computes the subset sums of the quantities with a bitset, in O(K * bound / 64)
+     * @param quantity  the quantity for each commodity
+     * @param bound the largest load we are interested in
+     * @return returns the bitset of the loads not greater than bound obtained by combining commodities (bit i is set iff load i is possible)
+     */
+    public static long[] computePossibleLoads(int[] quantity, int bound) {
+        long[] loads = new long[(bound >>> 6) + 1];
+        loads[0] = 1L;
+        for (int q : quantity) {
+            if (q > 0 && q <= bound) {
+                int wordShift = q >>> 6;
+                int bitShift = q & 63;
+                //we go through the words downwards so that each commodity is used at most once
+                for (int w = loads.length - 1; w >= wordShift; w--) {
+                    long shifted = loads[w - wordShift] << bitShift;
+                    if (bitShift != 0 && w - wordShift - 1 >= 0) {
+                        shifted |= loads[w - wordShift - 1] >>> (64 - bitShift);
+                    }
+                    loads[w] |= shifted;
+                }
+                loads[loads.length - 1] &= lastWordMask(bound);
             }
         }
+        return loads;
+    }
 
-        return values;
+
+    /**
+     * @param loads the bitset of the possible loads
+     * @param bound the largest sum we are interested in
+     * @return returns the bitset of the sums load1+load2 not greater than bound such that load1 and load2 are two different possible loads (0 is always included)
+     */
+    public static long[] computePairwiseLoads(long[] loads, int bound) {
+        long[] sums = new long[(bound >>> 6) + 1];
+        sums[0] = 1L;
+        int maxLoad = Math.min(bound, loads.length * 64 - 1);
+        for (int a = nextLoad(loads, 0); a >= 0 && 2 * a < bound; a = nextLoad(loads, a + 1)) {
+            //we add a to every possible load b such that a < b <= bound - a
+            int from = a + 1;
+            int to = Math.min(bound - a, maxLoad);
+            for (int w = from >>> 6; w <= (to >>> 6); w++) {
+                long bits = loads[w];
+                if (w == (from >>> 6)) {
+                    bits &= -1L << (from & 63);
+                }
+                if (w == (to >>> 6)) {
+                    bits &= lastWordMask(to);
+                }
+                if (bits != 0) {
+                    int target = (w << 6) + a;
+                    int tw = target >>> 6;
+                    int tb = target & 63;
+                    sums[tw] |= bits << tb;
+                    if (tb != 0 && tw + 1 < sums.length) {
+                        sums[tw + 1] |= bits >>> (64 - tb);
+                    }
+                }
+            }
+        }
+        sums[sums.length - 1] &= lastWordMask(bound);
+        return sums;
     }
-    private static List<List<Integer>> combinations(List<Integer> list, int length) {
-        List<List<Integer>> result = new ArrayList<>();
-        combinationsHelper(list, length, result, new ArrayList<>(), 0);
-        return result;
+
+
+    /**
+     * @param loads the bitset of the possible loads
+     * @param from the smallest load to consider
+     * @return returns the smallest possible load greater than or equal to from, -1 if there is none
+     */
+    public static int nextLoad(long[] loads, int from) {
+        int w = from >>> 6;
+        if (w >= loads.length) {
+            return -1;
+        }
+        long bits = loads[w] & (-1L << (from & 63));
+        while (true) {
+            if (bits != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            w++;
+            if (w == loads.length) {
+                return -1;
+            }
+            bits = loads[w];
+        }
     }
 
-    private static void combinationsHelper(List<Integer> list, int length, List<List<Integer>> result,
-            List<Integer> current, int index) {
-        if (current.size() == length) {
-            result.add(new ArrayList<>(current));
-            return;
+
+    /**
+     * @param loads the bitset of the possible loads
+     * @return returns the possible loads in increasing order
+     */
+    public static int[] loadsToArray(long[] loads) {
+        int size = 0;
+        for (long word : loads) {
+            size += Long.bitCount(word);
         }
-        for (int i = index; i < list.size(); i++) {
-            current.add(list.get(i));
-            combinationsHelper(list, length, result, current, i + 1);
-            current.remove(current.size() - 1);
+        int[] values = new int[size];
+        int i = 0;
+        for (int w = 0; w < loads.length; w++) {
+            long bits = loads[w];
+            while (bits != 0) {
+                values[i++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
         }
+        return values;
+    }
+
+
+    /**
+     * @param bound the largest load we are interested in
+     * @return returns the mask keeping the bits of the last word which are not greater than bound
+     */
+    private static long lastWordMask(int bound) {
+        int bits = (bound & 63) + 1;
+        return bits == 64 ? -1L : (1L << bits) - 1;
     }
     
     
@@ -121,25 +231,20 @@ public class AuxiliaryFunctions {
          * @param speed_max  maximum speed
          * @param speed_step step of speed 
          * @param hmax  the maximal number of hours that a rotation may last
-         * @return returns  all the possible sailing time
+         * @return returns  all the possible sailing time, as tuples (s_rp, speed_rp, st_rp) where (p, 0, 0) stands for an unvisited port/canal
+         *         and a leg always has a positive sailing time
          */
         public  static List<Tuples> computeAllSailingTimes(Instance instance ,List<String> infra, List<List<Integer>> successors,int speed_min, int speed_max,int speed_step, int hmax) {
             List<Tuples> tableSailingTime = new ArrayList<>();
+            InstanceIndex index = instance.getIndex();
             for (int p = 0; p < infra.size(); p++) {
                 Tuples tuples = new Tuples(true);
                 tuples.add(p, 0, 0);
                 for (int sp : successors.get(p)) {
-                    int distance = instance.getDistances().getDistance(infra.get(p), infra.get(sp));
-                    if (distance > 0) {
-                        for (int speed = speed_min; speed <= speed_max; speed += speed_step) {
-                            double time = distance / (double) speed;
-                            if (time <= hmax*24) {
-                                if (0 <= time - (int) time && time - (int) time <= 0.5) {
-                                    tuples.add(sp, speed, (int) time);
-                                } else {
-                                    tuples.add(sp, speed, (int) time + 1);
-                                }
-                            }
+                    for (int speed = speed_min; speed <= speed_max; speed += speed_step) {
+                        int st = computeSailingTime(index.getDistance(p, sp), speed, hmax);
+                        if (st > 0) {
+                            tuples.add(sp, speed, st);
                         }
                     }
                 }
@@ -152,6 +257,56 @@ public class AuxiliaryFunctions {
         
         
         
+        /**
+         * @param hmax the maximal number of hours that a rotation may last
+         * @param tNbv the version of table NbVessel used
+         * @return returns the table which gives the number of vessels deployed on a rotation for each total time of the rotation (W.1)
+         */
+        public static Tuples computeNbVesselTable(int hmax, int tNbv) {
+	        Tuples table = new Tuples(true);
+	        table.add(0,0);
+        
+	        for (int t = 1; t <= hmax; t++) {
+
+	            if (t <= 168) {       //168 = 7 * 24, i.e. the duration of a week in hours
+	            	table.add(t,1);
+	            } else {
+	            	if(tNbv==0) {
+			            	int modulo=t%168;
+			                if (modulo >0) {
+			                	table.add(t,t / 168 +1);
+	
+			                } else {
+			                	table.add(t,t / 168);
+			                }
+	            	}else if (tNbv==1) {
+		            		int modulo=t%168;
+			                if (modulo >=168/2) {
+			                	table.add(t,t / 168 +1);
+	
+			                } else {
+			                	table.add(t,t / 168);
+			                }
+            		
+	            	}else if (tNbv==2) {
+		            		double diff = (double)t / 168 - t / 168; 
+		                    if (diff <= 0.5) {
+		                    	table.add(t,t / 168);
+
+		                    } else {
+		                    	table.add(t,t / 168+1);
+            		
+		                    }
+	            	}
+	            }
+	        }
+        	return table;
+        }
+        
+        
+        
+        
+        
         /**
          * @param instance the instance 
          * @param Vtype  vessel type
@@ -184,6 +339,62 @@ public class AuxiliaryFunctions {
 
         	return (int) cons;
         }
+
+
+
+
+        /**
+         * @param instance the instance
+         * @param Vtype  vessel type
+         * @return returns the cost of a unit of fuel for the vessel type: the cost of the last of its fuel types, divided by 10
+         */
+        public static int computeFuelCost(Instance instance, int Vtype) {
+            String labelFuel = "";
+            for (String label : instance.getVesselType(instance.getVesselTypes().get(Vtype)).getFuelType()) {
+                labelFuel = label;
+            }
+            return instance.getFuelType(labelFuel).getCost() / 10;
+        }
+
+
+
+        /**
+         * @param instance the instance
+         * @param Vtype  vessel type
+         * @param speed_min  minimum speed of the model
+         * @param speed_step step of speed
+         * @return returns the speeds of the vessel type which are also speeds of the model, in increasing order
+         */
+        public static int[] computeSpeeds(Instance instance, int Vtype, int speed_min, int speed_step) {
+            VesselType vesselType = instance.getVesselType(instance.getVesselTypes().get(Vtype));
+            List<Integer> speeds = new ArrayList<>();
+            for (int speed = vesselType.getMinimalSpeed(); speed <= vesselType.getMaximalSpeed(); speed += speed_step) {
+                if ((speed - speed_min) % speed_step == 0) {
+                    speeds.add(speed);
+                }
+            }
+            return speeds.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+
+
+        /**
+         * @param distance the distance of a leg
+         * @param speed  speed
+         * @param hmax  the maximal number of hours that a rotation may last
+         * @return returns the sailing time of the leg (T.8), rounded to the nearest hour (half an hour being rounded down), -1 if the leg
+         *         has no positive distance or lasts more than hmax*24 hours; the table of the sailing times only keeps the positive ones
+         */
+        public static int computeSailingTime(int distance, int speed, int hmax) {
+            if (distance <= 0) {
+                return -1;
+            }
+            double time = distance / (double) speed;
+            if (time > hmax * 24) {
+                return -1;
+            }
+            return time - (int) time <= 0.5 ? (int) time : (int) time + 1;
+        }
      
         public static void ports(Instance instance) {
         	List<Integer> pol = new ArrayList<>();    	//origin  ports of commodity
@@ -204,34 +415,15 @@ public class AuxiliaryFunctions {
     	 * @return returns origin  ports of commodity
     	 */
     	public static List<Integer> getPol(Instance instance) {
-        	List<Integer> pol = new ArrayList<>();    	//origin  ports of commodity
-            //origin ports of commodity
-            for (Commodity c: instance.getCommodities()) {
-            	List<String> portCodes = new ArrayList<>(instance.getPorts());  
-         	    pol.add(portCodes.indexOf(c.getPol().toString()));
-            	
-            }
-    		return pol;
+    		return toList(InstanceDerivedData.of(instance).getPol());
     	}
 
 
-
-
-
     	/**
     	 * @return returns destination ports of commodity
     	 */
     	public static List<Integer> getPod(Instance instance) {
-    		
-            List<Integer> pod = new ArrayList<>();    	// destination ports of commodity
-
-            // destination ports of commodity
-            for (Commodity c: instance.getCommodities()) {
-            	List<String> portCodes = new ArrayList<>(instance.getPorts());  
-        	    pod.add(portCodes.indexOf(c.getPod().toString()));
-            	
-            }
-    		return pod;
+    		return toList(InstanceDerivedData.of(instance).getPod());
     	}
 
     	
@@ -240,12 +432,7 @@ public class AuxiliaryFunctions {
     	 * @return returns the quantity of commodities
     	 */
     	public static  List<Integer> getQuantity(Instance instance) {
-    		List<Integer> quantity= new ArrayList<Integer>();
-  	      for (int i =0;i<instance.getCommodities().size();i++) {
-  	    	  quantity.add(instance.getCommodities().get(i).getNumber());  	  
-  	      }
-		return quantity;
-    		
+    		return toList(InstanceDerivedData.of(instance).getQuantity());
     	}
 
     	/**
@@ -253,19 +440,7 @@ public class AuxiliaryFunctions {
     	 * @return  returns the maximum capacity of vessels
     	 */
 		public static int getMaxKv(Instance instance) {
-			
-			   // the maximum capacity of vessels whatever the vessel type
-	        List<Integer> MaximalCapacity=new ArrayList<Integer>();
-	        for (String name:instance.getVesselTypes()) {
-	        	MaximalCapacity.add(instance.getVesselType(name).getMaximalCapacity());
-	        }
-	         maxKv=Collections.max(MaximalCapacity);
-		        List<Integer> NumberTeu=new ArrayList<Integer>();
-		        for (Commodity commodity:instance.getCommodities()) {
-		        	NumberTeu.add(commodity.getNumber());
-		        	
-		        }	
-			return maxKv;
+			return InstanceDerivedData.of(instance).getMaxKv();
 		}
 
 		
@@ -274,16 +449,7 @@ public class AuxiliaryFunctions {
     	 * @return returns the number of TEU for all the commodities
     	 */
 		public static int getSumK(Instance instance) {
-			
-	        List<Integer> NumberTeu=new ArrayList<Integer>();
-	        for (Commodity commodity:instance.getCommodities()) {
-	        	NumberTeu.add(commodity.getNumber());
-	        	
-	        }	 
-	        
-	        //the number of TEU for all the commodities
-		    sumK = NumberTeu.stream().mapToInt(Integer::intValue).sum();
-			return sumK;
+			return InstanceDerivedData.of(instance).getSumK();
 		}
 
 
@@ -292,57 +458,51 @@ public class AuxiliaryFunctions {
     	 * @return returns all possible loads
     	 */
 		public static Set<Integer> getAllLoads(Instance instance) {
-		       allLoads = computeAllPossibleLoads(getQuantity(instance));
-
-			return allLoads;
+			return toSet(InstanceDerivedData.of(instance).getAllLoads());
 		}
 
 		
-		
-		
     	/**
     	 * @param instance the instance 
     	 * @return returns all the possible values for the sum of the load entering port p and the load leaving port p for a given rotation
-
     	 */
 		public static Set<Integer> getTotalLoad(Instance instance) {
-	        //we compute all the possible production times
-	        totalLoad = new HashSet<Integer>();//all the possible values for the sum of the load entering port p and the load leaving
-	        totalLoad.add(0);
-	        for (int load1 : getAllLoads( instance)) {
-	            for (int load2 : getAllLoads( instance)) {
-	                if (load1 != load2) {
-	                    int sum = load1 + load2;
-	                    if (sum <= 2 * getMaxKv(instance)) {
-	                        totalLoad.add(sum);
-	                    }
-	                }
-	            }
-	        }       
-			
-			return totalLoad;
+			return toSet(InstanceDerivedData.of(instance).getTotalLoad());
 		}
     	
 
-
     	/**
     	 * @param instance the instance 
     	 * @return returns list of revenue for each commodity
+    	 */
+		public static List<Integer> getRev(Instance instance) {
+			return toList(InstanceDerivedData.of(instance).getRev());
+		}
 
 
+    	/**
+    	 * @param values the values
+    	 * @return returns the values as a list
     	 */
-		public static List<Integer> getRev(Instance instance) {
-   		 List<Integer> quantity=getQuantity(instance);		    //list to store quantity for each commodity 
-   		 List<Integer> revenues=new ArrayList<Integer> ();		//list to store the total revenue for each commodity  (rev*quantity)
-   		 rev=new ArrayList<Integer> ();
-		       // we get the information about revenue
-				for(int k = 0; k < instance.getCommodities().size(); k++){
-				    rev.add(instance.getCommodities().get(k).getRevenue());
-				    quantity.add(instance.getCommodities().get(k).getNumber());
-				    revenues.add( rev.get(k) * quantity.get(k));
-
-				}
-			return rev;
+		private static List<Integer> toList(int[] values) {
+			List<Integer> list = new ArrayList<>(values.length);
+			for (int value : values) {
+				list.add(value);
+			}
+			return list;
+		}
+
+
+    	/**
+    	 * @param values the values
+    	 * @return returns the values as a set
+    	 */
+		private static Set<Integer> toSet(int[] values) {
+			Set<Integer> set = new HashSet<>();
+			for (int value : values) {
+				set.add(value);
+			}
+			return set;
 		}
     	
 		
@@ -372,12 +532,24 @@ public class AuxiliaryFunctions {
 	 * write the result of the model to a file
 	 */
 	public static void save(Model model,String filename) throws IOException {
+		save(model, filename, "OPTIMAL");
+	}
+
+
+
+	/**
+	 * @param model the model
+	 * @param filename the file name
+	 * @param status the status of the solution written on the first line (OPTIMAL, SATISFIABLE)
+	 * write the result of the model to a file
+	 */
+	public static void save(Model model,String filename,String status) throws IOException {
 		String path=filename;
 	    FileWriter writer = new FileWriter(path);
         List<String>variablesList=new ArrayList<String>();
         String objective="";
         String optimal="";
-		 optimal="r OPTIMAL";
+		 optimal="r "+status;
    for (Variable var : model.getChocoModel().getVars()) {
         if (var instanceof IntVar) {
               IntVar intVar = (IntVar) var;
@@ -392,65 +564,122 @@ public class AuxiliaryFunctions {
          	   String newName;
          	   newName= intVar.getName().substring(0, intVar.getName().indexOf("["));
 	               Object obj=model.getVariable(newName);
-	               if (obj instanceof IntVar[]) {
-	            	    int size = ((IntVar[]) obj).length; 			            	    
-	            	    variablesList.add(newName+"["+ size+"]") ;
-		                writer.write("s "+intVar.getName()+" " + intVar.getValue()+"\n"); 
+	               int[] dimensions=dimensionsOf(obj);
+	               if (dimensions != null) {
+	            	    variablesList.add(declaration(model, newName, dimensions));
+	            	    writeValue(writer, model, newName, intVar);
+	               }
+           }
 
-	            	   }
 
-	               if (obj instanceof IntVar[][]) {
-	            	    int n = ((IntVar[][]) obj).length;
-	            	    int m = ((IntVar[][]) obj)[0].length;
-	            	       variablesList.add(newName+"["+ n+"]"+"["+m+"]");
-			               writer.write("s "+intVar.getName()+" " + intVar.getValue()+"\n"); 
+        	}
+    }
 
+    }		            
+        writer.close();
 
+        List<String> uniqueList = variablesList.stream().distinct().collect(Collectors.toList());
+        String result = "v "+String.join(" ", uniqueList);
+        InsertLineToFile(path, optimal, 0);
+        InsertLineToFile(path, objective, 1);
+       InsertLineToFile(path, result, 2);
+		
+	}
 
-	            	}
-	               if (obj instanceof IntVar[][][]) {
-            	    int n = ((IntVar[][][]) obj).length;
-            	    int m = ((IntVar[][][]) obj)[0].length;
-            	    int k = ((IntVar[][][]) obj)[0][0].length;
-            	    	   variablesList.add(newName+"["+ n+"]"+"["+m+"]"+"["+k+"]");
-			               writer.write("s "+intVar.getName()+" " + intVar.getValue()+"\n"); 
 
 
-            	}
-	               if (obj instanceof BoolVar[][]) {
-            	    int n = ((BoolVar[][]) obj).length;
-            	    int m = ((BoolVar[][]) obj)[0].length;
-            	           variablesList.add(newName+"["+ n+"]"+"["+m+"]");
-			               writer.write("s "+intVar.getName()+" " + intVar.getValue()+"\n"); 
+	/**
+	 * @param obj the variables registered under a label
+	 * @return returns the dimensions of the array of variables, null if it is not an array of variables
+	 */
+	static int[] dimensionsOf(Object obj) {
+		if (obj instanceof IntVar[][][]) {
+			IntVar[][][] vars = (IntVar[][][]) obj;
+			return new int[] {vars.length, vars[0].length, vars[0][0].length};
+		}
+		if (obj instanceof IntVar[][]) {
+			IntVar[][] vars = (IntVar[][]) obj;
+			return new int[] {vars.length, vars[0].length};
+		}
+		if (obj instanceof IntVar[]) {
+			return new int[] {((IntVar[]) obj).length};
+		}
+		return null;
+	}
 
 
-            	}
-	               if (obj instanceof BoolVar[][][]) {
-            	    int n = ((BoolVar[][][]) obj).length;
-            	    int m = ((BoolVar[][][]) obj)[0].length;
-            	    int k = ((BoolVar[][][]) obj)[0][0].length;
-            	           variablesList.add(newName+"["+ n+"]"+"["+m+"]"+"["+k+"]");
-			               writer.write("s "+intVar.getName()+" " + intVar.getValue()+"\n"); 
 
+	/**
+	 * @param label the label of the variables
+	 * @return returns the position of the commodity in the indices of the variables, -1 if they are not indexed by commodity
+	 */
+	static int commodityPosition(String label) {
+		if (Arrays.asList(VarKey.ALPHA_K.getLabel(), VarKey.ROT_KI.getLabel(), VarKey.PORT_KI.getLabel(), VarKey.NBR_K.getLabel(), VarKey.FROM_KPR.getLabel(),
+				VarKey.TO_KPR.getLabel(), VarKey.PODK.getLabel(), VarKey.LEAVE_KPR.getLabel(), VarKey.INDEX_CTIME_IN_KI.getLabel(),
+				VarKey.INDEX_CTIME_OUT_KI.getLabel()).contains(label)) {
+			return 0;
+		}
+		if (Arrays.asList(VarKey.CTIME_IN_IK.getLabel(), VarKey.CTIME_IN_MOD_IK.getLabel(), VarKey.CTIME_OUT_IK.getLabel(), VarKey.CTIME_OUT_MOD_IK.getLabel(),
+				VarKey.DELTA_IK.getLabel(), VarKey.BIG_DELTA_IK.getLabel()).contains(label)) {
+			return 1;
+		}
+		return -1;
+	}
 
 
-            	}
-	               
-           
-           }
 
+	/**
+	 * @param label the label of the variables
+	 * @return returns true if the variables only exist for the commodities with a transit time
+	 */
+	static boolean isWithTt(String label) {
+		return label.startsWith("ctime") || label.startsWith("index_ctime") || label.equals(VarKey.DELTA_IK.getLabel()) || label.equals(VarKey.BIG_DELTA_IK.getLabel());
+	}
 
-        	}
-    }
 
-    }		            
-        writer.close();
 
-        List<String> uniqueList = variablesList.stream().distinct().collect(Collectors.toList());
-        String result = "v "+String.join(" ", uniqueList);
-        InsertLineToFile(path, optimal, 0);
-        InsertLineToFile(path, objective, 1);
-       InsertLineToFile(path, result, 2);
-		
+	/**
+	 * @param model the model
+	 * @param label the label of the variables
+	 * @param dimensions the dimensions of the array of variables
+	 * @return returns the declaration of the variables, with the number of original commodities if the commodities are aggregated
+	 */
+	static String declaration(Model model, String label, int[] dimensions) {
+		int position = commodityPosition(label);
+		StringBuilder declaration = new StringBuilder(label);
+		for (int i = 0; i < dimensions.length; i++) {
+			int size = dimensions[i];
+			if (model.getAggregation() != null && i == position) {
+				Instance original = model.getAggregation().getOriginalInstance();
+				size = isWithTt(label) ? original.getNumberCommodityWithTt() : original.getCommodities().size();
+			}
+			declaration.append("[").append(size).append("]");
+		}
+		return declaration.toString();
+	}
+
+
+
+	/**
+	 * @param writer the writer of the solution file
+	 * @param model the model
+	 * @param label the label of the variables
+	 * @param var the variable
+	 * writes the value of the variable, once for each original commodity carried by its flow if the commodities are aggregated
+	 */
+	private static void writeValue(FileWriter writer, Model model, String label, IntVar var) throws IOException {
+		int position = commodityPosition(label);
+		if (model.getAggregation() == null || position < 0) {
+			writer.write("s "+var.getName()+" " + var.getValue()+"\n");
+			return;
+		}
+		String[] indices = var.getName().substring(label.length() + 1, var.getName().length() - 1).split("\\]\\[");
+		int nbWithTt = model.getAggregation().getOriginalInstance().getNumberCommodityWithTt();
+		for (int k : model.getAggregation().getCommodities(Integer.parseInt(indices[position]))) {
+			if (!isWithTt(label) || k < nbWithTt) {
+				indices[position] = Integer.toString(k);
+				writer.write("s "+label+"["+String.join("][", indices)+"] " + var.getValue()+"\n");
+			}
+		}
 	}
 }
@@ -2,7 +2,6 @@ package model_v0;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import tools.Operator;
 import tools.ClauseAdder;
@@ -42,7 +41,7 @@ public class CargoFlowRotationSubmodel extends Submodel{
 		for(int k = 0; k < nbCommodities; k++) {
 			  for(int p = 0; p < nbPorts; p++) {
 			    for(int r = 0; r < nbRotations; r++) {
-            clauseAdder.addImplication (((BoolVar[][][]) model.getVariable("from_kpr"))[k][p][r], Operator.EQ, 1, ((IntVar[][]) model.getVariable("s_rp"))[r][p], Operator.NE, p);
+            clauseAdder.addImplication (model.get(VarKey.FROM_KPR)[k][p][r], Operator.EQ, 1, model.get(VarKey.S_RP)[r][p], Operator.NE, p);
 			    }
 			  }
 			}
@@ -52,7 +51,7 @@ public class CargoFlowRotationSubmodel extends Submodel{
 		for(int k = 0; k < nbCommodities; k++) {
 			  for(int p = 0; p < nbPorts; p++) {
 			    for(int r = 0; r < nbRotations; r++) {
-			    	clauseAdder.addImplication (((BoolVar[][][]) model.getVariable("to_kpr"))[k][p][r], Operator.EQ, 1, ((IntVar[][]) model.getVariable("s_rp"))[r][p], Operator.NE, p);
+			    	clauseAdder.addImplication (model.get(VarKey.TO_KPR)[k][p][r], Operator.EQ, 1, model.get(VarKey.S_RP)[r][p], Operator.NE, p);
 			    }
 			  }
 			}
@@ -61,8 +60,8 @@ public class CargoFlowRotationSubmodel extends Submodel{
 
 		for (int r = 0; r < nbRotations; r++) {
 	        for (int p = 0; p < nbPorts; p++) {
-	           clauseAdder.addImplication(((IntVar[][]) model.getVariable("s_rp"))[r][p], Operator.NE, p,
-	        		     		   getModel().getChocoModel().among(getModel().getChocoModel().intVar(1,((IntVar[][]) model.getVariable("port_ki")).length), Arrays.stream(((IntVar[][]) model.getVariable("port_ki"))).flatMap(Arrays::stream).toArray(IntVar[]::new),
+	           clauseAdder.addImplication(model.get(VarKey.S_RP)[r][p], Operator.NE, p,
+	        		     		   getModel().getChocoModel().among(getModel().getChocoModel().intVar(1,model.get(VarKey.PORT_KI).length), Arrays.stream(model.get(VarKey.PORT_KI)).flatMap(Arrays::stream).toArray(IntVar[]::new),
 	        		     				  new int[]{p}).reify(), Operator.EQ, 1);
 	        }
 	    }
@@ -70,9 +69,9 @@ public class CargoFlowRotationSubmodel extends Submodel{
 
 	    for (int r = 0; r < nbRotations; r++) {
 	        for (int p = 0; p < nbPorts; p++) {
-	           clauseAdder.addImplication(((IntVar[][]) model.getVariable("s_rp"))[r][p], Operator.NE, p,
+	           clauseAdder.addImplication(model.get(VarKey.S_RP)[r][p], Operator.NE, p,
 	        		   
-	        		   getModel().getChocoModel().among(getModel().getChocoModel().intVar(1,((IntVar[][]) model.getVariable("rot_ki")).length), Arrays.stream(((IntVar[][]) model.getVariable("rot_ki"))) .flatMap(Arrays::stream).toArray(IntVar[]::new),
+	        		   getModel().getChocoModel().among(getModel().getChocoModel().intVar(1,model.get(VarKey.ROT_KI).length), Arrays.stream(model.get(VarKey.ROT_KI)) .flatMap(Arrays::stream).toArray(IntVar[]::new),
 	        				   new int[]{r}).reify(), Operator.EQ, 1);
 	        }
 	    }
@@ -80,8 +79,8 @@ public class CargoFlowRotationSubmodel extends Submodel{
 	    //if rotation r is not used, no commodity is carried on this rotation (CR.5)
 	    for (int r = 0; r < nbRotations; r++) {
 	        for (int k = 0; k< nbCommodities; k++) {
-	           clauseAdder.addEquivalence (((IntVar[]) model.getVariable("v_r"))[r], Operator.EQ, 0,
-	        		   getModel().getChocoModel().among(getModel().getChocoModel().intVar(0), Arrays.stream(((IntVar[][]) model.getVariable("rot_ki"))) .flatMap(Arrays::stream).toArray(IntVar[]::new),
+	           clauseAdder.addEquivalence (model.get(VarKey.V_R)[r], Operator.EQ, 0,
+	        		   getModel().getChocoModel().among(getModel().getChocoModel().intVar(0), Arrays.stream(model.get(VarKey.ROT_KI)) .flatMap(Arrays::stream).toArray(IntVar[]::new),
 	        				   new int[]{r}).reify(), Operator.EQ, 1);
 	        }
 	    }
@@ -92,8 +91,8 @@ public class CargoFlowRotationSubmodel extends Submodel{
 	    ArrayList<Integer>  nbCommoditiesIn=new ArrayList<Integer>();
 	    ArrayList<Integer>  nbCommoditiesOut=new ArrayList<Integer>();
 
-		 List<Integer> pol = new ArrayList<>();    	//origin  ports of commodity
-		 List<Integer> pod = new ArrayList<>();    	//destination ports of commodity
+		 int[] pol;							    	//origin  ports of commodity
+		 int[] pod;							    	//destination ports of commodity
 		 
 		    for (int p = 0; p < nbPorts; p++) {
 		    	nbCommoditiesIn.add(0);
@@ -102,8 +101,8 @@ public class CargoFlowRotationSubmodel extends Submodel{
 		    	
 		    }
 
-	        pol=AuxiliaryFunctions.getPol(model.getInstance());
-	        pod=AuxiliaryFunctions.getPod(model.getInstance());
+	        pol=model.getDerivedData().getPol();
+	        pod=model.getDerivedData().getPod();
 	        
 			for (int x : pod) {
 				nbCommoditiesIn.set(x, nbCommoditiesIn.get(x) + 1);
@@ -116,7 +115,7 @@ public class CargoFlowRotationSubmodel extends Submodel{
 			   	    BoolVar[] exist = getModel().getChocoModel().boolVarArray(nbRotations);
 			   	    for (int r = 0; r < nbRotations; r++) {
 			   	    	getModel().getChocoModel().ifThen(
-			   	    				getModel().getChocoModel().arithm(((IntVar[][]) model.getVariable("s_rp"))[r][p], "!=", p),
+			   	    				getModel().getChocoModel().arithm(model.get(VarKey.S_RP)[r][p], "!=", p),
 			   	    				getModel().getChocoModel().arithm(exist[r], "=", 1));
 
 			   	    }
@@ -1,14 +1,14 @@
 package model_v0;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import tools.Operator;
 import tools.ClauseAdder;
+import propagators.PropCargoFlowChannel;
 
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.objects.setDataStructures.iterable.IntIterableRangeSet;
@@ -21,8 +21,8 @@ public class CargoFlowSubmodel extends Submodel{
 	private IntVar[][] rotKi ; 							//the index of the ith rotation used to carry commodity k, -1 if the transportation of commodity k requires less than i rotations
 	private IntVar[][] portKi;							//the ith port in which commodity k is loaded, unloaded or transshipped, -1 if the transportation of commodity k requires less than i rotations.
 	private IntVar[] nbrK;								//the number of rotations in which commodity k is loaded, unloaded or transshipped. 
-	private List<Integer> pol = new ArrayList<>();    	//origin  ports of commodity
-	private List<Integer> pod = new ArrayList<>();    	//destination ports of commodity
+	private int[] pol;							    	//origin  ports of commodity
+	private int[] pod;							    	//destination ports of commodity
 	private BoolVar[][][]toKpr;							//true if the commodity k is unloaded at port p from rotation r
 	private BoolVar[][][] fromKpr ;						//true if the commodity k is loaded at port p in rotation r
 	private IntVar[] podk;        						//the destination port if the commodity is allowed, -1 otherwise
@@ -35,8 +35,8 @@ public class CargoFlowSubmodel extends Submodel{
 		super(model);
 		
         //origin and destination ports of commodity
-        pol=AuxiliaryFunctions.getPol(model.getInstance());
-        pod=AuxiliaryFunctions.getPod(model.getInstance());
+        pol=model.getDerivedData().getPol();
+        pod=model.getDerivedData().getPod();
 
 	}
 
@@ -49,7 +49,7 @@ public class CargoFlowSubmodel extends Submodel{
 		
 		//alpha_k is set to 1 if commodity k is accepted in the network, 0 otherwise
 		alphaK = getModel().getChocoModel().intVarArray("alpha_k", nbCommodities, 0, 1);
-		addVariables("alpha_k", alphaK);
+		addVariables(VarKey.ALPHA_K, alphaK);
 
         //the index of ith rotation used to carry commodity k, -1 if the transportation of commodity k requires less than i rotations
          rotKi = new IntVar[nbCommodities][tsmax+1];
@@ -58,34 +58,40 @@ public class CargoFlowSubmodel extends Submodel{
          	   rotKi[i][j] =  getModel().getChocoModel().intVar("rot_ki[" + i + "][" + j + "]", IntStream.range(-1, nbRotations).toArray());
             }
         }
-        addVariables("rot_ki", rotKi);
+        addVariables(VarKey.ROT_KI, rotKi);
 
         
         //the ith port in which commodity k is loaded, unloaded or transshipped, 0 if the transportation of commodity k requires less than i rotations
+        //(only the ports through which commodity k can go in time)
         portKi = new IntVar[nbCommodities][tsmax + 2];
         for (int k = 0; k < nbCommodities; k++) {
             for (int i = 0; i < tsmax + 2; i++) {
                 if (i == 0) {
-                    portKi[k][i] = getModel().getChocoModel().intVar("port_ki[" + k + "][" + i + "]",new int[] {-1,pol.get(k)});
+                    portKi[k][i] = getModel().getChocoModel().intVar("port_ki[" + k + "][" + i + "]",new int[] {-1,pol[k]});
 
                     
                 } else if (i == tsmax + 1) {
-                    portKi[k][i] = getModel().getChocoModel().intVar("port_ki[" + k + "][" + i + "]",new int[] {-1,pod.get(k)});
+                    portKi[k][i] = getModel().getChocoModel().intVar("port_ki[" + k + "][" + i + "]",new int[] {-1,pod[k]});
 
                 } else {
                     Set<Integer> set = IntStream.rangeClosed(-1, nbPorts - 1).boxed().collect(Collectors.toSet());
-                    set.remove(pol.get(k));
+                    set.remove(pol[k]);
+                    for (int q = 0; q < nbPorts; q++) {
+                        if (getModel().getPreprocessor().isFeasible(k) && !getModel().getPreprocessor().isTransshipmentAllowed(k, q)) {
+                            set.remove(q);
+                        }
+                    }
                     portKi[k][i] = getModel().getChocoModel().intVar("port_ki[" + k + "][" + i + "]", set.stream().mapToInt(Integer::intValue).toArray());
                 }
             }
         }
-        addVariables("port_ki", portKi);
+        addVariables(VarKey.PORT_KI, portKi);
 
         
         //the number of rotations in which commodity k is loaded, unloaded or transshipped
          nbrK = getModel().getChocoModel().intVarArray("nbr_k", nbCommodities, 0, tsmax+1);
          
-         addVariables("nbr_k", nbrK);
+         addVariables(VarKey.NBR_K, nbrK);
          
          
          
@@ -98,7 +104,7 @@ public class CargoFlowSubmodel extends Submodel{
              }
            }
          }
-         addVariables("from_kpr", fromKpr);
+         addVariables(VarKey.FROM_KPR, fromKpr);
          
          
 
@@ -111,14 +117,14 @@ public class CargoFlowSubmodel extends Submodel{
         	    }
         	  }
         	}
-         addVariables("to_kpr", toKpr);
+         addVariables(VarKey.TO_KPR, toKpr);
 
        //the destination port if the commodity is allowed, -1 otherwise
 	    podk = new IntVar[nbCommodities];
 	    for (int k = 0; k < nbCommodities; k++) {
-	        podk[k] = getModel().getChocoModel().intVar("podk["+k+"]", new int[] { -1, pod.get(k) });
+	        podk[k] = getModel().getChocoModel().intVar("podk["+k+"]", new int[] { -1, pod[k] });
 	    }
-	    addVariables("podk", podk);
+	    addVariables(VarKey.PODK, podk);
 
 	}
 	
@@ -127,6 +133,14 @@ public class CargoFlowSubmodel extends Submodel{
 	public void defineConstraints() {
 	ClauseAdder clauseAdder = new ClauseAdder(this.model);
 
+    //the commodities which cannot reach their destination in time are rejected (C.0)
+    //(their domains are kept, since the clauses below cannot be posted on fixed variables)
+    for (int k = 0; k < nbCommodities; k++) {
+      if (!getModel().getPreprocessor().isFeasible(k)) {
+        getModel().getChocoModel().arithm(alphaK[k], "=", 0).post();
+      }
+    }
+
     //if commodity k is accepted in the network, there is at least one rotation in which it is loaded, unloaded or transshipped (C.1)
     for (int k = 0; k < nbCommodities; k++) {
       clauseAdder.addEquivalence(alphaK[k], Operator.EQ, 1, nbrK[k], Operator.GT, 0);
@@ -134,7 +148,7 @@ public class CargoFlowSubmodel extends Submodel{
 
     //if commodity k is accepted in the network, the first port is necessarily pol(k) (C.2)
     for (int k = 0; k < nbCommodities; k++) {
-      clauseAdder.addEquivalence(alphaK[k], Operator.EQ, 1, portKi[k][0], Operator.EQ, pol.get(k));
+      clauseAdder.addEquivalence(alphaK[k], Operator.EQ, 1, portKi[k][0], Operator.EQ, pol[k]);
     }
 			
     //if commodity k is not accepted, there is no first port (C.3)
@@ -144,7 +158,7 @@ public class CargoFlowSubmodel extends Submodel{
     
     //if commodity k is accepted, the destination port is necessarily pod(k) (C.4)
     for (int k = 0; k < nbCommodities ;k++) {
-      clauseAdder.addEquivalence(alphaK[k], Operator.EQ, 1, podk[k], Operator.EQ, pod.get(k));
+      clauseAdder.addEquivalence(alphaK[k], Operator.EQ, 1, podk[k], Operator.EQ, pod[k]);
     }
 				
     //the last used port must be pod(k) (C.5)		
@@ -216,40 +230,9 @@ public class CargoFlowSubmodel extends Submodel{
 		            getModel().getChocoModel().allDifferentUnderCondition(rotKi[k],x -> !set.intersect(x), true).post();
 				}					
 				
-      //link fromKpr variables to cargo flows (C.12)
-				
+      //link fromKpr and toKpr variables to cargo flows (C.12 and C.13)
 				for (int k = 0; k < nbCommodities; k++) {
-				    for (int p = 0; p < nbPorts; p++) {
-				        for (int r = 0; r < nbRotations; r++) {
-				            IntVar[] sum = new IntVar[tsmax + 1];
-				            for (int i = 0; i <= tsmax; i++) {
-				                BoolVar condition = getModel().getChocoModel().and(
-				                		getModel().getChocoModel().arithm(portKi[k][i], "=", p),
-				                		getModel().getChocoModel().arithm(rotKi[k][i], "=", r)
-				                ).reify();
-				                sum[i] = condition;
-				            }
-                    getModel().getChocoModel().sum(sum, "=", fromKpr[k][p][r]).post();
-				        }
-				    }
-				}
-
-				
-	  //link toKpr variables to cargo flows (C.13)
-				for (int k = 0; k < nbCommodities; k++) {
-				    for (int p = 0; p < nbPorts; p++) {
-				        for (int r = 0; r < nbRotations; r++) {
-				            IntVar[] sum = new IntVar[tsmax];
-				            for (int i = 0; i < tsmax; i++) {
-				                BoolVar condition = getModel().getChocoModel().and(
-				                		getModel().getChocoModel().arithm(portKi[k][i+1], "=", p),
-				                		getModel().getChocoModel().arithm(rotKi[k][i], "=", r)
-				                ).reify();
-				                sum[i] = condition;
-				            }
-                    getModel().getChocoModel().sum(sum, "=", toKpr[k][p][r]).post();
-				        }
-				    }
+				    new Constraint("CARGO_FLOW_CHANNEL", new PropCargoFlowChannel(portKi[k], rotKi[k], fromKpr[k], toKpr[k])).post();
 				}
 
 
@@ -0,0 +1,175 @@
+package model_v0;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+
+public class CheckpointService {
+
+	/** This class allows to keep the best solution of a long solve on disk. Each improving solution is written in the format of
+	 *  AuxiliaryFunctions.save (with status SATISFIABLE, OPTIMAL once the search has proved it) followed by comment lines giving its
+	 *  date and the statistics of the search: it is first written in a temporary file, which then replaces the checkpoint, so that the
+	 *  checkpoint is always a complete solution. When the JVM is asked to stop (SIGTERM, SIGINT), a shutdown hook stops the search through
+	 *  a stop criterion of the solver and waits for the solve to end, the last solution being on disk. The checkpoint can be read by
+	 *  SolutionLoader to resume the search, its objective becoming a bound. */
+
+	private static final long SHUTDOWN_TIMEOUT = 30;		//the maximal time (in seconds) the shutdown hook waits for the end of the solve
+
+	private final Model model;								//the model being solved
+	private final Path path;								//the checkpoint file
+	private final Path temporary;							//the temporary file written before replacing the checkpoint
+	private final Thread hook;								//the shutdown hook
+	private final CountDownLatch finished = new CountDownLatch(1);	//released when the solve is over
+	private volatile boolean stopRequested;					//true if the JVM is asked to stop
+	private int nbCheckpoints;								//the number of solutions written
+	private boolean resumed;								//true if the search starts from the solution of the checkpoint
+
+
+
+	/**
+	 * Constructor for creating a CheckpointService object
+	 * @param model the model being solved
+	 * @param filename the name of the checkpoint file
+	 */
+	public CheckpointService(Model model, String filename) {
+		this.model = model;
+		this.path = Paths.get(filename).toAbsolutePath();
+		this.temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		this.hook = new Thread(this::stop, "checkpoint-shutdown");
+	}
+
+
+
+	/**
+	 * writes each improving solution of the solver of the model, and installs the shutdown hook. It must be called before the solve.
+	 */
+	public void install() {
+		Solver solver = model.getChocoModel().getSolver();
+		solver.addStopCriterion(() -> stopRequested);
+		solver.plugMonitor((IMonitorSolution) () -> write("SATISFIABLE"));
+		Runtime.getRuntime().addShutdownHook(hook);
+	}
+
+
+
+	/**
+	 * starts the search from the solution of the checkpoint (see SolutionLoader.apply). It must be called before the solve.
+	 * @param loader the loader of the checkpoint
+	 * @return returns the number of declared hints
+	 */
+	public int resume(SolutionLoader loader) {
+		resumed = true;
+		return loader.apply(model);
+	}
+
+
+
+	/**
+	 * marks the checkpoint as optimal if the search has proved it, removes the shutdown hook and releases it if the JVM is stopping.
+	 * When the search has been resumed from the checkpoint and ends without improving it, the solution of the checkpoint is the
+	 * optimal one and it is marked as well. It must be called after the solve.
+	 * @param optimal true if the search has proved the optimality of the last solution
+	 * @throws IOException if the checkpoint cannot be written
+	 */
+	public void finish(boolean optimal) throws IOException {
+		try {
+			if (optimal && (nbCheckpoints > 0 || resumed) && Files.exists(path)) {
+				synchronized (this) {
+					List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+					lines.set(0, "r OPTIMAL");
+					Files.write(temporary, lines, StandardCharsets.UTF_8);
+					replace();
+				}
+			}
+		} finally {
+			finished.countDown();
+			try {
+				Runtime.getRuntime().removeShutdownHook(hook);
+			} catch (IllegalStateException e) {
+				//the JVM is stopping: the hook is running
+			}
+		}
+	}
+
+
+
+	/**
+	 * @return returns true if the search has been stopped because the JVM is stopping
+	 */
+	public boolean isStopRequested() {
+		return stopRequested;
+	}
+
+
+
+	/**
+	 * @return returns the number of solutions written
+	 */
+	public int getNbCheckpoints() {
+		return nbCheckpoints;
+	}
+
+
+
+	/**
+	 * writes the current solution of the model in the temporary file, then replaces the checkpoint
+	 * @param status the status of the solution
+	 */
+	private synchronized void write(String status) {
+		Solver solver = model.getChocoModel().getSolver();
+		try {
+			AuxiliaryFunctions.save(model, temporary.toString(), status);
+			Files.write(temporary, Arrays.asList(
+					"c date " + Instant.now(),
+					"c solutions " + solver.getSolutionCount() + " nodes " + solver.getNodeCount() + " fails " + solver.getFailCount()
+							+ " time " + solver.getTimeCount()),
+					StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+			replace();
+			nbCheckpoints++;
+		} catch (IOException e) {
+			throw new UncheckedIOException("The checkpoint " + path + " cannot be written", e);
+		}
+	}
+
+
+
+	/**
+	 * replaces the checkpoint by the temporary file, atomically if the file system allows it
+	 * @throws IOException if the checkpoint cannot be replaced
+	 */
+	private void replace() throws IOException {
+		try {
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+
+
+	/**
+	 * stops the search and waits for the end of the solve, run by the shutdown hook
+	 */
+	private void stop() {
+		stopRequested = true;
+		try {
+			finished.await(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,13 +1,14 @@
 package model_v0;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
-import org.chocosolver.solver.constraints.extension.Tuples;
-import org.chocosolver.solver.variables.BoolVar;
+import propagators.PropLegCost;
+
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.variables.IntVar;
 
 
@@ -19,19 +20,20 @@ public class CostSubmodel extends Submodel{
 	
 		
 	int speedStep=1;										//step of speed	
-	private Tuples tableConsumption ;    					//fuel consumption per rotation$
+	private int[][] tableConsumption ;    					//fuel consumption per vessel type and speed
 	private HashSet<Integer> consValues ;			
 	
 	private int hmax; 							   		  //the maximal number of hours that a rotation may last.	
 	private int maxFuelCost;							 //the  maximum fuel cost
 	private int sum;
 	
-	private  Set<Integer> allLoads;						  //all possible loads	
+	private int[] allLoads;								  //all possible loads	
 	private int maxKv;									  //the maximum capacity of vessels whatever the vessel type
 	private int  sumK;									  //the number of TEU for all the commodities
-	private List<Integer> quantity;					      //quantity of commodities		
+	private int[] quantity;							      //quantity of commodities		
+	private int[] pol;									  //origin ports of commodity
+	private int[] pod;									  //destination ports of commodity
 
-    private ArrayList<ArrayList<Integer>> sumPcP;	// stores the waiting times of vessels
 
 	/**
 	 * Constructor for creating a CostSubmodel object
@@ -40,57 +42,28 @@ public class CostSubmodel extends Submodel{
 	public CostSubmodel(Model model) {
 		super(model);
 		this.hmax=model.getHmax();
-		 //compute fuel consumption per rotation
-		tableConsumption = new Tuples(true);
-		tableConsumption.add(0, 0, 0);
-		consValues = new HashSet<>();
-		consValues.add(0);
-    	List<String> vesselTypes = new ArrayList<>(getModel().getInstance().getVesselTypes());  //convert a Set to a List to access the index of vessels.
-		
-		for (int v = 1; v <= nbVessels; v++) {
-		    String vt = vesselTypes.get(v-1);
-
-		    tableConsumption.add(v, 0, 0);
-
-		    for (int speedV = getModel().getInstance().getVesselType(vt).getMinimalSpeed(); speedV <= getModel().getInstance().getVesselType(vt).getMaximalSpeed(); speedV += speedStep) {
-		        int c = AuxiliaryFunctions.computeConsumption(getModel().getInstance(), v-1, speedV);
-
-		        tableConsumption.add(v, speedV, c);
-		        consValues.add(c);
-		    }
-		}
+		 //compute fuel consumption per rotation (shared by all the models built from the instance)
+		Consumptions consumptions = model.getDerivedData().getTable("consumption/" + speedStep, this::computeConsumptions);
+		tableConsumption = consumptions.table;
+		consValues = consumptions.values;
 		
 	  //we get the information about quantity of commodities
-	    this.quantity= AuxiliaryFunctions.getQuantity(model.getInstance());
+	    this.quantity= model.getDerivedData().getQuantity();
 
 	  //the maximum capacity of vessels whatever the vessel type
-	    this.maxKv=AuxiliaryFunctions.getMaxKv(model.getInstance());	 
+	    this.maxKv=model.getDerivedData().getMaxKv();	 
 	        
       //the number of TEU for all the commodities
-	    this.sumK = AuxiliaryFunctions.getSumK(model.getInstance());
+	    this.sumK = model.getDerivedData().getSumK();
 	    	
-      //we compute all possible loads
-	    this.allLoads = AuxiliaryFunctions.computeAllPossibleLoads(quantity);
+      //all possible loads
+	    this.allLoads = model.getDerivedData().getAllLoads();
+	    
+      //origin and destination ports of commodity
+	    this.pol = model.getDerivedData().getPol();
+	    this.pod = model.getDerivedData().getPod();
 	
         
-     	 sumPcP = new ArrayList<ArrayList<Integer>>();
-
-        for (String name:getModel().getInstance().getPorts()) {
-            ArrayList<Integer> innerList = new ArrayList<Integer>();
-        	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-                innerList.add(getModel().getInstance().getPort(name).getCallCost(nameVessel));
-
-            }
-        	  sumPcP.add(innerList);
-        }
-        for (String name:getModel().getInstance().getCanals()) {
-            ArrayList<Integer> innerList = new ArrayList<Integer>();
-        	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-        		  innerList.add(getModel().getInstance().getCanal(name).getCanalCost(nameVessel));
-
-            }
-        	  sumPcP.add(innerList);
-        }
         ArrayList<Integer> fuelsCost = new ArrayList<>();
         fuelsCost.add(0);
         for (String name:getModel().getInstance().getFuelTypes()) {
@@ -100,34 +73,73 @@ public class CostSubmodel extends Submodel{
 
         maxFuelCost = Collections.max(fuelsCost);
 
-		int[] sumPcPArr = sumPcP.stream().flatMap(innerList -> innerList.stream()).mapToInt(Integer::intValue).toArray();
+      //the sum of the call costs of ports and canals for all the vessel types
         sum =0;
-        for(int i=0;i<sumPcPArr.length;i++) {
-        	sum+=sumPcPArr[i];
-        	
+        for(int i=0;i<nbPorts+nbCanals;i++) {
+        	for (int v=0;v<nbVessels;v++) {
+        		sum+=index.getCallCost(i, v);
+        	}
         }
 	}
 
+	/**
+	 * @return returns the fuel consumption for each vessel type (from 1) and each speed (-1 if the speed is not allowed), and the set of all the possible consumptions
+	 */
+	private Consumptions computeConsumptions() {
+		HashSet<Integer> values = new HashSet<>();
+		values.add(0);
+    	List<String> vesselTypes = new ArrayList<>(getModel().getInstance().getVesselTypes());  //convert a Set to a List to access the index of vessels.
+		int[][] table = new int[nbVessels + 1][];
+		table[0] = new int[] {0};
+		for (int v = 1; v <= nbVessels; v++) {
+		    String vt = vesselTypes.get(v-1);
+		    table[v] = new int[getModel().getInstance().getVesselType(vt).getMaximalSpeed() + 1];
+		    Arrays.fill(table[v], -1);
+		    table[v][0] = 0;
+
+		    for (int speedV = getModel().getInstance().getVesselType(vt).getMinimalSpeed(); speedV <= getModel().getInstance().getVesselType(vt).getMaximalSpeed(); speedV += speedStep) {
+		        int c = AuxiliaryFunctions.computeConsumption(getModel().getInstance(), v-1, speedV);
+
+		        table[v][speedV] = c;
+		        values.add(c);
+		    }
+		}
+		return new Consumptions(table, values);
+	}
+	
+	
+	
+	/** This class allows to represent the fuel consumptions computed for an instance, shared by all the models built from it */
+	private static class Consumptions {
+		private final int[][] table;						//fuel consumption per vessel type and speed
+		private final HashSet<Integer> values;				//all the possible consumptions
+		
+		private Consumptions(int[][] table, HashSet<Integer> values) {
+			this.table = table;
+			this.values = values;
+		}
+	}
+
 	@Override
 	public void defineVariables() {
 	    //the fuel consumption for rotation r depending on the speed when going from port/canal p to port/canal s(p)
 		 consRp= getModel().getChocoModel().intVarMatrix("cons_rp", nbRotations, nbInfra,consValues.stream().mapToInt(Integer::intValue).toArray());
-	     addVariables("cons_rp", consRp);
+	     addVariables(VarKey.CONS_RP, consRp);
 	     
 	     
 	     //the costs for sailing from port/canal p to s_rp and calling at port p for rotation r
 	     cRp = getModel().getChocoModel().intVarMatrix("c_rp", nbRotations, nbInfra, 0,(hmax*Collections.max(consValues)*maxFuelCost+sum)+1);
 
-	     addVariables("c_rp", cRp);
+	     addVariables(VarKey.C_RP, cRp);
 	     
 	      //the number of TEU that must be transshipped at port p
 	      if (model.isWithRefinedDomains()) {
-	          teuTsP = getModel().getChocoModel().intVarArray("teuTs_p", nbPorts,allLoads.stream().mapToInt(i -> i).toArray());
+	          teuTsP = getModel().getChocoModel().intVarArray("teuTs_p", nbPorts,allLoads);
 	      } else {
 
 	          teuTsP = getModel().getChocoModel().intVarArray("teuTs_p", nbPorts, 0,  Math.min(sumK, maxKv) + 1);
 	      }
-	      addVariables("teuTs_p", teuTsP);
+	      addVariables(VarKey.TEU_TS_P, teuTsP);
 
 
 		
@@ -137,30 +149,12 @@ public class CostSubmodel extends Submodel{
 	public void defineConstraints() {
 		
 		
-        //the fuel consumption for sailing from port/canal p to s_rp depending on the speed speed_rp (O.1)
-		for (int r = 0; r < nbRotations; r++) {
-		    for (int p = 0; p <nbInfra; p++) {
-		    	getModel().getChocoModel().table(new IntVar[]{((IntVar[]) model.getVariable("v_r"))[r], ((IntVar[][]) model.getVariable("speed_rp"))[r][p], consRp[r][p]}, tableConsumption).post();
-		    }
-		}
-		
-		
-		// the costs for sailing from port/canal p to s_rp and calling at port p for any rotation r (O.2)
-
+        //the fuel consumption for sailing from port/canal p to s_rp depending on the speed speed_rp (O.1), and the costs for sailing from
+        //port/canal p to s_rp and calling at port p for any rotation r (O.2)
 		for (int r = 0; r < nbRotations; r++) {
 		    for (int p = 0; p <nbInfra; p++) {
-   			    //prd=pc_pr[p,r]*(s_rp[r,p]!=p)
-		    	IntVar prd = getModel().getChocoModel().intVar(((IntVar[][])model.getVariable("pc_pr"))[p][r].getLB(),((IntVar[][])model.getVariable("pc_pr"))[p][r].getUB());   			   
-				getModel().getChocoModel().times(((IntVar[][])model.getVariable("pc_pr"))[p][r],getModel().getChocoModel().arithm(((IntVar[][])model.getVariable("s_rp"))[r][p], "!=", p).reify(),prd).post();
-		    	//time1=fp_r[r]*cons_rp[r,p]
-   			    IntVar times1 = getModel().getChocoModel().intVar(((IntVar[])model.getVariable("fp_r"))[r].getLB()*consRp[r][p].getLB(),((IntVar[])model.getVariable("fp_r"))[r].getUB()*consRp[r][p].getUB());
-   			    getModel().getChocoModel().times(((IntVar[])model.getVariable("fp_r"))[r], consRp[r][p],times1).post();
-   			   //time2=time1*st_rp[r,p]=fp_r[r]*cons_rp[r,p]*st_rp[r,p])
-		    	IntVar times2 = getModel().getChocoModel().intVar(((IntVar[][])model.getVariable("st_rp"))[r][p].getLB()*times1.getLB(),((IntVar[][])model.getVariable("st_rp"))[r][p].getUB()*times1.getUB());
-	   			getModel().getChocoModel().times(times1,((IntVar[][])model.getVariable("st_rp"))[r][p],times2).post();
-			    getModel().getChocoModel().arithm(prd,"+",times2,"=",cRp[r][p]).post();
-
-
+		    	new Constraint("LEG_COST", new PropLegCost(p, model.get(VarKey.V_R)[r], model.get(VarKey.SPEED_RP)[r][p], consRp[r][p], model.get(VarKey.ST_RP)[r][p],
+		    			model.get(VarKey.FP_R)[r], model.get(VarKey.PC_PR)[p][r], model.get(VarKey.S_RP)[r][p], cRp[r][p], tableConsumption)).post();
 		    }
 		}
 		
@@ -171,9 +165,9 @@ public class CostSubmodel extends Submodel{
             ArrayList<IntVar> boolVarsList = new ArrayList<IntVar>();
             for (int k = 0; k < nbCommodities; k++) {
                 for (int r = 0; r < nbRotations; r++) {
-    	                if (p != AuxiliaryFunctions.getPol(model.getInstance()).get(k) && p != AuxiliaryFunctions.getPod(model.getInstance()).get(k)) {
+    	                if (p != pol[k] && p != pod[k]) {
     	                IntVar bol=getModel().getChocoModel().intVar(teuTsP[p].getLB(),teuTsP[p].getUB());
-	                	getModel().getChocoModel().times(((BoolVar[][][])model.getVariable("to_kpr"))[k][p][r], getModel().getChocoModel().intVar(quantity.get(k)), bol).post();
+	                	getModel().getChocoModel().times(model.get(VarKey.TO_KPR)[k][p][r], getModel().getChocoModel().intVar(quantity[k]), bol).post();
                         boolVarsList.add(bol);
 
                     }
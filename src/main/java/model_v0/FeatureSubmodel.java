@@ -2,7 +2,6 @@ package model_v0;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import org.chocosolver.solver.variables.IntVar;
 
@@ -24,17 +23,17 @@ public class FeatureSubmodel extends Submodel{
 	
 	private ArrayList<Integer> capacity;         		//stores the capacities of vessels
 	private ArrayList<Integer> fuelCosts;       		//stores the fuel costs of vessels
-    private ArrayList<ArrayList<Integer>> callCost ;	//stores the fixed port call costs
+    private int[][] callCost ;							//stores the fixed port call costs
 	private ArrayList<Integer> timeCharterRate;  		//stores the time charter rates of vessels
-    private ArrayList<ArrayList<Integer>> waitingTime;	//stores the waiting times of vessels
+    private int[][] waitingTime;						//stores the waiting times of vessels
 
-    private ArrayList<ArrayList<Integer>> manIn;    	//stores the manoeuvring times for entering ports
-    private ArrayList<ArrayList<Integer>> manOut;   	//stores the manoeuvring times for leaving ports
+    private int[][] manIn;    							//stores the manoeuvring times for entering ports
+    private int[][] manOut;   							//stores the manoeuvring times for leaving ports
 	
 	private List<Integer> speeds_min;    				//stores the minimal speeds of vessels
 	private List<Integer> speeds_max;   		    	//stores the maximal speeds of vessels
 	
-	private ArrayList<ArrayList<Integer>> prodi;		//stores the productivity of ports
+	private int[][] prodi;								//stores the productivity of ports
 	
 	private boolean  withRefinedDomains ;           	//true if the model used refined domains, False otherwise
 
@@ -60,47 +59,16 @@ public class FeatureSubmodel extends Submodel{
        //we get the information about fuel costs
 	        fuelCosts= new ArrayList<>();
 	        fuelCosts.add(0);
-	        for(String name : getModel().getInstance().getVesselTypes()) {
-	            Set<String> fueltype=getModel().getInstance().getVesselType(name).getFuelType();
-	            String labelFuel="";
-	            for(String valeur : fueltype) {
-	            	labelFuel=valeur;
-	            }
-	        	int cost=getModel().getInstance().getFuelType(labelFuel).getCost()/10;
-	        	fuelCosts.add(cost);
+	        for(int v=0;v<nbVessels;v++) {
+	        	fuelCosts.add(AuxiliaryFunctions.computeFuelCost(getModel().getInstance(), v));
 	        }
 
        //we get the information about fixed port call costs
-        
-	        callCost=new ArrayList<ArrayList<Integer>>();
-	
-	        for (String name:getModel().getInstance().getPorts()) {
-	            ArrayList<Integer> innerList = new ArrayList<Integer>();
-	            innerList.add(0);
-	        	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-	                innerList.add(getModel().getInstance().getPort(name).getCallCost(nameVessel));
-	
-	            }
-	        	  callCost.add(innerList);
-	        }
-	        for (String name:getModel().getInstance().getCanals()) {
-	            ArrayList<Integer> innerList = new ArrayList<Integer>();
-	            innerList.add(0);
-	        	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-	        		  innerList.add(getModel().getInstance().getCanal(name).getCanalCost(nameVessel));
-	
+	        callCost = new int[nbInfra][nbVessels+1];
+	        for (int p = 0; p < nbInfra; p++) {
+	        	  for (int v = 0; v < nbVessels; v++) {
+	                callCost[p][v+1] = index.getCallCost(p, v);
 	            }
-	        	  callCost.add(innerList);
-	        }
-	        
-	        for (String name:getModel().getInstance().getCanals()) {
-	            ArrayList<Integer> innerList = new ArrayList<Integer>();
-	            innerList.add(0);
-	        	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-	        		  innerList.add(getModel().getInstance().getCanal(name).getCanalCost(nameVessel));
-	
-	            }
-	        	  callCost.add(innerList);
 	        }
         
         //we get the information about time Charter Rate
@@ -113,60 +81,23 @@ public class FeatureSubmodel extends Submodel{
 	        
         
         //we get the information about waiting Time
-	        waitingTime = new ArrayList<ArrayList<Integer>>();
-	
-	        for (String name:getModel().getInstance().getPorts()) {
-	            ArrayList<Integer> innerList = new ArrayList<Integer>();
-	            innerList.add(0);
-	        	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-	                innerList.add(getModel().getInstance().getPort(name).getWaitingTime(nameVessel));
-	
+	        waitingTime = new int[nbInfra][nbVessels+1];
+	        for (int p = 0; p < nbInfra; p++) {
+	        	  for (int v = 0; v < nbVessels; v++) {
+	                waitingTime[p][v+1] = index.getWaitingTime(p, v);
 	            }
-	        	  waitingTime.add(innerList);
-	        }
-	        for (String name:getModel().getInstance().getCanals()) {
-	            ArrayList<Integer> innerList = new ArrayList<Integer>();
-	            innerList.add(0);
-	        	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-	        		  innerList.add(getModel().getInstance().getCanal(name).getWaitingTime(nameVessel));
-	
-	            }
-	        	  waitingTime.add(innerList);
-	        }
-	        for (String name:getModel().getInstance().getCanals()) {
-	            ArrayList<Integer> innerList = new ArrayList<Integer>();
-	            innerList.add(0);
-	        	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-	        		  innerList.add(getModel().getInstance().getCanal(name).getWaitingTime(nameVessel));
-	
-	            }
-	        	  waitingTime.add(innerList);
 	        }
 
         
-        //the manoeuvring time for entering ports
-	         manIn = new ArrayList<>();
-	         for (String name:getModel().getInstance().getPorts()) {
-	         ArrayList<Integer> innerList = new ArrayList<Integer>();
-	         innerList.add(0);
-	     	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-	     		  innerList.add(getModel().getInstance().getPort(name).getManoeuvringTimeIn(nameVessel));
-	
-	         }
-	     	  manIn.add(innerList);
-	     }
-        
-        //the manoeuvring time for leaving ports
-	        manOut = new ArrayList<>();
-	        for (String name:getModel().getInstance().getPorts()) {
-	        ArrayList<Integer> innerList = new ArrayList<Integer>();
-	        innerList.add(0);
-	    	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-	    		  innerList.add(getModel().getInstance().getPort(name).getManoeuvringTimeOut(nameVessel));
-	
+        //the manoeuvring time for entering and leaving ports
+	        manIn = new int[nbPorts][nbVessels+1];
+	        manOut = new int[nbPorts][nbVessels+1];
+	        for (int p = 0; p < nbPorts; p++) {
+	        	  for (int v = 0; v < nbVessels; v++) {
+	        		  manIn[p][v+1] = index.getManoeuvringTimeIn(p, v);
+	        		  manOut[p][v+1] = index.getManoeuvringTimeOut(p, v);
+	            }
 	        }
-	    	  manOut.add(innerList);
-	    }
         
         //the minimal and maximal speed for each rotation r
 	        speeds_min = new ArrayList<>();
@@ -182,18 +113,13 @@ public class FeatureSubmodel extends Submodel{
 	        }
 
         //the productivity of ports
-	        if ( ! withRefinedDomains){
-	        prodi = new ArrayList<>();
-	        for (String name:getModel().getInstance().getPorts()) {
-	        ArrayList<Integer> innerList = new ArrayList<Integer>();
-	        innerList.add(-1);
-	    	  for (String nameVessel:getModel().getInstance().getVesselTypes()) {
-	    		  Integer val=(getModel().getInstance().getPort(name).getProductivity(nameVessel));
-	    		  innerList.add(val*100);
-	
+	        prodi = new int[nbPorts][nbVessels+1];
+	        for (int p = 0; p < nbPorts; p++) {
+	        	  prodi[p][0] = -1;
+	        	  for (int v = 0; v < nbVessels; v++) {
+	        		  prodi[p][v+1] = index.getProductivity(p, v)*100;
+	            }
 	        }
-	    	  prodi.add(innerList);
-	    }   }   
 
 	}
 
@@ -203,23 +129,23 @@ public class FeatureSubmodel extends Submodel{
         
        //the price of the fuel used for rotation r (0 if rotation r is not used)
         fpR = getModel().getChocoModel().intVarArray("fp_r", nbRotations, fuelCosts.stream().mapToInt(i -> i).toArray());
-        addVariables("fp_r", fpR);
+        addVariables(VarKey.FP_R, fpR);
         
        //the real capacity of vessels used for rotation r (0 if rotation r is not used)
         kR = getModel().getChocoModel().intVarArray("k_r", nbRotations, capacity.stream().mapToInt(i -> i).toArray());
-        addVariables("k_r", kR);
+        addVariables(VarKey.K_R, kR);
         
         //the fixed port call cost of port/canal p for rotation r (0 if rotation r is not used)
-        pcPr = getModel().getChocoModel().intVarMatrix("pc_pr", nbInfra,nbRotations,callCost.stream().flatMap(innerList -> innerList.stream()).mapToInt(Integer::intValue).toArray());
-        addVariables("pc_pr", pcPr);
+        pcPr = getModel().getChocoModel().intVarMatrix("pc_pr", nbInfra,nbRotations,AuxiliaryFunctions.flatten(callCost));
+        addVariables(VarKey.PC_PR, pcPr);
 
         //the time charter rate per day for rotation r (0 if rotation r is not used)
         tcR= getModel().getChocoModel().intVarArray("tc_r", nbRotations, timeCharterRate.stream().mapToInt(i -> i).toArray());
-        addVariables("tc_r", tcR);
+        addVariables(VarKey.TC_R, tcR);
 
         //the waiting time for port/canal p and rotation r (0 if rotation r is not used)
-        wtPr = getModel().getChocoModel().intVarMatrix("wt_pr", nbInfra,nbRotations,waitingTime.stream().flatMap(innerList -> innerList.stream()).mapToInt(Integer::intValue).toArray());
-        addVariables("wt_pr", wtPr);
+        wtPr = getModel().getChocoModel().intVarMatrix("wt_pr", nbInfra,nbRotations,AuxiliaryFunctions.flatten(waitingTime));
+        addVariables(VarKey.WT_PR, wtPr);
         
         //the manoeuvring time for entering port p for rotation r (0 if rotation r is not used)
          manInPr = new IntVar[nbInfra][nbRotations];
@@ -227,13 +153,13 @@ public class FeatureSubmodel extends Submodel{
         for (int i = 0; i < nbInfra; i++) {
             for (int j = 0; j < nbRotations; j++) {
                 if (i < nbPorts) {
-                    manInPr[i][j] = getModel().getChocoModel().intVar("manIn_pr[" + i + "][" + j + "]", manIn.get(i).stream().mapToInt(Integer::intValue).toArray());
+                    manInPr[i][j] = getModel().getChocoModel().intVar("manIn_pr[" + i + "][" + j + "]", manIn[i]);
                 } else {
                     manInPr[i][j] = getModel().getChocoModel().intVar("manIn_pr[" + i + "][" + j + "]", 0);
                 }
             }
         }
-        addVariables("manIn_pr", manInPr);
+        addVariables(VarKey.MAN_IN_PR, manInPr);
         
         //the manoeuvring time for leaving port p for rotation r (0 if rotation r is not used)
         manOutPr = new IntVar[nbInfra][nbRotations];
@@ -241,13 +167,13 @@ public class FeatureSubmodel extends Submodel{
         for (int i = 0; i < nbInfra; i++) {
             for (int j = 0; j < nbRotations; j++) {
                 if (i < nbPorts) {
-                    manOutPr[i][j] = getModel().getChocoModel().intVar("manOut_pr[" + i + "][" + j + "]", manOut.get(i).stream().mapToInt(Integer::intValue).toArray());
+                    manOutPr[i][j] = getModel().getChocoModel().intVar("manOut_pr[" + i + "][" + j + "]", manOut[i]);
                 } else {
               	  manOutPr[i][j] = getModel().getChocoModel().intVar("manOut_pr[" + i + "][" + j + "]", 0);
                 }
             }
         }
-        addVariables("manOut_pr", manOutPr);
+        addVariables(VarKey.MAN_OUT_PR, manOutPr);
         
                 
         //the productivity (in number of moves per hour) of port p for rotation r (0 if rotation r is not used)
@@ -255,18 +181,18 @@ public class FeatureSubmodel extends Submodel{
 
         for (int i = 0; i < nbPorts; i++) {
             for (int j = 0; j < nbRotations; j++) {
-                prodPr[i][j] = getModel().getChocoModel().intVar("prod_pr[" + i + "][" + j + "]", prodi.get(i).stream().mapToInt(Integer::intValue).toArray());
+                prodPr[i][j] = getModel().getChocoModel().intVar("prod_pr[" + i + "][" + j + "]", prodi[i]);
             }
         }        
-        addVariables("prod_pr", prodPr);
+        addVariables(VarKey.PROD_PR, prodPr);
 
         //the minimal speed for each rotation r
        speedRMin = getModel().getChocoModel().intVarArray("speed_r_min", nbRotations, speeds_min.stream().mapToInt(i -> i).toArray());
-       addVariables("speed_r_min", speedRMin);
+       addVariables(VarKey.SPEED_R_MIN, speedRMin);
 
         //the maximal speed for each rotation r
         speedRMax = getModel().getChocoModel().intVarArray("speed_r_max", nbRotations, speeds_max.stream().mapToInt(i -> i).toArray());
-        addVariables("speed_r_max", speedRMax);
+        addVariables(VarKey.SPEED_R_MAX, speedRMax);
 
         
         
@@ -279,26 +205,26 @@ public class FeatureSubmodel extends Submodel{
 		
 	    //the type of fuel must be consistent with the type of vessels used in rotation r (F.1)
 		for (int r = 0; r < nbRotations; r++) {
-			getModel().getChocoModel().element(fpR[r], fuelCosts.stream().mapToInt(Integer::intValue).toArray(), ((IntVar[]) model.getVariable("v_r"))[r],0).post();		
+			getModel().getChocoModel().element(fpR[r], fuelCosts.stream().mapToInt(Integer::intValue).toArray(), model.get(VarKey.V_R)[r],0).post();		
 		}	
 		
 		
 		//the capacity must be consistent with the type of vessels used in rotation r (F.2)
 		for (int r = 0; r < nbRotations; r++) {
-			getModel().getChocoModel().element(kR[r], capacity.stream().mapToInt(Integer::intValue).toArray(), ((IntVar[]) model.getVariable("v_r"))[r],0).post();		
+			getModel().getChocoModel().element(kR[r], capacity.stream().mapToInt(Integer::intValue).toArray(), model.get(VarKey.V_R)[r],0).post();		
 		}
 		
 		
 	    //the time charter rate must be consistent with the type of vessels used in rotation r (F.3)
 		for (int r = 0; r < nbRotations; r++) {
-			getModel().getChocoModel().element(tcR[r], timeCharterRate.stream().mapToInt(Integer::intValue).toArray(), ((IntVar[]) model.getVariable("v_r"))[r],0).post();		
+			getModel().getChocoModel().element(tcR[r], timeCharterRate.stream().mapToInt(Integer::intValue).toArray(), model.get(VarKey.V_R)[r],0).post();		
 		}
 	
 	    //the fixed port call cost must be consistent with the type of vessels used in rotation r (F.4)		
 		for (int p=0;p<nbInfra;p++) {
 			for (int r = 0; r < nbRotations; r++) {
-				getModel().getChocoModel().element(pcPr[p][r],callCost.stream().map(row -> row.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new),
-			    		getModel().getChocoModel().intVar(p), 0, ((IntVar[]) model.getVariable("v_r"))[r], 0);
+				getModel().getChocoModel().element(pcPr[p][r],callCost,
+			    		getModel().getChocoModel().intVar(p), 0, model.get(VarKey.V_R)[r], 0);
 					}
 				}
 
@@ -308,23 +234,23 @@ public class FeatureSubmodel extends Submodel{
 	   //the waiting time must be consistent with the type of vessels used in rotation r (F.5) 		
 		for (int p=0;p<nbInfra;p++) {
 			for (int r = 0; r < nbRotations; r++) {
-					 getModel().getChocoModel().element(wtPr[p][r], waitingTime.stream().map(row -> row.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new),
-					    		getModel().getChocoModel().intVar(p), 0, ((IntVar[]) model.getVariable("v_r"))[r], 0);				
+					 getModel().getChocoModel().element(wtPr[p][r], waitingTime,
+					    		getModel().getChocoModel().intVar(p), 0, model.get(VarKey.V_R)[r], 0);				
 					}
 	   			}
 	   //the manoeuvring time when entering ports must be consistent with the type of vessels used in rotation r (F.6)
 		for (int p=0;p<nbPorts;p++) {
 			for (int r = 0; r < nbRotations; r++) {
-					 getModel().getChocoModel().element(manInPr[p][r], manIn.stream().map(row -> row.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new),
-					    		getModel().getChocoModel().intVar(p), 0, ((IntVar[]) model.getVariable("v_r"))[r], 0);				
+					 getModel().getChocoModel().element(manInPr[p][r], manIn,
+					    		getModel().getChocoModel().intVar(p), 0, model.get(VarKey.V_R)[r], 0);				
 					}
 				}
 		
 	  //the manoeuvring time when leaving ports must be consistent with the type of vessels used in rotation r (F.7)
 		for (int p=0;p<nbPorts;p++) {
 			for (int r = 0; r < nbRotations; r++) {
-					 getModel().getChocoModel().element(manOutPr[p][r], manOut.stream().map(row -> row.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new),
-					    		getModel().getChocoModel().intVar(p), 0, ((IntVar[]) model.getVariable("v_r"))[r], 0);				
+					 getModel().getChocoModel().element(manOutPr[p][r], manOut,
+					    		getModel().getChocoModel().intVar(p), 0, model.get(VarKey.V_R)[r], 0);				
 					}
 				}
 				
@@ -332,22 +258,22 @@ public class FeatureSubmodel extends Submodel{
         //the productivity must be consistent with the type of vessels used in rotation r (F.8)
 		for (int p=0;p<nbPorts;p++) {
 			for (int r = 0; r < nbRotations; r++) {
-					 getModel().getChocoModel().element(prodPr[p][r], prodi.stream().map(row -> row.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new),
-					    		getModel().getChocoModel().intVar(p), 0, ((IntVar[]) model.getVariable("v_r"))[r], 0);				
+					 getModel().getChocoModel().element(prodPr[p][r], prodi,
+					    		getModel().getChocoModel().intVar(p), 0, model.get(VarKey.V_R)[r], 0);				
 					}
 				}
 		
 	    //the minimal speed must be consistent with the type of vessels used in rotation r (F.9)
 
 		for (int r = 0; r < nbRotations; r++) {
-			getModel().getChocoModel().element(speedRMin[r], speeds_min.stream().mapToInt(Integer::intValue).toArray(), ((IntVar[]) model.getVariable("v_r"))[r],0).post();		
+			getModel().getChocoModel().element(speedRMin[r], speeds_min.stream().mapToInt(Integer::intValue).toArray(), model.get(VarKey.V_R)[r],0).post();		
 		}
 		
 		
 	    //the maximal speed must be consistent with the type of vessels used in rotation r (F.10)
 
 		for (int r = 0; r < nbRotations; r++) {
-			getModel().getChocoModel().element(speedRMax[r], speeds_max.stream().mapToInt(Integer::intValue).toArray(), ((IntVar[]) model.getVariable("v_r"))[r],0).post();		
+			getModel().getChocoModel().element(speedRMax[r], speeds_max.stream().mapToInt(Integer::intValue).toArray(), model.get(VarKey.V_R)[r],0).post();		
 		}
 		
 
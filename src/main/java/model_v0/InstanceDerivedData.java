@@ -0,0 +1,184 @@
+package model_v0;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import instance.Commodity;
+import instance.Instance;
+
+public class InstanceDerivedData {
+
+	/** This class allows to represent the data derived from an instance. It is computed once per instance and shared by all the submodels
+	 *  and all the models built from this instance. The tables which are expensive to compute are only computed when they are first needed.
+	 *  It also keeps the tables (e.g. Choco tuples) which depend on the parameters of the model, so that the models built with the same
+	 *  parameters, possibly concurrently, compute them once. The returned arrays and tables are shared and must not be modified. */
+
+
+	private static final Map<Instance, InstanceDerivedData> derivedData = new WeakHashMap<>();	//the derived data of each instance
+
+	private final int[] pol;							//origin ports of commodity
+	private final int[] pod;							//destination ports of commodity
+	private final int[] quantity;						//quantity of commodities
+	private final int[] rev;							//revenue per TEU of commodities
+	private final int maxKv;							//the maximum capacity of vessels whatever the vessel type
+	private final int sumK;								//the number of TEU for all the commodities
+
+	private long[] allLoads;							//all possible loads (bitset)
+	private long[] totalLoad;							//all the possible values for the sum of the load entering port p and the load leaving port p for a given rotation (bitset)
+	private int[] allLoadValues;						//all possible loads in increasing order
+	private int[] totalLoadValues;						//all the possible values of totalLoad in increasing order
+	private final Map<String, Object> tables = new ConcurrentHashMap<>();	//the tables computed for given parameters, indexed by name and parameters
+
+
+
+	/**
+	 * Constructor for creating an InstanceDerivedData object
+	 * @param instance the instance from which data are derived
+	 */
+	private InstanceDerivedData(Instance instance) {
+		List<String> portCodes = new ArrayList<>(instance.getPorts());
+		int nbCommodities = instance.getCommodities().size();
+
+		this.pol = new int[nbCommodities];
+		this.pod = new int[nbCommodities];
+		this.quantity = new int[nbCommodities];
+		this.rev = new int[nbCommodities];
+		int sum = 0;
+		for (int k = 0; k < nbCommodities; k++) {
+			Commodity c = instance.getCommodities().get(k);
+			pol[k] = portCodes.indexOf(c.getPol());
+			pod[k] = portCodes.indexOf(c.getPod());
+			quantity[k] = c.getNumber();
+			rev[k] = c.getRevenue();
+			sum += c.getNumber();
+		}
+		this.sumK = sum;
+
+		int max = Integer.MIN_VALUE;
+		for (String name : instance.getVesselTypes()) {
+			max = Math.max(max, instance.getVesselType(name).getMaximalCapacity());
+		}
+		this.maxKv = max;
+	}
+
+
+
+	/**
+	 * @param instance the instance
+	 * @return returns the derived data of the given instance, computing them if it is the first call for this instance
+	 */
+	public static InstanceDerivedData of(Instance instance) {
+		synchronized (derivedData) {
+			return derivedData.computeIfAbsent(instance, InstanceDerivedData::new);
+		}
+	}
+
+
+
+	/**
+	 * @return returns origin ports of commodity
+	 */
+	public int[] getPol() {
+		return pol;
+	}
+
+
+	/**
+	 * @return returns destination ports of commodity
+	 */
+	public int[] getPod() {
+		return pod;
+	}
+
+
+	/**
+	 * @return returns the quantity of commodities
+	 */
+	public int[] getQuantity() {
+		return quantity;
+	}
+
+
+	/**
+	 * @return returns the revenue per TEU of commodities
+	 */
+	public int[] getRev() {
+		return rev;
+	}
+
+
+	/**
+	 * @return returns the maximum capacity of vessels
+	 */
+	public int getMaxKv() {
+		return maxKv;
+	}
+
+
+	/**
+	 * @return returns the number of TEU for all the commodities
+	 */
+	public int getSumK() {
+		return sumK;
+	}
+
+
+	/**
+	 * @return returns the bitset of all possible loads
+	 */
+	public synchronized long[] getAllLoadsBitset() {
+		if (allLoads == null) {
+			allLoads = AuxiliaryFunctions.computePossibleLoads(quantity, sumK);
+		}
+		return allLoads;
+	}
+
+
+	/**
+	 * @return returns all possible loads in increasing order
+	 */
+	public synchronized int[] getAllLoads() {
+		if (allLoadValues == null) {
+			allLoadValues = AuxiliaryFunctions.loadsToArray(getAllLoadsBitset());
+		}
+		return allLoadValues;
+	}
+
+
+	/**
+	 * @return returns the bitset of all the possible values for the sum of the load entering port p and the load leaving port p for a given rotation
+	 */
+	public synchronized long[] getTotalLoadBitset() {
+		if (totalLoad == null) {
+			int bound = 2 * maxKv;
+			totalLoad = AuxiliaryFunctions.computePairwiseLoads(AuxiliaryFunctions.computePossibleLoads(quantity, bound), bound);
+		}
+		return totalLoad;
+	}
+
+
+	/**
+	 * @return returns all the possible values for the sum of the load entering port p and the load leaving port p for a given rotation, in increasing order
+	 */
+	public synchronized int[] getTotalLoad() {
+		if (totalLoadValues == null) {
+			totalLoadValues = AuxiliaryFunctions.loadsToArray(getTotalLoadBitset());
+		}
+		return totalLoadValues;
+	}
+
+
+	/**
+	 * @param key the name of the table followed by the values of the parameters it depends on
+	 * @param supplier computes the table, it must not call getTable
+	 * @return returns the table associated with the given key, computing it on the first call
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getTable(String key, Supplier<T> supplier) {
+		return (T) tables.computeIfAbsent(key, k -> supplier.get());
+	}
+}
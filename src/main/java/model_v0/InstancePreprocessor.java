@@ -0,0 +1,297 @@
+package model_v0;
+
+import java.util.Arrays;
+
+import instance.Instance;
+import instance.InstanceIndex;
+
+public class InstancePreprocessor {
+
+	/** This class allows to remove, before the variables are created, the combinations of ports/canals, vessel types and commodities
+	 *  which cannot appear in any solution. A vessel type may only call at the ports/canals whose maximal size is at least its capacity
+	 *  (the instances give no draft for the vessel types, so only the size is compared). A leg p -> sp may be sailed by a vessel type if it
+	 *  may call at p and sp, and if the leg followed by the fastest way back to p lasts at most hmax at its maximal speed. A commodity
+	 *  is rejected if its destination cannot be reached from its origin, or if it cannot meet its transit time, and a port can only be a
+	 *  transshipment port of a commodity if the commodity can go through it in time. The transit time is checked as in TT.7, which only
+	 *  sums the times of the first tsmax rotations of a commodity: it is not checked if tsmax is 0, and a commodity carried by tsmax+1
+	 *  rotations is only checked up to its last transshipment port. The times are lower bounds: they only count the sailing times at the
+	 *  maximal speed, rounded as in the table of the sailing times. */
+
+	private static final long UNREACHABLE = Long.MAX_VALUE / 4;	//the time of a path which does not exist
+
+	private final int nbPorts;									//the number of ports
+	private final int nbInfra;									//the number of ports + 2*canals
+	private final int nbVessels;								//the number of vessel types
+	private final boolean[][] compatible;						//true if vessel type v (from 0) may call at port/canal p, indexed by [p][v]
+	private final boolean[][][] legs;							//true if vessel type v (from 0) may sail the leg p -> sp, indexed by [v][p][sp]
+	private final boolean[][] allowedLegs;						//true if at least one vessel type may sail the leg p -> sp
+	private final boolean[] usableVessels;						//true if vessel type v (from 0) may be used by a rotation
+	private final long[][] fastest;								//the shortest time from p to sp whatever the vessel types
+	private final boolean[] feasibleCommodities;				//true if commodity k may be accepted
+	private final boolean[][] transshipmentPorts;				//true if port q may be used by commodity k, indexed by [k][q]
+
+	private int nbIncompatibleCalls;							//the number of pairs (port/canal, vessel type) removed by the size
+	private int nbRemovedVessels;								//the number of vessel types which cannot be used
+	private int nbLegsRemovedBySize;							//the number of legs which no vessel type may sail because of the size
+	private int nbLegsRemovedByHmax;							//the number of legs which no vessel type may sail within hmax
+	private int nbVesselLegsRemoved;							//the number of pairs (leg, vessel type) removed, the leg being kept for another vessel type
+	private int nbUnreachableCommodities;						//the number of commodities whose destination cannot be reached
+	private int nbLateCommodities;								//the number of commodities whose transit time cannot be met
+	private int nbRemovedTransshipments;						//the number of pairs (commodity, port) removed from the intermediate ports
+
+
+
+	/**
+	 * Constructor for creating an InstancePreprocessor object
+	 * @param instance the instance to preprocess
+	 * @param derivedData the data derived from the instance
+	 * @param hmax the maximal number of hours that a rotation may last
+	 * @param tsmax the maximal number of transshipments
+	 */
+	public InstancePreprocessor(Instance instance, InstanceDerivedData derivedData, int hmax, int tsmax) {
+		InstanceIndex index = instance.getIndex();
+		this.nbPorts = index.getPortNumber();
+		this.nbInfra = index.getInfraNumber();
+		this.nbVessels = index.getVesselTypeNumber();
+		this.compatible = new boolean[nbInfra][nbVessels];
+		this.legs = new boolean[nbVessels][nbInfra][nbInfra];
+		this.allowedLegs = new boolean[nbInfra][nbInfra];
+		this.usableVessels = new boolean[nbVessels];
+
+		//vessel-port and vessel-canal compatibility
+		int[] capacities = new int[nbVessels];
+		int[] speeds = new int[nbVessels];
+		for (int v = 0; v < nbVessels; v++) {
+			capacities[v] = instance.getVesselType(instance.getVesselTypes().get(v)).getMaximalCapacity();
+			speeds[v] = instance.getVesselType(instance.getVesselTypes().get(v)).getMaximalSpeed();
+		}
+		for (int p = 0; p < nbInfra; p++) {
+			int maxSize = p < nbPorts ? instance.getPort(index.getCode(p)).getMaximalSize() : instance.getCanal(index.getCode(p)).getMaximalSize();
+			for (int v = 0; v < nbVessels; v++) {
+				//a size of 0 means that the size is not limited
+				compatible[p][v] = maxSize <= 0 || capacities[v] <= maxSize;
+				if (!compatible[p][v] && p < nbPorts + index.getCanalNumber()) {
+					nbIncompatibleCalls++;
+				}
+			}
+		}
+
+		//leg feasibility for each vessel type
+		long[][][] times = new long[nbVessels][][];
+		for (int v = 0; v < nbVessels; v++) {
+			long[][] legTimes = new long[nbInfra][nbInfra];
+			for (int p = 0; p < nbInfra; p++) {
+				Arrays.fill(legTimes[p], UNREACHABLE);
+				legTimes[p][p] = 0;
+				for (int sp = 0; sp < nbInfra; sp++) {
+					if (sp != p && index.getDistance(p, sp) > 0 && compatible[p][v] && compatible[sp][v] && speeds[v] > 0) {
+						legTimes[p][sp] = sailingTime(index.getDistance(p, sp), speeds[v], hmax);
+					}
+				}
+			}
+			times[v] = shortestPaths(legTimes);
+			for (int p = 0; p < nbInfra; p++) {
+				for (int sp = 0; sp < nbInfra; sp++) {
+					legs[v][p][sp] = sp != p && legTimes[p][sp] < UNREACHABLE && legTimes[p][sp] + times[v][sp][p] <= hmax;
+					allowedLegs[p][sp] |= legs[v][p][sp];
+					usableVessels[v] |= legs[v][p][sp] && p < nbPorts;
+				}
+			}
+		}
+		long[][] legTimes = new long[nbInfra][nbInfra];
+		for (int p = 0; p < nbInfra; p++) {
+			Arrays.fill(legTimes[p], UNREACHABLE);
+			legTimes[p][p] = 0;
+			for (int sp = 0; sp < nbInfra; sp++) {
+				if (sp != p && index.getDistance(p, sp) > 0) {
+					boolean bySize = true;
+					for (int v = 0; v < nbVessels; v++) {
+						if (legs[v][p][sp]) {
+							legTimes[p][sp] = Math.min(legTimes[p][sp], sailingTime(index.getDistance(p, sp), speeds[v], hmax));
+						}
+						bySize &= !(compatible[p][v] && compatible[sp][v]);
+					}
+					for (int v = 0; v < nbVessels; v++) {
+						if (allowedLegs[p][sp] && !legs[v][p][sp] && compatible[p][v] && compatible[sp][v]) {
+							nbVesselLegsRemoved++;
+						}
+					}
+					if (!allowedLegs[p][sp]) {
+						if (bySize) {
+							nbLegsRemovedBySize++;
+						} else {
+							nbLegsRemovedByHmax++;
+						}
+					}
+				}
+			}
+		}
+		for (int v = 0; v < nbVessels; v++) {
+			if (!usableVessels[v]) {
+				nbRemovedVessels++;
+			}
+		}
+
+		//commodity feasibility, the commodities may be transshipped from one vessel type to another
+		this.fastest = shortestPaths(legTimes);
+		int nbCommodities = instance.getCommodities().size();
+		int[] pol = derivedData.getPol();
+		int[] pod = derivedData.getPod();
+		this.feasibleCommodities = new boolean[nbCommodities];
+		this.transshipmentPorts = new boolean[nbCommodities][nbPorts];
+		for (int k = 0; k < nbCommodities; k++) {
+			long transitTime = k < instance.getNumberCommodityWithTt() && tsmax >= 1 ? instance.getCommodities().get(k).getTransitTime() : UNREACHABLE - 1;
+			long time = fastest[pol[k]][pod[k]];
+			//the time checked by TT.7: the whole path, or the path to the last transshipment port q if the commodity uses tsmax+1 rotations
+			long checked = time;
+			for (int q = 0; q < nbPorts; q++) {
+				if (q != pol[k] && q != pod[k] && fastest[pol[k]][q] < UNREACHABLE && fastest[q][pod[k]] < UNREACHABLE) {
+					checked = Math.min(checked, fastest[pol[k]][q]);
+				}
+			}
+			feasibleCommodities[k] = time < UNREACHABLE && checked <= transitTime;
+			if (time >= UNREACHABLE) {
+				nbUnreachableCommodities++;
+			} else if (checked > transitTime) {
+				nbLateCommodities++;
+			}
+			for (int q = 0; q < nbPorts; q++) {
+				transshipmentPorts[k][q] = feasibleCommodities[k] && fastest[pol[k]][q] < UNREACHABLE && fastest[q][pod[k]] < UNREACHABLE
+						&& (q == pod[k] || fastest[pol[k]][q] <= transitTime);
+				if (feasibleCommodities[k] && q != pol[k] && !transshipmentPorts[k][q]) {
+					nbRemovedTransshipments++;
+				}
+			}
+		}
+	}
+
+
+
+	/**
+	 * @param distance the distance of a leg
+	 * @param speed the speed of the vessel
+	 * @param hmax the maximal number of hours that a rotation may last
+	 * @return returns the sailing time of the leg, rounded as in the table of the sailing times, UNREACHABLE if it lasts more than hmax
+	 */
+	private static long sailingTime(int distance, int speed, int hmax) {
+		int sailingTime = AuxiliaryFunctions.computeSailingTime(distance, speed, hmax);
+		return sailingTime >= 0 ? sailingTime : UNREACHABLE;
+	}
+
+
+
+	/**
+	 * @param legTimes the time of each leg, UNREACHABLE if there is no leg
+	 * @return returns the shortest time between each pair of ports/canals, UNREACHABLE if there is no path (Floyd-Warshall)
+	 */
+	private long[][] shortestPaths(long[][] legTimes) {
+		long[][] times = new long[nbInfra][];
+		for (int p = 0; p < nbInfra; p++) {
+			times[p] = legTimes[p].clone();
+		}
+		for (int m = 0; m < nbInfra; m++) {
+			for (int p = 0; p < nbInfra; p++) {
+				if (times[p][m] < UNREACHABLE) {
+					for (int sp = 0; sp < nbInfra; sp++) {
+						if (times[p][m] + times[m][sp] < times[p][sp]) {
+							times[p][sp] = times[p][m] + times[m][sp];
+						}
+					}
+				}
+			}
+		}
+		return times;
+	}
+
+
+
+	/**
+	 * @param p a port/canal
+	 * @param v a vessel type, from 0
+	 * @return returns true if vessel type v may call at p
+	 */
+	public boolean isCompatible(int p, int v) {
+		return compatible[p][v];
+	}
+
+
+
+	/**
+	 * @param v a vessel type, from 0
+	 * @return returns true if vessel type v may be used by a rotation
+	 */
+	public boolean isUsable(int v) {
+		return usableVessels[v];
+	}
+
+
+
+	/**
+	 * @param p a port/canal
+	 * @param sp another port/canal
+	 * @return returns true if at least one vessel type may sail the leg p -> sp
+	 */
+	public boolean isLegAllowed(int p, int sp) {
+		return allowedLegs[p][sp];
+	}
+
+
+
+	/**
+	 * @param v a vessel type, from 0
+	 * @param p a port/canal
+	 * @param sp another port/canal
+	 * @return returns true if vessel type v may sail the leg p -> sp
+	 */
+	public boolean isLegAllowed(int v, int p, int sp) {
+		return legs[v][p][sp];
+	}
+
+
+
+	/**
+	 * @param p a port/canal
+	 * @param sp another port/canal
+	 * @return returns a lower bound of the time needed to go from p to sp, whatever the vessel types
+	 */
+	public long getFastestTime(int p, int sp) {
+		return fastest[p][sp];
+	}
+
+
+
+	/**
+	 * @param k a commodity
+	 * @return returns true if commodity k may be accepted
+	 */
+	public boolean isFeasible(int k) {
+		return feasibleCommodities[k];
+	}
+
+
+
+	/**
+	 * @param k a commodity
+	 * @param q a port
+	 * @return returns true if port q may be one of the ports in which commodity k is loaded, unloaded or transshipped
+	 */
+	public boolean isTransshipmentAllowed(int k, int q) {
+		return transshipmentPorts[k][q];
+	}
+
+
+
+	/**
+	 * @return returns the number of values removed by each rule
+	 */
+	@Override
+	public String toString() {
+		return "Preprocessing: " + nbIncompatibleCalls + " (port/canal, vessel type) pairs removed by size, "
+				+ nbRemovedVessels + " vessel types removed from v_r, "
+				+ nbLegsRemovedBySize + " legs removed from s_rp by size, "
+				+ nbLegsRemovedByHmax + " legs removed from s_rp by hmax, "
+				+ nbVesselLegsRemoved + " (leg, vessel type) pairs removed, "
+				+ nbUnreachableCommodities + " unreachable and " + nbLateCommodities + " late commodities rejected, "
+				+ nbRemovedTransshipments + " values removed from port_ki";
+	}
+}
@@ -1,11 +1,10 @@
 package model_v0;
 
-import java.util.List;
-import java.util.Set;
-
 import tools.Operator;
 import tools.ClauseAdder;
+import propagators.PropLoadFlow;
 
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 
@@ -19,9 +18,8 @@ public class LoadSubmodel  extends Submodel{
 	private BoolVar[][][]leaveKpr;	   						     //true if the commodity k leaves the port/canal p using rotation r 
 	private IntVar[][] teuPr;									//the number of TEU that must be loaded or unloaded at port p for rotation r	
 
-	private List<Integer> quantity;							   //quantity of commodities		
-	private List<List<Integer>> successors=AuxiliaryFunctions.successorLists(infra, nbCanals, nbPorts);	//lists of possible successors for each port/canal in infra
-	private Set<Integer> totalLoad;							 //all the possible values for the sum of the load entering port p and the load leaving port p for a given rotation
+	private int[] quantity;									   //quantity of commodities		
+	private int[] totalLoad;								 //all the possible values for the sum of the load entering port p and the load leaving port p for a given rotation
 	
 	private int maxKv;									 	//the maximum capacity of vessels whatever the vessel type
 	private int  sumK;										//the number of TEU for all the commodities
@@ -36,17 +34,17 @@ public class LoadSubmodel  extends Submodel{
 		this.withRefinedDomains=model.isWithRefinedDomains();
 		
 		//we get the information about quantity of commodities
-	      this.quantity= AuxiliaryFunctions.getQuantity(model.getInstance());
+	      this.quantity= model.getDerivedData().getQuantity();
 
 	   //the maximum capacity of vessels whatever the vessel type
-		  this.maxKv=AuxiliaryFunctions.getMaxKv(model.getInstance());
+		  this.maxKv=model.getDerivedData().getMaxKv();
 	         
 	         
 	   //the number of TEU for all the commodities
-		  this.sumK = AuxiliaryFunctions.getSumK(model.getInstance());
+		  this.sumK = model.getDerivedData().getSumK();
       
 	  //we compute all the possible production times
-		 this.totalLoad = AuxiliaryFunctions.getTotalLoad(model.getInstance());        
+		 this.totalLoad = model.getDerivedData().getTotalLoad();        
 	}	
 
 	@Override
@@ -62,19 +60,19 @@ public class LoadSubmodel  extends Submodel{
        	    }
        	  }
        	}
-        addVariables("leave_kpr", leaveKpr);
+        addVariables(VarKey.LEAVE_KPR, leaveKpr);
         
         
       //the number of TEU that must be loaded or unloaded at port p for rotation r
 	      if (withRefinedDomains) {
-	    	     teuPr = getModel().getChocoModel().intVarMatrix("teu_pr", nbPorts,nbRotations,totalLoad.stream().mapToInt(i -> i).toArray());
+	    	     teuPr = getModel().getChocoModel().intVarMatrix("teu_pr", nbPorts,nbRotations,totalLoad);
 	
 	
 	      } else {
 	          	  teuPr = getModel().getChocoModel().intVarMatrix("teu_pr",nbPorts,nbRotations, 0,2 * Math.min(sumK, maxKv) + 1);
 	    	      }
 	      
-	      addVariables("teu_pr", teuPr);
+	      addVariables(VarKey.TEU_PR, teuPr);
 
 
 
@@ -96,10 +94,10 @@ public class LoadSubmodel  extends Submodel{
 			     }
 			     IntVar[] tempVars = new IntVar[nbCommodities]; 
 			     for (int k = 0; k < nbCommodities; k++) {
-			         IntVar tempsum = getModel().getChocoModel().intVar(((BoolVar[][][])model.getVariable("from_kpr"))[k][p][r].getLB()+((BoolVar[][][])model.getVariable("to_kpr"))[k][p][r].getLB(),((BoolVar[][][])model.getVariable("from_kpr"))[k][p][r].getUB()+((BoolVar[][][])model.getVariable("to_kpr"))[k][p][r].getUB()); 
+			         IntVar tempsum = getModel().getChocoModel().intVar(model.get(VarKey.FROM_KPR)[k][p][r].getLB()+model.get(VarKey.TO_KPR)[k][p][r].getLB(),model.get(VarKey.FROM_KPR)[k][p][r].getUB()+model.get(VarKey.TO_KPR)[k][p][r].getUB()); 
 			         IntVar tempVar = getModel().getChocoModel().intVar(0,sumK*100); 
-				     getModel().getChocoModel().arithm(((BoolVar[][][])model.getVariable("from_kpr"))[k][p][r], "+", ((BoolVar[][][])model.getVariable("to_kpr"))[k][p][r],"=",tempsum).post();
-				      getModel().getChocoModel().times(tempsum, getModel().getChocoModel().intVar(quantity.get(k)), tempVar).post();
+				     getModel().getChocoModel().arithm(model.get(VarKey.FROM_KPR)[k][p][r], "+", model.get(VarKey.TO_KPR)[k][p][r],"=",tempsum).post();
+				      getModel().getChocoModel().times(tempsum, getModel().getChocoModel().intVar(quantity[k]), tempVar).post();
 				     tempVars[k] = tempVar;
 			     }
 			     getModel().getChocoModel().scalar(tempVars, weights, "=", teuPr[p][r]).post();
@@ -109,7 +107,7 @@ public class LoadSubmodel  extends Submodel{
         for(int k=0; k<nbCommodities; k++){
          	  for(int p=0; p<nbPorts; p++){
          	    for(int r=0; r<nbRotations; r++){
-         	    	clauseAdder.addImplication (((BoolVar[][][])model.getVariable("from_kpr"))[k][p][r], Operator.EQ, 1, leaveKpr[k][p][r], Operator.EQ, 1);
+         	    	clauseAdder.addImplication (model.get(VarKey.FROM_KPR)[k][p][r], Operator.EQ, 1, leaveKpr[k][p][r], Operator.EQ, 1);
                 }
             }
         }
@@ -119,29 +117,27 @@ public class LoadSubmodel  extends Submodel{
         for(int k=0; k<nbCommodities; k++){
          	  for(int p=0; p<nbPorts; p++){
                 for(int r=0; r<nbRotations; r++){
-                  clauseAdder.addImplication (((BoolVar[][][])model.getVariable("to_kpr"))[k][p][r], Operator.EQ, 1, leaveKpr[k][p][r], Operator.EQ, 0);
+                  clauseAdder.addImplication (model.get(VarKey.TO_KPR)[k][p][r], Operator.EQ, 1, leaveKpr[k][p][r], Operator.EQ, 0);
                 }
             }
         }
         
         
         
-        //ensures the transitivity (L.4)
+        //ensures the transitivity (L.4) and that a commodity is not on board a vessel whose capacity is too small (L.6)
         for (int r = 0; r < nbRotations; r++) {
             for (int k = 0; k < nbCommodities; k++) {
+                BoolVar[] fromPr = new BoolVar[nbPorts];
+                BoolVar[] toPr = new BoolVar[nbPorts];
+                BoolVar[] leavePr = new BoolVar[nbInfra];
+                for (int p = 0; p < nbPorts; p++) {
+                    fromPr[p] = model.get(VarKey.FROM_KPR)[k][p][r];
+                    toPr[p] = model.get(VarKey.TO_KPR)[k][p][r];
+                }
                 for (int p = 0; p < nbInfra; p++) {
-                    for (int sp : successors.get(p)) {
-                        if (sp < nbPorts) {
-                            getModel().getChocoModel().ifThen(
-                            		getModel().getChocoModel().and(
-		                           		 getModel().getChocoModel().arithm(((IntVar[][]) model.getVariable("s_rp"))[r][p], "=", sp),
-		                           		 getModel().getChocoModel().arithm(((BoolVar[][][])model.getVariable("from_kpr"))[k][sp][r], "=", 0),
-		                           		 getModel().getChocoModel().arithm(((BoolVar[][][])model.getVariable("to_kpr"))[k][sp][r], "=", 0)),
-                            		 getModel().getChocoModel().arithm(leaveKpr[k][p][r], "=", leaveKpr[k][sp][r])
-                            );
-                        }
-                    }
+                    leavePr[p] = leaveKpr[k][p][r];
                 }
+                new Constraint("LOAD_FLOW", new PropLoadFlow(model.get(VarKey.S_RP)[r], fromPr, toPr, leavePr, model.get(VarKey.K_R)[r], quantity[k])).post();
             }
         }
 		
@@ -149,7 +145,7 @@ public class LoadSubmodel  extends Submodel{
         for (int r = 0; r < nbRotations; r++) {
             for (int k = 0; k < nbCommodities; k++) {
                 for (int p = 0; p < nbInfra; p++) {
-                  clauseAdder.addImplication(((IntVar[][]) model.getVariable("s_rp"))[r][p], Operator.EQ, p, leaveKpr[k][p][r], Operator.EQ, 0);
+                  clauseAdder.addImplication(model.get(VarKey.S_RP)[r][p], Operator.EQ, p, leaveKpr[k][p][r], Operator.EQ, 0);
                 }
             }
         }
@@ -163,9 +159,9 @@ public class LoadSubmodel  extends Submodel{
                 int[] coeffs = new int[nbCommodities];
                 for (int k = 0; k < nbCommodities; k++) {
                   vars[k] = leaveKpr[k][p][r];
-                  coeffs[k] = quantity.get(k);
+                  coeffs[k] = quantity[k];
                 }
-                getModel().getChocoModel().scalar(vars, coeffs, "<=",((IntVar[]) model.getVariable("k_r"))[r]).post();
+                getModel().getChocoModel().scalar(vars, coeffs, "<=",model.get(VarKey.K_R)[r]).post();
             }
         }
         //a vessel must carry at least one commodity (L.8)       
@@ -175,7 +171,7 @@ public class LoadSubmodel  extends Submodel{
                 for (int k = 0; k < nbCommodities; k++) {
                     vars[k] = leaveKpr[k][p][r];
                 }
-                clauseAdder.addEquivalence(((IntVar[][]) model.getVariable("s_rp"))[r][p], Operator.EQ, p, getModel().getChocoModel().arithm(getModel().getChocoModel().sum("sum_leave_kpr", vars),"=",0).reify(), Operator.EQ, 1);
+                clauseAdder.addEquivalence(model.get(VarKey.S_RP)[r][p], Operator.EQ, p, getModel().getChocoModel().arithm(getModel().getChocoModel().sum("sum_leave_kpr", vars),"=",0).reify(), Operator.EQ, 1);
             }
         }
         
@@ -190,7 +186,7 @@ public class LoadSubmodel  extends Submodel{
                     index++;
                 }
             }
-            clauseAdder.addEquivalence(((IntVar[]) model.getVariable("alpha_k"))[k], Operator.EQ, 1,getModel().getChocoModel().arithm( getModel().getChocoModel().sum("sum",leave_kpr_sum), ">", 0).reify(), Operator.GT, 0);
+            clauseAdder.addEquivalence(model.get(VarKey.ALPHA_K)[k], Operator.EQ, 1,getModel().getChocoModel().arithm( getModel().getChocoModel().sum("sum",leave_kpr_sum), ">", 0).reify(), Operator.GT, 0);
 
         }
 	}
@@ -0,0 +1,93 @@
+package model_v0;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMax;
+import org.chocosolver.solver.search.strategy.selectors.values.IntValueSelector;
+import org.chocosolver.solver.search.strategy.selectors.variables.FirstFail;
+import org.chocosolver.solver.search.strategy.selectors.variables.InputOrder;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.ArrayUtils;
+
+import instance.InstanceIndex;
+
+public class LsndpSearchStrategyFactory implements SearchStrategyFactory {
+
+	/** This class allows to create a search strategy which follows the structure of the Liner Shipping Network Design Problem: it decides
+	 *  the vessel types first, then the circuits of the rotations, the accepted commodities, their routing and finally the speeds. */
+
+
+
+	@Override
+	public AbstractStrategy<?>[] createStrategies(Model model) {
+		org.chocosolver.solver.Model chocoModel = model.getChocoModel();
+		InstanceIndex index = model.getInstance().getIndex();
+
+		//the vessel types: a vessel type is tried before leaving the rotation unused
+		IntVar[] vR = model.get(VarKey.V_R);
+		AbstractStrategy<IntVar> vessels = Search.intVarSearch(new InputOrder<>(chocoModel), var -> var.getUB() > 0 ? var.nextValue(0) : 0, vR);
+
+		//the circuits: the nearest successor is tried first, leaving the port/canal unvisited is tried last
+		IntVar[][] sRp = model.get(VarKey.S_RP);
+		Map<IntVar, Integer> origins = new IdentityHashMap<>();
+		for (IntVar[] successors : sRp) {
+			for (int p = 0; p < successors.length; p++) {
+				origins.put(successors[p], p);
+			}
+		}
+		IntValueSelector nearest = var -> {
+			int p = origins.get(var);
+			int best = p;
+			int bestDistance = Integer.MAX_VALUE;
+			for (int s = var.getLB(); s <= var.getUB(); s = var.nextValue(s)) {
+				int distance = index.getDistance(p, s);
+				if (s != p && distance > 0 && distance < bestDistance) {
+					best = s;
+					bestDistance = distance;
+				}
+			}
+			return var.contains(best) ? best : var.getLB();
+		};
+		AbstractStrategy<IntVar> circuits = Search.intVarSearch(new FirstFail(chocoModel), nearest, ArrayUtils.flatten(sRp));
+
+		//the accepted commodities, by decreasing revenue per TEU
+		IntVar[] alphaK = model.get(VarKey.ALPHA_K);
+		int[] rev = model.getDerivedData().getRev();
+		List<Integer> commodities = new ArrayList<>();
+		for (int k = 0; k < alphaK.length; k++) {
+			commodities.add(k);
+		}
+		commodities.sort(Comparator.comparingInt((Integer k) -> rev[k]).reversed());
+		IntVar[] acceptance = new IntVar[alphaK.length];
+		for (int i = 0; i < acceptance.length; i++) {
+			acceptance[i] = alphaK[commodities.get(i)];
+		}
+		AbstractStrategy<IntVar> accepted = Search.intVarSearch(new InputOrder<>(chocoModel), new IntDomainMax(), acceptance);
+
+		//the routing of the commodities, in the same order: a rotation or a port is tried before -1 (no more rotation or port)
+		IntVar[][] rotKi = model.get(VarKey.ROT_KI);
+		IntVar[][] portKi = model.get(VarKey.PORT_KI);
+		List<IntVar> routing = new ArrayList<>();
+		for (int k : commodities) {
+			for (int i = 0; i < portKi[k].length; i++) {
+				routing.add(portKi[k][i]);
+				if (i < rotKi[k].length) {
+					routing.add(rotKi[k][i]);
+				}
+			}
+		}
+		IntValueSelector used = var -> var.getUB() >= 0 ? var.nextValue(-1) : var.getLB();
+		AbstractStrategy<IntVar> routes = Search.intVarSearch(new InputOrder<>(chocoModel), used, routing.toArray(new IntVar[0]));
+
+		//the speeds: the fuel consumption increases with the speed, so the lowest speed is tried first
+		AbstractStrategy<IntVar> speeds = Search.minDomLBSearch(ArrayUtils.flatten(model.get(VarKey.SPEED_RP)));
+
+		return new AbstractStrategy<?>[] {vessels, circuits, accepted, routes, speeds};
+	}
+}
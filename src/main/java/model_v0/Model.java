@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 
+import instance.CommodityAggregation;
 import instance.Instance;
 
 public class Model {
@@ -11,11 +12,15 @@ public class Model {
     /** This class allows to represent a model for the Liner Ship Network Design Problem */
 
     private  Instance instance;                                             //the instance to which the model is related
+    private  InstanceDerivedData derivedData;                               //the data derived from the instance, shared by all the models built from it
+    private  InstancePreprocessor preprocessor;                             //the combinations of the instance which cannot appear in any solution
+    private  CommodityAggregation aggregation;                              //the aggregation from which the commodities of the instance come, null if they are not aggregated
     private  org.chocosolver.solver.Model chocoModel;						//the CHOCO model
     private ArrayList<Submodel> submodels= new ArrayList<>();;				//the list of sub-models that compose the model
     private Map<String, Integer> numbers = new HashMap<String, Integer>();	//the number of elements for ports, canal
     
-	HashMap<String, Object> Variables=new HashMap<String, Object>();
+	private Object[] registry = new Object[VarKey.values().size()];	//the variables of the submodels indexed by the index of their key
+	private HashMap<String, Object> Variables=new HashMap<String, Object>();	//the variables of the submodels indexed by label
 	private boolean  withRefinedDomains ;                    	//true if the model used refined domains, False otherwise
 	private boolean allowedIfConstraint ;          				//true if the function if is allowed in intention constraints, False otherwise
 	private double ratioMu;							 	     	//the ratio which allows us to convert the number of TEU to the number of containers we have to handle,	
@@ -43,6 +48,7 @@ public class Model {
     public Model(Instance instance, int rotationNumber, int transshipmentNumber,int hmax,double ratioMu,int speedStep,int tNbv,int symmetryBreakingPolicy,boolean withRefinedDomains,boolean allowedIfConstraint) {
         if (instance instanceof Instance) {
             this.instance = instance;
+            this.derivedData = InstanceDerivedData.of(instance);
             this.withRefinedDomains=withRefinedDomains;
             this.allowedIfConstraint=allowedIfConstraint;
             this.hmax=hmax;
@@ -50,6 +56,7 @@ public class Model {
             this.speedStep=speedStep;
             this.tNbv=tNbv;
             this.symmetryBreakingPolicy=symmetryBreakingPolicy;
+            this.preprocessor = derivedData.getTable("preprocessor/" + hmax + "/" + transshipmentNumber, () -> new InstancePreprocessor(instance, derivedData, hmax, transshipmentNumber));
             
         } else {
             throw new IllegalArgumentException("The instance is not valid");
@@ -111,6 +118,46 @@ public class Model {
 	
 	
 	
+	/**
+	 * returns the data derived from the instance to which the model is related
+	 * @return the data derived from the instance to which the model is related
+	 */
+	public InstanceDerivedData getDerivedData() {
+		return this.derivedData;
+	}
+	
+	
+	
+	/**
+	 * returns the preprocessing of the instance, which gives the reduced domains of the variables
+	 * @return the preprocessing of the instance
+	 */
+	public InstancePreprocessor getPreprocessor() {
+		return this.preprocessor;
+	}
+	
+	
+	
+	/**
+	 * returns the aggregation from which the commodities of the instance come
+	 * @return the aggregation of the commodities, null if the commodities are not aggregated
+	 */
+	public CommodityAggregation getAggregation() {
+		return this.aggregation;
+	}
+	
+	
+	
+	/**
+	 * @param aggregation the aggregation from which the commodities of the instance come
+	 * sets the aggregation of the commodities, so that the solutions can be given for the original commodities
+	 */
+	public void setAggregation(CommodityAggregation aggregation) {
+		this.aggregation = aggregation;
+	}
+	
+	
+	
 	/**
 	 * returns the Choco Solver model
 	 * @return  the Choco Solver model
@@ -147,15 +194,35 @@ public class Model {
 	}
 	
 	
+	/**
+	 * @param key the key of the variables
+	 * @param var the variables
+	 * registers the variables var under the given key, so that they can be retrieved by all the submodels
+	 */
+	public <T> void register(VarKey<T> key, T var) {
+		if (registry[key.getIndex()] != null) {
+			throw new IllegalArgumentException("The variables " + key.getLabel() + " are already defined");
+		}
+		registry[key.getIndex()] = var;
+		Variables.put(key.getLabel(), var);
+	}
+	
+	
+	/**
+	 * @param key the key of the variables to search
+	 * @return returns the variables registered under the given key, null if they are not defined yet
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(VarKey<T> key) {
+		return (T) registry[key.getIndex()];
+	}
+	
+	
 	/**
 	 * @param label of the element to search
 	 * @return returns the variable that has the given label
 	 */
 	public Object getVariable(String label) {
-
-		for(Submodel sub:submodels) {
-			Variables.putAll(sub.getVariables());
-		}
 	    return Variables.get(label);
 	}
 
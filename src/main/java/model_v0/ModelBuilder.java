@@ -0,0 +1,202 @@
+package model_v0;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import instance.CommodityAggregation;
+import instance.Instance;
+
+public class ModelBuilder {
+
+	/** This class allows to build complete models (all the submodels, their variables and their constraints) for a given instance and
+	 *  given parameters. Several models can be built concurrently: they share the instance and the tables derived from it. */
+
+	private Instance instance;									//the instance to which the models are related
+	private CommodityAggregation aggregation;					//the aggregation of the commodities of the instance, null if they are not aggregated
+	private int nbRotations;									//the number of rotations to create
+	private int tsmax;											//the maximal number of transshipments
+	private int hmax;											//the maximal number of hours that a rotation may last.
+	private double ratioMu;										//the ratio which allows us to convert the number of TEU to the number of containers we have to handle
+	private int speedStep;										//the step between two speeds
+	private int tNbv;											//the version of table NbVessel used
+	private int symmetryBreakingPolicy;							//the symmetry breaking constraints to add to the model
+	private boolean withRefinedDomains;							//true if the model used refined domains, False otherwise
+	private boolean allowedIfConstraint;						//true if the function if is allowed in intention constraints, False otherwise
+
+
+
+	/**
+	 * Constructor for creating a ModelBuilder object
+	 * @param instance the instance to which the models are related
+	 * @param nbRotations the number of rotations
+	 * @param tsmax the maximal number of transshipments
+	 * @param hmax the maximal number of hours that a rotation may last
+	 * @param ratioMu the ratio which allows us to convert the number of TEU to the number of containers
+	 * @param speedStep the step between two speeds
+	 * @param tNbv the version of table NbVessel used
+	 * @param symmetryBreakingPolicy the symmetry breaking constraints to add to the model
+	 * @param withRefinedDomains true if the model uses refined domains
+	 * @param allowedIfConstraint true if the function if is allowed in intention constraints
+	 */
+	public ModelBuilder(Instance instance, int nbRotations, int tsmax, int hmax, double ratioMu, int speedStep, int tNbv, int symmetryBreakingPolicy, boolean withRefinedDomains, boolean allowedIfConstraint) {
+		this.instance = instance;
+		this.nbRotations = nbRotations;
+		this.tsmax = tsmax;
+		this.hmax = hmax;
+		this.ratioMu = ratioMu;
+		this.speedStep = speedStep;
+		this.tNbv = tNbv;
+		this.symmetryBreakingPolicy = symmetryBreakingPolicy;
+		this.withRefinedDomains = withRefinedDomains;
+		this.allowedIfConstraint = allowedIfConstraint;
+	}
+
+
+
+	/**
+	 * aggregates the commodities of the instance with the same origin, destination and nature: the models built afterwards are related
+	 * to the aggregated instance, and their solutions are saved for the original commodities
+	 * @return returns the aggregation of the commodities
+	 * @throws Exception if the aggregated instance is not correct
+	 */
+	public CommodityAggregation aggregateCommodities() throws Exception {
+		if (aggregation == null) {
+			aggregation = new CommodityAggregation(instance);
+			instance = aggregation.getAggregatedInstance();
+		}
+		return aggregation;
+	}
+
+
+
+	/**
+	 * @return returns the instance to which the models are related (the aggregated instance if the commodities are aggregated)
+	 */
+	public Instance getInstance() {
+		return instance;
+	}
+
+
+
+	/**
+	 * @param instance another instance
+	 * @return returns a builder of models for the given instance with the same parameters, its commodities not being aggregated
+	 */
+	public ModelBuilder forInstance(Instance instance) {
+		return new ModelBuilder(instance, nbRotations, tsmax, hmax, ratioMu, speedStep, tNbv, symmetryBreakingPolicy, withRefinedDomains, allowedIfConstraint);
+	}
+
+
+
+	/**
+	 * @return returns a new model with all its submodels, variables and constraints
+	 */
+	public Model build() {
+		return build(withRefinedDomains);
+	}
+
+
+
+	/**
+	 * @param configuration the configuration of the portfolio worker which will solve the model
+	 * @return returns a new model with all its submodels, variables and constraints, and the search of the given configuration
+	 */
+	public Model build(PortfolioConfiguration configuration) {
+		Model model = build(configuration.isWithRefinedDomains());
+		configuration.apply(model);
+		return model;
+	}
+
+
+
+	/**
+	 * @param withRefinedDomains true if the model uses refined domains
+	 * @return returns a new model with all its submodels, variables and constraints
+	 */
+	private Model build(boolean withRefinedDomains) {
+		Model model = new Model(instance, nbRotations, tsmax, hmax, ratioMu, speedStep, tNbv, symmetryBreakingPolicy, withRefinedDomains, allowedIfConstraint);
+		model.setAggregation(aggregation);
+		model.addSubmodel(new RotationSubmodel(model));
+		model.addSubmodel(new CargoFlowSubmodel(model));
+		model.addSubmodel(new CargoFlowRotationSubmodel(model));
+		model.addSubmodel(new FeatureSubmodel(model));
+		model.addSubmodel(new LoadSubmodel(model));
+		model.addSubmodel(new TimeSubmodel(model));
+		model.addSubmodel(new TransitTimeSubmodel(model));
+		model.addSubmodel(new VesselAvailabilitySubmodel(model));
+		model.addSubmodel(new CostSubmodel(model));
+		model.addSubmodel(new ObjectiveFunction(model));
+		model.addSubmodel(new SymmetryBreakingSubmodel(model));
+
+		model.addVariables();
+		model.addConstraints();
+		return model;
+	}
+
+
+
+	/**
+	 * builds several models concurrently
+	 * @param nbModels the number of models to build
+	 * @param nbThreads the number of threads used to build the models
+	 * @return returns the built models
+	 * @throws InterruptedException if the current thread is interrupted while waiting for the models
+	 */
+	public List<Model> buildAll(int nbModels, int nbThreads) throws InterruptedException {
+		List<Callable<Model>> tasks = new ArrayList<>();
+		for (int i = 0; i < nbModels; i++) {
+			tasks.add(this::build);
+		}
+		return invokeAll(tasks, nbThreads);
+	}
+
+
+
+	/**
+	 * builds concurrently one model for each of the given configurations
+	 * @param configurations the configurations of the portfolio workers
+	 * @param nbThreads the number of threads used to build the models
+	 * @return returns the built models, in the order of the configurations
+	 * @throws InterruptedException if the current thread is interrupted while waiting for the models
+	 */
+	public List<Model> buildAll(List<PortfolioConfiguration> configurations, int nbThreads) throws InterruptedException {
+		List<Callable<Model>> tasks = new ArrayList<>();
+		for (PortfolioConfiguration configuration : configurations) {
+			tasks.add(() -> build(configuration));
+		}
+		return invokeAll(tasks, nbThreads);
+	}
+
+
+
+	/**
+	 * @param tasks the tasks which build the models
+	 * @param nbThreads the number of threads used to build the models
+	 * @return returns the built models, in the order of the tasks
+	 * @throws InterruptedException if the current thread is interrupted while waiting for the models
+	 */
+	private static List<Model> invokeAll(List<Callable<Model>> tasks, int nbThreads) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(nbThreads, tasks.size())));
+		try {
+			List<Model> models = new ArrayList<>();
+			for (Future<Model> future : executor.invokeAll(tasks)) {
+				try {
+					models.add(future.get());
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					throw new IllegalStateException("The model cannot be built", e.getCause());
+				}
+			}
+			return models;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -3,6 +3,9 @@ package model_v0;
 import java.util.ArrayList;
 import java.util.List;
 
+import propagators.PropRevenueBound;
+
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.variables.IntVar;
 
 public class ObjectiveFunction extends Submodel {
@@ -29,11 +32,7 @@ public class ObjectiveFunction extends Submodel {
 	   
 	   //we get the the transshipment cost per TEU
 		for(int p = 0; p < nbPorts; p++){
-			for (String name : model.getInstance().getPorts()) {
-			    ts.add(model.getInstance().getPort(name).getTransshipmentCost());
-			}
-
-
+		    ts.add(index.getTransshipmentCost(p));
 		}
 	 
 		}
@@ -52,15 +51,21 @@ public class ObjectiveFunction extends Submodel {
 			
 	        //stores revenue
 			
+			int[] quantity = model.getDerivedData().getQuantity();
+			int[] rev = model.getDerivedData().getRev();
 			IntVar[] productRevenue = new IntVar[nbCommodities];
 			for (int k = 0; k < nbCommodities; k++) {
-			    productRevenue[k] = getModel().getChocoModel().intVar("product_" + k,((IntVar[]) model.getVariable("alpha_k"))[k].getLB() * AuxiliaryFunctions.getQuantity(model.getInstance()).get(k)* AuxiliaryFunctions.getRev(model.getInstance()).get(k),((IntVar[]) model.getVariable("alpha_k"))[k].getUB() *AuxiliaryFunctions.getQuantity(model.getInstance()).get(k)* AuxiliaryFunctions.getRev(model.getInstance()).get(k));
-			    getModel().getChocoModel().times(((IntVar[]) model.getVariable("alpha_k"))[k], AuxiliaryFunctions.getQuantity(model.getInstance()).get(k)* AuxiliaryFunctions.getRev(model.getInstance()).get(k), productRevenue[k]).post();
+			    productRevenue[k] = getModel().getChocoModel().intVar("product_" + k,model.get(VarKey.ALPHA_K)[k].getLB() * quantity[k]* rev[k],model.get(VarKey.ALPHA_K)[k].getUB() *quantity[k]* rev[k]);
+			    getModel().getChocoModel().times(model.get(VarKey.ALPHA_K)[k], quantity[k]* rev[k], productRevenue[k]).post();
 			}
 			
 			objectiveRevenue= getModel().getChocoModel().intVar("objectiveRevenue",getLowerBound(productRevenue),getUpperBound(productRevenue));
 			getModel().getChocoModel().sum(productRevenue, "=", objectiveRevenue).post();	
 			
+			//bounds the revenue by the capacity of the rotations visiting the origin ports of the commodities
+			new Constraint("REVENUE_BOUND", new PropRevenueBound(model.get(VarKey.ALPHA_K), model.get(VarKey.K_R), model.get(VarKey.S_RP), objectiveRevenue,
+					model.getDerivedData().getPol(), quantity, rev, nbPorts)).post();
+			
 			
 			//stores fuel and call cost
 
@@ -68,7 +73,7 @@ public class ObjectiveFunction extends Submodel {
 			for (int p = 0; p < nbInfra; p++) {
 			    IntVar[] vars = new IntVar[nbRotations];
 			    for (int r = 0; r < nbRotations; r++) {
-			        vars[r] = ((IntVar[][]) model.getVariable("c_rp"))[r][p];
+			        vars[r] = model.get(VarKey.C_RP)[r][p];
 
 			    }
 			    sumFuel[p] = getModel().getChocoModel().intVar("sum[" + p + "]", getLowerBound(vars), getUpperBound(vars));
@@ -83,8 +88,8 @@ public class ObjectiveFunction extends Submodel {
 
 			IntVar[] productsOPCost = new IntVar[nbRotations];
 			for (int r = 0; r < nbRotations; r++) {
-			    productsOPCost[r] = getModel().getChocoModel().intVar("product[" + r + "]", ((IntVar[])model.getVariable("tc_r"))[r].getLB() *((IntVar[])model.getVariable("n_r"))[r].getLB(),((IntVar[])model.getVariable("tc_r"))[r].getUB() * ((IntVar[])model.getVariable("n_r"))[r].getUB());
-			    getModel().getChocoModel().times(((IntVar[])model.getVariable("tc_r"))[r], ((IntVar[])model.getVariable("n_r"))[r], productsOPCost[r]).post();
+			    productsOPCost[r] = getModel().getChocoModel().intVar("product[" + r + "]", model.get(VarKey.TC_R)[r].getLB() *model.get(VarKey.N_R)[r].getLB(),model.get(VarKey.TC_R)[r].getUB() * model.get(VarKey.N_R)[r].getUB());
+			    getModel().getChocoModel().times(model.get(VarKey.TC_R)[r], model.get(VarKey.N_R)[r], productsOPCost[r]).post();
 			}
 			IntVar sumProduct = getModel().getChocoModel().intVar("sumProduct", getLowerBound(productsOPCost),getUpperBound(productsOPCost)*nbRotations);
 			getModel().getChocoModel().sum(productsOPCost, "=", sumProduct).post();
@@ -99,8 +104,8 @@ public class ObjectiveFunction extends Submodel {
 			
 			IntVar[] productTs = new IntVar[nbPorts];
 			for (int p = 0; p < nbPorts; p++) {
-				productTs[p] = getModel().getChocoModel().intVar("product_" + p,((IntVar[]) model.getVariable("teuTs_p"))[p].getLB() *ts.get(p),((IntVar[]) model.getVariable("teuTs_p"))[p].getUB() *ts.get(p));
-			    getModel().getChocoModel().times(((IntVar[]) model.getVariable("teuTs_p"))[p], ts.get(p), productTs[p]).post();
+				productTs[p] = getModel().getChocoModel().intVar("product_" + p,model.get(VarKey.TEU_TS_P)[p].getLB() *ts.get(p),model.get(VarKey.TEU_TS_P)[p].getUB() *ts.get(p));
+			    getModel().getChocoModel().times(model.get(VarKey.TEU_TS_P)[p], ts.get(p), productTs[p]).post();
 			}
 			 objectiveTsCost = getModel().getChocoModel().intVar("objectiveTsCost",getLowerBound(productTs),getUpperBound(productTs)*nbPorts); 
 			getModel().getChocoModel().sum(productTs, "=", objectiveTsCost).post();
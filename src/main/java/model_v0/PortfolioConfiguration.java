@@ -0,0 +1,202 @@
+package model_v0;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.limits.FailCounter;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMin;
+import org.chocosolver.solver.search.strategy.selectors.variables.ConflictHistorySearch;
+import org.chocosolver.solver.search.strategy.selectors.variables.DomOverWDeg;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.ArrayUtils;
+
+public class PortfolioConfiguration {
+
+	/** This class allows to represent the configuration of one worker of a parallel portfolio: the variables on which the search branches
+	 *  first, the variable selection heuristic, the restart policy, the random seed and whether the model uses refined domains. */
+
+	public enum VariableOrder {
+		ROTATIONS_FIRST,			//v_r, then s_rp, then rot_ki
+		COMMODITIES_FIRST,			//rot_ki, then v_r, then s_rp
+		CIRCUITS_FIRST,				//s_rp, then v_r, then rot_ki
+		ALL							//no preferred variables, the heuristic is applied to all the variables of the model
+	}
+
+	public enum Heuristic {
+		DEFAULT,					//the default search of Choco
+		DOM_WDEG,					//dom/wdeg
+		ACTIVITY,					//activity-based search
+		CHS,						//conflict history search
+		LSNDP						//the problem-aware search of LsndpSearchStrategyFactory, whatever the variable order
+	}
+
+	public enum Restart {
+		NONE,						//no restart
+		LUBY,						//Luby restarts on the number of failures
+		GEOMETRIC					//geometrical restarts on the number of failures
+	}
+
+	private VariableOrder order;			//the variables on which the search branches first
+	private Heuristic heuristic;			//the variable selection heuristic
+	private Restart restart;				//the restart policy
+	private long seed;						//the seed used by the randomized heuristics
+	private boolean withRefinedDomains;		//true if the model uses refined domains, False otherwise
+
+
+
+	/**
+	 * Constructor for creating a PortfolioConfiguration object
+	 * @param order the variables on which the search branches first
+	 * @param heuristic the variable selection heuristic
+	 * @param restart the restart policy
+	 * @param seed the seed used by the randomized heuristics
+	 * @param withRefinedDomains true if the model uses refined domains
+	 */
+	public PortfolioConfiguration(VariableOrder order, Heuristic heuristic, Restart restart, long seed, boolean withRefinedDomains) {
+		this.order = order;
+		this.heuristic = heuristic;
+		this.restart = restart;
+		this.seed = seed;
+		this.withRefinedDomains = withRefinedDomains;
+	}
+
+
+
+	/**
+	 * computes a list of diversified configurations. The first configuration is the default search of Choco without restart, the second one
+	 * is the problem-aware search without restart, the following ones combine the variable orders, the heuristics and the restart policies with distinct seeds.
+	 * The restart policy is shifted by one at each variable order, so that every heuristic is tried with every restart policy and the 36 combinations
+	 * are all used before one is repeated
+	 * @param nbConfigurations the number of configurations
+	 * @return returns the list of configurations
+	 */
+	public static List<PortfolioConfiguration> diversified(int nbConfigurations) {
+		Heuristic[] heuristics = {Heuristic.DOM_WDEG, Heuristic.ACTIVITY, Heuristic.CHS};
+		VariableOrder[] orders = {VariableOrder.ROTATIONS_FIRST, VariableOrder.COMMODITIES_FIRST, VariableOrder.CIRCUITS_FIRST, VariableOrder.ALL};
+		Restart[] restarts = {Restart.LUBY, Restart.GEOMETRIC, Restart.NONE};
+
+		List<PortfolioConfiguration> configurations = new ArrayList<>();
+		if (nbConfigurations > 0) {
+			configurations.add(new PortfolioConfiguration(VariableOrder.ALL, Heuristic.DEFAULT, Restart.NONE, 0, false));
+		}
+		if (nbConfigurations > 1) {
+			configurations.add(new PortfolioConfiguration(VariableOrder.ROTATIONS_FIRST, Heuristic.LSNDP, Restart.NONE, 1, false));
+		}
+		for (int i = 2; i < nbConfigurations; i++) {
+			int c = i - 2;
+			configurations.add(new PortfolioConfiguration(orders[(c / heuristics.length) % orders.length], heuristics[c % heuristics.length],
+					restarts[(c + c / heuristics.length) % restarts.length], i, i % 4 == 0));
+		}
+		return configurations;
+	}
+
+
+
+	/**
+	 * declares the search strategy and the restart policy of the configuration on the solver of the given model.
+	 * The strategy is completed with the default search of Choco for the variables which are not decided by it.
+	 * @param model the model, built with the refined domains setting of the configuration
+	 */
+	public void apply(Model model) {
+		org.chocosolver.solver.Model chocoModel = model.getChocoModel();
+		Solver solver = chocoModel.getSolver();
+		if (heuristic == Heuristic.LSNDP) {
+			new LsndpSearchStrategyFactory().apply(model);
+		}
+		else if (heuristic != Heuristic.DEFAULT || order != VariableOrder.ALL) {
+			IntVar[] vars = getDecisionVariables(model);
+			solver.setSearch(getStrategy(vars));
+			solver.makeCompleteStrategy(true);
+		}
+		switch (restart) {
+			case LUBY:
+				solver.setLubyRestart(500, new FailCounter(chocoModel, 0), 5000);
+				break;
+			case GEOMETRIC:
+				solver.setGeometricalRestart(500, 1.2, new FailCounter(chocoModel, 0), 5000);
+				break;
+			default:
+				break;
+		}
+	}
+
+
+
+	/**
+	 * @param model the model
+	 * @return returns the variables on which the search branches first, in the order of the configuration
+	 */
+	private IntVar[] getDecisionVariables(Model model) {
+		IntVar[] vr = model.get(VarKey.V_R);
+		IntVar[] srp = ArrayUtils.flatten(model.get(VarKey.S_RP));
+		IntVar[] rotki = ArrayUtils.flatten(model.get(VarKey.ROT_KI));
+		List<IntVar> vars = new ArrayList<>();
+		switch (order) {
+			case ROTATIONS_FIRST:
+				add(vars, vr, srp, rotki);
+				break;
+			case COMMODITIES_FIRST:
+				add(vars, rotki, vr, srp);
+				break;
+			case CIRCUITS_FIRST:
+				add(vars, srp, vr, rotki);
+				break;
+			default:
+				return model.getChocoModel().retrieveIntVars(true);
+		}
+		return vars.toArray(new IntVar[0]);
+	}
+
+
+
+	/**
+	 * adds the given groups of variables to the list
+	 * @param vars the list
+	 * @param groups the groups of variables
+	 */
+	private static void add(List<IntVar> vars, IntVar[]... groups) {
+		for (IntVar[] group : groups) {
+			for (IntVar var : group) {
+				vars.add(var);
+			}
+		}
+	}
+
+
+
+	/**
+	 * @param vars the variables on which the search branches
+	 * @return returns the strategy of the configuration over the given variables
+	 */
+	private AbstractStrategy<IntVar> getStrategy(IntVar[] vars) {
+		switch (heuristic) {
+			case DOM_WDEG:
+				return Search.intVarSearch(new DomOverWDeg<>(vars, seed), new IntDomainMin(), vars);
+			case ACTIVITY:
+				return Search.activityBasedSearch(vars);
+			case CHS:
+				return Search.intVarSearch(new ConflictHistorySearch<>(vars, seed), new IntDomainMin(), vars);
+			default:
+				return Search.inputOrderLBSearch(vars);
+		}
+	}
+
+
+
+	/**
+	 * @return returns true if the model uses refined domains, False otherwise
+	 */
+	public boolean isWithRefinedDomains() {
+		return withRefinedDomains;
+	}
+
+
+
+	@Override
+	public String toString() {
+		return "order=" + order + ", heuristic=" + heuristic + ", restart=" + restart + ", seed=" + seed + ", refinedDomains=" + withRefinedDomains;
+	}
+}
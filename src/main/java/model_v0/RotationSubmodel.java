@@ -35,11 +35,27 @@ public class RotationSubmodel extends Submodel{
     public void defineVariables() {
 		
 	        //the type of vessels used for rotation r (0 if rotation r is not used)
-          vR= getModel().getChocoModel().intVarArray("v_r",nbRotations, 0,nbVessels);
-	        addVariables("v_r", vR);
+	        //(the vessel types which cannot sail any leg from a port are removed)
+          List<Integer> vessels = new ArrayList<Integer>();
+          vessels.add(0);
+          for (int v = 0; v < nbVessels; v++) {
+              if (getModel().getPreprocessor().isUsable(v)) {
+                  vessels.add(v + 1);
+              }
+          }
+          if (vessels.size() == 1) {
+              //the clauses cannot be posted on fixed variables: the vessel types are then excluded by R.6
+              vessels.clear();
+              for (int v = 0; v <= nbVessels; v++) {
+                  vessels.add(v);
+              }
+          }
+          vR= getModel().getChocoModel().intVarArray("v_r",nbRotations, vessels.stream().mapToInt(v -> v).toArray());
+	        addVariables(VarKey.V_R, vR);
         
         
 	        //sRp is set to p' if port/canal p' is the next port/canal after port/canal p in rotation r, p if port/canal p is not involved in rotation r
+	        //(the legs which no vessel type may sail are removed)
 	        sRp = new IntVar[nbRotations][nbInfra];
 	        
 	        for (int i = 0; i < nbRotations; i++) {
@@ -47,7 +63,7 @@ public class RotationSubmodel extends Submodel{
 	                List<Integer> domain = new ArrayList<Integer>();
 	                    domain.add(j);
 	                    for (int k = 0; k < nbInfra; k++) {
-	                        if (k != j && (getModel().getInstance().getDistances().getDistance(infra.get(j), infra.get(k))) > 0) {
+	                        if (k != j && index.getDistance(j, k) > 0 && getModel().getPreprocessor().isLegAllowed(j, k)) {
 	                            domain.add(k);
 	                        }
 	                    }
@@ -55,11 +71,11 @@ public class RotationSubmodel extends Submodel{
 
 	            }       
 	        }
-	        addVariables("s_rp", sRp);
+	        addVariables(VarKey.S_RP, sRp);
 	        
 	        //the number of nodes in the circuit
 	        lR = getModel().getChocoModel().intVarArray("aux_subCircuitLength",nbRotations, 0, nbInfra);
-	        addVariables("subCircuitLength", lR);
+	        addVariables(VarKey.SUB_CIRCUIT_LENGTH, lR);
 
 
     }
@@ -100,6 +116,26 @@ public class RotationSubmodel extends Submodel{
 
         clauseAdder.addImplication (vR[r], Operator.NE, 0, getModel().getChocoModel().sum(vars, ">=",3).reify(), Operator.EQ, 1); 
     }
+
+    //the vessel type of rotation r may only call at the ports/canals it fits in and sail the legs it can sail within hmax (R.6)
+    InstancePreprocessor preprocessor = getModel().getPreprocessor();
+    for (int r = 0; r < nbRotations; r++) {
+        for (int v = 0; v < nbVessels; v++) {
+            if (vR[r].contains(v + 1)) {
+                for (int p = 0; p < nbInfra; p++) {
+                    if (!preprocessor.isCompatible(p, v)) {
+                        clauseAdder.addImplication(vR[r], Operator.EQ, v + 1, sRp[r][p], Operator.EQ, p);
+                    } else {
+                        for (int sp : sRp[r][p]) {
+                            if (sp != p && !preprocessor.isLegAllowed(v, p, sp)) {
+                                clauseAdder.addImplication(vR[r], Operator.EQ, v + 1, sRp[r][p], Operator.NE, sp);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
     
     
     	
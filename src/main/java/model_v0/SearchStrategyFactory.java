@@ -0,0 +1,49 @@
+package model_v0;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+
+public interface SearchStrategyFactory {
+
+	/** This interface allows to define the search strategy used to solve a model. The strategies it creates may decide only a part of
+	 *  the variables: the remaining ones are decided by the default search of Choco. */
+
+
+	/**
+	 * @param model the model
+	 * @return returns the strategies used to solve the model, in the order in which they are applied (empty for the default search of Choco)
+	 */
+	AbstractStrategy<?>[] createStrategies(Model model);
+
+
+
+	/**
+	 * declares the strategies of the factory on the solver of the given model
+	 * @param model the model
+	 */
+	default void apply(Model model) {
+		AbstractStrategy<?>[] strategies = createStrategies(model);
+		if (strategies.length > 0) {
+			Solver solver = model.getChocoModel().getSolver();
+			solver.setSearch(strategies);
+			solver.makeCompleteStrategy(true);
+		}
+	}
+
+
+
+	/**
+	 * @param name the name of the search: "default" for the default search of Choco, "lsndp" for the problem-aware search
+	 * @return returns the factory related to the given name
+	 */
+	static SearchStrategyFactory of(String name) {
+		switch (name) {
+			case "default":
+				return model -> new AbstractStrategy<?>[0];
+			case "lsndp":
+				return new LsndpSearchStrategyFactory();
+			default:
+				throw new IllegalArgumentException("Unknown search strategy: " + name);
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package model_v0;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.ArrayUtils;
+
+public class SolutionLoader {
+
+	/** This class allows to read a solution file written by AuxiliaryFunctions.save, and to start the search of a model from it: the
+	 *  values of its decision variables are declared as hints, so that the first dive of the search tries them first, and the objective
+	 *  must be at least the saved one: the saved solution itself stays feasible, so the first dive can rebuild it, the objective manager
+	 *  of the solver then requiring each next solution to be strictly better. The names of the file are mapped back to the variables registered in the model; if the
+	 *  commodities of the model are aggregated, the values of a flow are those of the first of its original commodities. */
+
+	private static final List<VarKey<?>> DECISIONS = List.of(VarKey.V_R, VarKey.S_RP, VarKey.SPEED_RP, VarKey.ALPHA_K, VarKey.ROT_KI,
+			VarKey.PORT_KI);					//the variables declared as hints, those of RotationPlan
+
+	private Integer objective;										//the saved objective, null if the file has none
+	private final Map<String, String> declarations = new HashMap<>();	//the declaration (label and dimensions) of each group of variables, indexed by label
+	private final Map<String, Integer> values = new LinkedHashMap<>();	//the saved value of each variable, indexed by name
+
+
+
+	/**
+	 * Constructor for creating a SolutionLoader object
+	 * @param filename the name of the solution file
+	 * @throws IOException if the file cannot be read
+	 */
+	public SolutionLoader(String filename) throws IOException {
+		for (String line : Files.readAllLines(Paths.get(filename), StandardCharsets.UTF_8)) {
+			String[] tokens = line.trim().split("\\s+");
+			if (tokens[0].equals("o") && tokens.length == 2) {
+				objective = Integer.parseInt(tokens[1]);
+			} else if (tokens[0].equals("v")) {
+				for (int i = 1; i < tokens.length; i++) {
+					declarations.put(labelOf(tokens[i]), tokens[i]);
+				}
+			} else if (tokens[0].equals("s") && tokens.length == 3) {
+				values.put(tokens[1], Integer.parseInt(tokens[2]));
+			}
+		}
+	}
+
+
+
+	/**
+	 * @return returns the saved objective, null if the file has none
+	 */
+	public Integer getObjective() {
+		return objective;
+	}
+
+
+
+	/**
+	 * @return returns the number of saved values
+	 */
+	public int getNbValues() {
+		return values.size();
+	}
+
+
+
+	/**
+	 * declares the saved values as hints for the search of the model, and the saved objective as a lower bound of its objective
+	 * @param model the model
+	 * @return returns the number of declared hints
+	 */
+	public int apply(Model model) {
+		int nbHints = addHints(model);
+		if (objective != null) {
+			IntVar modelObjective = (IntVar) model.getChocoModel().getObjective();
+			model.getChocoModel().arithm(modelObjective, ">=", objective).post();
+		}
+		return nbHints;
+	}
+
+
+
+	/**
+	 * declares the saved values of the decision variables as hints for the search of the model
+	 * @param model the model
+	 * @return returns the number of declared hints
+	 */
+	public int addHints(Model model) {
+		Solver solver = model.getChocoModel().getSolver();
+		int nbHints = 0;
+		for (VarKey<?> key : DECISIONS) {
+			Object vars = model.get(key);
+			String declared = declarations.get(key.getLabel());
+			if (vars == null || declared == null) {
+				continue;
+			}
+			if (!declared.equals(AuxiliaryFunctions.declaration(model, key.getLabel(), AuxiliaryFunctions.dimensionsOf(vars)))) {
+				throw new IllegalArgumentException("The variables " + declared + " of the solution file do not match the model");
+			}
+			for (IntVar var : flatten(vars)) {
+				Integer value = savedValue(model, var.getName());
+				if (value != null) {
+					solver.addHint(var, value);
+					nbHints++;
+				}
+			}
+		}
+		return nbHints;
+	}
+
+
+
+	/**
+	 * @param model the model
+	 * @param name the name of a variable of the model
+	 * @return returns the saved value of the variable, or of the first original commodity of its flow which has one if the commodities
+	 *         are aggregated, null if there is none
+	 */
+	private Integer savedValue(Model model, String name) {
+		String label = labelOf(name);
+		int position = AuxiliaryFunctions.commodityPosition(label);
+		if (model.getAggregation() == null || position < 0) {
+			return values.get(name);
+		}
+		String[] indices = name.substring(label.length() + 1, name.length() - 1).split("\\]\\[");
+		for (int k : model.getAggregation().getCommodities(Integer.parseInt(indices[position]))) {
+			indices[position] = Integer.toString(k);
+			Integer value = values.get(label + "[" + String.join("][", indices) + "]");
+			if (value != null) {
+				return value;
+			}
+		}
+		return null;
+	}
+
+
+
+	/**
+	 * @param name the name of a variable, or the declaration of a group of variables
+	 * @return returns the label of the variables, without the indices
+	 */
+	private static String labelOf(String name) {
+		int bracket = name.indexOf('[');
+		return bracket < 0 ? name : name.substring(0, bracket);
+	}
+
+
+
+	/**
+	 * @param vars the variables registered under a label (an array with 1 or 2 dimensions)
+	 * @return returns the variables in one array
+	 */
+	private static IntVar[] flatten(Object vars) {
+		if (vars instanceof IntVar[][]) {
+			return ArrayUtils.flatten((IntVar[][]) vars);
+		}
+		return (IntVar[]) vars;
+	}
+}
@@ -6,6 +6,8 @@ import java.util.List;
 
 import org.chocosolver.solver.variables.IntVar;
 
+import instance.InstanceIndex;
+
 public abstract class  Submodel {
 	
 	 /** This class allows to represent a part of model with its variables and its constraint  */
@@ -13,6 +15,7 @@ public abstract class  Submodel {
 	
     protected Model model=new Model();										//instance of Model
     protected List<String> infra = new ArrayList<String>();                 //the list of infrastructure
+    protected InstanceIndex index;                                          //the indexed view of the instance, following the order of infra
     protected int pcf; 												        // the number of ports + 2*canals +two factitious ports	
     protected int nbRotations;									    		//the number of retation to creat
     protected int nbPorts;													//the number of port
@@ -43,6 +46,7 @@ public abstract class  Submodel {
 		this.infra.addAll(model.getInstance().getPorts());
 		this.infra.addAll(model.getInstance().getCanals());
 		this.infra.addAll(model.getInstance().getCanals());
+		this.index=model.getInstance().getIndex();
 		this.pcf=infra.size()+2;
 		this.nbRotations=model.getNumber("rotations");     		
 		this.nbPorts=model.getNumber("ports");					
@@ -70,15 +74,16 @@ public abstract class  Submodel {
 	
 	
     /**
-     * @param label  the label of the variable
+     * @param key  the key of the variable
      * @param var the variable 
-     * adds the variables var to the submodel under the given label
+     * adds the variables var to the submodel and registers them in the model under the given key
      */
-    public void addVariables(String label,Object var)  {
-        if (variables.containsKey(label)) {
-            throw new IllegalArgumentException("The variables " + label + " are already defined");
+    public <T> void addVariables(VarKey<T> key,T var)  {
+        if (variables.containsKey(key.getLabel())) {
+            throw new IllegalArgumentException("The variables " + key.getLabel() + " are already defined");
         } else {
-            variables.put(label, var);
+            variables.put(key.getLabel(), var);
+            model.register(key, var);
         }
     }
     
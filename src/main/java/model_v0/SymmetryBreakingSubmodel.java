@@ -31,13 +31,13 @@ public class SymmetryBreakingSubmodel extends Submodel {
 		//if a rotation is not used, the next one is not used too (B.1)
 	    ClauseAdder clauseAdder = new ClauseAdder(this.model);
 	    for (int r = 0; r < nbRotations - 1; r++) {
-	    	//clauseAdder.addImplication(((IntVar[]) model.getVariable("v_r"))[r], Operator.EQ, 0, ((IntVar[]) model.getVariable("v_r"))[r+1], Operator.EQ, 0);
+	    	//clauseAdder.addImplication(model.get(VarKey.V_R)[r], Operator.EQ, 0, model.get(VarKey.V_R)[r+1], Operator.EQ, 0);
 	    }
 	    
 
 		
 		//rotations are sorted in decreasing order of their rotation time (B.2)
-		getModel().getChocoModel().decreasing(((IntVar[]) model.getVariable("T_r")),0).post();
+		getModel().getChocoModel().decreasing(model.get(VarKey.T_R),0).post();
     
 	}
 
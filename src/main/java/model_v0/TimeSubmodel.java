@@ -9,7 +9,10 @@ import java.util.Set;
 
 import tools.Operator;
 import tools.ClauseAdder;
+import propagators.PropCircuitTime;
+import propagators.PropProductionTime;
 
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.extension.Tuples;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
@@ -32,10 +35,11 @@ public class TimeSubmodel  extends Submodel{
     
 	private boolean  withRefinedDomains;            		//true if the model used refined domains, False otherwise
 	private boolean allowedIfConstraint ;          			//true if the function if is allowed in intention constraints, False otherwise
-	private Set<Integer> totalLoad;
+	private int[] totalLoad;								//all the possible values for the sum of the load entering port p and the load leaving port p for a given rotation
 	private  ArrayList<Set<Integer>> tValues;
 	private List<Integer> trav;						  	     //list of total operation time for canals	
-	private ArrayList<Tuples> tableProductionTime ;   	     //list of all the possible production times  
+	private int[][] productivities;							//the productivity of port p for each vessel type
+	private int[] capacities;								//the real capacity of each vessel type
 	private int ratioMu;							 	     //the ratio which allows us to convert the number of TEU to the number of containers we have to handle,	
 	private int hmax;							   		     //the maximal number of hours that a rotation may last.	
 	private ArrayList<Integer> speeds;           			//list to store speeds of vessels
@@ -59,70 +63,29 @@ public class TimeSubmodel  extends Submodel{
 			this.speedStep=model.getSpeedStep();
 				  
 		    //we compute all the possible production times
-			 this.totalLoad = AuxiliaryFunctions.getTotalLoad(model.getInstance());  
+			 this.totalLoad = model.getDerivedData().getTotalLoad();  
 			      
 		        
-		        List<String> ports = new ArrayList<String>(getModel().getInstance().getPorts());
-		        List<String> vesselsTypes = new ArrayList<String>(getModel().getInstance().getVesselTypes());
-			 if (withRefinedDomains) {  
-			        tableProductionTime = new ArrayList<>();
-			        tValues = new ArrayList<>();
-			        for (int p = 0; p < nbPorts; p++) {
-			            tValues.add(new HashSet<>());
-			            Tuples tuples = new Tuples(true);
-			            tuples.setUniversalValue(-10);
-			            tuples.add(0,tuples.getStarValue(),0);
-			            for (int vt = 0; vt < nbVessels; vt++) {
-			                int prod = getModel().getInstance().getPort(ports.get(p)).getProductivity(vesselsTypes.get(vt));
-			                int cap = getModel().getInstance().getVesselType(vesselsTypes.get(vt)).getRealCapacity();
-	
-			                for (int teu : totalLoad) {
-			                    if (teu <= 2 * cap) {
-			                        int val =(int) ((ratioMu * teu)/(prod*100));
-			                        tValues.get(p).add(val);
-			                        tuples.add(new int[]{teu, vt + 1, val});
-			                    }
-			                }
-			            }
-	
-	
-			            tableProductionTime.add(tuples);
-			        }
-			 }else {
-			        tableProductionTime = new ArrayList<>();
-			       
-			        for (int p = 0; p < nbPorts; p++) {
-			            Tuples tuples = new Tuples(true);
-			            tuples.setUniversalValue(-10);
-			            tuples.add(0,tuples.getStarValue(),0);
-			            for (int vt = 0; vt < nbVessels; vt++) {
-			                int prod = getModel().getInstance().getPort(ports.get(p)).getProductivity(vesselsTypes.get(vt));
-			                int cap = getModel().getInstance().getVesselType(vesselsTypes.get(vt)).getRealCapacity();
-	
-			                for (int teu : totalLoad) {
-			                    if (teu <= 2 * cap) {
-			                        double val =(double)(ratioMu * teu)/(prod*100);
-  		                        tuples.add(new int[]{teu, vt + 1, (int)val});
-			                    }
-			                }
-			            }
-	
-	
-			            tableProductionTime.add(tuples);
-			        }
-			      }
+		    //the productivity of each port and the capacity for each vessel type
+		     List<String> vesselsTypes = new ArrayList<String>(getModel().getInstance().getVesselTypes());
+		     productivities = new int[nbPorts][nbVessels];
+		     capacities = new int[nbVessels];
+		     for (int vt = 0; vt < nbVessels; vt++) {
+		    	 capacities[vt] = getModel().getInstance().getVesselType(vesselsTypes.get(vt)).getRealCapacity();
+		    	 for (int p = 0; p < nbPorts; p++) {
+		    		 productivities[p][vt] = index.getProductivity(p, vt);
+		    	 }
+		     }
+		     if (withRefinedDomains) {
+		    	 tValues = model.getDerivedData().getTable("productionTime/" + ratioMu, this::computeProductionTimes);
+		     }
+		    
 		      //total operation time for canals
 		      trav= new ArrayList<Integer>();
 		      trav.add(0);
 		      
-		      for(String name:getModel().getInstance().getCanals()) {
-		     	 trav.add(getModel().getInstance().getCanal(name).getDuration());
-		     	 
-		      }
-		      
-		      for(String name:getModel().getInstance().getCanals()) {
-		     	 trav.add(getModel().getInstance().getCanal(name).getDuration());
-		     	 
+		      for(int i = nbPorts; i < nbInfra; i++) {
+		     	 trav.add(index.getDuration(i));
 		      }
 		        
 		        
@@ -149,10 +112,32 @@ public class TimeSubmodel  extends Submodel{
 				}
 				
 			//the sailing time between ports/canals p  and s_rp for rotation r, 0 if port/canal p does not belong to rotation r
-	        tableSailingTime = AuxiliaryFunctions.computeAllSailingTimes(getModel().getInstance(), infra, successors, speedMin, speedMax, speedStep, hmax);
+	        tableSailingTime = model.getDerivedData().getTable("sailingTime/" + speedMin + "/" + speedMax + "/" + speedStep + "/" + hmax,
+	        		() -> AuxiliaryFunctions.computeAllSailingTimes(getModel().getInstance(), infra, successors, speedMin, speedMax, speedStep, hmax));
 
 	 }
 
+	/**
+	 * @return returns the possible production times of each port
+	 */
+	private ArrayList<Set<Integer>> computeProductionTimes() {
+		ArrayList<Set<Integer>> values = new ArrayList<>();
+		for (int p = 0; p < nbPorts; p++) {
+			values.add(new HashSet<>());
+			values.get(p).add(0);
+			for (int vt = 0; vt < nbVessels; vt++) {
+				for (int teu : totalLoad) {
+					if (teu <= 2 * capacities[vt]) {
+						values.get(p).add((int) ((ratioMu * teu)/(productivities[p][vt]*100)));
+					}
+				}
+			}
+		}
+		return values;
+	}
+	
+	
+	
 	@Override
 	public void defineVariables() {
 		
@@ -164,7 +149,7 @@ public class TimeSubmodel  extends Submodel{
 	                    if (i < nbPorts) {
 	                        tPr[i][j] = getModel().getChocoModel().intVar("t_pr[" + i + "][" + j+"]", tValues.get(i).stream().mapToInt(Integer::intValue).toArray());
 	                    } else {
-	                        tPr[i][j] = getModel().getChocoModel().intVar("t_pr[" + i + "][" + j+"]", 0, getModel().getInstance().getCanal(infra.get(i)).getDuration());
+	                        tPr[i][j] = getModel().getChocoModel().intVar("t_pr[" + i + "][" + j+"]", 0, index.getDuration(i));
 	                    }
 	                }
 	            }
@@ -175,31 +160,31 @@ public class TimeSubmodel  extends Submodel{
 	    	          if (i < nbPorts) {
 	    	              tPr[i][j] =  getModel().getChocoModel().intVar("t_pr[" + i + "][" + j+"]", 0, hmax);
 	    	          } else {
-	    	              tPr[i][j] =  getModel().getChocoModel().intVar("t_pr[" + i + "][" + j+"]", 0, getModel().getInstance().getCanal(infra.get(i)).getDuration());
+	    	              tPr[i][j] =  getModel().getChocoModel().intVar("t_pr[" + i + "][" + j+"]", 0, index.getDuration(i));
 	    	          }
 	    	      }
 	    	  }
 
 	    	  
 	      }
-	      addVariables("t_pr", tPr);	
+	      addVariables(VarKey.T_PR, tPr);	
 	     
           //the port from which rotation r starts (this choice is arbitrary), -1 if the rotation is not used
 	      depR = getModel().getChocoModel().intVarArray("dep_r", nbRotations, -1, nbPorts-1);
-	      addVariables("dep_r", depR);
+	      addVariables(VarKey.DEP_R, depR);
 
 	      //the time the vessel of rotation k arrives at port p
 	      timeInPr = getModel().getChocoModel().intVarMatrix("timeIn_pr", nbInfra, nbRotations, 0, hmax);
-	      addVariables("timeIn_pr", timeInPr);
+	      addVariables(VarKey.TIME_IN_PR, timeInPr);
 
 	      //the time the vessel of rotation k leaves port p
 	      timeOutPr = getModel().getChocoModel().intVarMatrix("timeOut_pr", nbInfra, nbRotations, 0, hmax);
-	      addVariables("timeOut_pr", timeOutPr);
+	      addVariables(VarKey.TIME_OUT_PR, timeOutPr);
 
 	      
 	      //the average speed for rotation r when going from port/canal p to port/canal s_rp
 		  speedRp=getModel().getChocoModel().intVarMatrix("speed_rp",nbRotations,nbInfra,speeds.stream().mapToInt(Integer::intValue).toArray());
-	      addVariables("speed_rp", speedRp);
+	      addVariables(VarKey.SPEED_RP, speedRp);
 	      
 	      
 		  //the sailing time between ports/canals p  and s_rp for rotation r, 0 if port/canal p does not belong to rotation r
@@ -229,11 +214,11 @@ public class TimeSubmodel  extends Submodel{
 	                }
 	            }
 	        }
-		     addVariables("st_rp", stRp);
+		     addVariables(VarKey.ST_RP, stRp);
 		     
            // the total time for achieving one round trip of service r
              TR = getModel().getChocoModel().intVarArray("T_r", nbRotations, 0,hmax);
-		     addVariables("T_r", TR);
+		     addVariables(VarKey.T_R, TR);
 
 	}
 
@@ -247,7 +232,7 @@ public class TimeSubmodel  extends Submodel{
         	//compute the total operation time at port p (T.1)	
 	        for (int p = 0; p < nbPorts; p++) {
 	        	  for (int r = 0; r < nbRotations; r++) {
-	        	    getModel().getChocoModel().table(new IntVar[]{((IntVar[][])model.getVariable("teu_pr"))[p][r], ((IntVar[])model.getVariable("v_r"))[r], tPr[p][r]}, tableProductionTime.get(p)).post();
+	        	    new Constraint("PRODUCTION_TIME", new PropProductionTime(model.get(VarKey.TEU_PR)[p][r], model.get(VarKey.V_R)[r], tPr[p][r], null, p, model.getDerivedData().getTotalLoadBitset(), productivities[p], capacities, ratioMu)).post();
 	        	  
 	        	  }
 	        	}
@@ -257,10 +242,10 @@ public class TimeSubmodel  extends Submodel{
         		//compute the total operation time at port p (T.1)
         		for (int p = 0; p < nbPorts; p++) {
         		    for (int r = 0; r < nbRotations; r++) {
-        		        IntVar resultProd = getModel().getChocoModel().intVar(((IntVar[][])model.getVariable("teu_pr"))[p][r].getLB()*ratioMu,((IntVar[][])model.getVariable("teu_pr"))[p][r].getUB()*ratioMu);
-        		        getModel().getChocoModel().times(((IntVar[][])model.getVariable("teu_pr"))[p][r], getModel().getChocoModel().intVar(ratioMu), resultProd).post();;
-        		        IntVar resultDiv = getModel().getChocoModel().intVar(resultProd.getLB()/((IntVar[][])model.getVariable("prod_pr"))[p][r].getLB(),resultProd.getUB()/((IntVar[][])model.getVariable("prod_pr"))[p][r].getUB());
-        		        getModel().getChocoModel().div(resultProd, ((IntVar[][])model.getVariable("prod_pr"))[p][r], resultDiv).post();
+        		        IntVar resultProd = getModel().getChocoModel().intVar(model.get(VarKey.TEU_PR)[p][r].getLB()*ratioMu,model.get(VarKey.TEU_PR)[p][r].getUB()*ratioMu);
+        		        getModel().getChocoModel().times(model.get(VarKey.TEU_PR)[p][r], getModel().getChocoModel().intVar(ratioMu), resultProd).post();;
+        		        IntVar resultDiv = getModel().getChocoModel().intVar(resultProd.getLB()/model.get(VarKey.PROD_PR)[p][r].getLB(),resultProd.getUB()/model.get(VarKey.PROD_PR)[p][r].getUB());
+        		        getModel().getChocoModel().div(resultProd, model.get(VarKey.PROD_PR)[p][r], resultDiv).post();
         		        getModel().getChocoModel().arithm(tPr[p][r], "=", resultDiv).post();
 
         		    }
@@ -271,11 +256,7 @@ public class TimeSubmodel  extends Submodel{
         		    for (int r = 0; r < nbRotations; r++) {
                 		for (int p = 0; p < nbPorts; p++) {
 
-        		    getModel().getChocoModel().ifThen(
-        		          		getModel().getChocoModel().arithm(((IntVar[][])model.getVariable("s_rp"))[r][p], "!=", p),
-        		            
-        		          		getModel().getChocoModel().table(new IntVar[]{((IntVar[][])model.getVariable("teu_pr"))[p][r], ((IntVar[])model.getVariable("v_r"))[r], tPr[p][r]}, tableProductionTime.get(p))
-        		    			);
+        		    new Constraint("PRODUCTION_TIME", new PropProductionTime(model.get(VarKey.TEU_PR)[p][r], model.get(VarKey.V_R)[r], tPr[p][r], model.get(VarKey.S_RP)[r][p], p, model.getDerivedData().getTotalLoadBitset(), productivities[p], capacities, ratioMu)).post();
         		    }    
         		    
         		
@@ -289,7 +270,7 @@ public class TimeSubmodel  extends Submodel{
 
        for (int r = 0; r < nbRotations; r++) {
             for (int p = 0; p < nbPorts; p++) {
-                clauseAdder.addEquivalence (((IntVar[][])model.getVariable("s_rp"))[r][p], Operator.EQ, p, tPr[p][r], Operator.EQ, 0);
+                clauseAdder.addEquivalence (model.get(VarKey.S_RP)[r][p], Operator.EQ, p, tPr[p][r], Operator.EQ, 0);
             }
         }
         
@@ -300,7 +281,7 @@ public class TimeSubmodel  extends Submodel{
        for (int r = 0; r < nbRotations; r++) {
       	    for (int p = nbPorts; p <nbInfra; p++) {
       	       getModel().getChocoModel().times(getModel().getChocoModel().intVar(trav.get(p - nbPorts+1)), 
-  							    	        		 getModel().getChocoModel().arithm(((IntVar[][])model.getVariable("s_rp"))[r][p], "!=", p).reify(), 
+  							    	        		 getModel().getChocoModel().arithm(model.get(VarKey.S_RP)[r][p], "!=", p).reify(), 
   							    	        		 tPr[p][r]).post();
       	        
       	    }
@@ -310,7 +291,7 @@ public class TimeSubmodel  extends Submodel{
         //if rotation r is not used, there is no starting port and conversely (T.4)
 
         for (int r = 0; r < nbRotations; r++) {
-        	clauseAdder.addEquivalence (((IntVar[])model.getVariable("v_r"))[r], Operator.EQ, 0, depR[r], Operator.EQ, -1);
+        	clauseAdder.addEquivalence (model.get(VarKey.V_R)[r], Operator.EQ, 0, depR[r], Operator.EQ, -1);
         }
 
           
@@ -319,11 +300,11 @@ public class TimeSubmodel  extends Submodel{
         	//computes the port having the largest index (T.5)
   	    	IntVar[] products = new IntVar[nbPorts];
       	    for (int p = 0; p <nbPorts; p++) {  
-      	        BoolVar b=getModel().getChocoModel().arithm(((IntVar[][])model.getVariable("s_rp"))[r][p],"!=",p).reify();
+      	        BoolVar b=getModel().getChocoModel().arithm(model.get(VarKey.S_RP)[r][p],"!=",p).reify();
       	        products[p] = getModel().getChocoModel().intVar( p*b.getLB(), p*b.getUB());
         	    getModel().getChocoModel().arithm(products[p], "=", b,"*",p).post();
       	    }
-            clauseAdder.addImplication(((IntVar[])model.getVariable("v_r"))[r], Operator.GT, 0, getModel().getChocoModel().max(depR[r], products).reify(), Operator.EQ, 1);
+            clauseAdder.addImplication(model.get(VarKey.V_R)[r], Operator.GT, 0, getModel().getChocoModel().max(depR[r], products).reify(), Operator.EQ, 1);
         }
         
         //the starting port is the reference for time of rotation r (T.6)
@@ -341,28 +322,22 @@ public class TimeSubmodel  extends Submodel{
             }
         }
  
-        //the sailing time and speed must be consistent with respect to the corresponding leg (T.8)
-
+        //the sailing time and speed must be consistent with respect to the corresponding leg, and are zero if port/canal p does not belong
+        //to rotation r (T.8, T.13 and T.15)
         for (int r = 0; r < nbRotations; r++) {
             for (int p = 0; p <nbInfra; p++) {
-    		    for (int sp : successors.get(p)) {
-    		    	getModel().getChocoModel().ifThen(
-          		getModel().getChocoModel().arithm(((IntVar[][])model.getVariable("s_rp"))[r][p], "=", sp),
-            	getModel().getChocoModel().table(new IntVar[] { ((IntVar[][])model.getVariable("s_rp"))[r][p], speedRp[r][p], stRp[r][p]}, (Tuples) tableSailingTime.get(p))
-
-            	 );
+            	getModel().getChocoModel().table(new IntVar[] { model.get(VarKey.S_RP)[r][p], speedRp[r][p], stRp[r][p]}, tableSailingTime.get(p)).post();
             }
-            }
-	}
+        }
         
         //the speed cannot be under the minimal speed of the vessels used in rotation r (T.9)
         for (int r = 0; r < nbRotations; r++) {
         	  for (int p = 0; p < nbInfra; p++) {
         		  getModel().getChocoModel().ifThen(
-        						  getModel().getChocoModel().arithm(((IntVar[][])model.getVariable("s_rp"))[r][p], "!=", p),
+        						  getModel().getChocoModel().arithm(model.get(VarKey.S_RP)[r][p], "!=", p),
         						  
         				  
-        				  getModel().getChocoModel().arithm(speedRp[r][p], ">=", ((IntVar[])model.getVariable("speed_r_min"))[r])
+        				  getModel().getChocoModel().arithm(speedRp[r][p], ">=", model.get(VarKey.SPEED_R_MIN)[r])
         	    );
         	  }
         	}
@@ -370,28 +345,31 @@ public class TimeSubmodel  extends Submodel{
        //the speed cannot exceed the maximal speed of the vessels used in rotation r (T.10)
         for (int r = 0; r < nbRotations; r++) {
         	  for (int p = 0; p < nbInfra; p++) {
-						  getModel().getChocoModel().arithm(speedRp[r][p], "<=",((IntVar[])model.getVariable("speed_r_max"))[r]).post();
+						  getModel().getChocoModel().arithm(speedRp[r][p], "<=",model.get(VarKey.SPEED_R_MAX)[r]).post();
 		  
         				  
         	  }
         	}
         
-       //the time of arrival at port/canal s_rp from port/canal p in rotation r (T.11)
+       //the time of arrival at port/canal s_rp from port/canal p in rotation r (T.11), and the total time of rotation r when s_rp is its
+       //starting port (W.3)
         for (int r = 0; r < nbRotations; r++) {
-        	  for (int p = 0; p < nbInfra; p++) {
-        		    for (int sp : successors.get(p)) {
-        		    	getModel().getChocoModel().ifThen(
-              				  getModel().getChocoModel().and(
-              						  getModel().getChocoModel().arithm(((IntVar[][])model.getVariable("s_rp"))[r][p], "=", sp),
-              						  getModel().getChocoModel().arithm(depR[r], "!=", sp)
-
-              						  ),             				  
-              				  getModel().getChocoModel().sum(new IntVar[]{timeOutPr[p][r], ((IntVar[][])model.getVariable("manOut_pr"))[p][r], stRp[r][p], ((IntVar[][])model.getVariable("wt_pr"))[sp][r], ((IntVar[][])model.getVariable("manIn_pr"))[sp][r]}, "=", timeInPr[sp][r])
-              	    );
-        		    	
-        		    }
-        		    }
- }
+        	IntVar[] manOutPr = new IntVar[nbInfra];
+        	IntVar[] wtPr = new IntVar[nbInfra];
+        	IntVar[] manInPr = new IntVar[nbInfra];
+        	IntVar[] timeInP = new IntVar[nbInfra];
+        	IntVar[] timeOutP = new IntVar[nbInfra];
+        	IntVar[] tP = new IntVar[nbInfra];
+        	for (int p = 0; p < nbInfra; p++) {
+        		manOutPr[p] = model.get(VarKey.MAN_OUT_PR)[p][r];
+        		wtPr[p] = model.get(VarKey.WT_PR)[p][r];
+        		manInPr[p] = model.get(VarKey.MAN_IN_PR)[p][r];
+        		timeInP[p] = timeInPr[p][r];
+        		timeOutP[p] = timeOutPr[p][r];
+        		tP[p] = tPr[p][r];
+        	}
+        	new Constraint("CIRCUIT_TIME", new PropCircuitTime(model.get(VarKey.S_RP)[r], depR[r], timeInP, timeOutP, tP, manOutPr, stRp[r], wtPr, manInPr, TR[r], nbPorts)).post();
+        }
         
         
         //the time when k enters in the rotation at port p precedes the time when k leaves it at port s_rp (T.12)
@@ -403,8 +381,8 @@ public class TimeSubmodel  extends Submodel{
 
 			      			getModel().getChocoModel().ifThen(
 			        				  getModel().getChocoModel().and(
-			        						  getModel().getChocoModel().arithm(((IntVar[][][])model.getVariable("from_kpr"))[k][p][r], "=", 1),
-			        						  getModel().getChocoModel().arithm(((IntVar[][][])model.getVariable("to_kpr"))[k][sp][r], "=",1 )
+			        						  getModel().getChocoModel().arithm(model.get(VarKey.FROM_KPR)[k][p][r], "=", 1),
+			        						  getModel().getChocoModel().arithm(model.get(VarKey.TO_KPR)[k][sp][r], "=",1 )
 			
 			        						  ),             				  
 			        	    
@@ -427,30 +405,15 @@ public class TimeSubmodel  extends Submodel{
         }
         
         
-        // if port/canal p does not belong to rotation r, the sailing time is zero (T.13)
-        for (int r = 0; r < nbRotations; r++) {
-        	  for (int p = 0; p < nbInfra; p++) {
-              clauseAdder.addEquivalence(((IntVar[][])model.getVariable("s_rp"))[r][p], Operator.EQ, p, stRp[r][p], Operator.EQ, 0);
-        	  }
-        }
-
         //if port/canal p does not belong to rotation r, the entering time is zero (T.14)
         for (int r = 0; r < nbRotations; r++) {
       	  for (int p = 0; p < nbInfra; p++) {
-            clauseAdder.addImplication(((IntVar[][])model.getVariable("s_rp"))[r][p], Operator.EQ, p, timeInPr[p][r], Operator.EQ, 0);
+            clauseAdder.addImplication(model.get(VarKey.S_RP)[r][p], Operator.EQ, p, timeInPr[p][r], Operator.EQ, 0);
       	  }
       }
        
         
-        //if port/canal p does not belong to rotation r, the speed from p is zero (T.15)
-        for (int r = 0; r < nbRotations; r++) {
-      	  for (int p = 0; p < nbInfra; p++) {
-      		  clauseAdder.addEquivalence (((IntVar[][])model.getVariable("s_rp"))[r][p], Operator.EQ, p, speedRp[r][p], Operator.EQ, 0);
-      	  }
-      }
 
-
-        
 	}
 
 
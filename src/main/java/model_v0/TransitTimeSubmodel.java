@@ -5,7 +5,10 @@ import java.util.List;
 
 import tools.Operator;
 import tools.ClauseAdder;
+import propagators.PropModulo;
+import propagators.PropWeekDelta;
 
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.tools.ArrayUtils;
 
@@ -32,8 +35,6 @@ public class TransitTimeSubmodel extends Submodel {
     private List<Integer> commoditiesWithTt;        //list of commodities With Transit time
 
 	private int hmax; 							    //the maximal number of hours that a rotation may last.	
-	private Tuples tableMod;						//stores indices
-	private Tuples tableDelta;						//stores indices
 	private IntVar[][] lessThanKi;					//auxiliary variables specifying if the number of rotations used for commodity k is less than i
 
 	
@@ -54,37 +55,19 @@ public class TransitTimeSubmodel extends Submodel {
 		}
 
 		
-		//stores indices
-	    tableIndexIn = new Tuples(true);
-	    tableIndexIn.setUniversalValue(-10);
-		tableIndexIn.add(tableIndexIn.getStarValue(), -1, nbPorts * nbRotations);
-		for (int p = 0; p < nbPorts; p++) {
-		    for (int r = 0; r < nbRotations; r++) {
-		        tableIndexIn.add(p, r, p * nbRotations + r);
-		    }
-		}
+		//stores indices (the tables are shared by all the models built from the instance)
+	    tableIndexIn = model.getDerivedData().getTable("indexIn/" + nbRotations, () -> {
+	    	Tuples table = new Tuples(true);
+	    	table.setUniversalValue(-10);
+	    	table.add(table.getStarValue(), -1, nbPorts * nbRotations);
+	    	for (int p = 0; p < nbPorts; p++) {
+	    		for (int r = 0; r < nbRotations; r++) {
+	    			table.add(p, r, p * nbRotations + r);
+	    		}
+	    	}
+	    	return table;
+	    });
 		
-		// stores the time and time modulo one week
-	    tableMod = new Tuples(true);
-	    for (int t = 0; t <hmax+1; t++) {
-	    	tableMod.add(t,t%168);
-	    	
-	    }
-
-	    tableDelta=new Tuples(true);
-	    tableDelta.setUniversalValue(-10);
-	    tableDelta.add(0,tableDelta.getStarValue(),tableDelta.getStarValue(),0);
-	    for(int t1 = 0; t1 < 168; t1++){
-	        for(int t2 = 0; t2 < 168; t2++){
-	        	if (t1<= t2){
-	        		tableDelta.add(1,t1,t2,t2-t1);
-	        	}else {
-	        		tableDelta.add(1,t1,t2,168+t2-t1);
-
-	        	}
-	        	
-	        }
-	    }
 
             
 
@@ -102,11 +85,11 @@ public class TransitTimeSubmodel extends Submodel {
 
 		    // the time when commodity k enters in the ith rotation
 			ctimeInIk= getModel().getChocoModel().intVarMatrix("ctimeIn_ik", tsmax+1, getModel().getInstance().getNumberCommodityWithTt() ,0, hmax);
-		    addVariables("ctimeIn_ik", ctimeInIk);
+		    addVariables(VarKey.CTIME_IN_IK, ctimeInIk);
 		    
 		    //the time when commodity k enters in the ith rotation modulo one week
 		    ctimeInModIk= getModel().getChocoModel().intVarMatrix("ctimeInMod_ik", tsmax+1, getModel().getInstance().getNumberCommodityWithTt() ,0,168);
-		    addVariables("ctimeInMod_ik", ctimeInModIk);		    
+		    addVariables(VarKey.CTIME_IN_MOD_IK, ctimeInModIk);		    
 		    
 
 
@@ -117,11 +100,11 @@ public class TransitTimeSubmodel extends Submodel {
 			
 		    // the time when commodity k leaves the ith rotation
 			ctimeOutIk =  getModel().getChocoModel().intVarMatrix("ctimeOut_ik", tsmax+1,  getModel().getInstance().getNumberCommodityWithTt(), 0, hmax);
-		    addVariables("ctimeOut_ik", ctimeOutIk);
+		    addVariables(VarKey.CTIME_OUT_IK, ctimeOutIk);
 		    
 		    //the time when commodity k leaves the ith rotation modulo one week
 		    ctimeOutModIk =  getModel().getChocoModel().intVarMatrix("ctimeOutMod_ik", tsmax+1,  getModel().getInstance().getNumberCommodityWithTt(), 0,168);
-		    addVariables("ctimeOutMod_ik", ctimeOutModIk);
+		    addVariables(VarKey.CTIME_OUT_MOD_IK, ctimeOutModIk);
 
 		}
 
@@ -130,10 +113,10 @@ public class TransitTimeSubmodel extends Submodel {
 
 		if (getModel().getInstance().getNumberCommodityWithTt() > 0) {
 			indexCtimeInKi = getModel().getChocoModel().intVarMatrix("index_ctimeIn_ki", getModel().getInstance().getNumberCommodityWithTt(), tsmax+1, 0, nbPorts*nbRotations);
-		    addVariables("index_ctimeIn_ki", indexCtimeInKi);
+		    addVariables(VarKey.INDEX_CTIME_IN_KI, indexCtimeInKi);
 
 			indexCtimeOutKi = getModel().getChocoModel().intVarMatrix("index_ctimeOut_ki", getModel().getInstance().getNumberCommodityWithTt(), tsmax+1, 0, nbPorts*nbRotations+nbRotations);
-		    addVariables("index_ctimeOut_ki", indexCtimeOutKi);
+		    addVariables(VarKey.INDEX_CTIME_OUT_KI, indexCtimeOutKi);
 
 		}
 		
@@ -142,11 +125,11 @@ public class TransitTimeSubmodel extends Submodel {
 		
 		for (int p = 0; p < nbPorts; p++) {
 		  for (int r = 0; r < nbRotations; r++) {
-			  timeOut[p * nbRotations + r]=((IntVar[][]) model.getVariable("timeOut_pr"))[p][r];
+			  timeOut[p * nbRotations + r]=model.get(VarKey.TIME_OUT_PR)[p][r];
 		  }
 		}
 		timeOut[nbPorts * nbRotations] = getModel().getChocoModel().intVar( 0);
-	    addVariables("time_Out", timeOut);
+	    addVariables(VarKey.TIME_OUT, timeOut);
 
 		
 	   //the time the vessel of rotation r arrives at port p (p ∈ P ∪ C)
@@ -154,29 +137,29 @@ public class TransitTimeSubmodel extends Submodel {
 			
 		for (int p = 0; p < nbPorts; p++) {
 		  for (int r = 0; r < nbRotations; r++) {
-			  timeIn[p * nbRotations + r]=((IntVar[][]) model.getVariable("timeIn_pr"))[p][r];
+			  timeIn[p * nbRotations + r]=model.get(VarKey.TIME_IN_PR)[p][r];
 		  }
 		}
 		  for (int r = nbPorts * nbRotations; r < nbPorts * nbRotations + nbRotations; r++) {
 
-				  timeIn[r]=((IntVar[]) model.getVariable("T_r"))[r-nbPorts * nbRotations];
+				  timeIn[r]=model.get(VarKey.T_R)[r-nbPorts * nbRotations];
 		  
 		  }
 		timeIn[nbPorts*nbRotations+ nbRotations]=getModel().getChocoModel().intVar(0);
 
 
-	    addVariables("time_In", timeIn);
+	    addVariables(VarKey.TIME_IN, timeIn);
 		if (getModel().getInstance().getNumberCommodityWithTt() > 0) {
 		    //the time spent by commodity k on its ith rotation
 			 deltaIk = getModel().getChocoModel().intVarMatrix("delta_ik", tsmax+1, getModel().getInstance().getNumberCommodityWithTt() , 0, hmax);
 		}	    
-		addVariables("delta_ik", deltaIk);
+		addVariables(VarKey.DELTA_IK, deltaIk);
 
 		if (getModel().getInstance().getNumberCommodityWithTt()  > 0) {
 		    //the time that commodity k must wait between the ith rotation and the next one
 		  DeltaIk = getModel().getChocoModel().intVarMatrix("Delta_ik", tsmax, getModel().getInstance().getNumberCommodityWithTt(), 0, 7*24);
 		}
-		addVariables("Delta_ik", DeltaIk);
+		addVariables(VarKey.BIG_DELTA_IK, DeltaIk);
 
 
 		lessThanKi = getModel().getChocoModel().intVarMatrix("less_than_ki", nbCommodities, tsmax+1,0,1);
@@ -189,7 +172,7 @@ public class TransitTimeSubmodel extends Submodel {
 		//the time of entry into the rotation is linked to the time when the vessel leaves the port (TT.1)
 			for (int k : commoditiesWithTt) {
 			    for (int i = 0; i <= tsmax; i++) {
-			    	getModel().getChocoModel().table(new IntVar[]{((IntVar[][]) model.getVariable("port_ki"))[k][i], ((IntVar[][]) model.getVariable("rot_ki"))[k][i], indexCtimeInKi[k][i]}, tableIndexIn,"CT+").post();
+			    	getModel().getChocoModel().table(new IntVar[]{model.get(VarKey.PORT_KI)[k][i], model.get(VarKey.ROT_KI)[k][i], indexCtimeInKi[k][i]}, tableIndexIn,"CT+").post();
 			    }
 			}						
 				
@@ -207,17 +190,17 @@ public class TransitTimeSubmodel extends Submodel {
 		for(int r=0;r<nbRotations;r++) {
 			for (int k : commoditiesWithTt) {
 				for (int i = 0; i <= tsmax; i++) {
-    		        IntVar prodPortRotation = getModel().getChocoModel().intVar(((IntVar[][]) model.getVariable("port_ki"))[k][i].getLB()*nbRotations,((IntVar[][]) model.getVariable("port_ki"))[k][i].getUB()*nbRotations);
+    		        IntVar prodPortRotation = getModel().getChocoModel().intVar(model.get(VarKey.PORT_KI)[k][i+1].getLB()*nbRotations,model.get(VarKey.PORT_KI)[k][i+1].getUB()*nbRotations);
 					getModel().getChocoModel().ifThen(
 							getModel().getChocoModel().and(									
-									getModel().getChocoModel().arithm(((IntVar[][]) model.getVariable("port_ki"))[k][i+1],"!=",((IntVar[]) model.getVariable("dep_r"))[r]),
+									getModel().getChocoModel().arithm(model.get(VarKey.PORT_KI)[k][i+1],"!=",model.get(VarKey.DEP_R)[r]),
 									
-									getModel().getChocoModel().arithm(((IntVar[][]) model.getVariable("rot_ki"))[k][i],"=",r)
+									getModel().getChocoModel().arithm(model.get(VarKey.ROT_KI)[k][i],"=",r)
 
 								),
 							getModel().getChocoModel().and(
-									getModel().getChocoModel().arithm(prodPortRotation,"=",((IntVar[][]) model.getVariable("port_ki"))[k][i+1],"*",nbRotations),
-									getModel().getChocoModel().arithm(prodPortRotation,"+",((IntVar[][]) model.getVariable("rot_ki"))[k][i],"=",indexCtimeOutKi[k][i])
+									getModel().getChocoModel().arithm(prodPortRotation,"=",model.get(VarKey.PORT_KI)[k][i+1],"*",nbRotations),
+									getModel().getChocoModel().arithm(prodPortRotation,"+",model.get(VarKey.ROT_KI)[k][i],"=",indexCtimeOutKi[k][i])
 									)
 
 
@@ -228,7 +211,7 @@ public class TransitTimeSubmodel extends Submodel {
 		for (int k : commoditiesWithTt) {
 				for (int i = 0; i <= tsmax; i++) {
 					getModel().getChocoModel().ifThen(
-							getModel().getChocoModel().arithm(((IntVar[][]) model.getVariable("rot_ki"))[k][i],"=",-1),
+							getModel().getChocoModel().arithm(model.get(VarKey.ROT_KI)[k][i],"=",-1),
 							getModel().getChocoModel().arithm(indexCtimeOutKi[k][i],"=",nbPorts*nbRotations+nbRotations)
 							
 							
@@ -241,9 +224,9 @@ public class TransitTimeSubmodel extends Submodel {
     		      getModel().getChocoModel().ifThen(
 							getModel().getChocoModel().and(
 									
-									getModel().getChocoModel().arithm(((IntVar[][]) model.getVariable("port_ki"))[k][i+1],"=",((IntVar[]) model.getVariable("dep_r"))[r]),
+									getModel().getChocoModel().arithm(model.get(VarKey.PORT_KI)[k][i+1],"=",model.get(VarKey.DEP_R)[r]),
 									
-									getModel().getChocoModel().arithm(((IntVar[][]) model.getVariable("rot_ki"))[k][i],"=",r)
+									getModel().getChocoModel().arithm(model.get(VarKey.ROT_KI)[k][i],"=",r)
 
 								),
 
@@ -264,8 +247,8 @@ public class TransitTimeSubmodel extends Submodel {
 	   //the time when commodity k enters in /leave the ith rotation  and time modulo one week 
 		for (int k : commoditiesWithTt) {
 		    for (int i = 0; i <= tsmax; i++) {
-		    	getModel().getChocoModel().table(new IntVar[]{ctimeInIk[i][k],ctimeInModIk[i][k]}, tableMod,"CT+").post();
-		    	getModel().getChocoModel().table(new IntVar[]{ctimeOutIk[i][k],ctimeOutModIk[i][k]}, tableMod,"CT+").post();
+		    	new Constraint("WEEK_TIME", new PropModulo(ctimeInIk[i][k], ctimeInModIk[i][k], 168)).post();
+		    	new Constraint("WEEK_TIME", new PropModulo(ctimeOutIk[i][k], ctimeOutModIk[i][k], 168)).post();
 
 		    }
 		}	
@@ -296,12 +279,12 @@ public class TransitTimeSubmodel extends Submodel {
 			    	getModel().getChocoModel().ifThen(	
 			    			getModel().getChocoModel().and(
 			    					getModel().getChocoModel().arithm(ctimeInIk[i][k], ">", ctimeOutIk[i][k]),
-			    					getModel().getChocoModel().arithm(((IntVar[][]) model.getVariable("rot_ki"))[k][i], "=",r)
+			    					getModel().getChocoModel().arithm(model.get(VarKey.ROT_KI)[k][i], "=",r)
 			    					),
 			    			getModel().getChocoModel().and(
 
 			    					getModel().getChocoModel().arithm(ctimeInIkSousCtimeOutIk, "=",ctimeOutIk[i][k],"-", ctimeInIk[i][k]),
-			    					getModel().getChocoModel().arithm(sum, "=",ctimeInIkSousCtimeOutIk,"+",((IntVar[]) model.getVariable("T_r"))[r]),
+			    					getModel().getChocoModel().arithm(sum, "=",ctimeInIkSousCtimeOutIk,"+",model.get(VarKey.T_R)[r]),
 			    					getModel().getChocoModel().arithm(deltaIk[i][k], "=",sum))
 
 			    			);	
@@ -315,7 +298,7 @@ public class TransitTimeSubmodel extends Submodel {
 	//we compute the time elapsed between the end of the ith rotation and the beginning  of the i + 1th. (TT.4)
 		for (int k : commoditiesWithTt) {
 		    for (int i = 0; i < tsmax; i++) {
-		    	getModel().getChocoModel().table(new IntVar[]{lessThanKi[k][i+1], ctimeOutModIk[i][k], ctimeInModIk[i+1][k],DeltaIk[i][k]}, tableDelta,"CT+").post();
+		    	new Constraint("WEEK_DELTA", new PropWeekDelta(lessThanKi[k][i+1], ctimeOutModIk[i][k], ctimeInModIk[i+1][k], DeltaIk[i][k], 168)).post();
 
 		    }
 		}
@@ -323,7 +306,7 @@ public class TransitTimeSubmodel extends Submodel {
 	// ensures that if the value of  nbr_k[k] is less than or equal to i+1, then  DeltaIk[i][k] must be equal to zero, (TT.5)
 		for (int k : commoditiesWithTt) {
 		    for (int i = 0; i < tsmax; i++) {
-          clauseAdder.addImplication (((IntVar[]) model.getVariable("nbr_k"))[k], Operator.LE, i+1, DeltaIk[i][k], Operator.EQ, 0);
+          clauseAdder.addImplication (model.get(VarKey.NBR_K)[k], Operator.LE, i+1, DeltaIk[i][k], Operator.EQ, 0);
 		    }
 		}
 		
@@ -331,7 +314,7 @@ public class TransitTimeSubmodel extends Submodel {
 
 	    for (int k = 0; k < nbCommodities; k++) {
 		    for (int i = 0; i <= tsmax; i++) {
-		    	clauseAdder.addEquivalence(lessThanKi[k][i], Operator.EQ, 1,((IntVar[]) model.getVariable("nbr_k"))[k], Operator.GT, i);
+		    	clauseAdder.addEquivalence(lessThanKi[k][i], Operator.EQ, 1,model.get(VarKey.NBR_K)[k], Operator.GT, i);
 		    
 		    }
 		}
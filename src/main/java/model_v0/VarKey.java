@@ -0,0 +1,149 @@
+package model_v0;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+
+public final class VarKey<T> {
+
+	/** This class allows to represent the typed key of a group of variables of the model. Each key has a fixed index,
+	 *  so that the variables can be stored in an array by the model and retrieved in constant time without any cast. */
+
+
+	private static final List<VarKey<?>> keys = new ArrayList<>();		//all the keys, ordered by index
+
+	//Rotation submodel
+	public static final VarKey<IntVar[]> V_R = new VarKey<>("v_r", IntVar[].class);	//the type of vessels used for rotation r
+	public static final VarKey<IntVar[][]> S_RP = new VarKey<>("s_rp", IntVar[][].class);	//the successor of port/canal p in the rotation r
+	public static final VarKey<IntVar[]> SUB_CIRCUIT_LENGTH = new VarKey<>("subCircuitLength", IntVar[].class);	//the length of the circuit related to rotation r
+
+	//Cargo flow submodel
+	public static final VarKey<IntVar[]> ALPHA_K = new VarKey<>("alpha_k", IntVar[].class);	//is set to 1 if commodity k is accepted in the network, 0 otherwise
+	public static final VarKey<IntVar[][]> ROT_KI = new VarKey<>("rot_ki", IntVar[][].class);	//the index of the ith rotation used to carry commodity k
+	public static final VarKey<IntVar[][]> PORT_KI = new VarKey<>("port_ki", IntVar[][].class);	//the ith port in which commodity k is loaded, unloaded or transshipped
+	public static final VarKey<IntVar[]> NBR_K = new VarKey<>("nbr_k", IntVar[].class);	//the number of rotations in which commodity k is loaded, unloaded or transshipped
+	public static final VarKey<BoolVar[][][]> FROM_KPR = new VarKey<>("from_kpr", BoolVar[][][].class);	//true if the commodity k is loaded at port p in rotation r
+	public static final VarKey<BoolVar[][][]> TO_KPR = new VarKey<>("to_kpr", BoolVar[][][].class);	//true if the commodity k is unloaded at port p from rotation r
+	public static final VarKey<IntVar[]> PODK = new VarKey<>("podk", IntVar[].class);	//the destination port if the commodity is allowed, -1 otherwise
+
+	//Feature submodel
+	public static final VarKey<IntVar[]> FP_R = new VarKey<>("fp_r", IntVar[].class);	//the price of the fuel used for rotation r
+	public static final VarKey<IntVar[]> K_R = new VarKey<>("k_r", IntVar[].class);	//the real capacity of vessels used for rotation r
+	public static final VarKey<IntVar[][]> PC_PR = new VarKey<>("pc_pr", IntVar[][].class);	//the fixed port call cost of port p for rotation r
+	public static final VarKey<IntVar[]> TC_R = new VarKey<>("tc_r", IntVar[].class);	//the time charter rate per day for rotation r
+	public static final VarKey<IntVar[][]> WT_PR = new VarKey<>("wt_pr", IntVar[][].class);	//the waiting time for port p and rotation r
+	public static final VarKey<IntVar[][]> MAN_IN_PR = new VarKey<>("manIn_pr", IntVar[][].class);	//the manoeuvring time for entering port p for rotation r
+	public static final VarKey<IntVar[][]> MAN_OUT_PR = new VarKey<>("manOut_pr", IntVar[][].class);	//the manoeuvring time for leaving port p for rotation r
+	public static final VarKey<IntVar[][]> PROD_PR = new VarKey<>("prod_pr", IntVar[][].class);	//the productivity of port p for rotation r
+	public static final VarKey<IntVar[]> SPEED_R_MIN = new VarKey<>("speed_r_min", IntVar[].class);	//the minimal speed for each rotation r
+	public static final VarKey<IntVar[]> SPEED_R_MAX = new VarKey<>("speed_r_max", IntVar[].class);	//the maximal speed for each rotation r
+
+	//Load submodel
+	public static final VarKey<BoolVar[][][]> LEAVE_KPR = new VarKey<>("leave_kpr", BoolVar[][][].class);	//true if the commodity k leaves the port/canal p using rotation r
+	public static final VarKey<IntVar[][]> TEU_PR = new VarKey<>("teu_pr", IntVar[][].class);	//the number of TEU that must be loaded or unloaded at port p for rotation r
+
+	//Time submodel
+	public static final VarKey<IntVar[][]> T_PR = new VarKey<>("t_pr", IntVar[][].class);	//the total of operation time for rotation r at port/canal p
+	public static final VarKey<IntVar[]> DEP_R = new VarKey<>("dep_r", IntVar[].class);	//the port from which rotation r starts
+	public static final VarKey<IntVar[][]> TIME_IN_PR = new VarKey<>("timeIn_pr", IntVar[][].class);	//the time the vessel of rotation r arrives at port p
+	public static final VarKey<IntVar[][]> TIME_OUT_PR = new VarKey<>("timeOut_pr", IntVar[][].class);	//the time the vessel of rotation r leaves port p
+	public static final VarKey<IntVar[][]> SPEED_RP = new VarKey<>("speed_rp", IntVar[][].class);	//the average speed for rotation r when going from port/canal p to port/canal s_rp
+	public static final VarKey<IntVar[][]> ST_RP = new VarKey<>("st_rp", IntVar[][].class);	//the sailing time between ports/canals p and s_rp for rotation r
+	public static final VarKey<IntVar[]> T_R = new VarKey<>("T_r", IntVar[].class);	//the total time for achieving one round trip of service r
+
+	//Transit time submodel
+	public static final VarKey<IntVar[][]> CTIME_IN_IK = new VarKey<>("ctimeIn_ik", IntVar[][].class);	//the time when commodity k enters in the ith rotation
+	public static final VarKey<IntVar[][]> CTIME_IN_MOD_IK = new VarKey<>("ctimeInMod_ik", IntVar[][].class);	//the time when commodity k enters in the ith rotation modulo one week
+	public static final VarKey<IntVar[][]> CTIME_OUT_IK = new VarKey<>("ctimeOut_ik", IntVar[][].class);	//the time when commodity k leaves the ith rotation
+	public static final VarKey<IntVar[][]> CTIME_OUT_MOD_IK = new VarKey<>("ctimeOutMod_ik", IntVar[][].class);	//the time when commodity k leaves the ith rotation modulo one week
+	public static final VarKey<IntVar[][]> INDEX_CTIME_IN_KI = new VarKey<>("index_ctimeIn_ki", IntVar[][].class);	//the indices of the ctimeIn elements to search for
+	public static final VarKey<IntVar[][]> INDEX_CTIME_OUT_KI = new VarKey<>("index_ctimeOut_ki", IntVar[][].class);	//the indices of the ctimeOut elements to search for
+	public static final VarKey<IntVar[]> TIME_OUT = new VarKey<>("time_Out", IntVar[].class);	//the time the vessel of rotation r leaves port p, flattened
+	public static final VarKey<IntVar[]> TIME_IN = new VarKey<>("time_In", IntVar[].class);	//the time the vessel of rotation r arrives at port p, flattened, followed by T_r
+	public static final VarKey<IntVar[][]> DELTA_IK = new VarKey<>("delta_ik", IntVar[][].class);	//the time spent by commodity k on its ith rotation
+	public static final VarKey<IntVar[][]> BIG_DELTA_IK = new VarKey<>("Delta_ik", IntVar[][].class);	//the time that commodity k must wait between the ith rotation and the next one
+
+	//Vessel availability submodel
+	public static final VarKey<IntVar[]> N_R = new VarKey<>("n_r", IntVar[].class);	//the number of vessels deployed on rotation r
+	public static final VarKey<IntVar[]> NB_V = new VarKey<>("nb_v", IntVar[].class);	//the number of vessels of type v deployed on all the rotations
+
+	//Cost submodel
+	public static final VarKey<IntVar[][]> CONS_RP = new VarKey<>("cons_rp", IntVar[][].class);	//the fuel consumption for rotation r when going from port/canal p to port/canal s_rp
+	public static final VarKey<IntVar[][]> C_RP = new VarKey<>("c_rp", IntVar[][].class);	//the costs for sailing from port/canal p to s_rp and calling at port p for rotation r
+	public static final VarKey<IntVar[]> TEU_TS_P = new VarKey<>("teuTs_p", IntVar[].class);	//the number of TEU that must be transshipped at port p
+
+
+	private final String label;						//the label of the variables
+	private final Class<T> type;					//the type of the variables
+	private final int index;						//the index of the key
+
+
+
+	/**
+	 * Constructor for creating a VarKey object
+	 * @param label the label of the variables
+	 * @param type the type of the variables
+	 */
+	private VarKey(String label, Class<T> type) {
+		this.label = label;
+		this.type = type;
+		this.index = keys.size();
+		keys.add(this);
+	}
+
+
+
+	/**
+	 * @return returns the label of the variables
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+
+	/**
+	 * @return returns the type of the variables
+	 */
+	public Class<T> getType() {
+		return type;
+	}
+
+
+	/**
+	 * @return returns the index of the key
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+
+	/**
+	 * @return returns all the keys, ordered by index
+	 */
+	public static List<VarKey<?>> values() {
+		return Collections.unmodifiableList(keys);
+	}
+
+
+	/**
+	 * @param label the label of the variables
+	 * @return returns the key having the given label, null if there is none
+	 */
+	public static VarKey<?> of(String label) {
+		for (VarKey<?> key : keys) {
+			if (key.label.equals(label)) {
+				return key;
+			}
+		}
+		return null;
+	}
+
+
+	@Override
+	public String toString() {
+		return label;
+	}
+}
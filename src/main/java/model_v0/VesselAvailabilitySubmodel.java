@@ -2,7 +2,6 @@ package model_v0;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import tools.Operator;
 import tools.ClauseAdder;
 
@@ -15,6 +14,7 @@ public class VesselAvailabilitySubmodel extends Submodel{
 	  /** This class allows to represent a part of model related to vessel availability */
 	
 	private IntVar[] nR;							//the number of vessels deployed on rotation r.
+	private IntVar[] nbV;							//the number of vessels of type v deployed on all the rotations
 
 	private ArrayList<Integer> numberOfVessels;     //list to stores number of vessels 
 
@@ -22,7 +22,6 @@ public class VesselAvailabilitySubmodel extends Submodel{
 	private int  tNbv;								//the version of table NbVessel used	
 
     private Tuples tableNbVessel;
-	private List<List<Integer>> successors=AuxiliaryFunctions.successorLists(infra, nbCanals, nbPorts);	//lists of possible successors for each port/canal in infra
 
 
 	/**
@@ -43,45 +42,8 @@ public class VesselAvailabilitySubmodel extends Submodel{
       	  numberOfVessels.add(getModel().getInstance().getVesselType(name).getVesselNumber());
         }	
         
-        tableNbVessel = new Tuples(true);
-        tableNbVessel.add(0,0);
-        
-        for (int t = 1; t <= hmax; t++) {
-
-            if (t <= 168) {       //168 = 7 * 24, i.e. the duration of a week in hours
-            	tableNbVessel.add(t,1);
-            } else {
-            	if(tNbv==0) {
-		            	int modulo=t%168;
-		                if (modulo >0) {
-		                	tableNbVessel.add(t,t / 168 +1);
-	
-		                } else {
-		                	tableNbVessel.add(t,t / 168);
-		                }
-            	}else if (tNbv==1) {
-	            		int modulo=t%168;
-		                if (modulo >=168/2) {
-		                	tableNbVessel.add(t,t / 168 +1);
-	
-		                } else {
-		                	tableNbVessel.add(t,t / 168);
-		                }
-            		
-            	}else if (tNbv==2) {
-	            		double diff = (double)t / 168 - t / 168; 
-	                    if (diff <= 0.5) {
-	                    	tableNbVessel.add(t,t / 168);
-
-	                    } else {
-	                    	tableNbVessel.add(t,t / 168+1);
-            		
-	                    }
-            	}
-            }
-        }
+        tableNbVessel = model.getDerivedData().getTable("nbVessel/" + hmax + "/" + tNbv, () -> AuxiliaryFunctions.computeNbVesselTable(hmax, tNbv));
 
-	
 	}
 
 	@Override
@@ -90,7 +52,14 @@ public class VesselAvailabilitySubmodel extends Submodel{
 		
         //the number of vessels deployed on rotation r.
          nR= getModel().getChocoModel().intVarArray("n_r", nbRotations,0,Collections.max(numberOfVessels));
-         addVariables("n_r", nR);
+         addVariables(VarKey.N_R, nR);
+         
+        //the number of vessels of type v deployed on all the rotations, at most the number of available vessels (W.4)
+         nbV = new IntVar[nbVessels];
+         for (int v = 0; v < nbVessels; v++) {
+        	 nbV[v] = getModel().getChocoModel().intVar("nb_v[" + v + "]", 0, numberOfVessels.get(v));
+         }
+         addVariables(VarKey.NB_V, nbV);
          
 
 	}
@@ -100,7 +69,7 @@ public class VesselAvailabilitySubmodel extends Submodel{
 		
 	 //determines the number of vessel for each rotation (W.1)
 		for(int r=0;r<nbRotations;r++)		{
-			 getModel().getChocoModel().table(new IntVar[]{((IntVar[]) model.getVariable("T_r"))[r], nR[r]}, tableNbVessel).post();
+			 getModel().getChocoModel().table(new IntVar[]{model.get(VarKey.T_R)[r], nR[r]}, tableNbVessel).post();
 
 		}
 		
@@ -108,48 +77,26 @@ public class VesselAvailabilitySubmodel extends Submodel{
     
     //the total time is zero iff the rotation is not used (W.2)
 			for(int r=0;r<nbRotations;r++)		{
-	      clauseAdder.addEquivalence (((IntVar[]) model.getVariable("v_r"))[r], Operator.EQ, 0,
-	                                  ((IntVar[]) model.getVariable("T_r"))[r], Operator.EQ, 0);
+	      clauseAdder.addEquivalence (model.get(VarKey.V_R)[r], Operator.EQ, 0,
+	                                  model.get(VarKey.T_R)[r], Operator.EQ, 0);
 			}
 
 
 
 		
-	//determines the total time for each used rotation (W.3)    
-        for (int r = 0; r < nbRotations; r++) {
-                for (int p = 0; p < nbInfra; p++) {
-                    for (int sp : successors.get(p)) {
-                    	getModel().getChocoModel().ifThen(
-                    			
-                    			getModel().getChocoModel().and(			
-                    					getModel().getChocoModel().arithm(((IntVar[]) model.getVariable("dep_r"))[r], "=", sp),
-            							getModel().getChocoModel().arithm(((IntVar[][]) model.getVariable("s_rp"))[r][p], "=", sp)
-
-                    					),
-                    			getModel().getChocoModel().sum(new IntVar[]{((IntVar[][]) model.getVariable("timeOut_pr"))[p][r],((IntVar[][]) model.getVariable("manOut_pr"))[p][r],
-                    					((IntVar[][]) model.getVariable("st_rp"))[r][p],((IntVar[][]) model.getVariable("wt_pr"))[sp][r],((IntVar[][]) model.getVariable("manIn_pr"))[sp][r]},
-                    					"=", ((IntVar[]) model.getVariable("T_r"))[r])
-
-
-                    
-                    );
-                        
-                    }
-                }
-            
-        }	
+	//the total time of each used rotation (W.3) is computed with the arrival times along its circuit (T.11), in TimeSubmodel
         
      //ensures that enough vessels are available (W.4)
 	   for (int v = 0; v < nbVessels; v++) {
 	        IntVar[] products = new IntVar[nbRotations];
 	        for (int r = 0; r < nbRotations; r++) {
-	        	BoolVar vType= getModel().getChocoModel().arithm(((IntVar[]) model.getVariable("v_r"))[r], "=", getModel().getChocoModel().intVar(v + 1)).reify();
+	        	BoolVar vType= getModel().getChocoModel().arithm(model.get(VarKey.V_R)[r], "=", getModel().getChocoModel().intVar(v + 1)).reify();
 	            products[r] = getModel().getChocoModel().intVar("product_" + r, 0, nR[r].getUB());
 	
 	            getModel().getChocoModel().times(nR[r], vType, products[r]).post(); 
 	        }
 	
-	        getModel().getChocoModel().sum(products, "<=", numberOfVessels.get(v)).post();
+	        getModel().getChocoModel().sum(products, "=", nbV[v]).post();
 		}
 	        
 
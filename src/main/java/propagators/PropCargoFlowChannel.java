@@ -0,0 +1,173 @@
+package propagators;
+
+import java.util.Arrays;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.tools.ArrayUtils;
+
+public class PropCargoFlowChannel extends Propagator<IntVar> {
+
+	/** This class allows to link the cargo flow of a commodity k, given by the sequences port_ki and rot_ki, to the variables from_kpr and
+	 *  to_kpr (C.12 and C.13): from_kpr = 1 iff there is a step i such that port_ki[i] = p and rot_ki[i] = r, and to_kpr = 1 iff there is
+	 *  a step i < tsmax such that port_ki[i+1] = p and rot_ki[i] = r. As from_kpr and to_kpr are booleans, at most one step may match each
+	 *  pair (p,r). It replaces the 2.P.R sums of tsmax+1 reified conjunctions of the decomposition by one propagator per commodity. */
+
+	private final int nbPorts;								//the number of ports
+	private final int nbRotations;							//the number of rotations
+	private final int tsmax;								//the maximal number of transshipments
+	private final IntVar[] ports;							//port_ki
+	private final IntVar[] rotations;						//rot_ki
+	private final BoolVar[] from;							//from_kpr, indexed by p*nbRotations+r
+	private final BoolVar[] to;								//to_kpr, indexed by p*nbRotations+r
+	private final int[] possible;							//the number of steps which may match each pair (p,r)
+	private final int[] sure;								//the number of steps which match each pair (p,r)
+
+
+
+	/**
+	 * Constructor for creating a PropCargoFlowChannel object
+	 * @param ports the ports port_ki of commodity k (tsmax+2 variables)
+	 * @param rotations the rotations rot_ki of commodity k (tsmax+1 variables)
+	 * @param from the variables from_kpr of commodity k, indexed by port then rotation
+	 * @param to the variables to_kpr of commodity k, indexed by port then rotation
+	 */
+	public PropCargoFlowChannel(IntVar[] ports, IntVar[] rotations, BoolVar[][] from, BoolVar[][] to) {
+		super(ArrayUtils.append(ports, rotations, ArrayUtils.flatten(from), ArrayUtils.flatten(to)), PropagatorPriority.QUADRATIC, false);
+		this.nbPorts = from.length;
+		this.nbRotations = from[0].length;
+		this.tsmax = rotations.length - 1;
+		this.ports = ports;
+		this.rotations = rotations;
+		this.from = ArrayUtils.flatten(from);
+		this.to = ArrayUtils.flatten(to);
+		this.possible = new int[nbPorts * nbRotations];
+		this.sure = new int[nbPorts * nbRotations];
+	}
+
+
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		boolean changed;
+		do {
+			changed = filter(from, 0, tsmax + 1);
+			changed |= filter(to, 1, tsmax);
+		} while (changed);
+	}
+
+
+
+	/**
+	 * filters the domains for the links between the pairs (port_ki[i+shift], rot_ki[i]) for i < nbSteps and the given booleans
+	 * @param links from_kpr or to_kpr
+	 * @param shift 0 for from_kpr, 1 for to_kpr
+	 * @param nbSteps the number of steps which may match a pair (p,r)
+	 * @return returns true if a domain has been modified
+	 * @throws ContradictionException if the constraint cannot be satisfied
+	 */
+	private boolean filter(BoolVar[] links, int shift, int nbSteps) throws ContradictionException {
+		boolean changed = false;
+		Arrays.fill(possible, 0);
+		Arrays.fill(sure, 0);
+		for (int i = 0; i < nbSteps; i++) {
+			IntVar port = ports[i + shift];
+			IntVar rotation = rotations[i];
+			for (int p = port.nextValue(-1); p <= port.getUB(); p = port.nextValue(p)) {
+				for (int r = rotation.nextValue(-1); r <= rotation.getUB(); r = rotation.nextValue(r)) {
+					possible[p * nbRotations + r]++;
+				}
+			}
+			if (port.isInstantiated() && rotation.isInstantiated() && port.getValue() >= 0 && rotation.getValue() >= 0
+					&& ++sure[port.getValue() * nbRotations + rotation.getValue()] > 1) {
+				fails();
+			}
+		}
+
+		//a pair which no step may match is not linked, a pair which a step matches is linked
+		for (int pr = 0; pr < possible.length; pr++) {
+			if (possible[pr] == 0) {
+				changed |= links[pr].instantiateTo(0, this);
+			} else if (sure[pr] > 0) {
+				changed |= links[pr].instantiateTo(1, this);
+			}
+		}
+
+		//a step cannot match a pair which is not linked, or which is already matched by another step
+		for (int i = 0; i < nbSteps; i++) {
+			IntVar port = ports[i + shift];
+			IntVar rotation = rotations[i];
+			if (port.isInstantiated() && port.getValue() >= 0 && !rotation.isInstantiated()) {
+				int p = port.getValue();
+				for (int r = rotation.nextValue(-1); r <= rotation.getUB(); r = rotation.nextValue(r)) {
+					int pr = p * nbRotations + r;
+					if (links[pr].isInstantiatedTo(0) || sure[pr] > 0) {
+						changed |= rotation.removeValue(r, this);
+					}
+				}
+			} else if (rotation.isInstantiated() && rotation.getValue() >= 0 && !port.isInstantiated()) {
+				int r = rotation.getValue();
+				for (int p = port.nextValue(-1); p <= port.getUB(); p = port.nextValue(p)) {
+					int pr = p * nbRotations + r;
+					if (links[pr].isInstantiatedTo(0) || sure[pr] > 0) {
+						changed |= port.removeValue(p, this);
+					}
+				}
+			}
+		}
+
+		//a linked pair which a single step may match is matched by this step
+		for (int pr = 0; pr < possible.length; pr++) {
+			if (possible[pr] == 1 && sure[pr] == 0 && links[pr].isInstantiatedTo(1)) {
+				int p = pr / nbRotations;
+				int r = pr % nbRotations;
+				for (int i = 0; i < nbSteps; i++) {
+					if (ports[i + shift].contains(p) && rotations[i].contains(r)) {
+						changed |= ports[i + shift].instantiateTo(p, this);
+						changed |= rotations[i].instantiateTo(r, this);
+					}
+				}
+			}
+		}
+		return changed;
+	}
+
+
+
+	@Override
+	public ESat isEntailed() {
+		if (!isCompletelyInstantiated()) {
+			return ESat.UNDEFINED;
+		}
+		return check(from, 0, tsmax + 1) && check(to, 1, tsmax) ? ESat.TRUE : ESat.FALSE;
+	}
+
+
+
+	/**
+	 * @param links from_kpr or to_kpr
+	 * @param shift 0 for from_kpr, 1 for to_kpr
+	 * @param nbSteps the number of steps which may match a pair (p,r)
+	 * @return returns true if the instantiated variables satisfy the links
+	 */
+	private boolean check(BoolVar[] links, int shift, int nbSteps) {
+		int[] count = new int[links.length];
+		for (int i = 0; i < nbSteps; i++) {
+			int p = ports[i + shift].getValue();
+			int r = rotations[i].getValue();
+			if (p >= 0 && r >= 0) {
+				count[p * nbRotations + r]++;
+			}
+		}
+		for (int pr = 0; pr < links.length; pr++) {
+			if (count[pr] != links[pr].getValue()) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
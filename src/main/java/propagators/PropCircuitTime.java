@@ -0,0 +1,227 @@
+package propagators;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.tools.ArrayUtils;
+
+public class PropCircuitTime extends Propagator<IntVar> {
+
+	/** This class allows to chain the times along the circuit of a rotation r. When port/canal p is followed by sp (s_rp = sp), the time
+	 *  at which the vessel reaches sp is timeOut_pr + manOut_pr + st_rp + wt_spr + manIn_spr: it is timeIn_spr if sp is not the starting
+	 *  port dep_r (T.11), and the round-trip time T_r otherwise (W.3). The bounds are propagated along the legs which are fixed, the
+	 *  successors which cannot be reached in time are removed, and T_r is bounded below by the sum of the durations of the legs leaving
+	 *  the ports/canals which are known to be visited (the times telescope around the circuit from timeIn = 0 at dep_r). */
+
+	private final int nbInfra;								//the number of ports and canals
+	private final int nbPorts;								//the number of ports
+	private final IntVar[] successors;						//s_rp for rotation r
+	private final IntVar departure;							//dep_r
+	private final IntVar[] timeIn;							//timeIn_pr for rotation r
+	private final IntVar[] timeOut;							//timeOut_pr for rotation r
+	private final IntVar[] operation;						//t_pr for rotation r
+	private final IntVar[] manoeuvreOut;					//manOut_pr for rotation r
+	private final IntVar[] sailing;							//st_rp for rotation r
+	private final IntVar[] waiting;							//wt_pr for rotation r
+	private final IntVar[] manoeuvreIn;						//manIn_pr for rotation r
+	private final IntVar total;								//T_r
+	private final IntVar[] leg;								//the terms of the current leg
+
+
+
+	/**
+	 * Constructor for creating a PropCircuitTime object
+	 * @param successors the successors s_rp of rotation r, for each port/canal
+	 * @param departure the starting port dep_r of rotation r
+	 * @param timeIn the arrival times timeIn_pr of rotation r, for each port/canal
+	 * @param timeOut the departure times timeOut_pr of rotation r, for each port/canal
+	 * @param operation the operation times t_pr of rotation r, for each port/canal
+	 * @param manoeuvreOut the manoeuvring times manOut_pr of rotation r, for each port/canal
+	 * @param sailing the sailing times st_rp of rotation r, for each port/canal
+	 * @param waiting the waiting times wt_pr of rotation r, for each port/canal
+	 * @param manoeuvreIn the manoeuvring times manIn_pr of rotation r, for each port/canal
+	 * @param total the round-trip time T_r of rotation r
+	 * @param nbPorts the number of ports
+	 */
+	public PropCircuitTime(IntVar[] successors, IntVar departure, IntVar[] timeIn, IntVar[] timeOut, IntVar[] operation, IntVar[] manoeuvreOut,
+			IntVar[] sailing, IntVar[] waiting, IntVar[] manoeuvreIn, IntVar total, int nbPorts) {
+		super(ArrayUtils.append(successors, timeIn, timeOut, operation, manoeuvreOut, sailing, waiting, manoeuvreIn, new IntVar[] {departure, total}),
+				PropagatorPriority.QUADRATIC, false);
+		this.nbInfra = successors.length;
+		this.nbPorts = nbPorts;
+		this.successors = successors;
+		this.departure = departure;
+		this.timeIn = timeIn;
+		this.timeOut = timeOut;
+		this.operation = operation;
+		this.manoeuvreOut = manoeuvreOut;
+		this.sailing = sailing;
+		this.waiting = waiting;
+		this.manoeuvreIn = manoeuvreIn;
+		this.total = total;
+		this.leg = new IntVar[5];
+	}
+
+
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		boolean changed;
+		do {
+			changed = false;
+			for (int p = 0; p < nbInfra; p++) {
+				IntVar successor = successors[p];
+				if (successor.isInstantiated()) {
+					int sp = successor.getValue();
+					if (sp != p) {
+						changed |= filterFixedLeg(p, sp);
+					}
+				} else {
+					int ub = successor.getUB();
+					for (int sp = successor.getLB(); sp <= ub; sp = successor.nextValue(sp)) {
+						if (sp != p) {
+							boolean toArrival = !departure.isInstantiatedTo(sp) && isFeasible(p, sp, timeIn[sp]);
+							boolean toTotal = departure.contains(sp) && isFeasible(p, sp, total);
+							if (!toArrival && !toTotal) {
+								changed |= successor.removeValue(sp, this);
+							}
+						}
+					}
+				}
+			}
+			changed |= filterTotal();
+		} while (changed);
+	}
+
+
+
+	/**
+	 * filters the domains for the leg from port/canal p to its successor sp
+	 * @param p a port/canal
+	 * @param sp the successor of p
+	 * @return returns true if a domain has been modified
+	 * @throws ContradictionException if the constraint cannot be satisfied
+	 */
+	private boolean filterFixedLeg(int p, int sp) throws ContradictionException {
+		if (!departure.contains(sp)) {
+			return filterSum(p, sp, timeIn[sp]);
+		}
+		if (departure.isInstantiated()) {
+			return filterSum(p, sp, total);
+		}
+		//sp may be the starting port: we can only decide it
+		if (!isFeasible(p, sp, timeIn[sp])) {
+			return departure.instantiateTo(sp, this);
+		}
+		if (!isFeasible(p, sp, total)) {
+			return departure.removeValue(sp, this);
+		}
+		return false;
+	}
+
+
+
+	/**
+	 * stores the terms of the leg from port/canal p to port/canal sp in leg
+	 * @param p a port/canal
+	 * @param sp the successor of p
+	 */
+	private void setLeg(int p, int sp) {
+		leg[0] = timeOut[p];
+		leg[1] = manoeuvreOut[p];
+		leg[2] = sailing[p];
+		leg[3] = waiting[sp];
+		leg[4] = manoeuvreIn[sp];
+	}
+
+
+
+	/**
+	 * @param p a port/canal
+	 * @param sp a possible successor of p
+	 * @param target the time at which the vessel reaches sp
+	 * @return returns true if the bounds of the leg from p to sp are compatible with the bounds of target
+	 */
+	private boolean isFeasible(int p, int sp, IntVar target) {
+		setLeg(p, sp);
+		long lb = 0;
+		long ub = 0;
+		for (IntVar term : leg) {
+			lb += term.getLB();
+			ub += term.getUB();
+		}
+		return lb <= target.getUB() && ub >= target.getLB();
+	}
+
+
+
+	/**
+	 * enforces bound consistency on the sum of the terms of the leg from p to sp, equal to target
+	 * @param p a port/canal
+	 * @param sp the successor of p
+	 * @param target the time at which the vessel reaches sp
+	 * @return returns true if a domain has been modified
+	 * @throws ContradictionException if the constraint cannot be satisfied
+	 */
+	private boolean filterSum(int p, int sp, IntVar target) throws ContradictionException {
+		setLeg(p, sp);
+		long lb = 0;
+		long ub = 0;
+		for (IntVar term : leg) {
+			lb += term.getLB();
+			ub += term.getUB();
+		}
+		boolean changed = target.updateBounds((int) lb, (int) ub, this);
+		for (IntVar term : leg) {
+			changed |= term.updateBounds((int) (target.getLB() - (ub - term.getUB())), (int) (target.getUB() - (lb - term.getLB())), this);
+		}
+		return changed;
+	}
+
+
+
+	/**
+	 * bounds T_r below by the durations of the legs leaving the ports/canals which are known to be visited. This only holds when a port is
+	 * visited, since dep_r is then the visited port of highest index and the circuit starts from it.
+	 * @return returns true if the domain of T_r has been modified
+	 * @throws ContradictionException if the constraint cannot be satisfied
+	 */
+	private boolean filterTotal() throws ContradictionException {
+		long lb = 0;
+		boolean visitsPort = false;
+		for (int p = 0; p < nbInfra; p++) {
+			IntVar successor = successors[p];
+			if (!successor.contains(p)) {
+				visitsPort |= p < nbPorts;
+				long arrival = Long.MAX_VALUE;
+				int ub = successor.getUB();
+				for (int sp = successor.getLB(); sp <= ub; sp = successor.nextValue(sp)) {
+					arrival = Math.min(arrival, waiting[sp].getLB() + manoeuvreIn[sp].getLB());
+				}
+				lb += operation[p].getLB() + manoeuvreOut[p].getLB() + sailing[p].getLB() + arrival;
+			}
+		}
+		return visitsPort && total.updateLowerBound((int) Math.min(lb, Integer.MAX_VALUE), this);
+	}
+
+
+
+	@Override
+	public ESat isEntailed() {
+		if (!isCompletelyInstantiated()) {
+			return ESat.UNDEFINED;
+		}
+		for (int p = 0; p < nbInfra; p++) {
+			int sp = successors[p].getValue();
+			if (sp != p) {
+				int arrival = timeOut[p].getValue() + manoeuvreOut[p].getValue() + sailing[p].getValue() + waiting[sp].getValue() + manoeuvreIn[sp].getValue();
+				if (arrival != (departure.getValue() == sp ? total : timeIn[sp]).getValue()) {
+					return ESat.FALSE;
+				}
+			}
+		}
+		return ESat.TRUE;
+	}
+}
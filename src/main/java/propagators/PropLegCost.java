@@ -0,0 +1,225 @@
+package propagators;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+
+public class PropLegCost extends Propagator<IntVar> {
+
+	/** This class allows to compute the cost of the leg leaving port/canal p in rotation r. The fuel consumption is given by the vessel
+	 *  type and the speed (O.1): cons_rp = consumption[v_r][speed_rp]. The cost of the leg is the call cost of p if it is visited plus the
+	 *  price of the fuel burnt while sailing (O.2): c_rp = pc_pr * [s_rp != p] + fp_r * cons_rp * st_rp. The consumption is filtered on
+	 *  every value, the cost on bounds, directly on the product of the three factors rather than through intermediate products. */
+
+	private final int port;									//the index of port/canal p
+	private final IntVar vessel;							//v_r, from 1 (0 if the rotation is not used)
+	private final IntVar speed;								//speed_rp
+	private final IntVar consumption;						//cons_rp
+	private final IntVar sailing;							//st_rp
+	private final IntVar fuelPrice;							//fp_r
+	private final IntVar callCost;							//pc_pr
+	private final IntVar successor;							//s_rp
+	private final IntVar cost;								//c_rp
+	private final int[][] consumptions;						//the fuel consumption of each vessel type (from 1) at each speed, -1 if the speed is not allowed
+	private final boolean[] vesselSupported;				//true if the vessel type has a support in the current domains
+	private final boolean[] speedSupported;					//true if the speed has a support in the current domains
+	private final BitSet consumptionSupported;				//the consumptions which have a support in the current domains
+
+
+
+	/**
+	 * Constructor for creating a PropLegCost object
+	 * @param port the index of port/canal p
+	 * @param vessel the vessel type v_r of rotation r
+	 * @param speed the speed speed_rp when leaving p
+	 * @param consumption the fuel consumption cons_rp when leaving p
+	 * @param sailing the sailing time st_rp when leaving p
+	 * @param fuelPrice the fuel price fp_r of rotation r
+	 * @param callCost the call cost pc_pr of p
+	 * @param successor the successor s_rp of p
+	 * @param cost the cost c_rp of the leg
+	 * @param consumptions the fuel consumption of each vessel type (from 1, 0 for no vessel) at each speed, -1 if the speed is not allowed
+	 */
+	public PropLegCost(int port, IntVar vessel, IntVar speed, IntVar consumption, IntVar sailing, IntVar fuelPrice, IntVar callCost, IntVar successor,
+			IntVar cost, int[][] consumptions) {
+		super(new IntVar[] {vessel, speed, consumption, sailing, fuelPrice, callCost, successor, cost}, PropagatorPriority.QUADRATIC, false);
+		this.port = port;
+		this.vessel = vessel;
+		this.speed = speed;
+		this.consumption = consumption;
+		this.sailing = sailing;
+		this.fuelPrice = fuelPrice;
+		this.callCost = callCost;
+		this.successor = successor;
+		this.cost = cost;
+		this.consumptions = consumptions;
+		this.vesselSupported = new boolean[consumptions.length];
+		int maxSpeed = 0;
+		for (int[] row : consumptions) {
+			maxSpeed = Math.max(maxSpeed, row.length);
+		}
+		this.speedSupported = new boolean[maxSpeed];
+		this.consumptionSupported = new BitSet();
+	}
+
+
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		boolean changed;
+		do {
+			changed = filterConsumption();
+			changed |= filterCost();
+		} while (changed);
+	}
+
+
+
+	/**
+	 * @param v a vessel type
+	 * @param s a speed
+	 * @return returns the fuel consumption of vessel type v at speed s, -1 if it is not allowed
+	 */
+	private int consumptionOf(int v, int s) {
+		if (v < 0 || v >= consumptions.length || s < 0 || s >= consumptions[v].length) {
+			return -1;
+		}
+		return consumptions[v][s];
+	}
+
+
+
+	/**
+	 * removes the values of v_r, speed_rp and cons_rp which do not belong to the consumption law (O.1)
+	 * @return returns true if a domain has been modified
+	 * @throws ContradictionException if the constraint cannot be satisfied
+	 */
+	private boolean filterConsumption() throws ContradictionException {
+		Arrays.fill(vesselSupported, false);
+		Arrays.fill(speedSupported, false);
+		consumptionSupported.clear();
+		int ubVessel = vessel.getUB();
+		int ubSpeed = speed.getUB();
+		for (int v = vessel.getLB(); v <= ubVessel; v = vessel.nextValue(v)) {
+			for (int s = speed.getLB(); s <= ubSpeed; s = speed.nextValue(s)) {
+				int c = consumptionOf(v, s);
+				if (c >= 0 && consumption.contains(c)) {
+					vesselSupported[v] = true;
+					speedSupported[s] = true;
+					consumptionSupported.set(c);
+				}
+			}
+		}
+		boolean changed = false;
+		for (int v = vessel.getLB(); v <= ubVessel; v = vessel.nextValue(v)) {
+			if (v < 0 || v >= vesselSupported.length || !vesselSupported[v]) {
+				changed |= vessel.removeValue(v, this);
+			}
+		}
+		for (int s = speed.getLB(); s <= ubSpeed; s = speed.nextValue(s)) {
+			if (s < 0 || s >= speedSupported.length || !speedSupported[s]) {
+				changed |= speed.removeValue(s, this);
+			}
+		}
+		int ub = consumption.getUB();
+		for (int c = consumption.getLB(); c <= ub; c = consumption.nextValue(c)) {
+			if (c < 0 || !consumptionSupported.get(c)) {
+				changed |= consumption.removeValue(c, this);
+			}
+		}
+		return changed;
+	}
+
+
+
+	/**
+	 * filters the bounds of c_rp = pc_pr * [s_rp != p] + fp_r * cons_rp * st_rp (O.2)
+	 * @return returns true if a domain has been modified
+	 * @throws ContradictionException if the constraint cannot be satisfied
+	 */
+	private boolean filterCost() throws ContradictionException {
+		boolean changed = false;
+		long visitedLB = successor.contains(port) ? 0 : 1;
+		long visitedUB = successor.isInstantiatedTo(port) ? 0 : 1;
+		long fuelLB = (long) fuelPrice.getLB() * consumption.getLB() * sailing.getLB();
+		long fuelUB = (long) fuelPrice.getUB() * consumption.getUB() * sailing.getUB();
+		long callLB = callCost.getLB() * visitedLB;
+		long callUB = callCost.getUB() * visitedUB;
+		changed |= cost.updateBounds(toInt(callLB + fuelLB), toInt(callUB + fuelUB), this);
+
+		//the call cost is paid iff p is visited
+		if (visitedLB != visitedUB) {
+			if (callCost.getLB() + fuelLB > cost.getUB()) {
+				successor.instantiateTo(port, this);
+				return true;
+			}
+			if (fuelUB < cost.getLB()) {
+				successor.removeValue(port, this);
+				return true;
+			}
+		} else if (visitedLB == 1) {
+			changed |= callCost.updateBounds(toInt(cost.getLB() - fuelUB), toInt(cost.getUB() - fuelLB), this);
+		}
+
+		//the fuel cost lies between the cost of the leg and the call cost
+		long minFuel = cost.getLB() - callUB;
+		long maxFuel = cost.getUB() - callLB;
+		changed |= filterFactor(fuelPrice, (long) consumption.getLB() * sailing.getLB(), (long) consumption.getUB() * sailing.getUB(), minFuel, maxFuel);
+		changed |= filterFactor(consumption, (long) fuelPrice.getLB() * sailing.getLB(), (long) fuelPrice.getUB() * sailing.getUB(), minFuel, maxFuel);
+		changed |= filterFactor(sailing, (long) fuelPrice.getLB() * consumption.getLB(), (long) fuelPrice.getUB() * consumption.getUB(), minFuel, maxFuel);
+		return changed;
+	}
+
+
+
+	/**
+	 * filters the bounds of a non-negative factor x such that x * y lies in [minProduct, maxProduct], where y lies in [lb, ub]
+	 * @param factor the factor x
+	 * @param lb the lower bound of the product y of the other factors
+	 * @param ub the upper bound of the product y of the other factors
+	 * @param minProduct the lower bound of the product x * y
+	 * @param maxProduct the upper bound of the product x * y
+	 * @return returns true if the domain of x has been modified
+	 * @throws ContradictionException if the constraint cannot be satisfied
+	 */
+	private boolean filterFactor(IntVar factor, long lb, long ub, long minProduct, long maxProduct) throws ContradictionException {
+		boolean changed = false;
+		if (lb > 0) {
+			changed |= factor.updateUpperBound(toInt(Math.floorDiv(maxProduct, lb)), this);
+		}
+		if (minProduct > 0) {
+			if (ub == 0) {
+				fails();
+			}
+			changed |= factor.updateLowerBound(toInt(Math.floorDiv(minProduct + ub - 1, ub)), this);
+		}
+		return changed;
+	}
+
+
+
+	/**
+	 * @param value a long value
+	 * @return returns the value, bounded to the range of int
+	 */
+	private static int toInt(long value) {
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+	}
+
+
+
+	@Override
+	public ESat isEntailed() {
+		if (!isCompletelyInstantiated()) {
+			return ESat.UNDEFINED;
+		}
+		int visited = successor.getValue() != port ? 1 : 0;
+		return ESat.eval(consumptionOf(vessel.getValue(), speed.getValue()) == consumption.getValue()
+				&& (long) cost.getValue() == (long) callCost.getValue() * visited + (long) fuelPrice.getValue() * consumption.getValue() * sailing.getValue());
+	}
+}
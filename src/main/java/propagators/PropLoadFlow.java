@@ -0,0 +1,149 @@
+package propagators;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.tools.ArrayUtils;
+
+public class PropLoadFlow extends Propagator<IntVar> {
+
+	/** This class allows to carry a commodity k along the circuit of a rotation r (L.4): when port/canal p is followed by port sp
+	 *  (s_rp = sp) and commodity k is neither loaded nor unloaded at sp, k leaves sp iff it leaves p. The constraint is filtered in both
+	 *  directions: the value of leave_kpr is passed along the legs of the circuit, two ports which disagree cannot be consecutive unless k
+	 *  is loaded or unloaded at the second one, and k cannot be on board if its quantity exceeds the capacity of the vessels (L.6). */
+
+	private final int nbInfra;								//the number of ports and canals
+	private final int nbPorts;								//the number of ports
+	private final int quantity;								//the quantity of commodity k
+	private final IntVar[] successors;						//s_rp for rotation r
+	private final BoolVar[] from;							//from_kpr for commodity k and rotation r
+	private final BoolVar[] to;								//to_kpr for commodity k and rotation r
+	private final BoolVar[] leave;							//leave_kpr for commodity k and rotation r
+	private final IntVar capacity;							//the capacity of the vessels of rotation r
+
+
+
+	/**
+	 * Constructor for creating a PropLoadFlow object
+	 * @param successors the successors s_rp of rotation r, for each port/canal
+	 * @param from the variables from_kpr of commodity k and rotation r, for each port
+	 * @param to the variables to_kpr of commodity k and rotation r, for each port
+	 * @param leave the variables leave_kpr of commodity k and rotation r, for each port/canal
+	 * @param capacity the capacity k_r of the vessels of rotation r
+	 * @param quantity the quantity of commodity k
+	 */
+	public PropLoadFlow(IntVar[] successors, BoolVar[] from, BoolVar[] to, BoolVar[] leave, IntVar capacity, int quantity) {
+		super(ArrayUtils.append(successors, from, to, leave, new IntVar[] {capacity}), PropagatorPriority.LINEAR, false);
+		this.nbInfra = successors.length;
+		this.nbPorts = from.length;
+		this.quantity = quantity;
+		this.successors = successors;
+		this.from = from;
+		this.to = to;
+		this.leave = leave;
+		this.capacity = capacity;
+	}
+
+
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		boolean changed;
+		do {
+			changed = false;
+
+			//commodity k cannot be on board if it does not fit in the vessels (L.6)
+			if (quantity > capacity.getUB()) {
+				for (BoolVar onBoard : leave) {
+					changed |= onBoard.setToFalse(this);
+				}
+			} else if (quantity > capacity.getLB()) {
+				for (BoolVar onBoard : leave) {
+					if (onBoard.isInstantiatedTo(1)) {
+						changed |= capacity.updateLowerBound(quantity, this);
+						break;
+					}
+				}
+			}
+
+			for (int p = 0; p < nbInfra; p++) {
+				IntVar successor = successors[p];
+				if (successor.isInstantiated()) {
+					int sp = successor.getValue();
+					if (sp != p && sp < nbPorts) {
+						changed |= filterLeg(p, sp);
+					}
+				} else if (leave[p].isInstantiated()) {
+					//port sp cannot follow p if k is carried through sp but its value of leave_kpr differs
+					int ub = Math.min(successor.getUB(), nbPorts - 1);
+					for (int sp = successor.getLB(); sp <= ub; sp = successor.nextValue(sp)) {
+						if (sp != p && isCarriedThrough(sp) && leave[sp].isInstantiated() && leave[sp].getValue() != leave[p].getValue()) {
+							changed |= successor.removeValue(sp, this);
+						}
+					}
+				}
+			}
+		} while (changed);
+	}
+
+
+
+	/**
+	 * @param sp a port
+	 * @return returns true if commodity k is known to be neither loaded nor unloaded at port sp
+	 */
+	private boolean isCarriedThrough(int sp) {
+		return from[sp].isInstantiatedTo(0) && to[sp].isInstantiatedTo(0);
+	}
+
+
+
+	/**
+	 * filters the domains for the leg from port/canal p to port sp
+	 * @param p a port/canal
+	 * @param sp the port which follows p
+	 * @return returns true if a domain has been modified
+	 * @throws ContradictionException if the constraint cannot be satisfied
+	 */
+	private boolean filterLeg(int p, int sp) throws ContradictionException {
+		if (isCarriedThrough(sp)) {
+			if (leave[p].isInstantiated()) {
+				return leave[sp].instantiateTo(leave[p].getValue(), this);
+			}
+			if (leave[sp].isInstantiated()) {
+				return leave[p].instantiateTo(leave[sp].getValue(), this);
+			}
+		} else if (leave[p].isInstantiated() && leave[sp].isInstantiated() && leave[p].getValue() != leave[sp].getValue()) {
+			//k is loaded or unloaded at sp
+			if (from[sp].isInstantiatedTo(0)) {
+				return to[sp].setToTrue(this);
+			}
+			if (to[sp].isInstantiatedTo(0)) {
+				return from[sp].setToTrue(this);
+			}
+		}
+		return false;
+	}
+
+
+
+	@Override
+	public ESat isEntailed() {
+		if (!isCompletelyInstantiated()) {
+			return ESat.UNDEFINED;
+		}
+		for (int p = 0; p < nbInfra; p++) {
+			int sp = successors[p].getValue();
+			if (sp != p && sp < nbPorts && from[sp].getValue() == 0 && to[sp].getValue() == 0 && leave[p].getValue() != leave[sp].getValue()) {
+				return ESat.FALSE;
+			}
+			if (leave[p].getValue() == 1 && quantity > capacity.getValue()) {
+				return ESat.FALSE;
+			}
+		}
+		return ESat.TRUE;
+	}
+}
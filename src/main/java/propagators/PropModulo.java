@@ -0,0 +1,79 @@
+package propagators;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+
+public class PropModulo extends Propagator<IntVar> {
+
+	/** This class allows to link a non-negative time t to its value modulo a period: m = t mod period. A value of m is kept if some value
+	 *  of t is congruent to it, and a value of t is kept if its remainder is in the domain of m. */
+
+	private final IntVar time;								//t
+	private final IntVar modulo;							//t mod period
+	private final int period;								//the period (e.g. one week)
+
+
+
+	/**
+	 * Constructor for creating a PropModulo object
+	 * @param time the time t, non-negative
+	 * @param modulo the time modulo the period
+	 * @param period the period
+	 */
+	public PropModulo(IntVar time, IntVar modulo, int period) {
+		super(new IntVar[] {time, modulo}, PropagatorPriority.BINARY, false);
+		this.time = time;
+		this.modulo = modulo;
+		this.period = period;
+	}
+
+
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		time.updateLowerBound(0, this);
+		modulo.updateBounds(0, period - 1, this);
+		//the values of m removed by the second pass have no value of t, so one pass of each is enough
+		int ub = time.getUB();
+		for (int t = time.getLB(); t <= ub; t = time.nextValue(t)) {
+			if (!modulo.contains(t % period)) {
+				time.removeValue(t, this);
+			}
+		}
+		ub = modulo.getUB();
+		for (int m = modulo.getLB(); m <= ub; m = modulo.nextValue(m)) {
+			if (!hasTime(m)) {
+				modulo.removeValue(m, this);
+			}
+		}
+	}
+
+
+
+	/**
+	 * @param m a remainder
+	 * @return returns true if the domain of t contains a value congruent to m
+	 */
+	private boolean hasTime(int m) {
+		int first = time.getLB() + Math.floorMod(m - time.getLB(), period);
+		for (int t = first; t <= time.getUB(); t += period) {
+			if (time.contains(t)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	@Override
+	public ESat isEntailed() {
+		if (!time.isInstantiated() || !modulo.isInstantiated()) {
+			return ESat.UNDEFINED;
+		}
+		return ESat.eval(time.getValue() >= 0 && time.getValue() % period == modulo.getValue());
+	}
+}
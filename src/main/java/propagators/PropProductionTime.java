@@ -0,0 +1,213 @@
+package propagators;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+
+public class PropProductionTime extends Propagator<IntVar> {
+
+	/** This class allows to compute the total operation time t_pr at port p for rotation r from the number of TEU teu_pr to load or unload
+	 *  and the vessel type v_r (T.1): t_pr = floor(mu * teu_pr / prod(p, v_r)), where teu_pr must be a possible total load that fits twice in
+	 *  a vessel of type v_r, and t_pr = 0 when teu_pr = 0 whatever v_r. The bounds of t_pr are first used to narrow the bounds of teu_pr, then
+	 *  every value is checked against the remaining domains. If a successor variable is given, the constraint only holds when port p is
+	 *  visited (s_rp != p), and s_rp is set to p when it cannot hold. */
+
+	private final IntVar load;								//teu_pr
+	private final IntVar vessel;							//v_r, from 1 (0 if the rotation is not used)
+	private final IntVar time;								//t_pr
+	private final IntVar successor;							//s_rp, null if the constraint always holds
+	private final int port;									//the index of port p
+	private final long[] loads;								//all the possible values of teu_pr (bitset)
+	private final int[] productivities;						//the productivity of port p for each vessel type (from 0)
+	private final int[] capacities;							//the real capacity of each vessel type (from 0)
+	private final int ratioMu;								//the ratio between TEU and containers, multiplied by 100
+	private final boolean[] vesselSupported;				//true if the vessel type has a support in the current domains
+	private final BitSet timeSupported;						//the values of t_pr which have a support in the current domains
+
+
+
+	/**
+	 * Constructor for creating a PropProductionTime object
+	 * @param load the number of TEU teu_pr loaded or unloaded at port p by rotation r
+	 * @param vessel the vessel type v_r of rotation r
+	 * @param time the total operation time t_pr at port p for rotation r
+	 * @param successor the successor s_rp of port p in rotation r, or null if the constraint always holds
+	 * @param port the index of port p
+	 * @param loads all the possible values of teu_pr (bitset)
+	 * @param productivities the productivity of port p for each vessel type (from 0)
+	 * @param capacities the real capacity of each vessel type (from 0)
+	 * @param ratioMu the ratio between TEU and containers, multiplied by 100
+	 */
+	public PropProductionTime(IntVar load, IntVar vessel, IntVar time, IntVar successor, int port, long[] loads, int[] productivities, int[] capacities, int ratioMu) {
+		super(successor == null ? new IntVar[] {load, vessel, time} : new IntVar[] {load, vessel, time, successor}, PropagatorPriority.TERNARY, false);
+		this.load = load;
+		this.vessel = vessel;
+		this.time = time;
+		this.successor = successor;
+		this.port = port;
+		this.loads = loads;
+		this.productivities = productivities;
+		this.capacities = capacities;
+		this.ratioMu = ratioMu;
+		this.vesselSupported = new boolean[capacities.length + 1];
+		this.timeSupported = new BitSet();
+	}
+
+
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		if (successor != null && successor.contains(port)) {
+			//the constraint does not hold yet: it can only rule out s_rp != p
+			if (!successor.isInstantiated() && !hasSupport()) {
+				successor.instantiateTo(port, this);
+			}
+			return;
+		}
+		filterBounds();
+		filterDomains();
+	}
+
+
+
+	/**
+	 * @param teu a number of TEU
+	 * @param v a vessel type (from 1)
+	 * @return returns the operation time needed to handle teu TEU with a vessel of type v
+	 */
+	private int productionTime(int teu, int v) {
+		return (int) (((long) ratioMu * teu) / (productivities[v - 1] * 100L));
+	}
+
+
+
+	/**
+	 * @param teu a number of TEU
+	 * @param v a vessel type (from 1)
+	 * @return returns true if teu is a possible total load which can be handled by a vessel of type v
+	 */
+	private boolean isLoad(int teu, int v) {
+		return v >= 1 && v <= capacities.length && teu <= 2 * capacities[v - 1] && (teu >>> 6) < loads.length && (loads[teu >>> 6] & (1L << teu)) != 0;
+	}
+
+
+
+	/**
+	 * narrows the bounds of teu_pr to the loads whose operation time lies within the bounds of t_pr for some vessel type
+	 * @throws ContradictionException if the constraint cannot be satisfied
+	 */
+	private void filterBounds() throws ContradictionException {
+		long lb = Long.MAX_VALUE;
+		long ub = Long.MIN_VALUE;
+		if (time.contains(0)) {
+			lb = 0;
+			ub = 0;
+		}
+		for (int v = vessel.nextValue(0); v <= Math.min(vessel.getUB(), capacities.length); v = vessel.nextValue(v)) {
+			long step = productivities[v - 1] * 100L;
+			long first = (Math.max(0, time.getLB()) * step + ratioMu - 1) / ratioMu;
+			long last = Math.min(((time.getUB() + 1L) * step - 1) / ratioMu, 2L * capacities[v - 1]);
+			if (first <= last) {
+				lb = Math.min(lb, first);
+				ub = Math.max(ub, last);
+			}
+		}
+		if (lb > ub) {
+			fails();
+		}
+		load.updateBounds((int) Math.min(lb, Integer.MAX_VALUE), (int) Math.min(ub, Integer.MAX_VALUE), this);
+	}
+
+
+
+	/**
+	 * removes the values of teu_pr, v_r and t_pr which do not belong to any tuple of the constraint
+	 * @throws ContradictionException if the constraint cannot be satisfied
+	 */
+	private void filterDomains() throws ContradictionException {
+		Arrays.fill(vesselSupported, false);
+		timeSupported.clear();
+		int ub = load.getUB();
+		for (int teu = load.getLB(); teu <= ub; teu = load.nextValue(teu)) {
+			boolean supported = false;
+			if (teu == 0) {
+				supported = time.contains(0);
+				if (supported) {
+					timeSupported.set(0);
+				}
+			} else {
+				for (int v = vessel.nextValue(0); v <= Math.min(vessel.getUB(), capacities.length); v = vessel.nextValue(v)) {
+					if (isLoad(teu, v)) {
+						int t = productionTime(teu, v);
+						if (time.contains(t)) {
+							supported = true;
+							vesselSupported[v] = true;
+							timeSupported.set(t);
+						}
+					}
+				}
+			}
+			if (!supported) {
+				load.removeValue(teu, this);
+			}
+		}
+		//teu_pr = 0 supports every vessel type
+		if (!load.contains(0)) {
+			ub = vessel.getUB();
+			for (int v = vessel.getLB(); v <= ub; v = vessel.nextValue(v)) {
+				if (v < 0 || v > capacities.length || !vesselSupported[v]) {
+					vessel.removeValue(v, this);
+				}
+			}
+		}
+		ub = time.getUB();
+		for (int t = time.getLB(); t <= ub; t = time.nextValue(t)) {
+			if (t < 0 || !timeSupported.get(t)) {
+				time.removeValue(t, this);
+			}
+		}
+	}
+
+
+
+	/**
+	 * @return returns true if the current domains contain a tuple of the constraint
+	 */
+	private boolean hasSupport() {
+		if (load.contains(0) && time.contains(0)) {
+			return true;
+		}
+		int ub = load.getUB();
+		for (int teu = load.nextValue(0); teu <= ub; teu = load.nextValue(teu)) {
+			for (int v = vessel.nextValue(0); v <= Math.min(vessel.getUB(), capacities.length); v = vessel.nextValue(v)) {
+				if (isLoad(teu, v) && time.contains(productionTime(teu, v))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+
+
+	@Override
+	public ESat isEntailed() {
+		if (successor != null && successor.isInstantiatedTo(port)) {
+			return ESat.TRUE;
+		}
+		if (!load.isInstantiated() || !vessel.isInstantiated() || !time.isInstantiated()) {
+			return ESat.UNDEFINED;
+		}
+		int teu = load.getValue();
+		boolean holds = teu == 0 ? time.getValue() == 0 : isLoad(teu, vessel.getValue()) && time.getValue() == productionTime(teu, vessel.getValue());
+		if (holds) {
+			return ESat.TRUE;
+		}
+		return successor != null && successor.contains(port) ? ESat.UNDEFINED : ESat.FALSE;
+	}
+}
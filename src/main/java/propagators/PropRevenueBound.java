@@ -0,0 +1,190 @@
+package propagators;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.tools.ArrayUtils;
+
+public class PropRevenueBound extends Propagator<IntVar> {
+
+	/** This class allows to bound the revenue with a relaxation of the capacity of the vessels. An accepted commodity leaves its origin
+	 *  port on a rotation which visits it, and the load of a vessel on a leg cannot exceed its capacity k_r (L.6). So, at each port, the
+	 *  commodities which start there fit in the sum of the capacities of the rotations which may visit the port. The revenue is bounded by
+	 *  the sum over the ports of the fractional knapsacks of these commodities, in which the accepted commodities are forced, and the
+	 *  commodities which cannot fit any more are rejected. Through the objective function, this bound prunes the nodes which cannot improve
+	 *  on the best solution found. The destination ports give no bound: as in C.13, a commodity carried by tsmax+1 rotations is never
+	 *  unloaded, and its last rotation does not have to visit its destination port. */
+
+	private final int nbCommodities;						//the number of commodities
+	private final int nbRotations;							//the number of rotations
+	private final int nbPorts;								//the number of ports
+	private final IntVar[] accepted;						//alpha_k
+	private final IntVar[] capacities;						//k_r
+	private final IntVar[][] successors;					//s_rp for the ports
+	private final IntVar revenue;							//the revenue
+	private final int[] pol;								//origin ports of commodity
+	private final int[] quantity;							//quantity of commodities
+	private final int[] rev;								//revenue per TEU of commodities
+	private final int[][] fromPort;							//the commodities whose origin is port p, by decreasing revenue per TEU
+	private final long[] portCapacity;						//the sum of the capacities of the rotations which may visit port p
+
+
+
+	/**
+	 * Constructor for creating a PropRevenueBound object
+	 * @param accepted the variables alpha_k, for each commodity
+	 * @param capacities the capacities k_r, for each rotation
+	 * @param successors the successors s_rp, for each rotation and each port/canal
+	 * @param revenue the revenue, the sum of the quantity times the revenue per TEU of the accepted commodities
+	 * @param pol the origin port of each commodity
+	 * @param quantity the quantity of each commodity
+	 * @param rev the revenue per TEU of each commodity
+	 * @param nbPorts the number of ports
+	 */
+	public PropRevenueBound(IntVar[] accepted, IntVar[] capacities, IntVar[][] successors, IntVar revenue, int[] pol, int[] quantity, int[] rev,
+			int nbPorts) {
+		super(ArrayUtils.append(accepted, capacities, ArrayUtils.flatten(portSuccessors(successors, nbPorts)), new IntVar[] {revenue}),
+				PropagatorPriority.QUADRATIC, false);
+		this.nbCommodities = accepted.length;
+		this.nbRotations = capacities.length;
+		this.nbPorts = nbPorts;
+		this.accepted = accepted;
+		this.capacities = capacities;
+		this.successors = successors;
+		this.revenue = revenue;
+		this.pol = pol;
+		this.quantity = quantity;
+		this.rev = rev;
+		this.fromPort = commoditiesByPort(pol);
+		this.portCapacity = new long[nbPorts];
+	}
+
+
+
+	/**
+	 * @param successors the successors s_rp, for each rotation and each port/canal
+	 * @param nbPorts the number of ports
+	 * @return returns the successors of the ports only
+	 */
+	private static IntVar[][] portSuccessors(IntVar[][] successors, int nbPorts) {
+		IntVar[][] ports = new IntVar[successors.length][nbPorts];
+		for (int r = 0; r < successors.length; r++) {
+			System.arraycopy(successors[r], 0, ports[r], 0, nbPorts);
+		}
+		return ports;
+	}
+
+
+
+	/**
+	 * @param ports the origin port of each commodity
+	 * @return returns the commodities of each port, by decreasing revenue per TEU
+	 */
+	private int[][] commoditiesByPort(int[] ports) {
+		List<List<Integer>> lists = new ArrayList<>();
+		for (int p = 0; p < nbPorts; p++) {
+			lists.add(new ArrayList<>());
+		}
+		for (int k = 0; k < nbCommodities; k++) {
+			if (ports[k] >= 0 && ports[k] < nbPorts) {
+				lists.get(ports[k]).add(k);
+			}
+		}
+		int[][] commodities = new int[nbPorts][];
+		for (int p = 0; p < nbPorts; p++) {
+			lists.get(p).sort(Comparator.comparingInt(k -> -rev[k]));
+			commodities[p] = lists.get(p).stream().mapToInt(Integer::intValue).toArray();
+		}
+		return commodities;
+	}
+
+
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		for (int p = 0; p < nbPorts; p++) {
+			long capacity = 0;
+			for (int r = 0; r < nbRotations; r++) {
+				if (!successors[r][p].isInstantiatedTo(p)) {
+					capacity += Math.max(0, capacities[r].getUB());
+				}
+			}
+			portCapacity[p] = capacity;
+		}
+		long bound = knapsacks(fromPort);
+		revenue.updateUpperBound((int) Math.min(bound, Integer.MAX_VALUE), this);
+	}
+
+
+
+	/**
+	 * computes the fractional knapsack of each port, in which the accepted commodities are forced, and rejects the commodities which
+	 * do not fit any more
+	 * @param commodities the commodities of each port, by decreasing revenue per TEU
+	 * @return returns the sum of the fractional knapsacks of the ports
+	 * @throws ContradictionException if the accepted commodities do not fit
+	 */
+	private long knapsacks(int[][] commodities) throws ContradictionException {
+		long total = 0;
+		for (int p = 0; p < nbPorts; p++) {
+			long free = portCapacity[p];
+			for (int k : commodities[p]) {
+				if (accepted[k].isInstantiatedTo(1)) {
+					free -= quantity[k];
+					total += (long) quantity[k] * rev[k];
+				}
+			}
+			if (free < 0) {
+				fails();
+			}
+			long remaining = free;
+			for (int k : commodities[p]) {
+				if (!accepted[k].isInstantiated()) {
+					if (quantity[k] > free) {
+						accepted[k].instantiateTo(0, this);
+					} else if (remaining > 0 && rev[k] > 0) {
+						long taken = Math.min(quantity[k], remaining);
+						total += taken * rev[k];
+						remaining -= taken;
+					}
+				}
+			}
+		}
+		return total;
+	}
+
+
+
+	@Override
+	public ESat isEntailed() {
+		if (!isCompletelyInstantiated()) {
+			return ESat.UNDEFINED;
+		}
+		long[] fromLoad = new long[nbPorts];
+		long total = 0;
+		for (int k = 0; k < nbCommodities; k++) {
+			if (accepted[k].getValue() == 1) {
+				fromLoad[pol[k]] += quantity[k];
+				total += (long) quantity[k] * rev[k];
+			}
+		}
+		for (int p = 0; p < nbPorts; p++) {
+			long capacity = 0;
+			for (int r = 0; r < nbRotations; r++) {
+				if (successors[r][p].getValue() != p) {
+					capacity += capacities[r].getValue();
+				}
+			}
+			if (fromLoad[p] > capacity) {
+				return ESat.FALSE;
+			}
+		}
+		return ESat.eval(revenue.getValue() <= total);
+	}
+}
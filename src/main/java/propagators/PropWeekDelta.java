@@ -0,0 +1,166 @@
+package propagators;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+
+public class PropWeekDelta extends Propagator<IntVar> {
+
+	/** This class allows to compute the time elapsed between two times given modulo a period (TT.4): if the guard is 1, both times lie in
+	 *  [0, period - 1] and delta = (in - out) mod period, and if the guard is 0, delta = 0 whatever the times. Each value is kept only if it
+	 *  has a support, which is searched for among the values of the other variables and stops at the first one found. */
+
+	private final IntVar guard;								//1 if the elapsed time is computed, 0 if it is zero
+	private final IntVar out;								//the first time, modulo the period
+	private final IntVar in;								//the second time, modulo the period
+	private final IntVar delta;								//the time elapsed from out to in
+	private final int period;								//the period (e.g. one week)
+
+
+
+	/**
+	 * Constructor for creating a PropWeekDelta object
+	 * @param guard 1 if the elapsed time is computed, 0 if it is zero
+	 * @param out the first time, modulo the period
+	 * @param in the second time, modulo the period
+	 * @param delta the time elapsed from out to in, modulo the period
+	 * @param period the period
+	 */
+	public PropWeekDelta(IntVar guard, IntVar out, IntVar in, IntVar delta, int period) {
+		super(new IntVar[] {guard, out, in, delta}, PropagatorPriority.TERNARY, false);
+		this.guard = guard;
+		this.out = out;
+		this.in = in;
+		this.delta = delta;
+		this.period = period;
+	}
+
+
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		guard.updateBounds(0, 1, this);
+		if (guard.contains(0) && !delta.contains(0)) {
+			guard.removeValue(0, this);
+		}
+		if (guard.contains(1) && !hasElapsedTime()) {
+			guard.removeValue(1, this);
+		}
+		if (!guard.isInstantiated()) {
+			//out and in are supported by guard = 0, and only the value 0 of delta
+			int ub = delta.getUB();
+			for (int d = delta.getLB(); d <= ub; d = delta.nextValue(d)) {
+				if (d != 0 && !supportsDelta(d)) {
+					delta.removeValue(d, this);
+				}
+			}
+		} else if (guard.getValue() == 0) {
+			delta.instantiateTo(0, this);
+			setPassive();
+		} else {
+			out.updateBounds(0, period - 1, this);
+			in.updateBounds(0, period - 1, this);
+			delta.updateBounds(0, period - 1, this);
+			int ub = out.getUB();
+			for (int o = out.getLB(); o <= ub; o = out.nextValue(o)) {
+				if (!supportsOut(o)) {
+					out.removeValue(o, this);
+				}
+			}
+			ub = in.getUB();
+			for (int i = in.getLB(); i <= ub; i = in.nextValue(i)) {
+				if (!supportsIn(i)) {
+					in.removeValue(i, this);
+				}
+			}
+			ub = delta.getUB();
+			for (int d = delta.getLB(); d <= ub; d = delta.nextValue(d)) {
+				if (!supportsDelta(d)) {
+					delta.removeValue(d, this);
+				}
+			}
+		}
+	}
+
+
+
+	/**
+	 * @return returns true if the domains contain a time elapsed from out to in, both in [0, period - 1]
+	 */
+	private boolean hasElapsedTime() {
+		int ub = Math.min(out.getUB(), period - 1);
+		for (int o = Math.max(0, out.getLB()); o <= ub; o = out.nextValue(o)) {
+			if (supportsOut(o)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	/**
+	 * @param o a value of out in [0, period - 1]
+	 * @return returns true if some value of delta leads from o to a value of in
+	 */
+	private boolean supportsOut(int o) {
+		int ub = Math.min(delta.getUB(), period - 1);
+		for (int d = Math.max(0, delta.getLB()); d <= ub; d = delta.nextValue(d)) {
+			if (in.contains((o + d) % period)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	/**
+	 * @param i a value of in in [0, period - 1]
+	 * @return returns true if some value of delta leads from a value of out to i
+	 */
+	private boolean supportsIn(int i) {
+		int ub = Math.min(delta.getUB(), period - 1);
+		for (int d = Math.max(0, delta.getLB()); d <= ub; d = delta.nextValue(d)) {
+			if (out.contains(Math.floorMod(i - d, period))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	/**
+	 * @param d a value of delta
+	 * @return returns true if d is the time elapsed from a value of out to a value of in
+	 */
+	private boolean supportsDelta(int d) {
+		if (d < 0 || d >= period) {
+			return false;
+		}
+		int ub = Math.min(out.getUB(), period - 1);
+		for (int o = Math.max(0, out.getLB()); o <= ub; o = out.nextValue(o)) {
+			if (in.contains((o + d) % period)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	@Override
+	public ESat isEntailed() {
+		if (!isCompletelyInstantiated()) {
+			return ESat.UNDEFINED;
+		}
+		if (guard.getValue() == 0) {
+			return ESat.eval(delta.getValue() == 0);
+		}
+		return ESat.eval(guard.getValue() == 1 && out.getValue() >= 0 && out.getValue() < period && in.getValue() >= 0 && in.getValue() < period
+				&& delta.getValue() == Math.floorMod(in.getValue() - out.getValue(), period));
+	}
+}
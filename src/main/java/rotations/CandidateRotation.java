@@ -0,0 +1,221 @@
+package rotations;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+
+public class CandidateRotation {
+
+	/** This class allows to represent a rotation generated by the enumeration: a vessel type, a circuit of ports sailed at one speed,
+	 *  and the data which do not depend on the cargo: the time of each leg (manoeuvring, sailing and waiting times, without the
+	 *  operation times), the base round-trip time, the minimal number of vessels and the fixed cost (call costs and fuel). */
+
+	private final int vessel;								//the vessel type (from 0)
+	private final int[] ports;								//the ports of the circuit, in the order in which they are visited
+	private final int speed;								//the speed on every leg
+	private final int[] legTimes;							//the time from leaving port i (after its operations) to reaching port i + 1
+	private final int baseTime;								//the round-trip time without the operation times
+	private final int minVessels;							//the number of vessels needed for the base round-trip time
+	private final long fixedCost;							//the call costs and the fuel cost of the circuit
+
+
+
+	/**
+	 * Constructor for creating a CandidateRotation object
+	 * @param vessel the vessel type (from 0)
+	 * @param ports the ports of the circuit, in the order in which they are visited
+	 * @param speed the speed on every leg
+	 * @param legTimes the time of each leg, from leaving port i to reaching port i + 1 (the last leg goes back to the first port)
+	 * @param minVessels the number of vessels needed for the base round-trip time
+	 * @param fixedCost the call costs and the fuel cost of the circuit
+	 */
+	public CandidateRotation(int vessel, int[] ports, int speed, int[] legTimes, int minVessels, long fixedCost) {
+		this.vessel = vessel;
+		this.ports = ports;
+		this.speed = speed;
+		this.legTimes = legTimes;
+		int time = 0;
+		for (int t : legTimes) {
+			time += t;
+		}
+		this.baseTime = time;
+		this.minVessels = minVessels;
+		this.fixedCost = fixedCost;
+	}
+
+
+
+	/**
+	 * @return returns the vessel type (from 0)
+	 */
+	public int getVessel() {
+		return vessel;
+	}
+
+
+
+	/**
+	 * @return returns the ports of the circuit, in the order in which they are visited
+	 */
+	public int[] getPorts() {
+		return ports;
+	}
+
+
+
+	/**
+	 * @return returns the speed on every leg
+	 */
+	public int getSpeed() {
+		return speed;
+	}
+
+
+
+	/**
+	 * @param i the position of a port in the circuit
+	 * @return returns the time from leaving the ith port to reaching the next one
+	 */
+	public int getLegTime(int i) {
+		return legTimes[i];
+	}
+
+
+
+	/**
+	 * @return returns the round-trip time without the operation times
+	 */
+	public int getBaseTime() {
+		return baseTime;
+	}
+
+
+
+	/**
+	 * @return returns the number of vessels needed for the base round-trip time
+	 */
+	public int getMinVessels() {
+		return minVessels;
+	}
+
+
+
+	/**
+	 * @return returns the call costs and the fuel cost of the circuit
+	 */
+	public long getFixedCost() {
+		return fixedCost;
+	}
+
+
+
+	/**
+	 * @param p a port
+	 * @return returns the position of port p in the circuit, -1 if it is not visited
+	 */
+	public int positionOf(int p) {
+		for (int i = 0; i < ports.length; i++) {
+			if (ports[i] == p) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+
+	/**
+	 * @param other another rotation with the same vessel type and the same ports
+	 * @return returns true if this rotation is neither slower nor more expensive than the other one
+	 */
+	public boolean dominates(CandidateRotation other) {
+		return fixedCost <= other.fixedCost && baseTime <= other.baseTime;
+	}
+
+
+
+	/**
+	 * @return returns the key of the rotation: the rotations with the same key are compared by dominance
+	 */
+	public Key getKey() {
+		BitSet set = new BitSet();
+		for (int p : ports) {
+			set.set(p);
+		}
+		return new Key(vessel, set);
+	}
+
+
+
+	/**
+	 * writes the rotation to a stream
+	 * @param out the stream
+	 * @throws IOException if the rotation cannot be written
+	 */
+	public void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(vessel);
+		out.writeInt(speed);
+		out.writeInt(minVessels);
+		out.writeLong(fixedCost);
+		out.writeInt(ports.length);
+		for (int i = 0; i < ports.length; i++) {
+			out.writeInt(ports[i]);
+			out.writeInt(legTimes[i]);
+		}
+	}
+
+
+
+	/**
+	 * @param in a stream
+	 * @return returns the rotation read from the stream
+	 * @throws IOException if the rotation cannot be read
+	 */
+	public static CandidateRotation readFrom(DataInputStream in) throws IOException {
+		int vessel = in.readInt();
+		int speed = in.readInt();
+		int minVessels = in.readInt();
+		long fixedCost = in.readLong();
+		int nbPorts = in.readInt();
+		int[] ports = new int[nbPorts];
+		int[] legTimes = new int[nbPorts];
+		for (int i = 0; i < nbPorts; i++) {
+			ports[i] = in.readInt();
+			legTimes[i] = in.readInt();
+		}
+		return new CandidateRotation(vessel, ports, speed, legTimes, minVessels, fixedCost);
+	}
+
+
+
+	/** This class allows to represent the vessel type and the set of ports of a rotation */
+	public static final class Key {
+		private final int vessel;							//the vessel type (from 0)
+		private final BitSet ports;							//the ports of the circuit
+
+		/**
+		 * Constructor for creating a Key object
+		 * @param vessel the vessel type (from 0)
+		 * @param ports the ports of the circuit
+		 */
+		private Key(int vessel, BitSet ports) {
+			this.vessel = vessel;
+			this.ports = ports;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return vessel == other.vessel && ports.equals(other.ports);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * ports.hashCode() + vessel;
+		}
+	}
+}
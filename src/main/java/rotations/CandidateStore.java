@@ -0,0 +1,195 @@
+package rotations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+public class CandidateStore {
+
+	/** This class allows to store the rotations generated by the enumeration. Among the rotations with the same vessel type and the same
+	 *  ports, only the rotations which are not dominated (a faster or cheaper one exists) are kept. The rotations may be added
+	 *  concurrently. When too many rotations are kept, or when the free memory becomes low, the rotations are written to a temporary
+	 *  file and removed from memory: the dominance is then only checked among the rotations generated since the last spill. */
+
+	private final ConcurrentHashMap<CandidateRotation.Key, List<CandidateRotation>> rotations = new ConcurrentHashMap<>();	//the rotations kept in memory, by key
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();	//the rotations are added under the read lock and spilled under the write lock
+	private final List<File> files = new ArrayList<>();		//the files to which rotations have been spilled
+	private final int maxInMemory;							//the maximal number of rotations kept in memory
+	private final double minFreeMemory;						//the minimal ratio of free memory, below which the rotations are spilled
+	private final File directory;							//the directory of the spilled files, null for the default temporary directory
+	private final AtomicInteger nbInMemory = new AtomicInteger();	//the number of rotations kept in memory
+	private final AtomicLong nbAdded = new AtomicLong();	//the number of rotations added
+	private final AtomicLong nbDominated = new AtomicLong();	//the number of rotations removed by dominance
+	private long nbSpilled;									//the number of rotations written to files
+
+
+
+	/**
+	 * Constructor for creating a CandidateStore object
+	 * @param maxInMemory the maximal number of rotations kept in memory
+	 * @param minFreeMemory the minimal ratio of free memory (between 0 and 1), below which the rotations are spilled
+	 * @param directory the directory of the spilled files, null for the default temporary directory
+	 */
+	public CandidateStore(int maxInMemory, double minFreeMemory, File directory) {
+		this.maxInMemory = maxInMemory;
+		this.minFreeMemory = minFreeMemory;
+		this.directory = directory;
+	}
+
+
+
+	/**
+	 * adds a rotation, unless it is dominated, and removes the rotations it dominates
+	 * @param rotation the rotation
+	 */
+	public void add(CandidateRotation rotation) {
+		nbAdded.incrementAndGet();
+		lock.readLock().lock();
+		try {
+			rotations.compute(rotation.getKey(), (key, list) -> {
+				if (list == null) {
+					list = new ArrayList<>(1);
+				}
+				for (CandidateRotation other : list) {
+					if (other.dominates(rotation)) {
+						nbDominated.incrementAndGet();
+						return list;
+					}
+				}
+				int size = list.size();
+				list.removeIf(rotation::dominates);
+				nbDominated.addAndGet(size - list.size());
+				nbInMemory.addAndGet(1 - (size - list.size()));
+				list.add(rotation);
+				return list;
+			});
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (nbInMemory.get() > maxInMemory || isMemoryLow()) {
+			spill();
+		}
+	}
+
+
+
+	/**
+	 * @return returns true if the ratio of free memory is below minFreeMemory
+	 */
+	private boolean isMemoryLow() {
+		Runtime runtime = Runtime.getRuntime();
+		long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+		return free < minFreeMemory * runtime.maxMemory();
+	}
+
+
+
+	/**
+	 * writes the rotations kept in memory to a new temporary file, and removes them from memory
+	 */
+	public void spill() {
+		lock.writeLock().lock();
+		try {
+			int nb = nbInMemory.get();
+			if (nb == 0) {
+				return;
+			}
+			File file = File.createTempFile("rotations", ".bin", directory);
+			file.deleteOnExit();
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+				out.writeInt(nb);
+				for (List<CandidateRotation> list : rotations.values()) {
+					for (CandidateRotation rotation : list) {
+						rotation.writeTo(out);
+					}
+				}
+			}
+			files.add(file);
+			nbSpilled += nb;
+			rotations.clear();
+			nbInMemory.set(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException("The rotations cannot be spilled", e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+
+
+	/**
+	 * calls the consumer for each rotation stored, the spilled rotations being read one after the other
+	 * @param consumer the consumer
+	 */
+	public void forEach(Consumer<CandidateRotation> consumer) {
+		lock.writeLock().lock();
+		try {
+			for (File file : files) {
+				try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+					int nb = in.readInt();
+					for (int i = 0; i < nb; i++) {
+						consumer.accept(CandidateRotation.readFrom(in));
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException("The rotations cannot be read", e);
+				}
+			}
+			for (List<CandidateRotation> list : rotations.values()) {
+				list.forEach(consumer);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+
+
+	/**
+	 * removes all the rotations, and deletes the spilled files
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			for (File file : files) {
+				file.delete();
+			}
+			files.clear();
+			rotations.clear();
+			nbInMemory.set(0);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+
+
+	/**
+	 * @return returns the number of rotations stored (in memory and in files)
+	 */
+	public long size() {
+		return nbSpilled + nbInMemory.get();
+	}
+
+
+
+	/**
+	 * @return returns the statistics of the store
+	 */
+	public String getStatistics() {
+		return "Rotations: " + nbAdded.get() + " generated, " + nbDominated.get() + " dominated, " + size() + " stored, " + nbSpilled
+				+ " spilled to " + files.size() + " files";
+	}
+}
@@ -0,0 +1,453 @@
+package rotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IntVar;
+
+import heuristic.RotationPlan;
+import instance.Instance;
+import instance.InstanceIndex;
+import instance.VesselType;
+import model_v0.AuxiliaryFunctions;
+import model_v0.InstanceDerivedData;
+
+public class MasterModel {
+
+	/** This class allows to build a network from the enumerated rotations with a small CHOCO model: x_c selects the rotation c and
+	 *  y_kc carries commodity k on the rotation c from its origin to its destination, without transshipment. The operation times
+	 *  (T.1) depend on the selected cargo, so the round-trip time of a rotation is its base time plus its operation times, and the
+	 *  number of its vessels is given by the table of W.1. Only the rotations with the best scores are kept as columns: the score of a
+	 *  rotation is the revenue of the commodities it could carry minus its fixed cost and the charter of its minimal number of vessels,
+	 *  an upper bound of its profit, so the rotations whose score is not positive are never kept. */
+
+	private final InstanceIndex index;						//the indexed view of the instance
+	private final int nbRotations;							//the maximal number of rotations
+	private final int tsmax;								//the maximal number of transshipments
+	private final int nbCommodities;						//the number of commodities
+	private final int[] pol;								//origin ports of commodity
+	private final int[] pod;								//destination ports of commodity
+
+	private final List<CandidateRotation> columns;			//the rotations which may be selected
+	private final org.chocosolver.solver.Model chocoModel;	//the CHOCO model
+	private final BoolVar[] selected;						//x_c, 1 if rotation c is selected
+	private final IntVar[] times;							//the round-trip time of rotation c
+	private final BoolVar[] carried;						//y_kc, 1 if commodity k is carried by rotation c
+	private final int[] carriedCommodity;					//the commodity of each variable y_kc
+	private final int[] carriedColumn;						//the rotation of each variable y_kc
+	private final IntVar objective;							//the revenue minus the costs of the selected rotations
+	private Solution best;									//the best solution found
+	private long nbCandidates;								//the number of rotations read from the store
+
+
+
+	/**
+	 * Constructor for creating a MasterModel object
+	 * @param instance the instance
+	 * @param store the enumerated rotations
+	 * @param nbRotations the maximal number of rotations
+	 * @param tsmax the maximal number of transshipments
+	 * @param hmax the maximal number of hours that a rotation may last
+	 * @param ratioMu the ratio which allows us to convert the number of TEU to the number of containers
+	 * @param tNbv the version of table NbVessel used
+	 * @param maxColumns the maximal number of rotations kept as columns
+	 */
+	public MasterModel(Instance instance, CandidateStore store, int nbRotations, int tsmax, int hmax, double ratioMu, int tNbv, int maxColumns) {
+		this.index = instance.getIndex();
+		this.nbRotations = nbRotations;
+		this.tsmax = tsmax;
+		this.nbCommodities = instance.getCommodities().size();
+		int nbCommoditiesWithTt = instance.getNumberCommodityWithTt();
+		int nbPorts = index.getPortNumber();
+		int nbVessels = index.getVesselTypeNumber();
+		int mu = (int) (ratioMu * 100);
+
+		InstanceDerivedData derivedData = InstanceDerivedData.of(instance);
+		this.pol = derivedData.getPol();
+		this.pod = derivedData.getPod();
+		int[] quantity = derivedData.getQuantity();
+		int[] rev = derivedData.getRev();
+		int[] transitTime = new int[nbCommodities];
+		for (int k = 0; k < nbCommodities; k++) {
+			transitTime[k] = k < nbCommoditiesWithTt && tsmax >= 1 ? instance.getCommodities().get(k).getTransitTime() : Integer.MAX_VALUE;
+		}
+		List<List<Integer>> byPol = new ArrayList<>();
+		int[] nbIn = new int[nbPorts];
+		int[] nbOut = new int[nbPorts];
+		for (int p = 0; p < nbPorts; p++) {
+			byPol.add(new ArrayList<>());
+		}
+		for (int k = 0; k < nbCommodities; k++) {
+			byPol.get(pol[k]).add(k);
+			nbIn[pod[k]]++;
+			nbOut[pol[k]]++;
+		}
+		int[] capacity = new int[nbVessels];
+		int[] realCapacity = new int[nbVessels];
+		int[] rate = new int[nbVessels];
+		int[] available = new int[nbVessels];
+		for (int v = 0; v < nbVessels; v++) {
+			VesselType vesselType = instance.getVesselType(instance.getVesselTypes().get(v));
+			capacity[v] = vesselType.getMaximalCapacity();
+			realCapacity[v] = vesselType.getRealCapacity();
+			rate[v] = vesselType.getRate();
+			available[v] = vesselType.getVesselNumber();
+		}
+
+		//the rotations with the best scores are kept, then the dominated ones are removed
+		PriorityQueue<Scored> queue = new PriorityQueue<>(Comparator.comparingLong((Scored s) -> s.score));
+		store.forEach(column -> {
+			nbCandidates++;
+			long score = eligibleRevenue(column, byPol, quantity, rev, capacity, transitTime)
+					- column.getFixedCost() - 7L * rate[column.getVessel()] * column.getMinVessels();
+			if (score > 0 && (queue.size() < maxColumns || score > queue.peek().score)) {
+				queue.add(new Scored(column, score));
+				if (queue.size() > maxColumns) {
+					queue.poll();
+				}
+			}
+		});
+		List<Scored> scored = new ArrayList<>(queue);
+		scored.sort(Comparator.comparingLong((Scored s) -> -s.score));
+		this.columns = new ArrayList<>();
+		for (Scored s : scored) {
+			boolean dominated = false;
+			for (CandidateRotation other : columns) {
+				dominated |= other.getKey().equals(s.column.getKey()) && other.dominates(s.column);
+			}
+			if (!dominated) {
+				columns.add(s.column);
+			}
+		}
+
+		//variables
+		int nbColumns = columns.size();
+		this.chocoModel = new org.chocosolver.solver.Model("Rotation master");
+		this.selected = chocoModel.boolVarArray("x", nbColumns);
+		this.times = new IntVar[nbColumns];
+		IntVar[] vesselsUsed = new IntVar[nbColumns];
+		List<BoolVar> carriedList = new ArrayList<>();
+		List<int[]> carriedData = new ArrayList<>();
+		List<List<BoolVar>> byCommodity = new ArrayList<>();
+		for (int k = 0; k < nbCommodities; k++) {
+			byCommodity.add(new ArrayList<>());
+		}
+		List<List<BoolVar>> byPort = new ArrayList<>();
+		for (int p = 0; p < nbPorts; p++) {
+			byPort.add(new ArrayList<>());
+		}
+		List<List<IntVar>> byVessel = new ArrayList<>();
+		for (int v = 0; v < nbVessels; v++) {
+			byVessel.add(new ArrayList<>());
+		}
+		Tuples tableNbVessel = derivedData.getTable("nbVessel/" + hmax + "/" + tNbv, () -> AuxiliaryFunctions.computeNbVesselTable(hmax, tNbv));
+
+		for (int c = 0; c < nbColumns; c++) {
+			CandidateRotation column = columns.get(c);
+			int v = column.getVessel();
+			int[] ports = column.getPorts();
+			int m = ports.length;
+			List<List<BoolVar>> atPort = new ArrayList<>();
+			List<List<Integer>> atPortQuantity = new ArrayList<>();
+			List<List<BoolVar>> onLeg = new ArrayList<>();
+			List<List<Integer>> onLegQuantity = new ArrayList<>();
+			for (int i = 0; i < m; i++) {
+				atPort.add(new ArrayList<>());
+				atPortQuantity.add(new ArrayList<>());
+				onLeg.add(new ArrayList<>());
+				onLegQuantity.add(new ArrayList<>());
+				byPort.get(ports[i]).add(selected[c]);
+			}
+			List<int[]> ttCommodities = new ArrayList<>();
+			for (int i = 0; i < m; i++) {
+				for (int k : byPol.get(ports[i])) {
+					int j = column.positionOf(pod[k]);
+					if (j < 0 || quantity[k] > capacity[v] || transit(column, i, j) > transitTime[k]) {
+						continue;
+					}
+					BoolVar y = chocoModel.boolVar("y_" + k + "_" + c);
+					carriedList.add(y);
+					carriedData.add(new int[] {k, c});
+					byCommodity.get(k).add(y);
+					chocoModel.arithm(y, "<=", selected[c]).post();
+					atPort.get(i).add(y);
+					atPortQuantity.get(i).add(quantity[k]);
+					atPort.get(j).add(y);
+					atPortQuantity.get(j).add(quantity[k]);
+					for (int l = i; l != j; l = (l + 1) % m) {
+						onLeg.get(l).add(y);
+						onLegQuantity.get(l).add(quantity[k]);
+					}
+					if (transitTime[k] != Integer.MAX_VALUE && (i + 1) % m != j) {
+						ttCommodities.add(new int[] {k, i, j, carriedList.size() - 1});
+					}
+				}
+			}
+
+			//operation times (T.1 and T.2): op = floor(mu * teu / (prod * 100)) and at least 1 if the rotation is selected
+			IntVar[] operations = new IntVar[m];
+			for (int i = 0; i < m; i++) {
+				int productivity = index.getProductivity(ports[i], v) * 100;
+				IntVar teu = chocoModel.intVar("teu_" + i + "_" + c, 0, 2 * realCapacity[v]);
+				chocoModel.scalar(atPort.get(i).toArray(new IntVar[0]), toArray(atPortQuantity.get(i)), "=", teu).post();
+				operations[i] = chocoModel.intVar("op_" + i + "_" + c, 0, (int) ((long) mu * 2 * realCapacity[v] / productivity));
+				chocoModel.scalar(new IntVar[] {operations[i], teu}, new int[] {productivity, -mu}, "<=", 0).post();
+				chocoModel.scalar(new IntVar[] {operations[i], teu}, new int[] {-productivity, mu}, "<=", productivity - 1).post();
+				chocoModel.arithm(operations[i], ">=", selected[c]).post();
+			}
+
+			//capacity of the legs (L.6), and the vessel leaves each port loaded (L.8)
+			for (int i = 0; i < m; i++) {
+				IntVar[] legVars = onLeg.get(i).toArray(new IntVar[0]);
+				chocoModel.scalar(legVars, toArray(onLegQuantity.get(i)), "<=", capacity[v]).post();
+				chocoModel.sum(legVars, ">=", selected[c]).post();
+			}
+
+			//round-trip time and number of vessels (W.1)
+			times[c] = chocoModel.intVar("T_" + c, 0, hmax);
+			int[] coefficients = new int[m + 1];
+			Arrays.fill(coefficients, 1);
+			coefficients[0] = column.getBaseTime();
+			IntVar[] terms = new IntVar[m + 1];
+			terms[0] = selected[c];
+			System.arraycopy(operations, 0, terms, 1, m);
+			chocoModel.scalar(terms, coefficients, "=", times[c]).post();
+			vesselsUsed[c] = chocoModel.intVar("n_" + c, 0, available[v]);
+			chocoModel.table(new IntVar[] {times[c], vesselsUsed[c]}, tableNbVessel).post();
+			byVessel.get(v).add(vesselsUsed[c]);
+
+			//transit times: the operations at the intermediate ports must fit in the time left by the legs
+			for (int[] tt : ttCommodities) {
+				int k = tt[0];
+				List<IntVar> intermediate = new ArrayList<>();
+				for (int l = (tt[1] + 1) % m; l != tt[2]; l = (l + 1) % m) {
+					intermediate.add(operations[l]);
+				}
+				intermediate.add(carriedList.get(tt[3]));
+				int[] ttCoefficients = new int[intermediate.size()];
+				Arrays.fill(ttCoefficients, 1);
+				ttCoefficients[ttCoefficients.length - 1] = hmax;
+				chocoModel.scalar(intermediate.toArray(new IntVar[0]), ttCoefficients, "<=",
+						transitTime[k] - transit(column, tt[1], tt[2]) + hmax).post();
+			}
+		}
+		this.carried = carriedList.toArray(new BoolVar[0]);
+		this.carriedCommodity = new int[carried.length];
+		this.carriedColumn = new int[carried.length];
+		for (int i = 0; i < carried.length; i++) {
+			carriedCommodity[i] = carriedData.get(i)[0];
+			carriedColumn[i] = carriedData.get(i)[1];
+		}
+
+		//each commodity is carried at most once, the number of rotations, of vessels (W.2) and of rotations per port (CR.6) are limited
+		for (int k = 0; k < nbCommodities; k++) {
+			if (byCommodity.get(k).size() > 1) {
+				chocoModel.sum(byCommodity.get(k).toArray(new BoolVar[0]), "<=", 1).post();
+			}
+		}
+		chocoModel.sum(selected, "<=", nbRotations).post();
+		for (int v = 0; v < nbVessels; v++) {
+			if (!byVessel.get(v).isEmpty()) {
+				chocoModel.sum(byVessel.get(v).toArray(new IntVar[0]), "<=", available[v]).post();
+			}
+		}
+		for (int p = 0; p < nbPorts; p++) {
+			int limit = Math.max(nbIn[p], nbOut[p]);
+			if (byPort.get(p).size() > limit) {
+				chocoModel.sum(byPort.get(p).toArray(new BoolVar[0]), "<=", limit).post();
+			}
+		}
+
+		//objective: revenue - fixed costs - time charter costs
+		IntVar[] objectiveVars = new IntVar[carried.length + 2 * nbColumns];
+		int[] objectiveCoefficients = new int[objectiveVars.length];
+		long lb = 0;
+		long ub = 0;
+		for (int i = 0; i < carried.length; i++) {
+			int k = carriedCommodity[i];
+			objectiveVars[i] = carried[i];
+			objectiveCoefficients[i] = quantity[k] * rev[k];
+			ub += (long) quantity[k] * rev[k];
+		}
+		for (int c = 0; c < nbColumns; c++) {
+			int v = columns.get(c).getVessel();
+			objectiveVars[carried.length + 2 * c] = selected[c];
+			objectiveCoefficients[carried.length + 2 * c] = (int) -columns.get(c).getFixedCost();
+			objectiveVars[carried.length + 2 * c + 1] = vesselsUsed[c];
+			objectiveCoefficients[carried.length + 2 * c + 1] = -7 * rate[v];
+			lb -= columns.get(c).getFixedCost() + 7L * rate[v] * available[v];
+		}
+		this.objective = chocoModel.intVar("objective", (int) Math.max(lb, Integer.MIN_VALUE / 2), (int) Math.min(ub, Integer.MAX_VALUE / 2));
+		chocoModel.scalar(objectiveVars, objectiveCoefficients, "=", objective).post();
+		chocoModel.setObjective(org.chocosolver.solver.Model.MAXIMIZE, objective);
+
+		//the rotations are tried by decreasing score, then the commodities by decreasing revenue
+		Integer[] order = new Integer[carried.length];
+		for (int i = 0; i < carried.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingLong((Integer i) -> -(long) quantity[carriedCommodity[i]] * rev[carriedCommodity[i]]));
+		BoolVar[] sortedCarried = new BoolVar[carried.length];
+		for (int i = 0; i < carried.length; i++) {
+			sortedCarried[i] = carried[order[i]];
+		}
+		Solver solver = chocoModel.getSolver();
+		solver.setSearch(Search.inputOrderUBSearch(selected), Search.inputOrderUBSearch(sortedCarried));
+		solver.makeCompleteStrategy(true);
+	}
+
+
+
+	/** This class allows to rank the rotations by score */
+	private static class Scored {
+		private final CandidateRotation column;				//the rotation
+		private final long score;							//its score
+
+		/**
+		 * Constructor for creating a Scored object
+		 * @param column the rotation
+		 * @param score its score
+		 */
+		private Scored(CandidateRotation column, long score) {
+			this.column = column;
+			this.score = score;
+		}
+	}
+
+
+
+	/**
+	 * @param column a rotation
+	 * @param byPol the commodities whose origin is port p
+	 * @param quantity the quantity of each commodity
+	 * @param rev the revenue per TEU of each commodity
+	 * @param capacity the maximal capacity of each vessel type
+	 * @param transitTime the transit time of each commodity, Integer.MAX_VALUE if it is not limited
+	 * @return returns the revenue of the commodities which may be carried by the rotation without transshipment, or 0 if a port of the
+	 *         rotation is neither the origin nor the destination of such a commodity (CR.3) or if a leg cannot be loaded (L.8)
+	 */
+	private long eligibleRevenue(CandidateRotation column, List<List<Integer>> byPol, int[] quantity, int[] rev, int[] capacity, int[] transitTime) {
+		int[] ports = column.getPorts();
+		boolean[] used = new boolean[ports.length];
+		boolean[] loaded = new boolean[ports.length];
+		long revenue = 0;
+		for (int i = 0; i < ports.length; i++) {
+			for (int k : byPol.get(ports[i])) {
+				int j = column.positionOf(pod[k]);
+				if (j >= 0 && quantity[k] <= capacity[column.getVessel()] && transit(column, i, j) <= transitTime[k]) {
+					revenue += (long) quantity[k] * rev[k];
+					used[i] = true;
+					used[j] = true;
+					for (int l = i; l != j; l = (l + 1) % ports.length) {
+						loaded[l] = true;
+					}
+				}
+			}
+		}
+		for (int i = 0; i < ports.length; i++) {
+			if (!used[i] || !loaded[i]) {
+				return 0;
+			}
+		}
+		return revenue;
+	}
+
+
+
+	/**
+	 * @param column a rotation
+	 * @param i the position of the origin port
+	 * @param j the position of the destination port
+	 * @return returns the time from leaving the ith port to reaching the jth port, without the operation times
+	 */
+	private static int transit(CandidateRotation column, int i, int j) {
+		int m = column.getPorts().length;
+		int time = 0;
+		for (int l = i; l != j; l = (l + 1) % m) {
+			time += column.getLegTime(l);
+		}
+		return time;
+	}
+
+
+
+	/**
+	 * @param list a list of integers
+	 * @return returns the integers of the list as an array
+	 */
+	private static int[] toArray(List<Integer> list) {
+		return list.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+
+
+	/**
+	 * searches for the best selection of rotations
+	 * @param timeLimit the time limit (in milliseconds)
+	 * @return returns true if a solution has been found
+	 */
+	public boolean solve(long timeLimit) {
+		Solver solver = chocoModel.getSolver();
+		solver.limitTime(timeLimit);
+		while (solver.solve()) {
+			if (best == null) {
+				best = new Solution(chocoModel);
+			}
+			best.record();
+		}
+		return best != null;
+	}
+
+
+
+	/**
+	 * @return returns the network of the best solution found, whose rotations are sorted by decreasing round-trip time (B.2), null if
+	 *         no solution has been found
+	 */
+	public RotationPlan toPlan() {
+		if (best == null) {
+			return null;
+		}
+		List<Integer> used = new ArrayList<>();
+		for (int c = 0; c < columns.size(); c++) {
+			if (best.getIntVal(selected[c]) == 1) {
+				used.add(c);
+			}
+		}
+		used.sort(Comparator.comparingInt((Integer c) -> -best.getIntVal(times[c])));
+		RotationPlan plan = new RotationPlan(nbRotations, index.getInfraNumber(), nbCommodities, tsmax);
+		int[] rotation = new int[columns.size()];
+		for (int r = 0; r < used.size(); r++) {
+			CandidateRotation column = columns.get(used.get(r));
+			plan.setRotation(r, column.getVessel() + 1, column.getPorts(), column.getSpeed());
+			rotation[used.get(r)] = r;
+		}
+		for (int i = 0; i < carried.length; i++) {
+			if (best.getIntVal(carried[i]) == 1) {
+				int k = carriedCommodity[i];
+				plan.setDirectRoute(k, rotation[carriedColumn[i]], pol[k], pod[k]);
+			}
+		}
+		plan.setObjective(best.getIntVal(objective));
+		return plan;
+	}
+
+
+
+	/**
+	 * @return returns the statistics of the master model
+	 */
+	public String getStatistics() {
+		return "Master: " + nbCandidates + " rotations read, " + columns.size() + " columns, " + carried.length + " carrying variables, "
+				+ chocoModel.getNbVars() + " variables, " + chocoModel.getNbCstrs() + " constraints"
+				+ (best != null ? ", best objective " + best.getIntVal(objective) : "");
+	}
+}
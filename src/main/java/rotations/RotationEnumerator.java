@@ -0,0 +1,296 @@
+package rotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.chocosolver.solver.constraints.extension.Tuples;
+
+import instance.Instance;
+import instance.InstanceIndex;
+import instance.VesselType;
+import model_v0.AuxiliaryFunctions;
+import model_v0.InstanceDerivedData;
+import model_v0.InstancePreprocessor;
+
+public class RotationEnumerator {
+
+	/** This class allows to enumerate, for each vessel type, the circuits of ports which may be sailed within hmax, and to turn each
+	 *  circuit into one rotation for each speed: its base round-trip time (without the operation times, which depend on the cargo), the
+	 *  number of vessels needed for this time (W.1) and its fixed cost (call costs and fuel). Each circuit starts from its smallest port,
+	 *  so that it is generated only once, and a circuit is extended only if the fastest way back to its first port still fits in hmax.
+	 *  The circuits starting from the same port are enumerated by the same task, which forks the first extensions into subtasks of a
+	 *  fork/join pool. The rotations are added to a CandidateStore, which keeps the rotations which are not dominated. */
+
+	private static final int SPLIT_DEPTH = 2;				//the circuits with fewer ports are extended by subtasks
+	private static final int INFEASIBLE = Integer.MAX_VALUE;	//the time of a leg which cannot be sailed
+
+	private final InstanceIndex index;						//the indexed view of the instance
+	private final InstancePreprocessor preprocessor;		//the legs which may be sailed by each vessel type
+	private final int hmax;									//the maximal number of hours that a rotation may last
+	private final int maxPorts;								//the maximal number of ports of a circuit
+	private final int nbPorts;								//the number of ports
+	private final int nbVessels;							//the number of vessel types
+
+	private final int[] available;							//the number of vessels of each type
+	private final int[] fuelCost;							//the fuel cost of each vessel type
+	private final int[][] speeds;							//the possible speeds of each vessel type
+	private final int[][] consumptions;						//the fuel consumption of each vessel type at each of its possible speeds
+	private final boolean[][] callable;						//true if vessel type v may call at port p (and operate there), indexed by [v][p]
+	private final int[][][] minLegTimes;					//the time of the leg p -> sp at the maximal speed of vessel type v, indexed by [v][p][sp]
+	private final int[] nbVesselsByTime;					//the number of vessels deployed for each total time (W.1), -1 if none
+
+	private final AtomicLong nbCircuits = new AtomicLong();	//the number of circuits enumerated
+	private final AtomicLong nbRejected = new AtomicLong();	//the number of (circuit, speed) pairs rejected by hmax or by the available vessels
+	private CandidateStore store;							//the store of the rotations being enumerated
+
+
+
+	/**
+	 * Constructor for creating a RotationEnumerator object
+	 * @param instance the instance
+	 * @param hmax the maximal number of hours that a rotation may last
+	 * @param speedStep the step between two speeds
+	 * @param tNbv the version of table NbVessel used
+	 * @param maxPorts the maximal number of ports of a circuit
+	 */
+	public RotationEnumerator(Instance instance, int hmax, int speedStep, int tNbv, int maxPorts) {
+		this.index = instance.getIndex();
+		InstanceDerivedData derivedData = InstanceDerivedData.of(instance);
+		//the enumeration only uses the ports, the legs and the vessel types, which do not depend on tsmax
+		this.preprocessor = derivedData.getTable("preprocessor/" + hmax + "/0", () -> new InstancePreprocessor(instance, derivedData, hmax, 0));
+		this.hmax = hmax;
+		this.maxPorts = maxPorts;
+		this.nbPorts = index.getPortNumber();
+		this.nbVessels = index.getVesselTypeNumber();
+
+		//the speeds must belong both to the speeds of the model and to the speeds of the vessel type
+		ArrayList<String> vesselTypes = instance.getVesselTypes();
+		int speedMin = Integer.MAX_VALUE;
+		for (String name : vesselTypes) {
+			speedMin = Math.min(speedMin, instance.getVesselType(name).getMinimalSpeed());
+		}
+		this.available = new int[nbVessels];
+		this.fuelCost = new int[nbVessels];
+		this.speeds = new int[nbVessels][];
+		this.consumptions = new int[nbVessels][];
+		this.callable = new boolean[nbVessels][nbPorts];
+		this.minLegTimes = new int[nbVessels][nbPorts][nbPorts];
+		for (int v = 0; v < nbVessels; v++) {
+			VesselType vesselType = instance.getVesselType(vesselTypes.get(v));
+			available[v] = vesselType.getVesselNumber();
+			fuelCost[v] = AuxiliaryFunctions.computeFuelCost(instance, v);
+			speeds[v] = AuxiliaryFunctions.computeSpeeds(instance, v, speedMin, speedStep);
+			consumptions[v] = new int[speeds[v].length];
+			for (int s = 0; s < speeds[v].length; s++) {
+				consumptions[v][s] = AuxiliaryFunctions.computeConsumption(instance, v, speeds[v][s]);
+			}
+			for (int p = 0; p < nbPorts; p++) {
+				callable[v][p] = preprocessor.isCompatible(p, v) && index.getProductivity(p, v) > 0;
+			}
+			for (int p = 0; p < nbPorts; p++) {
+				for (int sp = 0; sp < nbPorts; sp++) {
+					minLegTimes[v][p][sp] = callable[v][p] && callable[v][sp] && preprocessor.isLegAllowed(v, p, sp) && speeds[v].length > 0
+							? legTime(p, sp, v, speeds[v][speeds[v].length - 1]) : INFEASIBLE;
+				}
+			}
+		}
+
+		Tuples table = derivedData.getTable("nbVessel/" + hmax + "/" + tNbv, () -> AuxiliaryFunctions.computeNbVesselTable(hmax, tNbv));
+		this.nbVesselsByTime = new int[hmax + 1];
+		Arrays.fill(nbVesselsByTime, -1);
+		for (int i = 0; i < table.nbTuples(); i++) {
+			int[] tuple = table.get(i);
+			nbVesselsByTime[tuple[0]] = tuple[1];
+		}
+	}
+
+
+
+	/**
+	 * enumerates the rotations of every vessel type and adds them to the store
+	 * @param store the store of the rotations
+	 * @param nbThreads the number of threads of the fork/join pool
+	 */
+	public void enumerate(CandidateStore store, int nbThreads) {
+		this.store = store;
+		List<Extension> roots = new ArrayList<>();
+		for (int v = 0; v < nbVessels; v++) {
+			if (!preprocessor.isUsable(v) || available[v] == 0 || speeds[v].length == 0) {
+				continue;
+			}
+			for (int p = 0; p < nbPorts; p++) {
+				if (callable[v][p]) {
+					int[] path = new int[maxPorts];
+					boolean[] visited = new boolean[nbPorts];
+					path[0] = p;
+					visited[p] = true;
+					roots.add(new Extension(v, path, 1, visited, 0));
+				}
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(nbThreads);
+		try {
+			pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(roots)));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+
+
+	/** This class allows to extend a path of ports in a task of the fork/join pool */
+	private class Extension extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int v;								//the vessel type (from 0)
+		private final int[] path;							//the ports of the path
+		private final int length;							//the number of ports of the path
+		private final boolean[] visited;					//true if port p belongs to the path
+		private final int time;								//the time of the legs of the path at the maximal speed
+
+		/**
+		 * Constructor for creating an Extension object
+		 * @param v the vessel type (from 0)
+		 * @param path the ports of the path
+		 * @param length the number of ports of the path
+		 * @param visited true if port p belongs to the path
+		 * @param time the time of the legs of the path at the maximal speed
+		 */
+		private Extension(int v, int[] path, int length, boolean[] visited, int time) {
+			this.v = v;
+			this.path = path;
+			this.length = length;
+			this.visited = visited;
+			this.time = time;
+		}
+
+		@Override
+		protected void compute() {
+			extend(v, path, length, visited, time);
+		}
+	}
+
+
+
+	/**
+	 * emits the circuit closing the path, then extends the path with each port larger than its first port
+	 * @param v the vessel type (from 0)
+	 * @param path the ports of the path
+	 * @param length the number of ports of the path
+	 * @param visited true if port p belongs to the path
+	 * @param time the time of the legs of the path at the maximal speed
+	 */
+	private void extend(int v, int[] path, int length, boolean[] visited, int time) {
+		int first = path[0];
+		int last = path[length - 1];
+		if (length >= 3 && minLegTimes[v][last][first] != INFEASIBLE && time + minLegTimes[v][last][first] <= hmax) {
+			emit(v, Arrays.copyOf(path, length));
+		}
+		if (length == maxPorts) {
+			return;
+		}
+		List<Extension> subtasks = length < SPLIT_DEPTH ? new ArrayList<>() : null;
+		for (int sp = first + 1; sp < nbPorts; sp++) {
+			if (visited[sp] || minLegTimes[v][last][sp] == INFEASIBLE) {
+				continue;
+			}
+			long extended = (long) time + minLegTimes[v][last][sp];
+			if (extended + preprocessor.getFastestTime(sp, first) > hmax) {
+				continue;
+			}
+			if (subtasks != null) {
+				int[] nextPath = path.clone();
+				boolean[] nextVisited = visited.clone();
+				nextPath[length] = sp;
+				nextVisited[sp] = true;
+				subtasks.add(new Extension(v, nextPath, length + 1, nextVisited, (int) extended));
+			} else {
+				path[length] = sp;
+				visited[sp] = true;
+				extend(v, path, length + 1, visited, (int) extended);
+				visited[sp] = false;
+			}
+		}
+		if (subtasks != null) {
+			ForkJoinTask.invokeAll(subtasks);
+		}
+	}
+
+
+
+	/**
+	 * adds to the store the rotations sailing the circuit at each speed of vessel type v
+	 * @param v the vessel type (from 0)
+	 * @param circuit the ports of the circuit
+	 */
+	private void emit(int v, int[] circuit) {
+		nbCircuits.incrementAndGet();
+		int m = circuit.length;
+		for (int s = 0; s < speeds[v].length; s++) {
+			int[] legTimes = new int[m];
+			long time = 0;
+			long cost = 0;
+			for (int i = 0; i < m && time <= hmax; i++) {
+				int p = circuit[i];
+				int sp = circuit[(i + 1) % m];
+				int legTime = legTime(p, sp, v, speeds[v][s]);
+				if (legTime == INFEASIBLE) {
+					time = INFEASIBLE;
+					break;
+				}
+				legTimes[i] = legTime;
+				time += legTime;
+				cost += index.getCallCost(p, v) + (long) fuelCost[v] * consumptions[v][s] * sailingTime(p, sp, speeds[v][s]);
+			}
+			int n = time <= hmax ? nbVesselsByTime[(int) time] : -1;
+			if (n < 0 || n > available[v]) {
+				nbRejected.incrementAndGet();
+				continue;
+			}
+			store.add(new CandidateRotation(v, circuit, speeds[v][s], legTimes, n, cost));
+		}
+	}
+
+
+
+	/**
+	 * @param p a port
+	 * @param sp the next port
+	 * @param v the vessel type
+	 * @param speed the speed
+	 * @return returns the time from leaving p (after its operations) to reaching sp (T.5 and T.6), INFEASIBLE if it is not possible
+	 */
+	private int legTime(int p, int sp, int v, int speed) {
+		int sailingTime = sailingTime(p, sp, speed);
+		if (sailingTime == INFEASIBLE) {
+			return INFEASIBLE;
+		}
+		return index.getManoeuvringTimeOut(p, v) + sailingTime + index.getWaitingTime(sp, v) + index.getManoeuvringTimeIn(sp, v);
+	}
+
+
+
+	/**
+	 * @param p a port
+	 * @param sp the next port
+	 * @param speed the speed
+	 * @return returns the sailing time from p to sp at the given speed (T.8), INFEASIBLE if it is not possible
+	 */
+	private int sailingTime(int p, int sp, int speed) {
+		int sailingTime = AuxiliaryFunctions.computeSailingTime(index.getDistance(p, sp), speed, hmax);
+		return sailingTime > 0 ? sailingTime : INFEASIBLE;
+	}
+
+
+
+	/**
+	 * @return returns the statistics of the enumeration
+	 */
+	public String getStatistics() {
+		return "Enumeration: " + nbCircuits.get() + " circuits, " + nbRejected.get() + " (circuit, speed) pairs rejected by hmax or by the vessels";
+	}
+}
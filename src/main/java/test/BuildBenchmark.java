@@ -0,0 +1,138 @@
+package test;
+
+import model_v0.CargoFlowRotationSubmodel;
+import model_v0.CargoFlowSubmodel;
+import model_v0.CostSubmodel;
+import model_v0.FeatureSubmodel;
+import model_v0.LoadSubmodel;
+import model_v0.Model;
+import model_v0.ModelBuilder;
+import model_v0.ObjectiveFunction;
+import model_v0.RotationSubmodel;
+import model_v0.SymmetryBreakingSubmodel;
+import model_v0.TimeSubmodel;
+import model_v0.TransitTimeSubmodel;
+import model_v0.VesselAvailabilitySubmodel;
+import instance.CommodityAggregation;
+import instance.Instance;
+import instance.InstanceSnapshot;
+
+public class BuildBenchmark {
+
+	/** This class allows to measure the time needed to build the model (variables and constraints) without solving it */
+
+	private static double  ratioMu=0.54 ;					//the ratio which allows us to convert the number of TEU to the number of containers we have to handle,
+	private static int  hmax;								//the maximal number of hours that a rotation may last.
+	private static int nbRotations;							//the number of rotations to create
+	private static int tsmax;								//the number of transshipments
+	private static String instanceName;						//the instance filename
+	private static int speedStep=1;							//the step between two speeds
+	private static int symmetryBreakingPolicy=3;			//the number of symmetry constraints to add to the model
+	private static int  tNbv=0;								//the version of table NbVessel used
+	private static int runs=5;								//the number of measured builds
+	private static int warmup=2;							//the number of builds done before measuring
+	private static int nbModels=0;							//the number of models built sequentially then concurrently (0 to skip this measure)
+	private static boolean aggregate=false;					//true if the model of the aggregated commodities is compared with the original one
+
+
+	public static void main(String[] args) throws Exception {
+		String usage = "-i <instance filename> -h <hmax> -rot <# rotations> -ts <# transshipment> [-n <# runs>] [-w <# warmup runs>] [-p <# models built concurrently>] [-aggregate]";
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-i")) {
+				instanceName = args[i + 1];
+			} else if (args[i].equals("-h")) {
+				hmax = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-rot")) {
+				nbRotations = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-ts")) {
+				tsmax = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-n")) {
+				runs = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-w")) {
+				warmup = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-p")) {
+				nbModels = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-aggregate")) {
+				aggregate = true;
+			}
+		}
+
+		if (instanceName == null) {
+			System.out.println("Bad command line");
+			System.out.println(usage);
+			return;
+		}
+
+		Instance instance = InstanceSnapshot.load(instanceName);
+		for (int i = 0; i < warmup; i++) {
+			build(instance, null);
+		}
+
+		long[] total = new long[2];
+		for (int i = 0; i < runs; i++) {
+			long[] times = new long[2];
+			Model model = build(instance, times);
+			total[0] += times[0];
+			total[1] += times[1];
+			System.out.println("run " + (i + 1) + ": variables " + times[0] / 1000000 + " ms, constraints " + times[1] / 1000000 + " ms, "
+					+ model.getChocoModel().getNbVars() + " variables, " + model.getChocoModel().getNbCstrs() + " constraints");
+		}
+		System.out.println("average: variables " + total[0] / runs / 1000000 + " ms, constraints " + total[1] / runs / 1000000 + " ms");
+
+		if (aggregate) {
+			CommodityAggregation aggregation = new CommodityAggregation(instance);
+			System.out.println(aggregation);
+			Model original = build(instance, null);
+			Model aggregated = build(aggregation.getAggregatedInstance(), null);
+			int nbVars = original.getChocoModel().getNbVars();
+			int nbCstrs = original.getChocoModel().getNbCstrs();
+			System.out.println("aggregated: " + nbVars + " -> " + aggregated.getChocoModel().getNbVars() + " variables, "
+					+ nbCstrs + " -> " + aggregated.getChocoModel().getNbCstrs() + " constraints");
+		}
+
+		if (nbModels > 0) {
+			ModelBuilder builder = new ModelBuilder(instance, nbRotations, tsmax, hmax, ratioMu, speedStep, tNbv, symmetryBreakingPolicy, false, false);
+			long start = System.nanoTime();
+			for (int i = 0; i < nbModels; i++) {
+				builder.build();
+			}
+			long middle = System.nanoTime();
+			builder.buildAll(nbModels, Runtime.getRuntime().availableProcessors());
+			long end = System.nanoTime();
+			System.out.println(nbModels + " models: sequential " + (middle - start) / 1000000 + " ms, concurrent " + (end - middle) / 1000000 + " ms");
+		}
+	}
+
+
+
+	/**
+	 * @param instance the instance
+	 * @param times if not null, receives the time (in ns) spent to define the variables and the constraints
+	 * @return returns the built model
+	 */
+	private static Model build(Instance instance, long[] times) {
+		Model model = new Model(instance, nbRotations, tsmax, hmax, ratioMu, speedStep, tNbv, symmetryBreakingPolicy, false, false);
+		model.addSubmodel(new RotationSubmodel(model));
+		model.addSubmodel(new CargoFlowSubmodel(model));
+		model.addSubmodel(new CargoFlowRotationSubmodel(model));
+		model.addSubmodel(new FeatureSubmodel(model));
+		model.addSubmodel(new LoadSubmodel(model));
+		model.addSubmodel(new TimeSubmodel(model));
+		model.addSubmodel(new TransitTimeSubmodel(model));
+		model.addSubmodel(new VesselAvailabilitySubmodel(model));
+		model.addSubmodel(new CostSubmodel(model));
+		model.addSubmodel(new ObjectiveFunction(model));
+		model.addSubmodel(new SymmetryBreakingSubmodel(model));
+
+		long start = System.nanoTime();
+		model.addVariables();
+		long middle = System.nanoTime();
+		model.addConstraints();
+		long end = System.nanoTime();
+		if (times != null) {
+			times[0] = middle - start;
+			times[1] = end - middle;
+		}
+		return model;
+	}
+}
@@ -0,0 +1,33 @@
+/**
+ * This class allows converting a JSON instance into a binary snapshot
+ * 
+ * @version 1.0
+ *
+ * @author TNTM 6 Team
+ */
+
+package test;
+
+
+import instance.InstanceSnapshot;
+
+public class ConvertInstance{
+  public static void main(String args[]) throws Exception { 
+
+    if (args.length == 1) {
+      long time = System.currentTimeMillis();
+      String snapshot = InstanceSnapshot.convert(args[0]);
+      System.out.println(args[0]+" converted into "+snapshot+" in "+(System.currentTimeMillis()-time)+" ms");
+    }
+    else if (args.length == 2) {
+      long time = System.currentTimeMillis();
+      InstanceSnapshot.convert(args[0], args[1]);
+      System.out.println(args[0]+" converted into "+args[1]+" in "+(System.currentTimeMillis()-time)+" ms");
+    }
+    else {
+      System.out.println("Bad command line");
+      System.out.println("<instance filename> [<snapshot filename>]");
+    }
+  }
+
+}
@@ -0,0 +1,194 @@
+package test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+
+import propagators.PropProductionTime;
+
+public class PropagatorCheck {
+
+	/** This class allows to check on random domains that PropProductionTime filters T.1 as the table of tuples it replaces: both are
+	 *  propagated on the same domains (with holes, as left by the preprocessing), and the remaining domains must be equal. When a
+	 *  successor is given, s_rp must be set to p exactly when no tuple of the table remains. */
+
+	private static int runs=100000;							//the number of random checks
+	private static long seed=42;							//the seed of the random generator
+	private static int ratioMu=54;							//the ratio between TEU and containers, multiplied by 100
+
+
+	public static void main(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-n")) {
+				runs = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-seed")) {
+				seed = Long.parseLong(args[i + 1]);
+			}
+		}
+
+		Random random = new Random(seed);
+		int nbErrors = 0;
+		for (int run = 0; run < runs; run++) {
+			String error = check(random);
+			if (error != null) {
+				if (nbErrors < 10) {
+					System.out.println("run " + run + ": " + error);
+				}
+				nbErrors++;
+			}
+		}
+		System.out.println(runs + " random checks, " + nbErrors + " differences");
+	}
+
+
+
+	/**
+	 * propagates the table and the propagator on the same random domains
+	 * @param random the random generator
+	 * @return returns a description of the difference, null if the filterings are equal
+	 */
+	private static String check(Random random) {
+		int nbVessels = 1 + random.nextInt(4);
+		int maxLoad = 10 + random.nextInt(200);
+		long[] loads = new long[(maxLoad >>> 6) + 1];
+		for (int teu = 0; teu <= maxLoad; teu++) {
+			if (teu == 0 || random.nextInt(3) == 0) {
+				loads[teu >>> 6] |= 1L << teu;
+			}
+		}
+		int[] productivities = new int[nbVessels];
+		int[] capacities = new int[nbVessels];
+		for (int v = 0; v < nbVessels; v++) {
+			productivities[v] = 1 + random.nextInt(3);
+			capacities[v] = 5 + random.nextInt(maxLoad / 2);
+		}
+		int maxTime = (int) ((long) ratioMu * maxLoad / 100) + 1;
+		int[] loadDomain = randomDomain(random, 0, maxLoad);
+		int[] vesselDomain = randomDomain(random, 0, nbVessels);
+		int[] timeDomain = randomDomain(random, 0, maxTime);
+		int port = 0;
+		int[] successorDomain = random.nextBoolean() ? null : randomDomain(random, 0, 1);
+
+		//the table, as posted before PropProductionTime
+		Tuples tuples = new Tuples(true);
+		tuples.setUniversalValue(-10);
+		tuples.add(0, tuples.getStarValue(), 0);
+		for (int v = 0; v < nbVessels; v++) {
+			for (int teu = 0; teu <= maxLoad; teu++) {
+				if ((loads[teu >>> 6] & (1L << teu)) != 0 && teu <= 2 * capacities[v]) {
+					tuples.add(teu, v + 1, (ratioMu * teu) / (productivities[v] * 100));
+				}
+			}
+		}
+
+		Model table = new Model();
+		IntVar[] tableVars = {table.intVar("teu", loadDomain), table.intVar("v", vesselDomain), table.intVar("t", timeDomain)};
+		Model propagator = new Model();
+		IntVar[] propagatorVars = {propagator.intVar("teu", loadDomain), propagator.intVar("v", vesselDomain), propagator.intVar("t", timeDomain)};
+		IntVar successor = successorDomain == null ? null : propagator.intVar("s", successorDomain);
+		new Constraint("PRODUCTION_TIME", new PropProductionTime(propagatorVars[0], propagatorVars[1], propagatorVars[2], successor, port, loads,
+				productivities, capacities, ratioMu)).post();
+
+		if (successor != null && successor.contains(port)) {
+			//the table only holds if s_rp != p: s_rp must be set to p if and only if the table has no tuple left
+			boolean supported = hasTuple(tuples, loadDomain, vesselDomain, timeDomain);
+			boolean forced = propagate(propagator) && successor.isInstantiatedTo(port) && successorDomain.length > 1;
+			if (successorDomain.length > 1 && supported == forced) {
+				return "s_rp " + (forced ? "forced" : "not forced") + " on " + describe(loadDomain, vesselDomain, timeDomain);
+			}
+			return null;
+		}
+		table.table(tableVars, tuples, "CT+").post();
+		boolean tableConsistent = propagate(table);
+		boolean propagatorConsistent = propagate(propagator);
+		if (tableConsistent != propagatorConsistent) {
+			return "table " + (tableConsistent ? "consistent" : "failed") + ", propagator " + (propagatorConsistent ? "consistent" : "failed")
+					+ " on " + describe(loadDomain, vesselDomain, timeDomain);
+		}
+		if (tableConsistent) {
+			for (int i = 0; i < 3; i++) {
+				if (!Arrays.equals(values(tableVars[i]), values(propagatorVars[i]))) {
+					return tableVars[i].getName() + ": table " + Arrays.toString(values(tableVars[i])) + ", propagator "
+							+ Arrays.toString(values(propagatorVars[i])) + " on " + describe(loadDomain, vesselDomain, timeDomain);
+				}
+			}
+		}
+		return null;
+	}
+
+
+
+	/**
+	 * @param random the random generator
+	 * @param min the smallest value
+	 * @param max the largest value
+	 * @return returns a random non-empty subset of [min, max], with holes
+	 */
+	private static int[] randomDomain(Random random, int min, int max) {
+		int[] domain = IntStream.rangeClosed(min, max).filter(value -> random.nextInt(3) != 0).toArray();
+		return domain.length > 0 ? domain : new int[] {min + random.nextInt(max - min + 1)};
+	}
+
+
+
+	/**
+	 * @param model a model
+	 * @return returns false if the propagation of its constraints fails
+	 */
+	private static boolean propagate(Model model) {
+		try {
+			model.getSolver().propagate();
+			return true;
+		} catch (ContradictionException e) {
+			return false;
+		}
+	}
+
+
+
+	/**
+	 * @param tuples the table
+	 * @param loads the domain of teu_pr
+	 * @param vessels the domain of v_r
+	 * @param times the domain of t_pr
+	 * @return returns true if a tuple of the table lies within the domains
+	 */
+	private static boolean hasTuple(Tuples tuples, int[] loads, int[] vessels, int[] times) {
+		for (int i = 0; i < tuples.nbTuples(); i++) {
+			int[] tuple = tuples.get(i);
+			if (Arrays.binarySearch(loads, tuple[0]) >= 0 && (tuple[1] == tuples.getStarValue() || Arrays.binarySearch(vessels, tuple[1]) >= 0)
+					&& Arrays.binarySearch(times, tuple[2]) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	/**
+	 * @param var a variable
+	 * @return returns the values of its domain
+	 */
+	private static int[] values(IntVar var) {
+		return IntStream.iterate(var.getLB(), value -> value <= var.getUB(), var::nextValue).toArray();
+	}
+
+
+
+	/**
+	 * @param loads the domain of teu_pr
+	 * @param vessels the domain of v_r
+	 * @param times the domain of t_pr
+	 * @return returns a description of the domains
+	 */
+	private static String describe(int[] loads, int[] vessels, int[] times) {
+		return "teu " + Arrays.toString(loads) + ", v " + Arrays.toString(vessels) + ", t " + Arrays.toString(times);
+	}
+}
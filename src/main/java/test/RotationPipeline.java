@@ -0,0 +1,103 @@
+package test;
+
+import java.io.File;
+
+import heuristic.CargoFlowEvaluator;
+import heuristic.RotationPlan;
+import heuristic.WarmStart;
+import instance.Instance;
+import instance.InstanceSnapshot;
+import model_v0.ModelBuilder;
+import rotations.CandidateStore;
+import rotations.MasterModel;
+import rotations.RotationEnumerator;
+
+public class RotationPipeline {
+
+	/** This class allows to build a network by enumerating the rotations of each vessel type, then selecting some of them with the
+	 *  master model, and to check the network on the full model */
+
+	private static double  ratioMu=0.54 ;					//the ratio which allows us to convert the number of TEU to the number of containers we have to handle,
+	private static int  hmax;								//the maximal number of hours that a rotation may last.
+	private static int nbRotations;							//the number of rotations to create
+	private static int tsmax;								//the number of transshipments
+	private static String instanceName;						//the instance filename
+	private static int speedStep=1;							//the step between two speeds
+	private static int symmetryBreakingPolicy=3;			//the number of symmetry constraints to add to the model
+	private static int  tNbv=0;								//the version of table NbVessel used
+	private static int t=60;								//the time limit of the master model, in seconds
+	private static int maxPorts=4;							//the maximal number of ports of an enumerated rotation
+	private static int maxColumns=2000;						//the maximal number of rotations kept in the master model
+	private static int nbThreads=Runtime.getRuntime().availableProcessors();	//the number of threads of the enumeration
+	private static int maxInMemory=1000000;					//the maximal number of rotations kept in memory before spilling to disk
+	private static String spillDirectory;					//the directory of the spilled rotations, null for the temporary directory
+
+
+	public static void main(String[] args) throws Exception {
+		String usage = "-i <instance filename> -h <hmax> -rot <# rotations> -ts <# transshipment> [-t <time limit>] [-maxPorts <# ports>] [-columns <# columns>] [-threads <# threads>] [-spill <# rotations in memory>] [-dir <spill directory>]";
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-i")) {
+				instanceName = args[i + 1];
+			} else if (args[i].equals("-h")) {
+				hmax = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-rot")) {
+				nbRotations = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-ts")) {
+				tsmax = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-t")) {
+				t = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-maxPorts")) {
+				maxPorts = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-columns")) {
+				maxColumns = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-threads")) {
+				nbThreads = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-spill")) {
+				maxInMemory = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-dir")) {
+				spillDirectory = args[i + 1];
+			}
+		}
+
+		if (instanceName == null) {
+			System.out.println("Bad command line");
+			System.out.println(usage);
+			return;
+		}
+
+		Instance instance = InstanceSnapshot.load(instanceName);
+		CandidateStore store = new CandidateStore(maxInMemory, 0.1, spillDirectory == null ? null : new File(spillDirectory));
+		try {
+			long start = System.currentTimeMillis();
+			RotationEnumerator enumerator = new RotationEnumerator(instance, hmax, speedStep, tNbv, maxPorts);
+			enumerator.enumerate(store, nbThreads);
+			System.out.println(enumerator.getStatistics() + " in " + (System.currentTimeMillis() - start) + " ms");
+			System.out.println(store.getStatistics());
+
+			start = System.currentTimeMillis();
+			MasterModel master = new MasterModel(instance, store, nbRotations, tsmax, hmax, ratioMu, tNbv, maxColumns);
+			System.out.println("Master model built in " + (System.currentTimeMillis() - start) + " ms");
+			master.solve(t * 1000L);
+			System.out.println(master.getStatistics());
+
+			RotationPlan plan = master.toPlan();
+			if (plan == null || plan.getNbUsedRotations() == 0) {
+				System.out.println("No network found");
+				return;
+			}
+			System.out.println("Master network: " + plan.getNbUsedRotations() + " rotations, " + plan.getNbAcceptedCommodities()
+					+ " commodities, estimated objective " + plan.getObjective());
+			start = System.currentTimeMillis();
+			RotationPlan routed = new CargoFlowEvaluator(instance, tsmax, hmax, ratioMu, tNbv).evaluateExact(plan);
+			if (routed != null && routed.getObjective() > plan.getObjective()) {
+				System.out.println("Master network re-routed, estimated objective " + routed.getObjective() + " in " + (System.currentTimeMillis() - start) + " ms");
+				plan = routed;
+			}
+			ModelBuilder builder = new ModelBuilder(instance, nbRotations, tsmax, hmax, ratioMu, speedStep, tNbv, symmetryBreakingPolicy, false, false);
+			boolean verified = WarmStart.verify(builder, plan, 10000);
+			System.out.println(verified ? "Master network verified, objective " + plan.getObjective() : "Master network not verified");
+		} finally {
+			store.clear();
+		}
+	}
+}
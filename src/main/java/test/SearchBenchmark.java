@@ -0,0 +1,75 @@
+package test;
+
+import org.chocosolver.solver.Solver;
+
+import model_v0.Model;
+import model_v0.ModelBuilder;
+import model_v0.SearchStrategyFactory;
+import instance.Instance;
+import instance.InstanceSnapshot;
+
+public class SearchBenchmark {
+
+	/** This class allows to compare search strategies on an instance: for each strategy, it reports the time needed to find the first
+	 *  solution, the best objective found within the time limit and whether the optimality is proved */
+
+	private static double  ratioMu=0.54 ;					//the ratio which allows us to convert the number of TEU to the number of containers we have to handle,
+	private static int  hmax;								//the maximal number of hours that a rotation may last.
+	private static int nbRotations;							//the number of rotations to create
+	private static int tsmax;								//the number of transshipments
+	private static String instanceName;						//the instance filename
+	private static int speedStep=1;							//the step between two speeds
+	private static int symmetryBreakingPolicy=3;			//the number of symmetry constraints to add to the model
+	private static int  tNbv=0;								//the version of table NbVessel used
+	private static int t=60;								//the time limit (in seconds) for each strategy
+	private static String[] searches= {"default", "lsndp"};	//the compared search strategies
+
+
+	public static void main(String[] args) throws Exception {
+		String usage = "-i <instance filename> -h <hmax> -rot <# rotations> -ts <# transshipment> [-t <time limit>] [-search <name,name,...>]";
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-i")) {
+				instanceName = args[i + 1];
+			} else if (args[i].equals("-h")) {
+				hmax = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-rot")) {
+				nbRotations = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-ts")) {
+				tsmax = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-t")) {
+				t = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-search")) {
+				searches = args[i + 1].split(",");
+			}
+		}
+
+		if (instanceName == null) {
+			System.out.println("Bad command line");
+			System.out.println(usage);
+			return;
+		}
+
+		Instance instance = InstanceSnapshot.load(instanceName);
+		ModelBuilder builder = new ModelBuilder(instance, nbRotations, tsmax, hmax, ratioMu, speedStep, tNbv, symmetryBreakingPolicy, false, false);
+		for (String search : searches) {
+			Model model = builder.build();
+			SearchStrategyFactory.of(search).apply(model);
+			Solver solver = model.getChocoModel().getSolver();
+			solver.limitTime(t * 1000L);
+
+			long start = System.currentTimeMillis();
+			long first = -1;
+			while (solver.solve()) {
+				if (first < 0) {
+					first = System.currentTimeMillis() - start;
+				}
+			}
+			long total = System.currentTimeMillis() - start;
+			System.out.println(search + ": first solution " + (first < 0 ? "none" : first + " ms") + ", "
+					+ solver.getSolutionCount() + " solutions, best objective "
+					+ (solver.getSolutionCount() > 0 ? solver.getObjectiveManager().getBestSolutionValue() : "none") + ", "
+					+ (solver.isStopCriterionMet() ? "time limit reached" : "optimality proved") + " in " + total + " ms, "
+					+ solver.getNodeCount() + " nodes");
+		}
+	}
+}
@@ -1,25 +1,25 @@
 package test;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.chocosolver.solver.Solution;
 import org.chocosolver.solver.search.strategy.Search;
 
-import model_v0.CargoFlowSubmodel;
-import model_v0.FeatureSubmodel;
-import model_v0.LoadSubmodel;
 import model_v0.Model;
-import model_v0.ObjectiveFunction;
+import model_v0.ModelBuilder;
+import model_v0.SearchStrategyFactory;
+import model_v0.SolutionLoader;
+import heuristic.CargoFlowEvaluator;
+import heuristic.GreedyNetworkBuilder;
+import heuristic.RotationPlan;
+import heuristic.WarmStart;
+import lns.AdaptiveNeighborSelector;
+import lns.LnsSearch;
 import model_v0.AuxiliaryFunctions;
-import model_v0.CargoFlowRotationSubmodel;
-import model_v0.CostSubmodel;
-import model_v0.RotationSubmodel;
-import model_v0.SymmetryBreakingSubmodel;
-import model_v0.TimeSubmodel;
-import model_v0.TransitTimeSubmodel;
-import model_v0.VesselAvailabilitySubmodel;
+import model_v0.CheckpointService;
 import instance.Instance;
-import instance.InstanceReader;
+import instance.InstanceSnapshot;
 
 public class Test {
 
@@ -35,10 +35,17 @@ public class Test {
 	private static boolean saveResult=false;				//save the result to a file if true 
 	private static int  tNbv=0;								//the version of table NbVessel used
 	private static int t=7200;							    //lLimited runtime		
+	private static String search="lsndp";					//the search strategy (see SearchStrategyFactory)
+	private static boolean lns=false;						//true if the model is solved by Large Neighbourhood Search
+	private static boolean greedy=false;					//true if the search starts from the network built by the greedy heuristic
+	private static boolean aggregate=false;					//true if the commodities with the same origin, destination and nature are aggregated
+	private static String load;								//the solution file from which the search starts, null if none
+	private static String checkpoint;						//the file in which each improving solution is written, null if none
+	private static boolean resume=false;					//true if the search starts from the checkpoint file, if it exists
 
 
 	public static void main(String[] args) throws IOException, Exception {
-	   String usage = "-i <instance filename> -h<hmax> -r <mu parameter> -rot <# rotations> -s <symmetry breaking policy> [-ss <speed step>] -ts <# transshipment> -tNbv<tableNbVessel> ";
+	   String usage = "-i <instance filename> -h<hmax> -r <mu parameter> -rot <# rotations> -s <symmetry breaking policy> [-ss <speed step>] -ts <# transshipment> -tNbv<tableNbVessel> [-search <default|lsndp>] [-lns] [-greedy] [-aggregate] [-load <solution filename>] [-checkpoint <checkpoint filename> [-resume]]";
         for (int i = 0; i < args.length; i++) {
         	
             if(args[i].equals("-i")){
@@ -65,42 +72,64 @@ public class Test {
 	            	                	tNbv= Integer.parseInt(args[i + 1]);
 	            					}else if(args[i].equals("-t")) {
 	            	                	t= Integer.parseInt(args[i + 1]);
+	            					}else if(args[i].equals("-search")) {
+	            	                	search= args[i + 1];
+	            					}else if(args[i].equals("-lns")) {
+	            	                	lns= true;
+	            					}else if(args[i].equals("-greedy")) {
+	            	                	greedy= true;
+	            					}else if(args[i].equals("-aggregate")) {
+	            	                	aggregate= true;
+	            					}else if(args[i].equals("-load")) {
+	            	                	load= args[i + 1];
+	            					}else if(args[i].equals("-checkpoint")) {
+	            	                	checkpoint= args[i + 1];
+	            					}else if(args[i].equals("-resume")) {
+	            	                	resume= true;
 	            					}
 
         }
 
 		
 		 if (args.length >= 4) {
-		    InstanceReader instanceReader;
-		    instanceReader = new InstanceReader (instanceName);
-		    Instance instance=instanceReader.getInstance();
-		    Model model=new Model(instance,nbRotations, tsmax,hmax, ratioMu,speedStep,tNbv, symmetryBreakingPolicy,withRefinedDomains, allowedIfConstraint);
-		    RotationSubmodel rotationSubmodel = new RotationSubmodel(model);
-		    CargoFlowSubmodel cargoFlowSubmodel= new CargoFlowSubmodel(model);
-		    CargoFlowRotationSubmodel cargoFlowRotationSubmodel= new CargoFlowRotationSubmodel(model);
-		    FeatureSubmodel featureSubmodel= new FeatureSubmodel(model);
-		    LoadSubmodel loadSubmodel= new LoadSubmodel(model);
-		    TimeSubmodel timeSubmodel= new TimeSubmodel(model);
-		    TransitTimeSubmodel transitTimeSubmodel= new TransitTimeSubmodel(model);
-		    VesselAvailabilitySubmodel vesselAvailabilitySubmodel=new VesselAvailabilitySubmodel(model);
-		    CostSubmodel costSubmodel= new CostSubmodel(model);
-	        ObjectiveFunction objectiveFunction=new ObjectiveFunction(model);
-		    SymmetryBreakingSubmodel symmetryBreakingSubmodel= new SymmetryBreakingSubmodel(model);
-
-		    model.addSubmodel(rotationSubmodel);
-		    model.addSubmodel(cargoFlowSubmodel);
-		    model.addSubmodel(cargoFlowRotationSubmodel);
-		    model.addSubmodel(featureSubmodel);
-		    model.addSubmodel(loadSubmodel);
-		    model.addSubmodel(timeSubmodel);
-		    model.addSubmodel(transitTimeSubmodel);
-		    model.addSubmodel(vesselAvailabilitySubmodel);
-		    model.addSubmodel(costSubmodel);
-			model.addSubmodel(objectiveFunction);
-		    model.addSubmodel(symmetryBreakingSubmodel);
-
-		    model.addVariables();
-		    model.addConstraints();
+		    Instance instance=InstanceSnapshot.load(instanceName);
+		    ModelBuilder builder=new ModelBuilder(instance,nbRotations, tsmax,hmax, ratioMu,speedStep,tNbv, symmetryBreakingPolicy,withRefinedDomains, allowedIfConstraint);
+		    if(aggregate) {
+		        System.out.println(builder.aggregateCommodities());
+		    }
+		    Model model=builder.build();
+		    System.out.println(model.getPreprocessor());
+		    SearchStrategyFactory.of(search).apply(model);
+		    AdaptiveNeighborSelector neighbors=lns ? LnsSearch.configure(model, 0, 1000) : null;
+		    if(greedy) {
+		        long start = System.currentTimeMillis();
+		        RotationPlan plan=new GreedyNetworkBuilder(builder.getInstance(), nbRotations, tsmax, hmax, ratioMu, speedStep, tNbv).build();
+		        System.out.println("Greedy network: "+plan.getNbUsedRotations()+" rotations, "+plan.getNbAcceptedCommodities()+" commodities, estimated objective "+plan.getObjective()+" in "+(System.currentTimeMillis()-start)+" ms");
+		        start = System.currentTimeMillis();
+		        RotationPlan routed=new CargoFlowEvaluator(builder.getInstance(), tsmax, hmax, ratioMu, tNbv).evaluateExact(plan);
+		        if(routed!=null && routed.getObjective()>plan.getObjective()) {
+		        	System.out.println("Greedy network re-routed, estimated objective "+routed.getObjective()+" in "+(System.currentTimeMillis()-start)+" ms");
+		        	plan=routed;
+		        }
+		        boolean verified=plan.getNbUsedRotations()>0 && WarmStart.verify(builder, plan, 10000);
+		        System.out.println(verified ? "Greedy network verified, objective "+plan.getObjective() : "Greedy network not verified, used as hints only");
+		        WarmStart.apply(model, plan, verified);
+		    }
+		    if(load!=null) {
+		        SolutionLoader loader=new SolutionLoader(load);
+		        int nbHints=loader.apply(model);
+		        System.out.println("Solution loaded from "+load+": objective "+loader.getObjective()+", "+nbHints+" hints, searching from it");
+		    }
+		    CheckpointService checkpoints=null;
+		    if(checkpoint!=null) {
+		        checkpoints=new CheckpointService(model, checkpoint);
+		        if(resume && new File(checkpoint).exists()) {
+		            SolutionLoader loader=new SolutionLoader(checkpoint);
+		            int nbHints=checkpoints.resume(loader);
+		            System.out.println("Resumed from "+checkpoint+": objective "+loader.getObjective()+", "+nbHints+" hints, searching from it");
+		        }
+		        checkpoints.install();
+		    }
 		    
 		    //limited runtime
 		    model.getChocoModel().getSolver().limitTime(t*1000);
@@ -123,11 +152,18 @@ public class Test {
 			  
 		        // print solver runtime
 		        int runtime = (int)((System.currentTimeMillis()-time)/1000);
+		        if(checkpoints!=null) {
+		            System.out.println(checkpoints.getNbCheckpoints()+" solutions written in "+checkpoint+(checkpoints.isStopRequested() ? ", search stopped by a shutdown request" : ""));
+		            checkpoints.finish(!model.getChocoModel().getSolver().isStopCriterionMet());
+		        }
 		        if(runtime < t) {
 		            System.out.println("Optimality proved in " + runtime + "s");
 		        }else{
 		            System.out.println(t+"s timeout reached");
 		        }
+		        if(neighbors!=null) {
+		            System.out.print(neighbors.getStatistics());
+		        }
 		 }else {
 			 System.out.println("Bad command line");
 			 System.out.println(usage);
@@ -1,25 +1,19 @@
 package test;
 
 import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.chocosolver.solver.ParallelPortfolio;
 import org.chocosolver.solver.trace.IOutputFactory;
 
-import model_v0.CargoFlowSubmodel;
-import model_v0.FeatureSubmodel;
-import model_v0.LoadSubmodel;
 import model_v0.Model;
-import model_v0.ObjectiveFunction;
+import model_v0.ModelBuilder;
+import model_v0.PortfolioConfiguration;
 import model_v0.AuxiliaryFunctions;
-import model_v0.CargoFlowRotationSubmodel;
-import model_v0.CostSubmodel;
-import model_v0.RotationSubmodel;
-import model_v0.SymmetryBreakingSubmodel;
-import model_v0.TimeSubmodel;
-import model_v0.TransitTimeSubmodel;
-import model_v0.VesselAvailabilitySubmodel;
 import instance.Instance;
-import instance.InstanceReader;
+import instance.InstanceSnapshot;
 
 public class Test2 {
 
@@ -35,10 +29,11 @@ public class Test2 {
 	private static boolean saveResult=false;				//save the result to a file if true 
 	private static int  tNbv=0;								//the version of table NbVessel used
 	private static int t=7200;							    //lLimited runtime		
+	private static int nbModels=16;							//the number of workers of the portfolio
 
 
 	public static void main(String[] args) throws IOException, Exception {
-	   String usage = "-i <instance filename> -h<hmax> -r <mu parameter> -rot <# rotations> -s <symmetry breaking policy> [-ss <speed step>] -ts <# transshipment> -tNbv<tableNbVessel> ";
+	   String usage = "-i <instance filename> -h<hmax> -r <mu parameter> -rot <# rotations> -s <symmetry breaking policy> [-ss <speed step>] -ts <# transshipment> -tNbv<tableNbVessel> [-t <time limit>] [-n <# workers>]";
         for (int i = 0; i < args.length; i++) {
         	
             if(args[i].equals("-i")){
@@ -65,6 +60,8 @@ public class Test2 {
 	            	                	tNbv= Integer.parseInt(args[i + 1]);
 	            					}else if(args[i].equals("-t")) {
 	            	                	t= Integer.parseInt(args[i + 1]);
+	            					}else if(args[i].equals("-n")) {
+	            	                	nbModels= Integer.parseInt(args[i + 1]);
 	            					}
 
         }
@@ -84,20 +81,32 @@ public class Test2 {
     private static void solve() throws IOException, Exception{
         // solving
         long time = System.currentTimeMillis();
-        ParallelPortfolio portfolio = new ParallelPortfolio();
-        int nbModels = 16;
-        for(int s=0;s<nbModels;s++){
-            portfolio.addModel(buildModel());
+        // the search of each worker is set by its configuration, so the portfolio must not override it
+        ParallelPortfolio portfolio = new ParallelPortfolio(false);
+        Instance instance=InstanceSnapshot.load(instanceName);
+        ModelBuilder builder=new ModelBuilder(instance,nbRotations, tsmax,hmax, ratioMu,speedStep,tNbv, symmetryBreakingPolicy,withRefinedDomains, allowedIfConstraint);
+        List<PortfolioConfiguration> configurations=PortfolioConfiguration.diversified(nbModels);
+        // the models are built concurrently, they share the instance and its derived tables
+        List<Model> models=builder.buildAll(configurations, Runtime.getRuntime().availableProcessors());
+        Map<org.chocosolver.solver.Model, Integer> workers=new IdentityHashMap<>();
+        for(int w=0;w<models.size();w++){
+            workers.put(models.get(w).getChocoModel(), w);
+            models.get(w).getChocoModel().getSolver().limitTime(t*1000);
+            portfolio.addModel(models.get(w).getChocoModel());
         }
-     //  portfolio.getBestModel().getSolver().limitTime(t*1000);
        
         while (portfolio.solve()){
-            //System.out.println("Solution found (objective = "+portfolio.getBestModel().getSolver().getBestSolutionValue()+")");				
-        	portfolio.getBestModel().getSolver().printStatistics();
+            org.chocosolver.solver.Model best=portfolio.getBestModel();
+            int w=workers.get(best);
+        	best.getSolver().printStatistics();
         	
-            System.out.println(portfolio.getBestModel().getSolver().getObjectiveManager().getObjective());
+            System.out.println(best.getSolver().getObjectiveManager().getObjective()+" found by worker "+w+" ("+configurations.get(w)+")");
 
         }
+        // the number of solutions found by each worker
+        for(int w=0;w<models.size();w++){
+            System.out.println("worker "+w+" ("+configurations.get(w)+"): "+models.get(w).getChocoModel().getSolver().getSolutionCount()+" solutions");
+        }
         // print solver runtime
         int runtime = (int)((System.currentTimeMillis()-time)/1000);
         if(runtime < t) {
@@ -107,43 +116,4 @@ public class Test2 {
         }
         
     }
-    private static org.chocosolver.solver.Model buildModel() throws IOException, Exception {        
-	    InstanceReader instanceReader;
-	    instanceReader = new InstanceReader (instanceName);
-	    Instance instance=instanceReader.getInstance();
-	    Model model=new Model(instance,nbRotations, tsmax,hmax, ratioMu,speedStep,tNbv, symmetryBreakingPolicy,withRefinedDomains, allowedIfConstraint);
-	    RotationSubmodel rotationSubmodel = new RotationSubmodel(model);
-	    CargoFlowSubmodel cargoFlowSubmodel= new CargoFlowSubmodel(model);
-	    CargoFlowRotationSubmodel cargoFlowRotationSubmodel= new CargoFlowRotationSubmodel(model);
-	    FeatureSubmodel featureSubmodel= new FeatureSubmodel(model);
-	    LoadSubmodel loadSubmodel= new LoadSubmodel(model);
-	    TimeSubmodel timeSubmodel= new TimeSubmodel(model);
-	    TransitTimeSubmodel transitTimeSubmodel= new TransitTimeSubmodel(model);
-	    VesselAvailabilitySubmodel vesselAvailabilitySubmodel=new VesselAvailabilitySubmodel(model);
-	    CostSubmodel costSubmodel= new CostSubmodel(model);
-        ObjectiveFunction objectiveFunction=new ObjectiveFunction(model);
-	    SymmetryBreakingSubmodel symmetryBreakingSubmodel= new SymmetryBreakingSubmodel(model);
-
-	    model.addSubmodel(rotationSubmodel);
-	    model.addSubmodel(cargoFlowSubmodel);
-	    model.addSubmodel(cargoFlowRotationSubmodel);
-	    model.addSubmodel(featureSubmodel);
-	    model.addSubmodel(loadSubmodel);
-	    model.addSubmodel(timeSubmodel);
-	    model.addSubmodel(transitTimeSubmodel);
-	    model.addSubmodel(vesselAvailabilitySubmodel);
-	    model.addSubmodel(costSubmodel);
-		model.addSubmodel(objectiveFunction);
-	    model.addSubmodel(symmetryBreakingSubmodel);
-
-	    model.addVariables();
-	    model.addConstraints();
-    	
-    	
-    	
-    	return model.getChocoModel();
-    }
-    
-    
-    
 }
\ No newline at end of file
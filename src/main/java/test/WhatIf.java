@@ -0,0 +1,97 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import heuristic.RotationPlan;
+import heuristic.WhatIfSession;
+import instance.InstanceSnapshot;
+import model_v0.ModelBuilder;
+import model_v0.SearchStrategyFactory;
+
+public class WhatIf {
+
+	/** This class allows to solve an instance, then to solve it again after changing the demand or the revenue of some commodities or
+	 *  the number of available vessels, with the same what-if session */
+
+	private static double  ratioMu=0.54 ;					//the ratio which allows us to convert the number of TEU to the number of containers we have to handle,
+	private static int  hmax;								//the maximal number of hours that a rotation may last.
+	private static int nbRotations;							//the number of rotations to create
+	private static int tsmax;								//the number of transshipments
+	private static String instanceName;						//the instance filename
+	private static int speedStep=1;							//the step between two speeds
+	private static int symmetryBreakingPolicy=3;			//the number of symmetry constraints to add to the model
+	private static int  tNbv=0;								//the version of table NbVessel used
+	private static int t=60;								//the time limit of each solve, in seconds
+	private static String search="lsndp";					//the search strategy (see SearchStrategyFactory)
+	private static List<int[]> changes=new ArrayList<>();	//the changes: kind (0 demand, 1 revenue, 2 vessels), commodity or vessel type, value
+
+
+	public static void main(String[] args) throws Exception {
+		String usage = "-i <instance filename> -h <hmax> -rot <# rotations> -ts <# transshipment> [-t <time limit>] [-search <default|lsndp>] [-demand <commodity> <TEU>]* [-revenue <commodity> <revenue>]* [-vessels <vessel type> <number>]*";
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-i")) {
+				instanceName = args[i + 1];
+			} else if (args[i].equals("-h")) {
+				hmax = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-rot")) {
+				nbRotations = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-ts")) {
+				tsmax = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-t")) {
+				t = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("-search")) {
+				search = args[i + 1];
+			} else if (args[i].equals("-demand")) {
+				changes.add(new int[] {0, Integer.parseInt(args[i + 1]), Integer.parseInt(args[i + 2])});
+			} else if (args[i].equals("-revenue")) {
+				changes.add(new int[] {1, Integer.parseInt(args[i + 1]), Integer.parseInt(args[i + 2])});
+			} else if (args[i].equals("-vessels")) {
+				changes.add(new int[] {2, Integer.parseInt(args[i + 1]), Integer.parseInt(args[i + 2])});
+			}
+		}
+
+		if (instanceName == null) {
+			System.out.println("Bad command line");
+			System.out.println(usage);
+			return;
+		}
+
+		ModelBuilder builder = new ModelBuilder(InstanceSnapshot.load(instanceName), nbRotations, tsmax, hmax, ratioMu, speedStep, tNbv, symmetryBreakingPolicy, false, false);
+		WhatIfSession session = new WhatIfSession(builder, SearchStrategyFactory.of(search));
+		System.out.println("Model built in " + session.getBuildTime() + " ms");
+		solve(session, "Initial");
+
+		for (int[] change : changes) {
+			if (change[0] == 0) {
+				session.setDemand(change[1], change[2]);
+			} else if (change[0] == 1) {
+				session.setRevenue(change[1], change[2]);
+			} else {
+				session.setVesselNumber(change[1], change[2]);
+			}
+		}
+		solve(session, "What-if");
+		System.out.println(session.getNbBuilds() + " models built in " + session.getBuildTime() + " ms");
+	}
+
+
+
+	/**
+	 * solves the model of the session and prints its result
+	 * @param session the session
+	 * @param label the label of the solve
+	 * @throws Exception if the changed instance is not correct
+	 */
+	private static void solve(WhatIfSession session, String label) throws Exception {
+		long start = System.currentTimeMillis();
+		RotationPlan plan = session.solve(t * 1000L);
+		long time = System.currentTimeMillis() - start;
+		if (plan == null) {
+			System.out.println(label + " solve: no network found in " + time + " ms");
+		} else {
+			System.out.println(label + " solve: objective " + plan.getObjective() + (session.isOptimal() ? " (optimal)" : "") + ", "
+					+ plan.getNbUsedRotations() + " rotations, " + plan.getNbAcceptedCommodities() + " commodities in " + time + " ms");
+		}
+	}
+}